@@ -123,7 +123,7 @@ public interface Function extends Serializable {
 		@Override
 		public Expression derivative(final Expression arg, final String varName) {
 			if (arg.isFunctionOf(varName)) {
-				final Expression exponent = new SymbolicResult(arg, new Value(2), Operation.POWER);
+				final Expression exponent = new SymbolicResult(arg, Value.TWO, Operation.POWER);
 				final Expression inverse = new SymbolicResult(Value.ONE, exponent, Operation.DIVIDE);
 				return new SymbolicResult(arg.derivative(varName), inverse, Operation.MULTIPLY);
 			} else {
@@ -155,9 +155,9 @@ public interface Function extends Serializable {
 		@Override
 		public Expression derivative(final Expression arg, final String varName) {
 			if (arg.isFunctionOf(varName)) {
-				final Expression argSqr = new SymbolicResult(arg, new Value(2), Operation.POWER);
+				final Expression argSqr = new SymbolicResult(arg, Value.TWO, Operation.POWER);
 				final Expression oneMinusArgSqr = new SymbolicResult(Value.ONE, argSqr, Operation.SUBTRACT);
-				final Expression sqrt = new SymbolicResult(oneMinusArgSqr, new Value(-0.5), Operation.POWER);
+				final Expression sqrt = new SymbolicResult(oneMinusArgSqr, Value.of(-0.5), Operation.POWER);
 				
 				return new SymbolicResult(arg.derivative(varName), sqrt, Operation.MULTIPLY);
 			} else {
@@ -189,9 +189,9 @@ public interface Function extends Serializable {
 		@Override
 		public Expression derivative(final Expression arg, final String varName) {
 			if (arg.isFunctionOf(varName)) {
-				final Expression argSqr = new SymbolicResult(arg, new Value(2), Operation.POWER);
+				final Expression argSqr = new SymbolicResult(arg, Value.TWO, Operation.POWER);
 				final Expression oneMinusArgSqr = new SymbolicResult(Value.ONE, argSqr, Operation.SUBTRACT);
-				final Expression sqrt = new SymbolicResult(oneMinusArgSqr, new Value(-0.5), Operation.POWER);
+				final Expression sqrt = new SymbolicResult(oneMinusArgSqr, Value.of(-0.5), Operation.POWER);
 				final Expression term = new SymbolicResult(Value.NEG_ONE, sqrt, Operation.MULTIPLY);
 				
 				return new SymbolicResult(arg.derivative(varName), term, Operation.MULTIPLY);
@@ -224,7 +224,7 @@ public interface Function extends Serializable {
 		@Override
 		public Expression derivative(final Expression arg, final String varName) {
 			if (arg.isFunctionOf(varName)) {
-				final Expression argSqr = new SymbolicResult(arg, new Value(2), Operation.POWER);
+				final Expression argSqr = new SymbolicResult(arg, Value.TWO, Operation.POWER);
 				final Expression onePlusArgSqr = new SymbolicResult(Value.ONE, argSqr, Operation.ADD);
 				final Expression inverse = new SymbolicResult(Value.ONE, onePlusArgSqr, Operation.DIVIDE);
 				
@@ -323,7 +323,7 @@ public interface Function extends Serializable {
 		public Expression derivative(final Expression arg, final String varName) {
 			if (arg.isFunctionOf(varName)) {
 				final Expression tanh = new SymbolicFunction(arg, Function.tanh);
-				final Expression sqr = new SymbolicResult(tanh, new Value(2), Operation.POWER);
+				final Expression sqr = new SymbolicResult(tanh, Value.TWO, Operation.POWER);
 				final Expression term = new SymbolicResult(Value.ONE, sqr, Operation.SUBTRACT);
 				
 				return new SymbolicResult(arg.derivative(varName), term, Operation.MULTIPLY);
@@ -380,7 +380,7 @@ public interface Function extends Serializable {
 		 */
 		private static final long serialVersionUID = 4365787479141047673L;
 		
-		private final Expression lnExpr = new SymbolicFunction(new Value(10), Function.ln);
+		private final Expression lnExpr = new SymbolicFunction(Value.of(10), Function.ln);
 		
 		@Override
 		public double apply(final double x) {
@@ -0,0 +1,30 @@
+package com.dezzy.postfix.math;
+
+/**
+ * Thrown when an infix expression is malformed, such as when a parenthesis is not closed or an operand is missing.
+ *
+ * @author Joe Desmond
+ */
+public class InfixSyntaxException extends RuntimeException {
+
+	/**
+	 * Serialization UID
+	 */
+	private static final long serialVersionUID = 4310952765138770471L;
+
+	/**
+	 * Index of the character at which the error was found
+	 */
+	public final int index;
+
+	/**
+	 * Constructs an InfixSyntaxException with the given message, at the given character index.
+	 *
+	 * @param message exception message
+	 * @param _index index of the character at which the error was found
+	 */
+	public InfixSyntaxException(final String message, final int _index) {
+		super(message + " Index: " + _index);
+		index = _index;
+	}
+}
@@ -3,8 +3,13 @@ package com.dezzy.postfix.math;
 import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import com.dezzy.postfix.auxiliary.BiMap;
+import com.dezzy.postfix.math.complex.ComplexFunction;
+import com.dezzy.postfix.math.complex.ComplexOperation;
+import com.dezzy.postfix.math.precise.PreciseFunction;
+import com.dezzy.postfix.math.precise.PreciseOperation;
 import com.dezzy.postfix.math.symbolic.constants.Constant;
 import com.dezzy.postfix.math.symbolic.structure.SymbolicResult;
 import com.dezzy.postfix.math.symbolic.structure.Value;
@@ -21,11 +26,41 @@ public final class Reserved {
 	 */
 	public static final BiMap<String, Operation> operations;
 	
+	/**
+	 * Infix precedence of each operation; operations with higher precedence are grouped first
+	 */
+	public static final Map<Operation, Integer> precedences;
+	
+	/**
+	 * Operations that are grouped from the right in infix expressions, so that <code>a ^ b ^ c</code> is <code>a ^ (b ^ c)</code>
+	 */
+	public static final Set<Operation> rightAssociative;
+	
 	/**
 	 * Maps String function names to functions
 	 */
 	public static final BiMap<String, Function> functions;
 	
+	/**
+	 * Maps operations to their complex counterparts
+	 */
+	public static final Map<Operation, ComplexOperation> complexOperations;
+	
+	/**
+	 * Maps functions to their complex counterparts
+	 */
+	public static final Map<Function, ComplexFunction> complexFunctions;
+	
+	/**
+	 * Maps operations to their arbitrary-precision counterparts
+	 */
+	public static final Map<Operation, PreciseOperation> preciseOperations;
+	
+	/**
+	 * Maps functions to their arbitrary-precision counterparts
+	 */
+	public static final Map<Function, PreciseFunction> preciseFunctions;
+	
 	/**
 	 * Math constants. Contains mappings for pi, euler's number, and i (sqrt(-1)).
 	 */
@@ -43,7 +78,13 @@ public final class Reserved {
 	
 	static {
 		operations = getOperations();
+		precedences = getPrecedences();
+		rightAssociative = Set.of(Operation.POWER);
 		functions = getFunctions();
+		complexOperations = getCounterparts(Operation.class, ComplexOperation.class);
+		complexFunctions = getCounterparts(Function.class, ComplexFunction.class);
+		preciseOperations = getCounterparts(Operation.class, PreciseOperation.class);
+		preciseFunctions = getCounterparts(Function.class, PreciseFunction.class);
 		constants = getConstants();
 		emptyConstants = new HashMap<String, Constant>();
 		latexConstants = getLatexConstants();
@@ -77,7 +118,25 @@ public final class Reserved {
 		
 		out.put("e", new Constant(Value.E));
 		out.put("pi", new Constant(Value.PI));
-		out.put("i", new Constant(new SymbolicResult(Value.NEG_ONE, new Value(0.5), Operation.POWER), false));
+		out.put("i", new Constant(new SymbolicResult(Value.NEG_ONE, Value.of(0.5), Operation.POWER), false));
+		
+		return out;
+	}
+	
+	/**
+	 * Returns the infix precedence of each operation. Exponentiation is grouped before multiplication and division,
+	 * which are grouped before addition and subtraction.
+	 * 
+	 * @return operation precedences
+	 */
+	private static final HashMap<Operation, Integer> getPrecedences() {
+		final HashMap<Operation, Integer> out = new HashMap<Operation, Integer>();
+		
+		out.put(Operation.ADD, 1);
+		out.put(Operation.SUBTRACT, 1);
+		out.put(Operation.MULTIPLY, 2);
+		out.put(Operation.DIVIDE, 2);
+		out.put(Operation.POWER, 4);
 		
 		return out;
 	}
@@ -126,6 +185,37 @@ public final class Reserved {
 		return out;
 	}
 	
+	/**
+	 * Maps each constant declared in <code>type</code> to the constant with the same name declared in <code>counterpartType</code>.
+	 * Uses reflection in the same way as {@link #getFunctions()}, so that a new function only needs to be declared with the same
+	 * name in both types.
+	 * 
+	 * @param type type declaring the original constants (such as {@link Function})
+	 * @param counterpartType type declaring the counterparts (such as {@link ComplexFunction})
+	 * @return map of constants to their counterparts
+	 */
+	private static final <T, C> Map<T, C> getCounterparts(final Class<T> type, final Class<C> counterpartType) {
+		final Map<T, C> out = new HashMap<T, C>();
+		
+		for (final Field field : type.getDeclaredFields()) {
+			if (field.getType() == type) {
+				try {
+					final Field counterpart = counterpartType.getDeclaredField(field.getName());
+					
+					if (counterpart.getType() == counterpartType) {
+						out.put(type.cast(field.get(null)), counterpartType.cast(counterpart.get(null)));
+					}
+				} catch (NoSuchFieldException e) {
+					//This constant has no counterpart
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		return out;
+	}
+	
 	/**
 	 * Finds an operator identifier given the mathematical operation that it represents.
 	 * 
@@ -0,0 +1,183 @@
+package com.dezzy.postfix.math.complex;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An immutable complex number with a real and an imaginary part. This is the scalar result type of
+ * {@link com.dezzy.postfix.math.symbolic.structure.Expression#evaluateComplex(java.util.Map) Expression.evaluateComplex};
+ * batch evaluation over split real/imaginary arrays is done by {@link ComplexEvaluator} and does not allocate Complex objects.
+ *
+ * @author Joe Desmond
+ */
+public final class Complex implements Serializable {
+
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = 3371390841125432797L;
+
+	/**
+	 * 0 + 0i
+	 */
+	public static final Complex ZERO = new Complex(0, 0);
+
+	/**
+	 * 1 + 0i
+	 */
+	public static final Complex ONE = new Complex(1, 0);
+
+	/**
+	 * 0 + 1i
+	 */
+	public static final Complex I = new Complex(0, 1);
+
+	/**
+	 * Real part
+	 */
+	public final double re;
+
+	/**
+	 * Imaginary part
+	 */
+	public final double im;
+
+	/**
+	 * Creates a complex number with the given real and imaginary parts.
+	 *
+	 * @param _re real part
+	 * @param _im imaginary part
+	 */
+	public Complex(final double _re, final double _im) {
+		re = _re;
+		im = _im;
+	}
+
+	/**
+	 * Returns the modulus (absolute value) of this complex number.
+	 *
+	 * @return <code>|this|</code>
+	 */
+	public final double modulus() {
+		return Math.hypot(re, im);
+	}
+
+	/**
+	 * Returns the principal argument of this complex number, in <code>(-pi, pi]</code>.
+	 *
+	 * @return <code>arg(this)</code>
+	 */
+	public final double argument() {
+		return Math.atan2(im, re);
+	}
+
+	/**
+	 * Returns true if this complex number has no imaginary part.
+	 *
+	 * @return true if {@link #im} is zero
+	 */
+	public final boolean isReal() {
+		return im == 0;
+	}
+
+	/**
+	 * Adds another complex number to this one.
+	 *
+	 * @param other addend
+	 * @return <code>this + other</code>
+	 */
+	public final Complex plus(final Complex other) {
+		return new Complex(re + other.re, im + other.im);
+	}
+
+	/**
+	 * Subtracts another complex number from this one.
+	 *
+	 * @param other subtrahend
+	 * @return <code>this - other</code>
+	 */
+	public final Complex minus(final Complex other) {
+		return new Complex(re - other.re, im - other.im);
+	}
+
+	/**
+	 * Multiplies this complex number by another.
+	 *
+	 * @param other multiplier
+	 * @return <code>this * other</code>
+	 */
+	public final Complex times(final Complex other) {
+		return new Complex(re * other.re - im * other.im, re * other.im + im * other.re);
+	}
+
+	/**
+	 * Divides this complex number by another.
+	 *
+	 * @param other divisor
+	 * @return <code>this / other</code>
+	 */
+	public final Complex divide(final Complex other) {
+		return ComplexOperation.DIVIDE.operate(this, other);
+	}
+
+	/**
+	 * Raises this complex number to the power of another, using the principal branch of the logarithm.
+	 *
+	 * @param exponent exponent
+	 * @return <code>this ^ exponent</code>
+	 */
+	public final Complex pow(final Complex exponent) {
+		return ComplexOperation.POWER.operate(this, exponent);
+	}
+
+	/**
+	 * Returns the complex conjugate of this number.
+	 *
+	 * @return <code>re - im*i</code>
+	 */
+	public final Complex conjugate() {
+		return new Complex(re, -im);
+	}
+
+	/**
+	 * Returns this complex number in the form <code>a + bi</code>.
+	 *
+	 * @return String representation of this complex number
+	 */
+	@Override
+	public final String toString() {
+		if (im < 0 || (im == 0 && Double.doubleToRawLongBits(im) != 0)) {
+			return re + " - " + (-im) + "i";
+		} else {
+			return re + " + " + im + "i";
+		}
+	}
+
+	/**
+	 * Returns true if the other object is a complex number with exactly the same real and imaginary parts.
+	 *
+	 * @param other other object
+	 * @return true if these complex numbers are equal
+	 */
+	@Override
+	public boolean equals(final Object other) {
+		if (this == other) {
+			return true;
+		} else if (!(other instanceof Complex)) {
+			return false;
+		} else {
+			final Complex otherComplex = (Complex) other;
+			return Double.compare(re, otherComplex.re) == 0 && Double.compare(im, otherComplex.im) == 0;
+		}
+	}
+
+	/**
+	 * Computes the hashcode of this complex number from its real and imaginary parts.
+	 *
+	 * @return hashcode of this complex number
+	 */
+	@Override
+	public int hashCode() {
+		return Objects.hash(re, im);
+	}
+}
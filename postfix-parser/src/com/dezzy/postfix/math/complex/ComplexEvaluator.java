@@ -0,0 +1,228 @@
+package com.dezzy.postfix.math.complex;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import com.dezzy.postfix.math.Reserved;
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.evaluation.PostfixProgram;
+import com.dezzy.postfix.math.symbolic.constants.Constant;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+
+/**
+ * Evaluates an {@link Expression} over the complex numbers for many values of its variables at once. The Expression is
+ * compiled into a {@link PostfixProgram} once; named constants (including constants that are not reduced during
+ * simplification, such as <code>i</code>) are evaluated once, at construction. Batch evaluation works on split
+ * real/imaginary arrays in blocks of {@link #BLOCK_SIZE} points and does not allocate.
+ * <p>
+ * A ComplexEvaluator keeps its own scratch space, so a single instance should not be used by multiple threads at once.
+ *
+ * @author Joe Desmond
+ */
+public final class ComplexEvaluator {
+
+	/**
+	 * Number of points evaluated together by each instruction in {@link #evaluate(double[][], double[][], double[], double[], int)}
+	 */
+	public static final int BLOCK_SIZE = 256;
+
+	/**
+	 * Compiled expression
+	 */
+	private final PostfixProgram program;
+
+	/**
+	 * Names of the variables, in the order that their values are passed in
+	 */
+	private final String[] variables;
+
+	/**
+	 * For each {@link PostfixProgram#NAME} instruction, the index of the variable in {@link #variables}, or -1 if the name is a known constant
+	 */
+	private final int[] slots;
+
+	/**
+	 * Real parts of the values pushed by {@link PostfixProgram#VALUE} instructions and known constants
+	 */
+	private final double[] knownRe;
+
+	/**
+	 * Imaginary parts of the values pushed by {@link PostfixProgram#VALUE} instructions and known constants
+	 */
+	private final double[] knownIm;
+
+	/**
+	 * Complex counterparts of the program's operations
+	 */
+	private final ComplexOperation[] operations;
+
+	/**
+	 * Complex counterparts of the program's functions
+	 */
+	private final ComplexFunction[] functions;
+
+	/**
+	 * Real parts of the operand stack; each entry holds one block of points
+	 */
+	private final double[][] stackRe;
+
+	/**
+	 * Imaginary parts of the operand stack; each entry holds one block of points
+	 */
+	private final double[][] stackIm;
+
+	/**
+	 * Compiles an Expression for complex evaluation. Every name in the Expression must either be one of <code>variables</code>, or
+	 * be defined in <code>constants</code>. Constants are evaluated over the complex numbers regardless of their
+	 * {@link Constant#reduce reduce} flag.
+	 *
+	 * @param expression expression to evaluate
+	 * @param constants known constants
+	 * @param _variables names of the variables whose values will be passed in, in order
+	 * @throws UnrecognizedSymbolException if a name is neither a variable nor a known constant
+	 */
+	public ComplexEvaluator(final Expression expression, final Map<String, Constant> constants, final String ... _variables) {
+		program = new PostfixProgram(expression);
+		variables = _variables;
+
+		final int length = program.length;
+		slots = new int[length];
+		knownRe = new double[length];
+		knownIm = new double[length];
+		operations = new ComplexOperation[length];
+		functions = new ComplexFunction[length];
+
+		for (int i = 0; i < length; i++) {
+			switch (program.instructions[i]) {
+				case PostfixProgram.VALUE:
+					knownRe[i] = program.values[i];
+					break;
+				case PostfixProgram.NAME:
+					slots[i] = resolve(program.names[i], constants, i);
+					break;
+				case PostfixProgram.OPERATION:
+					operations[i] = Reserved.complexOperations.get(program.operations[i]);
+
+					if (operations[i] == null) {
+						throw new UnrecognizedSymbolException("No complex counterpart exists for the operation \"" + program.operations[i].identifier() + "\"!");
+					}
+					break;
+				case PostfixProgram.FUNCTION:
+					functions[i] = Reserved.complexFunctions.get(program.functions[i]);
+
+					if (functions[i] == null) {
+						throw new UnrecognizedSymbolException("No complex counterpart exists for the function \"" + Reserved.functions.inverseGet(program.functions[i]) + "\"!");
+					}
+					break;
+			}
+		}
+
+		stackRe = new double[program.maxDepth][BLOCK_SIZE];
+		stackIm = new double[program.maxDepth][BLOCK_SIZE];
+	}
+
+	/**
+	 * Finds the variable slot of a name, or evaluates it if it is a known constant.
+	 *
+	 * @param name variable or constant name
+	 * @param constants known constants
+	 * @param instruction index of the instruction that pushes this name
+	 * @return variable slot, or -1 if the name is a known constant
+	 */
+	private int resolve(final String name, final Map<String, Constant> constants, final int instruction) {
+		for (int slot = 0; slot < variables.length; slot++) {
+			if (variables[slot].equals(name)) {
+				return slot;
+			}
+		}
+
+		final Constant constant = constants.get(name);
+
+		if (constant == null) {
+			throw new UnrecognizedSymbolException("\"" + name + "\" is not a variable or a known constant!");
+		}
+
+		final Complex value = constant.expression.evaluateComplex(constants);
+		knownRe[instruction] = value.re;
+		knownIm[instruction] = value.im;
+
+		return -1;
+	}
+
+	/**
+	 * Evaluates the Expression at a single point.
+	 *
+	 * @param arguments values of the variables, in the order given to the constructor
+	 * @return value of the Expression
+	 */
+	public Complex evaluate(final Complex ... arguments) {
+		final double[][] re = new double[variables.length][];
+		final double[][] im = new double[variables.length][];
+
+		for (int i = 0; i < variables.length; i++) {
+			re[i] = new double[] {arguments[i].re};
+			im[i] = new double[] {arguments[i].im};
+		}
+
+		final double[] outRe = new double[1];
+		final double[] outIm = new double[1];
+		evaluate(re, im, outRe, outIm, 1);
+
+		return new Complex(outRe[0], outIm[0]);
+	}
+
+	/**
+	 * Evaluates the Expression at <code>length</code> points. The value of variable <code>v</code> at point <code>p</code> is
+	 * <code>re[v][p] + im[v][p] * i</code>; if <code>im[v]</code> is null, that variable is taken to be real. This method
+	 * does not allocate.
+	 *
+	 * @param re real parts of the variables, indexed by variable and then by point
+	 * @param im imaginary parts of the variables, indexed by variable and then by point; may contain null entries
+	 * @param outRe real parts of the results, one per point
+	 * @param outIm imaginary parts of the results, one per point
+	 * @param length number of points
+	 */
+	public void evaluate(final double[][] re, final double[][] im, final double[] outRe, final double[] outIm, final int length) {
+		for (int start = 0; start < length; start += BLOCK_SIZE) {
+			final int count = Math.min(BLOCK_SIZE, length - start);
+			int top = 0;
+
+			for (int i = 0; i < program.length; i++) {
+				switch (program.instructions[i]) {
+					case PostfixProgram.VALUE:
+						Arrays.fill(stackRe[top], 0, count, knownRe[i]);
+						Arrays.fill(stackIm[top], 0, count, knownIm[i]);
+						top++;
+						break;
+					case PostfixProgram.NAME:
+						final int slot = slots[i];
+
+						if (slot == -1) {
+							Arrays.fill(stackRe[top], 0, count, knownRe[i]);
+							Arrays.fill(stackIm[top], 0, count, knownIm[i]);
+						} else {
+							System.arraycopy(re[slot], start, stackRe[top], 0, count);
+
+							if (im[slot] == null) {
+								Arrays.fill(stackIm[top], 0, count, 0);
+							} else {
+								System.arraycopy(im[slot], start, stackIm[top], 0, count);
+							}
+						}
+						top++;
+						break;
+					case PostfixProgram.OPERATION:
+						top--;
+						operations[i].operate(stackRe[top - 1], stackIm[top - 1], stackRe[top], stackIm[top], stackRe[top - 1], stackIm[top - 1], count);
+						break;
+					case PostfixProgram.FUNCTION:
+						functions[i].apply(stackRe[top - 1], stackIm[top - 1], stackRe[top - 1], stackIm[top - 1], count);
+						break;
+				}
+			}
+
+			System.arraycopy(stackRe[0], 0, outRe, start, count);
+			System.arraycopy(stackIm[0], 0, outIm, start, count);
+		}
+	}
+}
@@ -0,0 +1,258 @@
+package com.dezzy.postfix.math.complex;
+
+import java.io.Serializable;
+
+/**
+ * The complex counterpart of a {@link com.dezzy.postfix.math.Function Function}. Each instance declared here has the same
+ * name as the real function it extends, and {@link com.dezzy.postfix.math.Reserved#complexFunctions Reserved.complexFunctions}
+ * maps every real function to its complex counterpart. Multivalued functions return their principal values.
+ *
+ * @author Joe Desmond
+ */
+public interface ComplexFunction extends Serializable {
+	
+	/**
+	 * Applies this function to every complex argument in the given split real/imaginary arrays, and writes the
+	 * results into <code>outRe</code> and <code>outIm</code>. The output arrays may be the same arrays as the input arrays.
+	 * This method does not allocate.
+	 * 
+	 * @param re real parts of the arguments
+	 * @param im imaginary parts of the arguments
+	 * @param outRe real parts of the results
+	 * @param outIm imaginary parts of the results
+	 * @param length number of elements to apply this function to, starting at index 0
+	 */
+	public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length);
+	
+	/**
+	 * Applies this function to a complex number.
+	 * 
+	 * @param z argument
+	 * @return result
+	 */
+	public default Complex apply(final Complex z) {
+		final double[] re = {z.re};
+		final double[] im = {z.im};
+		
+		apply(re, im, re, im, 1);
+		
+		return new Complex(re[0], im[0]);
+	}
+	
+	/**
+	 * Complex sin.
+	 */
+	public static final ComplexFunction sin = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 7502885983274040054L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.sin(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex cos.
+	 */
+	public static final ComplexFunction cos = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -5438862898232022732L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.cos(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex tan.
+	 */
+	public static final ComplexFunction tan = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 811922016080443419L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.tan(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex inverse sine.
+	 */
+	public static final ComplexFunction invsin = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -419592106530540831L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.asin(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex inverse cosine.
+	 */
+	public static final ComplexFunction invcos = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 8369890134937183207L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.acos(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex inverse tangent.
+	 */
+	public static final ComplexFunction invtan = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 4569952237767107625L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.atan(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex sinh.
+	 */
+	public static final ComplexFunction sinh = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 6348326219097558307L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.sinh(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex cosh.
+	 */
+	public static final ComplexFunction cosh = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 6534225989597780718L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.cosh(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex tanh.
+	 */
+	public static final ComplexFunction tanh = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -6836153677528792726L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.tanh(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex natural logarithm.
+	 */
+	public static final ComplexFunction ln = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 8424144880521501151L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.ln(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex base 10 logarithm.
+	 */
+	public static final ComplexFunction log10 = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -8655384496603213054L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.log10(re[i], im[i], outRe, outIm, i);
+			}
+		}
+	};
+	
+	/**
+	 * Complex modulus. The result is always real.
+	 */
+	public static final ComplexFunction abs = new ComplexFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 4372178803413222382L;
+		
+		@Override
+		public void apply(final double[] re, final double[] im, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				outRe[i] = Math.hypot(re[i], im[i]);
+				outIm[i] = 0;
+			}
+		}
+	};
+}
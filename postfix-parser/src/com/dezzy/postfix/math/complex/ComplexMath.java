@@ -0,0 +1,266 @@
+package com.dezzy.postfix.math.complex;
+
+/**
+ * Scalar complex arithmetic used by the {@link ComplexOperation} and {@link ComplexFunction} kernels. Every method
+ * takes the real and imaginary parts of its operands as doubles and writes its result into <code>outRe[index]</code>
+ * and <code>outIm[index]</code>, so that the batch kernels never allocate. All operands are read before the result is
+ * written, so the output arrays may alias the input arrays. Multivalued functions return their principal values.
+ *
+ * @author Joe Desmond
+ */
+final class ComplexMath {
+
+	/**
+	 * Natural logarithm of 10, used by {@link #log10}
+	 */
+	private static final double LN10 = Math.log(10);
+
+	/**
+	 * Largest integer exponent that is computed by repeated squaring instead of <code>exp(w * ln(z))</code>
+	 */
+	private static final double MAX_INTEGER_EXPONENT = 1024;
+
+	private ComplexMath() {
+
+	}
+
+	/**
+	 * Computes <code>(a + bi) / (c + di)</code> with Smith's algorithm, which avoids overflow in the intermediate
+	 * squared modulus of the divisor.
+	 */
+	static void divide(final double a, final double b, final double c, final double d, final double[] outRe, final double[] outIm, final int index) {
+		if (c == 0 && d == 0) {
+			outRe[index] = a / c;
+			outIm[index] = b / c;
+		} else if (Math.abs(c) >= Math.abs(d)) {
+			final double r = d / c;
+			final double denom = c + d * r;
+			outRe[index] = (a + b * r) / denom;
+			outIm[index] = (b - a * r) / denom;
+		} else {
+			final double r = c / d;
+			final double denom = c * r + d;
+			outRe[index] = (a * r + b) / denom;
+			outIm[index] = (b * r - a) / denom;
+		}
+	}
+
+	/**
+	 * Computes the principal value of <code>(a + bi) ^ (c + di)</code>. Real exponents that are integers are computed by
+	 * repeated squaring, and an exponent of exactly one half is computed as a principal square root, so that expressions like
+	 * <code>(-1 ^ 0.5)</code> and <code>(i ^ 2)</code> come out exact.
+	 */
+	static void pow(final double a, final double b, final double c, final double d, final double[] outRe, final double[] outIm, final int index) {
+		if (d == 0) {
+			if (c == 0) {
+				outRe[index] = 1;
+				outIm[index] = 0;
+				return;
+			} else if (b == 0 && (a >= 0 || c == Math.rint(c))) {
+				outRe[index] = Math.pow(a, c);
+				outIm[index] = 0;
+				return;
+			} else if (c == 0.5) {
+				sqrt(a, b, outRe, outIm, index);
+				return;
+			} else if (c == Math.rint(c) && Math.abs(c) <= MAX_INTEGER_EXPONENT) {
+				integerPow(a, b, (int) c, outRe, outIm, index);
+				return;
+			}
+		}
+
+		if (a == 0 && b == 0) {
+			outRe[index] = (c > 0) ? 0 : Double.NaN;
+			outIm[index] = (c > 0) ? 0 : Double.NaN;
+			return;
+		}
+
+		final double lnRe = Math.log(Math.hypot(a, b));
+		final double lnIm = Math.atan2(b, a);
+
+		exp(c * lnRe - d * lnIm, c * lnIm + d * lnRe, outRe, outIm, index);
+	}
+
+	/**
+	 * Computes <code>(a + bi) ^ n</code> for an integer <code>n</code> by repeated squaring.
+	 */
+	private static void integerPow(final double a, final double b, final int n, final double[] outRe, final double[] outIm, final int index) {
+		double baseRe = a;
+		double baseIm = b;
+		double resultRe = 1;
+		double resultIm = 0;
+
+		for (int e = Math.abs(n); e != 0; e >>>= 1) {
+			if ((e & 1) != 0) {
+				final double re = resultRe * baseRe - resultIm * baseIm;
+				resultIm = resultRe * baseIm + resultIm * baseRe;
+				resultRe = re;
+			}
+
+			final double re = baseRe * baseRe - baseIm * baseIm;
+			baseIm = 2 * baseRe * baseIm;
+			baseRe = re;
+		}
+
+		if (n < 0) {
+			divide(1, 0, resultRe, resultIm, outRe, outIm, index);
+		} else {
+			outRe[index] = resultRe;
+			outIm[index] = resultIm;
+		}
+	}
+
+	/**
+	 * Computes the principal square root of <code>(a + bi)</code>.
+	 */
+	static void sqrt(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		if (a == 0 && b == 0) {
+			outRe[index] = 0;
+			outIm[index] = b;
+			return;
+		}
+
+		final double t = Math.sqrt((Math.abs(a) + Math.hypot(a, b)) / 2);
+
+		if (a >= 0) {
+			outRe[index] = t;
+			outIm[index] = b / (2 * t);
+		} else {
+			outRe[index] = Math.abs(b) / (2 * t);
+			outIm[index] = Math.copySign(t, b);
+		}
+	}
+
+	/**
+	 * Computes <code>e ^ (a + bi)</code>.
+	 */
+	static void exp(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		final double scale = Math.exp(a);
+
+		if (b == 0) {
+			outRe[index] = scale;
+			outIm[index] = b;
+		} else {
+			outRe[index] = scale * Math.cos(b);
+			outIm[index] = scale * Math.sin(b);
+		}
+	}
+
+	/**
+	 * Computes the principal natural logarithm of <code>(a + bi)</code>.
+	 */
+	static void ln(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		outRe[index] = Math.log(Math.hypot(a, b));
+		outIm[index] = Math.atan2(b, a);
+	}
+
+	/**
+	 * Computes the principal base 10 logarithm of <code>(a + bi)</code>.
+	 */
+	static void log10(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		outRe[index] = Math.log10(Math.hypot(a, b));
+		outIm[index] = Math.atan2(b, a) / LN10;
+	}
+
+	/**
+	 * Computes <code>sin(a + bi)</code>.
+	 */
+	static void sin(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		outRe[index] = Math.sin(a) * Math.cosh(b);
+		outIm[index] = Math.cos(a) * Math.sinh(b);
+	}
+
+	/**
+	 * Computes <code>cos(a + bi)</code>.
+	 */
+	static void cos(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		outRe[index] = Math.cos(a) * Math.cosh(b);
+		outIm[index] = -Math.sin(a) * Math.sinh(b);
+	}
+
+	/**
+	 * Computes <code>tan(a + bi)</code> as <code>(sin(2a) + i sinh(2b)) / (cos(2a) + cosh(2b))</code>.
+	 */
+	static void tan(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		final double denom = Math.cos(2 * a) + Math.cosh(2 * b);
+		outRe[index] = Math.sin(2 * a) / denom;
+		outIm[index] = Math.sinh(2 * b) / denom;
+	}
+
+	/**
+	 * Computes <code>sinh(a + bi)</code>.
+	 */
+	static void sinh(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		outRe[index] = Math.sinh(a) * Math.cos(b);
+		outIm[index] = Math.cosh(a) * Math.sin(b);
+	}
+
+	/**
+	 * Computes <code>cosh(a + bi)</code>.
+	 */
+	static void cosh(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		outRe[index] = Math.cosh(a) * Math.cos(b);
+		outIm[index] = Math.sinh(a) * Math.sin(b);
+	}
+
+	/**
+	 * Computes <code>tanh(a + bi)</code> as <code>(sinh(2a) + i sin(2b)) / (cosh(2a) + cos(2b))</code>.
+	 */
+	static void tanh(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		final double denom = Math.cosh(2 * a) + Math.cos(2 * b);
+		outRe[index] = Math.sinh(2 * a) / denom;
+		outIm[index] = Math.sin(2 * b) / denom;
+	}
+
+	/**
+	 * Computes the principal value of <code>asin(a + bi) = -i ln(iz + sqrt(1 - z^2))</code>.
+	 */
+	static void asin(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		//w = 1 - z^2
+		final double wRe = 1 - (a * a - b * b);
+		final double wIm = -2 * a * b;
+
+		//s = sqrt(w)
+		final double sRe;
+		final double sIm;
+		if (wRe == 0 && wIm == 0) {
+			sRe = 0;
+			sIm = 0;
+		} else {
+			final double t = Math.sqrt((Math.abs(wRe) + Math.hypot(wRe, wIm)) / 2);
+
+			if (wRe >= 0) {
+				sRe = t;
+				sIm = wIm / (2 * t);
+			} else {
+				sRe = Math.abs(wIm) / (2 * t);
+				sIm = Math.copySign(t, wIm);
+			}
+		}
+
+		//u = iz + s
+		final double uRe = sRe - b;
+		final double uIm = sIm + a;
+
+		//-i * ln(u)
+		outRe[index] = Math.atan2(uIm, uRe);
+		outIm[index] = -Math.log(Math.hypot(uRe, uIm));
+	}
+
+	/**
+	 * Computes the principal value of <code>acos(a + bi) = pi/2 - asin(a + bi)</code>.
+	 */
+	static void acos(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		asin(a, b, outRe, outIm, index);
+		outRe[index] = (Math.PI / 2) - outRe[index];
+		outIm[index] = -outIm[index];
+	}
+
+	/**
+	 * Computes the principal value of <code>atan(a + bi) = (i / 2) * (ln(1 - iz) - ln(1 + iz))</code>.
+	 */
+	static void atan(final double a, final double b, final double[] outRe, final double[] outIm, final int index) {
+		outRe[index] = (Math.atan2(a, 1 - b) - Math.atan2(-a, 1 + b)) / 2;
+		outIm[index] = (Math.log(Math.hypot(1 + b, a)) - Math.log(Math.hypot(1 - b, a))) / 2;
+	}
+}
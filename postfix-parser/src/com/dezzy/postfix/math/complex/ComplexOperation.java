@@ -0,0 +1,142 @@
+package com.dezzy.postfix.math.complex;
+
+import java.io.Serializable;
+
+/**
+ * The complex counterpart of an {@link com.dezzy.postfix.math.Operation Operation}. Each instance declared here has the same
+ * name as the real operation it extends, and {@link com.dezzy.postfix.math.Reserved#complexOperations Reserved.complexOperations}
+ * maps every real operation to its complex counterpart.
+ *
+ * @author Joe Desmond
+ */
+public interface ComplexOperation extends Serializable {
+
+	/**
+	 * Performs this operation on every pair of complex operands in the given split real/imaginary arrays, and writes the
+	 * results into <code>outRe</code> and <code>outIm</code>. The output arrays may be the same arrays as either pair of
+	 * input arrays. This method does not allocate.
+	 *
+	 * @param re0 real parts of the first operands
+	 * @param im0 imaginary parts of the first operands
+	 * @param re1 real parts of the second operands
+	 * @param im1 imaginary parts of the second operands
+	 * @param outRe real parts of the results
+	 * @param outIm imaginary parts of the results
+	 * @param length number of elements to operate on, starting at index 0
+	 */
+	public void operate(final double[] re0, final double[] im0, final double[] re1, final double[] im1, final double[] outRe, final double[] outIm, final int length);
+
+	/**
+	 * Performs this operation on two complex numbers.
+	 *
+	 * @param z0 first operand
+	 * @param z1 second operand
+	 * @return result
+	 */
+	public default Complex operate(final Complex z0, final Complex z1) {
+		final double[] re = {z0.re};
+		final double[] im = {z0.im};
+
+		operate(re, im, new double[] {z1.re}, new double[] {z1.im}, re, im, 1);
+
+		return new Complex(re[0], im[0]);
+	}
+
+	/**
+	 * Complex addition.
+	 */
+	public static final ComplexOperation ADD = new ComplexOperation() {
+
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -1862419170432318542L;
+
+		@Override
+		public void operate(final double[] re0, final double[] im0, final double[] re1, final double[] im1, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				outRe[i] = re0[i] + re1[i];
+				outIm[i] = im0[i] + im1[i];
+			}
+		}
+	};
+
+	/**
+	 * Complex subtraction.
+	 */
+	public static final ComplexOperation SUBTRACT = new ComplexOperation() {
+
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 2817440469914937641L;
+
+		@Override
+		public void operate(final double[] re0, final double[] im0, final double[] re1, final double[] im1, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				outRe[i] = re0[i] - re1[i];
+				outIm[i] = im0[i] - im1[i];
+			}
+		}
+	};
+
+	/**
+	 * Complex multiplication.
+	 */
+	public static final ComplexOperation MULTIPLY = new ComplexOperation() {
+
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -3702317095925342710L;
+
+		@Override
+		public void operate(final double[] re0, final double[] im0, final double[] re1, final double[] im1, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				final double a = re0[i];
+				final double b = im0[i];
+				final double c = re1[i];
+				final double d = im1[i];
+
+				outRe[i] = a * c - b * d;
+				outIm[i] = a * d + b * c;
+			}
+		}
+	};
+
+	/**
+	 * Complex division.
+	 */
+	public static final ComplexOperation DIVIDE = new ComplexOperation() {
+
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 6003385962722934498L;
+
+		@Override
+		public void operate(final double[] re0, final double[] im0, final double[] re1, final double[] im1, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.divide(re0[i], im0[i], re1[i], im1[i], outRe, outIm, i);
+			}
+		}
+	};
+
+	/**
+	 * Complex exponentiation, using the principal branch of the logarithm.
+	 */
+	public static final ComplexOperation POWER = new ComplexOperation() {
+
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -5270712337567419829L;
+
+		@Override
+		public void operate(final double[] re0, final double[] im0, final double[] re1, final double[] im1, final double[] outRe, final double[] outIm, final int length) {
+			for (int i = 0; i < length; i++) {
+				ComplexMath.pow(re0[i], im0[i], re1[i], im1[i], outRe, outIm, i);
+			}
+		}
+	};
+}
@@ -0,0 +1,301 @@
+package com.dezzy.postfix.math.evaluation;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import com.dezzy.postfix.math.Function;
+import com.dezzy.postfix.math.Operation;
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.symbolic.constants.Constant;
+import com.dezzy.postfix.math.symbolic.operations.Add;
+import com.dezzy.postfix.math.symbolic.operations.Divide;
+import com.dezzy.postfix.math.symbolic.operations.Multiply;
+import com.dezzy.postfix.math.symbolic.operations.Subtract;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+
+/**
+ * An {@link Expression} compiled for fast evaluation over the real numbers at many points. The Expression is compiled into
+ * a {@link PostfixProgram} once and named constants are evaluated once, at construction. Batch evaluation runs each
+ * instruction over a block of {@link #BLOCK_SIZE} points at a time; addition, subtraction, multiplication, and division are
+ * performed inline.
+ * <p>
+ * A CompiledExpression is immutable; every call to {@link #evaluate(double[][], int, double[], int, int)} uses its own scratch space,
+ * so one instance can be shared by multiple threads.
+ *
+ * @author Joe Desmond
+ */
+public final class CompiledExpression {
+
+	/**
+	 * Number of points evaluated together by each instruction in {@link #evaluate(double[][], int, double[], int, int)}
+	 */
+	public static final int BLOCK_SIZE = 256;
+
+	/**
+	 * An operation without an inline implementation
+	 */
+	private static final byte GENERIC = 0;
+
+	/**
+	 * Inline {@link Add}
+	 */
+	private static final byte ADD = 1;
+
+	/**
+	 * Inline {@link Subtract}
+	 */
+	private static final byte SUBTRACT = 2;
+
+	/**
+	 * Inline {@link Multiply}
+	 */
+	private static final byte MULTIPLY = 3;
+
+	/**
+	 * Inline {@link Divide}
+	 */
+	private static final byte DIVIDE = 4;
+
+	/**
+	 * Compiled expression
+	 */
+	private final PostfixProgram program;
+
+	/**
+	 * Names of the variables, in the order that their values are passed in
+	 */
+	private final String[] variables;
+
+	/**
+	 * For each {@link PostfixProgram#NAME} instruction, the index of the variable in {@link #variables}, or -1 if the name is a known constant
+	 */
+	private final int[] slots;
+
+	/**
+	 * Values pushed by {@link PostfixProgram#VALUE} instructions and known constants
+	 */
+	private final double[] known;
+
+	/**
+	 * For each {@link PostfixProgram#OPERATION} instruction, the inline implementation to use, or {@link #GENERIC}
+	 */
+	private final byte[] opcodes;
+
+	/**
+	 * Compiles an Expression for real evaluation. Every name in the Expression must either be one of <code>variables</code>, or
+	 * be defined in <code>constants</code>.
+	 *
+	 * @param expression expression to evaluate
+	 * @param constants known constants
+	 * @param _variables names of the variables whose values will be passed in, in order
+	 * @throws UnrecognizedSymbolException if a name is neither a variable nor a known constant
+	 */
+	public CompiledExpression(final Expression expression, final Map<String, Constant> constants, final String ... _variables) {
+		this(new PostfixProgram(expression), constants, _variables);
+	}
+
+	/**
+	 * Prepares an already compiled {@link PostfixProgram} for real evaluation. Every name in the program must either be one
+	 * of <code>variables</code>, or be defined in <code>constants</code>.
+	 *
+	 * @param _program compiled expression
+	 * @param constants known constants
+	 * @param _variables names of the variables whose values will be passed in, in order
+	 * @throws UnrecognizedSymbolException if a name is neither a variable nor a known constant
+	 */
+	public CompiledExpression(final PostfixProgram _program, final Map<String, Constant> constants, final String ... _variables) {
+		program = _program;
+		variables = _variables;
+
+		final int length = program.length;
+		slots = new int[length];
+		known = new double[length];
+		opcodes = new byte[length];
+
+		for (int i = 0; i < length; i++) {
+			switch (program.instructions[i]) {
+				case PostfixProgram.VALUE:
+					known[i] = program.values[i];
+					break;
+				case PostfixProgram.NAME:
+					slots[i] = resolve(program.names[i], constants, i);
+					break;
+				case PostfixProgram.OPERATION:
+					opcodes[i] = opcode(program.operations[i]);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the inline implementation of an operation, or {@link #GENERIC} if there is none.
+	 *
+	 * @param operation operation
+	 * @return opcode
+	 */
+	private static byte opcode(final Operation operation) {
+		if (operation instanceof Add) {
+			return ADD;
+		} else if (operation instanceof Subtract) {
+			return SUBTRACT;
+		} else if (operation instanceof Multiply) {
+			return MULTIPLY;
+		} else if (operation instanceof Divide) {
+			return DIVIDE;
+		} else {
+			return GENERIC;
+		}
+	}
+
+	/**
+	 * Finds the variable slot of a name, or evaluates it if it is a known constant.
+	 *
+	 * @param name variable or constant name
+	 * @param constants known constants
+	 * @param instruction index of the instruction that pushes this name
+	 * @return variable slot, or -1 if the name is a known constant
+	 */
+	private int resolve(final String name, final Map<String, Constant> constants, final int instruction) {
+		for (int slot = 0; slot < variables.length; slot++) {
+			if (variables[slot].equals(name)) {
+				return slot;
+			}
+		}
+
+		final Constant constant = constants.get(name);
+
+		if (constant == null) {
+			throw new UnrecognizedSymbolException("\"" + name + "\" is not a variable or a known constant!");
+		}
+
+		known[instruction] = constant.expression.evaluate(constants);
+
+		return -1;
+	}
+
+	/**
+	 * Evaluates the Expression at a single point.
+	 *
+	 * @param arguments values of the variables, in the order given to the constructor
+	 * @return value of the Expression
+	 */
+	public double evaluate(final double ... arguments) {
+		final double[][] points = new double[variables.length][];
+
+		for (int i = 0; i < variables.length; i++) {
+			points[i] = new double[] {arguments[i]};
+		}
+
+		final double[] out = new double[1];
+		evaluate(points, 0, out, 1);
+
+		return out[0];
+	}
+
+	/**
+	 * Evaluates the Expression at points <code>offset</code> through <code>offset + length - 1</code>. The value of variable
+	 * <code>v</code> at point <code>p</code> is <code>points[v][p]</code>, and the result at point <code>p</code> is written
+	 * to <code>out[p]</code>.
+	 *
+	 * @param points values of the variables, indexed by variable and then by point
+	 * @param offset index of the first point
+	 * @param out results, one per point
+	 * @param length number of points
+	 */
+	public void evaluate(final double[][] points, final int offset, final double[] out, final int length) {
+		evaluate(points, offset, out, offset, length);
+	}
+
+	/**
+	 * Evaluates the Expression at points <code>offset</code> through <code>offset + length - 1</code>. The value of variable
+	 * <code>v</code> at point <code>p</code> is <code>points[v][p]</code>, and the result at point <code>p</code> is written
+	 * to <code>out[outOffset + p - offset]</code>.
+	 *
+	 * @param points values of the variables, indexed by variable and then by point
+	 * @param offset index of the first point
+	 * @param out results, one per point
+	 * @param outOffset index in <code>out</code> of the result for the first point
+	 * @param length number of points
+	 */
+	public void evaluate(final double[][] points, final int offset, final double[] out, final int outOffset, final int length) {
+		final double[][] stack = new double[program.maxDepth][BLOCK_SIZE];
+		final int end = offset + length;
+
+		for (int start = offset; start < end; start += BLOCK_SIZE) {
+			final int count = Math.min(BLOCK_SIZE, end - start);
+			int top = 0;
+
+			for (int i = 0; i < program.length; i++) {
+				switch (program.instructions[i]) {
+					case PostfixProgram.VALUE:
+						Arrays.fill(stack[top++], 0, count, known[i]);
+						break;
+					case PostfixProgram.NAME:
+						final int slot = slots[i];
+
+						if (slot == -1) {
+							Arrays.fill(stack[top], 0, count, known[i]);
+						} else {
+							System.arraycopy(points[slot], start, stack[top], 0, count);
+						}
+						top++;
+						break;
+					case PostfixProgram.OPERATION:
+						top--;
+						operate(i, stack[top - 1], stack[top], count);
+						break;
+					case PostfixProgram.FUNCTION:
+						final Function function = program.functions[i];
+						final double[] argument = stack[top - 1];
+
+						for (int p = 0; p < count; p++) {
+							argument[p] = function.apply(argument[p]);
+						}
+						break;
+				}
+			}
+
+			System.arraycopy(stack[0], 0, out, outOffset + start - offset, count);
+		}
+	}
+
+	/**
+	 * Applies the operation of an instruction to a block of operands, and stores the results in the first operand block.
+	 *
+	 * @param instruction index of the {@link PostfixProgram#OPERATION} instruction
+	 * @param d0 first operands, and results
+	 * @param d1 second operands
+	 * @param count number of points in the block
+	 */
+	private void operate(final int instruction, final double[] d0, final double[] d1, final int count) {
+		switch (opcodes[instruction]) {
+			case ADD:
+				for (int p = 0; p < count; p++) {
+					d0[p] += d1[p];
+				}
+				break;
+			case SUBTRACT:
+				for (int p = 0; p < count; p++) {
+					d0[p] -= d1[p];
+				}
+				break;
+			case MULTIPLY:
+				for (int p = 0; p < count; p++) {
+					d0[p] *= d1[p];
+				}
+				break;
+			case DIVIDE:
+				for (int p = 0; p < count; p++) {
+					d0[p] /= d1[p];
+				}
+				break;
+			default:
+				final Operation operation = program.operations[instruction];
+
+				for (int p = 0; p < count; p++) {
+					d0[p] = operation.operate(d0[p], d1[p]);
+				}
+				break;
+		}
+	}
+}
@@ -0,0 +1,358 @@
+package com.dezzy.postfix.math.evaluation;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import com.dezzy.postfix.math.symbolic.constants.Constant;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+import com.dezzy.postfix.math.symbolic.structure.Value;
+
+/**
+ * Numerically checks whether two {@link Expression Expressions} agree over an {@link EvaluationDomain}. Both Expressions are
+ * compiled once into {@link CompiledExpression CompiledExpressions} and evaluated in blocks over the whole domain; large domains
+ * are split into chunks that are checked in parallel. Checking stops at the first point where the Expressions disagree, and that
+ * point is reported in the {@link Result}.
+ * <p>
+ * Two values agree if they are within {@link #absoluteTolerance} of each other, within {@link #relativeTolerance} of the larger
+ * magnitude, or within {@link #ulpTolerance} units in the last place. Two NaNs agree, because both Expressions are undefined at
+ * that point.
+ *
+ * @author Joe Desmond
+ */
+public final class EquivalenceChecker {
+
+	/**
+	 * Domains with at least this many points are checked in parallel
+	 */
+	public static final int PARALLEL_THRESHOLD = 8192;
+
+	/**
+	 * Number of points compared at a time; checking stops within one chunk of a counterexample
+	 */
+	private static final int CHUNK_SIZE = 4 * CompiledExpression.BLOCK_SIZE;
+
+	/**
+	 * Outcome of an equivalence check
+	 */
+	public enum Verdict {
+
+		/**
+		 * The Expressions agree at every point in the domain
+		 */
+		EQUIVALENT,
+
+		/**
+		 * The Expressions disagree at some point in the domain
+		 */
+		DIFFERENT,
+
+		/**
+		 * The Expressions cannot be compared numerically, because they contain a name that is neither a variable of the
+		 * domain nor a constant that can be reduced to a value
+		 */
+		UNSUPPORTED
+	}
+
+	/**
+	 * Result of an equivalence check. If the Expressions disagree, the result describes the first point in the domain at
+	 * which they do.
+	 */
+	public static final class Result {
+
+		/**
+		 * Outcome of the check
+		 */
+		public final Verdict verdict;
+
+		/**
+		 * Index of the counterexample in the domain, or -1 if there is none
+		 */
+		public final int index;
+
+		/**
+		 * Values of the domain's variables at the counterexample, in domain order, or null if there is none
+		 */
+		public final double[] point;
+
+		/**
+		 * Value of the first Expression at the counterexample, or NaN if there is none
+		 */
+		public final double value0;
+
+		/**
+		 * Value of the second Expression at the counterexample, or NaN if there is none
+		 */
+		public final double value1;
+
+		/**
+		 * Creates a Result.
+		 *
+		 * @param _verdict outcome of the check
+		 * @param _index index of the counterexample
+		 * @param _point values of the variables at the counterexample
+		 * @param _value0 value of the first Expression at the counterexample
+		 * @param _value1 value of the second Expression at the counterexample
+		 */
+		private Result(final Verdict _verdict, final int _index, final double[] _point, final double _value0, final double _value1) {
+			verdict = _verdict;
+			index = _index;
+			point = _point;
+			value0 = _value0;
+			value1 = _value1;
+		}
+
+		/**
+		 * Creates a Result without a counterexample.
+		 *
+		 * @param _verdict outcome of the check
+		 */
+		private Result(final Verdict _verdict) {
+			this(_verdict, -1, null, Double.NaN, Double.NaN);
+		}
+
+		/**
+		 * Returns true if the Expressions agree at every point in the domain.
+		 *
+		 * @return true if the verdict is {@link Verdict#EQUIVALENT}
+		 */
+		public boolean isEquivalent() {
+			return verdict == Verdict.EQUIVALENT;
+		}
+
+		/**
+		 * Returns the verdict, and the counterexample if there is one.
+		 *
+		 * @return String representation of this result
+		 */
+		@Override
+		public String toString() {
+			if (verdict != Verdict.DIFFERENT) {
+				return verdict.toString();
+			}
+
+			return verdict + " at point " + index + " " + Arrays.toString(point) + ": " + value0 + " != " + value1;
+		}
+	}
+
+	/**
+	 * Domain to check over
+	 */
+	public final EvaluationDomain domain;
+
+	/**
+	 * Largest absolute difference at which two values agree
+	 */
+	public final double absoluteTolerance;
+
+	/**
+	 * Largest difference, relative to the larger magnitude, at which two values agree
+	 */
+	public final double relativeTolerance;
+
+	/**
+	 * Largest number of representable doubles between two values that agree
+	 */
+	public final long ulpTolerance;
+
+	/**
+	 * Names of the domain's variables
+	 */
+	private final String[] variables;
+
+	/**
+	 * Values of the domain's variables, indexed by variable and then by point
+	 */
+	private final double[][] points;
+
+	/**
+	 * Number of points in the domain
+	 */
+	private final int size;
+
+	/**
+	 * Creates an equivalence checker with the same absolute tolerance as {@link Value#equals(Object)}, the same relative tolerance,
+	 * and a tolerance of 4 ulps.
+	 *
+	 * @param _domain domain to check over
+	 * @throws IllegalArgumentException if the variable domains are not the same length
+	 */
+	public EquivalenceChecker(final EvaluationDomain _domain) {
+		this(_domain, Value.getAcceptedError(), Value.getAcceptedError(), 4);
+	}
+
+	/**
+	 * Creates an equivalence checker with the given tolerances.
+	 *
+	 * @param _domain domain to check over
+	 * @param _absoluteTolerance largest absolute difference at which two values agree
+	 * @param _relativeTolerance largest difference, relative to the larger magnitude, at which two values agree
+	 * @param _ulpTolerance largest number of representable doubles between two values that agree
+	 * @throws IllegalArgumentException if the variable domains are not the same length
+	 */
+	public EquivalenceChecker(final EvaluationDomain _domain, final double _absoluteTolerance, final double _relativeTolerance, final long _ulpTolerance) {
+		domain = _domain;
+		absoluteTolerance = _absoluteTolerance;
+		relativeTolerance = _relativeTolerance;
+		ulpTolerance = _ulpTolerance;
+
+		final VariableDomain[] domains = (domain.variableDomains == null) ? new VariableDomain[0] : domain.variableDomains;
+		variables = new String[domains.length];
+		points = new double[domains.length][];
+
+		for (int i = 0; i < domains.length; i++) {
+			variables[i] = domains[i].varName;
+			points[i] = domains[i].values;
+
+			if (points[i].length != points[0].length) {
+				throw new IllegalArgumentException("Variable domains are not the same length!");
+			}
+		}
+
+		size = (domains.length == 0) ? 1 : points[0].length;
+	}
+
+	/**
+	 * Checks whether two Expressions agree at every point in the domain.
+	 *
+	 * @param expr0 first Expression
+	 * @param expr1 second Expression
+	 * @return result of the check, with the first counterexample if the Expressions disagree
+	 */
+	public Result check(final Expression expr0, final Expression expr1) {
+		final PostfixProgram program0 = new PostfixProgram(expr0);
+		final PostfixProgram program1 = new PostfixProgram(expr1);
+
+		if (!isNumeric(program0) || !isNumeric(program1)) {
+			return new Result(Verdict.UNSUPPORTED);
+		}
+
+		final CompiledExpression compiled0 = new CompiledExpression(program0, domain.constants, variables);
+		final CompiledExpression compiled1 = new CompiledExpression(program1, domain.constants, variables);
+		final int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		final AtomicInteger firstMismatch = new AtomicInteger(Integer.MAX_VALUE);
+
+		if (size < PARALLEL_THRESHOLD) {
+			final double[] out0 = new double[CHUNK_SIZE];
+			final double[] out1 = new double[CHUNK_SIZE];
+
+			for (int chunk = 0; chunk < chunks && firstMismatch.get() == Integer.MAX_VALUE; chunk++) {
+				checkChunk(compiled0, compiled1, chunk, out0, out1, firstMismatch);
+			}
+		} else {
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				if ((long) chunk * CHUNK_SIZE < firstMismatch.get()) {
+					final double[] out0 = new double[CHUNK_SIZE];
+					final double[] out1 = new double[CHUNK_SIZE];
+					checkChunk(compiled0, compiled1, chunk, out0, out1, firstMismatch);
+				}
+			});
+		}
+
+		final int index = firstMismatch.get();
+
+		if (index == Integer.MAX_VALUE) {
+			return new Result(Verdict.EQUIVALENT);
+		}
+
+		final double[] point = new double[variables.length];
+
+		for (int i = 0; i < variables.length; i++) {
+			point[i] = points[i][index];
+		}
+
+		return new Result(Verdict.DIFFERENT, index, point, compiled0.evaluate(point), compiled1.evaluate(point));
+	}
+
+	/**
+	 * Evaluates both Expressions over one chunk of the domain, and records the first point in the chunk at which they disagree.
+	 *
+	 * @param compiled0 first Expression
+	 * @param compiled1 second Expression
+	 * @param chunk chunk index
+	 * @param out0 scratch space for the values of the first Expression over the chunk
+	 * @param out1 scratch space for the values of the second Expression over the chunk
+	 * @param firstMismatch index of the earliest counterexample found so far, lowered if this chunk has an earlier one
+	 */
+	private void checkChunk(final CompiledExpression compiled0, final CompiledExpression compiled1, final int chunk, final double[] out0, final double[] out1, final AtomicInteger firstMismatch) {
+		final int start = chunk * CHUNK_SIZE;
+		final int count = Math.min(CHUNK_SIZE, size - start);
+
+		compiled0.evaluate(points, start, out0, 0, count);
+		compiled1.evaluate(points, start, out1, 0, count);
+
+		for (int p = 0; p < count; p++) {
+			if (!agree(out0[p], out1[p])) {
+				final int index = start + p;
+				int current = firstMismatch.get();
+
+				while (index < current && !firstMismatch.compareAndSet(current, index)) {
+					current = firstMismatch.get();
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if two values agree within the tolerances of this checker.
+	 *
+	 * @param d0 first value
+	 * @param d1 second value
+	 * @return true if the values agree
+	 */
+	public boolean agree(final double d0, final double d1) {
+		if (d0 == d1 || (Double.isNaN(d0) && Double.isNaN(d1))) {
+			return true;
+		} else if (Double.isNaN(d0) || Double.isNaN(d1) || Double.isInfinite(d0) || Double.isInfinite(d1)) {
+			return false;
+		}
+
+		final double difference = Math.abs(d0 - d1);
+
+		if (difference <= absoluteTolerance || difference <= relativeTolerance * Math.max(Math.abs(d0), Math.abs(d1))) {
+			return true;
+		}
+
+		return (d0 > 0) == (d1 > 0) && Math.abs(Double.doubleToLongBits(d0) - Double.doubleToLongBits(d1)) <= ulpTolerance;
+	}
+
+	/**
+	 * Returns true if every name in a program is either a variable of the domain or a constant that is reduced to a value.
+	 *
+	 * @param program compiled Expression
+	 * @return true if the program can be evaluated over the domain
+	 */
+	private boolean isNumeric(final PostfixProgram program) {
+		final Map<String, Constant> constants = domain.constants;
+
+		for (int i = 0; i < program.length; i++) {
+			if (program.instructions[i] == PostfixProgram.NAME && !isVariable(program.names[i])) {
+				final Constant constant = (constants == null) ? null : constants.get(program.names[i]);
+
+				if (constant == null || !constant.reduce) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns true if a name is one of the domain's variables.
+	 *
+	 * @param name name
+	 * @return true if <code>name</code> is a variable
+	 */
+	private boolean isVariable(final String name) {
+		for (final String variable : variables) {
+			if (variable.equals(name)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,627 @@
+package com.dezzy.postfix.math.evaluation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.dezzy.postfix.math.Reserved;
+import com.dezzy.postfix.math.symbolic.constants.Constant;
+import com.dezzy.postfix.math.symbolic.operations.Add;
+import com.dezzy.postfix.math.symbolic.operations.Divide;
+import com.dezzy.postfix.math.symbolic.operations.Multiply;
+import com.dezzy.postfix.math.symbolic.operations.Power;
+import com.dezzy.postfix.math.symbolic.operations.Subtract;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicResult;
+import com.dezzy.postfix.math.symbolic.structure.Unknown;
+import com.dezzy.postfix.math.symbolic.structure.Value;
+
+/**
+ * Decides whether two rational {@link Expression Expressions} are identical, with exact arithmetic and a configurable probability
+ * of error. An Expression is rational if it is built only from addition, subtraction, multiplication, division, and powers
+ * with constant integer exponents; both Expressions are evaluated at random points modulo the prime <code>2^61 - 1</code>
+ * (the Schwartz-Zippel test).
+ * <p>
+ * A {@link Verdict#DIFFERENT} verdict is always correct. An {@link Verdict#IDENTICAL} verdict is wrong with probability at most
+ * {@link #errorBound}; the number of random points is chosen from a bound on the degree of both Expressions. Unlike
+ * {@link EquivalenceChecker}, this test does not suffer from rounding errors and is not limited to a domain.
+ * <p>
+ * Unknowns that are not known constants are free variables. Numbers are taken to be the exact decimals they are written as
+ * (so <code>0.1</code> is <code>1/10</code>), except for {@link Value#PI} and {@link Value#E}, which are transcendental and
+ * are treated as free variables. Known constants are expanded into their expressions.
+ *
+ * @author Joe Desmond
+ */
+public final class IdentityTester {
+
+	/**
+	 * The Mersenne prime <code>2^61 - 1</code>; all arithmetic is done modulo this prime
+	 */
+	public static final long PRIME = (1L << 61) - 1;
+
+	/**
+	 * Number of times a random point is replaced before giving up, if it makes a divisor zero
+	 */
+	private static final int MAX_RESAMPLES = 64;
+
+	/**
+	 * Pushes a known rational number
+	 */
+	private static final byte CONSTANT = 0;
+
+	/**
+	 * Pushes the value of a free variable
+	 */
+	private static final byte VARIABLE = 1;
+
+	/**
+	 * Adds the top two operands
+	 */
+	private static final byte ADD = 2;
+
+	/**
+	 * Subtracts the top operand from the one below it
+	 */
+	private static final byte SUBTRACT = 3;
+
+	/**
+	 * Multiplies the top two operands
+	 */
+	private static final byte MULTIPLY = 4;
+
+	/**
+	 * Divides the operand below the top by the top operand
+	 */
+	private static final byte DIVIDE = 5;
+
+	/**
+	 * Raises the top operand to a constant integer power
+	 */
+	private static final byte POWER = 6;
+
+	/**
+	 * Outcome of an identity test
+	 */
+	public enum Verdict {
+
+		/**
+		 * The Expressions are identical, with probability at least <code>1 - errorBound</code>
+		 */
+		IDENTICAL,
+
+		/**
+		 * The Expressions are certainly different
+		 */
+		DIFFERENT,
+
+		/**
+		 * At least one of the Expressions is not a rational function of its unknowns
+		 */
+		UNSUPPORTED
+	}
+
+	/**
+	 * Known constants, expanded into their expressions
+	 */
+	public final Map<String, Constant> constants;
+
+	/**
+	 * Largest probability that two different Expressions are reported as {@link Verdict#IDENTICAL}
+	 */
+	public final double errorBound;
+
+	/**
+	 * Creates an identity tester with an error bound of <code>2^-64</code>.
+	 *
+	 * @param _constants known constants
+	 */
+	public IdentityTester(final Map<String, Constant> _constants) {
+		this(_constants, 0x1p-64);
+	}
+
+	/**
+	 * Creates an identity tester with the given error bound.
+	 *
+	 * @param _constants known constants, or null if there are none
+	 * @param _errorBound largest probability that two different Expressions are reported as identical
+	 */
+	public IdentityTester(final Map<String, Constant> _constants, final double _errorBound) {
+		if (!(_errorBound > 0 && _errorBound < 1)) {
+			throw new IllegalArgumentException("Error bound must be between 0 and 1!");
+		}
+
+		constants = (_constants == null) ? Reserved.emptyConstants : _constants;
+		errorBound = _errorBound;
+	}
+
+	/**
+	 * Tests whether two Expressions are identical as rational functions of their unknowns.
+	 *
+	 * @param expr0 first Expression
+	 * @param expr1 second Expression
+	 * @return {@link Verdict#IDENTICAL} or {@link Verdict#DIFFERENT}, or {@link Verdict#UNSUPPORTED} if either
+	 * 			Expression is not rational
+	 */
+	public Verdict test(final Expression expr0, final Expression expr1) {
+		final Map<Object, Integer> slots = new HashMap<Object, Integer>();
+		final Program program0 = new Program(slots);
+		final Program program1 = new Program(slots);
+		final long[] degree0 = program0.compile(expr0);
+		final long[] degree1 = (degree0 == null) ? null : program1.compile(expr1);
+
+		if (degree1 == null) {
+			return Verdict.UNSUPPORTED;
+		}
+
+		//Degree of numerator0 * denominator1 - numerator1 * denominator0, which is zero for every point only if the Expressions are identical
+		final long degree = Math.max(saturatingAdd(degree0[0], degree1[1]), saturatingAdd(degree1[0], degree0[1]));
+		final long poles = saturatingAdd(program0.poleDegree, program1.poleDegree);
+
+		if (saturatingAdd(degree, poles) >= PRIME) {
+			return Verdict.UNSUPPORTED;
+		}
+
+		final int trials = trials(degree, poles);
+		final long[] point = new long[slots.size()];
+		final long[] result0 = new long[2];
+		final long[] result1 = new long[2];
+		final long[][] stack = new long[2][Math.max(program0.maxDepth, program1.maxDepth)];
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+		for (int trial = 0; trial < trials; trial++) {
+			boolean defined = false;
+
+			for (int attempt = 0; attempt < MAX_RESAMPLES && !defined; attempt++) {
+				for (int i = 0; i < point.length; i++) {
+					point[i] = random.nextLong(PRIME);
+				}
+
+				defined = program0.evaluate(point, stack, result0) && program1.evaluate(point, stack, result1);
+			}
+
+			if (!defined) {
+				return Verdict.UNSUPPORTED;
+			}
+
+			if (multiply(result0[0], result1[1]) != multiply(result1[0], result0[1])) {
+				return Verdict.DIFFERENT;
+			}
+		}
+
+		return Verdict.IDENTICAL;
+	}
+
+	/**
+	 * Returns the number of random points needed to reach {@link #errorBound}. A nonzero polynomial of degree
+	 * <code>d</code> is zero at a random point with probability at most <code>d/p</code>; random points at which a divisor is
+	 * zero are replaced, which raises this to at most <code>d/(p - poles)</code>.
+	 *
+	 * @param degree degree of the polynomial that is zero only if the Expressions are identical
+	 * @param poles sum of the degrees of every divisor
+	 * @return number of random points
+	 */
+	private int trials(final long degree, final long poles) {
+		if (degree == 0) {
+			return 1;
+		}
+
+		final double perTrial = degree / (double) (PRIME - poles);
+		return Math.max(1, (int) Math.ceil(Math.log(errorBound) / Math.log(perTrial)));
+	}
+
+	/**
+	 * A rational Expression compiled into postfix instructions over the field of integers modulo {@link #PRIME}. Every operand is
+	 * kept as a fraction, so that no inverses need to be computed.
+	 */
+	private final class Program {
+
+		/**
+		 * Maps the free variables of both Expressions (names, {@link Value#PI}, and {@link Value#E}) to indices in the random point
+		 */
+		private final Map<Object, Integer> slots;
+
+		/**
+		 * Instruction kinds
+		 */
+		private byte[] instructions = new byte[16];
+
+		/**
+		 * Constant numerator, variable slot, or exponent of each instruction
+		 */
+		private long[] args0 = new long[16];
+
+		/**
+		 * Constant denominator of each instruction
+		 */
+		private long[] args1 = new long[16];
+
+		/**
+		 * Number of instructions
+		 */
+		private int length = 0;
+
+		/**
+		 * Largest number of operands on the stack at once
+		 */
+		private int maxDepth = 0;
+
+		/**
+		 * Sum of the degrees of every divisor and negative power base
+		 */
+		private long poleDegree = 0;
+
+		/**
+		 * Constant names that are being expanded, to detect constants that are defined in terms of themselves
+		 */
+		private final Map<String, Boolean> expanding = new HashMap<String, Boolean>();
+
+		/**
+		 * Creates an empty program.
+		 *
+		 * @param _slots free variable slots shared by the Expressions being compared
+		 */
+		private Program(final Map<Object, Integer> _slots) {
+			slots = _slots;
+		}
+
+		/**
+		 * Compiles an Expression and returns bounds on the degrees of the numerator and denominator that are computed for it.
+		 *
+		 * @param expression Expression to compile
+		 * @return <code>{numerator degree, denominator degree}</code>, or null if the Expression is not rational
+		 */
+		private long[] compile(final Expression expression) {
+			return compile(expression, 0);
+		}
+
+		/**
+		 * Compiles an Expression and returns bounds on the degrees of the numerator and denominator that are computed for it.
+		 *
+		 * @param expression Expression to compile
+		 * @param depth number of operands already on the stack
+		 * @return <code>{numerator degree, denominator degree}</code>, or null if the Expression is not rational
+		 */
+		private long[] compile(final Expression expression, final int depth) {
+			maxDepth = Math.max(maxDepth, depth + 1);
+
+			if (expression instanceof Value) {
+				final Value value = (Value) expression;
+
+				if (value == Value.PI || value == Value.E) {
+					return variable(value);
+				}
+
+				return constant(value.value) ? new long[] {0, 0} : null;
+			} else if (expression instanceof Unknown) {
+				final String name = ((Unknown) expression).varName;
+				final Constant constant = constants.get(name);
+
+				if (constant == null) {
+					return variable(name);
+				} else if (expanding.containsKey(name)) {
+					return null;
+				}
+
+				expanding.put(name, true);
+				final long[] degree = compile(constant.expression, depth);
+				expanding.remove(name);
+
+				return degree;
+			} else if (expression instanceof SymbolicResult) {
+				return compile((SymbolicResult) expression, depth);
+			} else {
+				return null;
+			}
+		}
+
+		/**
+		 * Compiles an operation and returns bounds on the degrees of the numerator and denominator that are computed for it.
+		 *
+		 * @param result operation to compile
+		 * @param depth number of operands already on the stack
+		 * @return <code>{numerator degree, denominator degree}</code>, or null if the operation is not rational
+		 */
+		private long[] compile(final SymbolicResult result, final int depth) {
+			if (result.operation instanceof Power) {
+				final long exponent = integerExponent(result.operand2);
+				final long[] base = (exponent == Long.MIN_VALUE) ? null : compile(result.operand1, depth);
+
+				if (base == null) {
+					return null;
+				}
+
+				emit(POWER, exponent, 0);
+
+				if (exponent >= 0) {
+					return new long[] {saturatingMultiply(base[0], exponent), saturatingMultiply(base[1], exponent)};
+				} else {
+					poleDegree = saturatingAdd(poleDegree, base[0]);
+					return new long[] {saturatingMultiply(base[1], -exponent), saturatingMultiply(base[0], -exponent)};
+				}
+			}
+
+			final byte kind;
+			if (result.operation instanceof Add) {
+				kind = ADD;
+			} else if (result.operation instanceof Subtract) {
+				kind = SUBTRACT;
+			} else if (result.operation instanceof Multiply) {
+				kind = MULTIPLY;
+			} else if (result.operation instanceof Divide) {
+				kind = DIVIDE;
+			} else {
+				return null;
+			}
+
+			final long[] d0 = compile(result.operand1, depth);
+			final long[] d1 = (d0 == null) ? null : compile(result.operand2, depth + 1);
+
+			if (d1 == null) {
+				return null;
+			}
+
+			emit(kind, 0, 0);
+
+			switch (kind) {
+				case ADD:
+				case SUBTRACT:
+					return new long[] {Math.max(saturatingAdd(d0[0], d1[1]), saturatingAdd(d1[0], d0[1])), saturatingAdd(d0[1], d1[1])};
+				case MULTIPLY:
+					return new long[] {saturatingAdd(d0[0], d1[0]), saturatingAdd(d0[1], d1[1])};
+				default:
+					poleDegree = saturatingAdd(poleDegree, d1[0]);
+					return new long[] {saturatingAdd(d0[0], d1[1]), saturatingAdd(d0[1], d1[0])};
+			}
+		}
+
+		/**
+		 * Returns the value of an exponent if it is a constant integer no larger than {@link Integer#MAX_VALUE} in magnitude.
+		 *
+		 * @param exponent exponent Expression
+		 * @return value of the exponent, or {@link Long#MIN_VALUE} if it is not a constant integer
+		 */
+		private long integerExponent(final Expression exponent) {
+			if (!exponent.getUnknowns(constants).isEmpty()) {
+				return Long.MIN_VALUE;
+			}
+
+			final double value;
+			try {
+				value = exponent.evaluate(constants);
+			} catch (final RuntimeException e) {
+				return Long.MIN_VALUE;
+			}
+
+			if (value != Math.rint(value) || Math.abs(value) > Integer.MAX_VALUE) {
+				return Long.MIN_VALUE;
+			}
+
+			return (long) value;
+		}
+
+		/**
+		 * Emits an instruction that pushes a free variable.
+		 *
+		 * @param key name or {@link Value} identifying the variable
+		 * @return degrees of the variable
+		 */
+		private long[] variable(final Object key) {
+			Integer slot = slots.get(key);
+
+			if (slot == null) {
+				slot = slots.size();
+				slots.put(key, slot);
+			}
+
+			emit(VARIABLE, slot, 0);
+			return new long[] {1, 0};
+		}
+
+		/**
+		 * Emits an instruction that pushes a number, taken to be the shortest decimal that represents it.
+		 *
+		 * @param value number
+		 * @return false if the number is not finite
+		 */
+		private boolean constant(final double value) {
+			if (!Double.isFinite(value)) {
+				return false;
+			}
+
+			final BigDecimal decimal = new BigDecimal(Double.toString(value));
+			final BigInteger prime = BigInteger.valueOf(PRIME);
+			final BigInteger unscaled = decimal.unscaledValue().mod(prime);
+			final BigInteger scale = BigInteger.TEN.modPow(BigInteger.valueOf(Math.abs(decimal.scale())), prime);
+
+			if (decimal.scale() >= 0) {
+				emit(CONSTANT, unscaled.longValue(), scale.longValue());
+			} else {
+				emit(CONSTANT, unscaled.multiply(scale).mod(prime).longValue(), 1);
+			}
+
+			return true;
+		}
+
+		/**
+		 * Appends an instruction.
+		 *
+		 * @param kind instruction kind
+		 * @param arg0 numerator, slot, or exponent
+		 * @param arg1 denominator
+		 */
+		private void emit(final byte kind, final long arg0, final long arg1) {
+			if (length == instructions.length) {
+				final int capacity = length * 2;
+				final byte[] newInstructions = new byte[capacity];
+				final long[] newArgs0 = new long[capacity];
+				final long[] newArgs1 = new long[capacity];
+
+				System.arraycopy(instructions, 0, newInstructions, 0, length);
+				System.arraycopy(args0, 0, newArgs0, 0, length);
+				System.arraycopy(args1, 0, newArgs1, 0, length);
+
+				instructions = newInstructions;
+				args0 = newArgs0;
+				args1 = newArgs1;
+			}
+
+			instructions[length] = kind;
+			args0[length] = arg0;
+			args1[length++] = arg1;
+		}
+
+		/**
+		 * Evaluates this program at a point, as a fraction modulo {@link #PRIME}.
+		 *
+		 * @param point values of the free variables
+		 * @param stack scratch space for numerators (<code>stack[0]</code>) and denominators (<code>stack[1]</code>)
+		 * @param out receives the numerator and denominator of the result
+		 * @return false if a divisor is zero at this point
+		 */
+		private boolean evaluate(final long[] point, final long[][] stack, final long[] out) {
+			final long[] num = stack[0];
+			final long[] den = stack[1];
+			int top = 0;
+
+			for (int i = 0; i < length; i++) {
+				switch (instructions[i]) {
+					case CONSTANT:
+						num[top] = args0[i];
+						den[top++] = args1[i];
+						break;
+					case VARIABLE:
+						num[top] = point[(int) args0[i]];
+						den[top++] = 1;
+						break;
+					case POWER: {
+						final long exponent = args0[i];
+
+						if (exponent < 0) {
+							if (num[top - 1] == 0) {
+								return false;
+							}
+
+							final long swap = num[top - 1];
+							num[top - 1] = pow(den[top - 1], -exponent);
+							den[top - 1] = pow(swap, -exponent);
+						} else {
+							num[top - 1] = pow(num[top - 1], exponent);
+							den[top - 1] = pow(den[top - 1], exponent);
+						}
+						break;
+					}
+					default: {
+						top--;
+						final long a = num[top - 1];
+						final long b = den[top - 1];
+						final long c = num[top];
+						final long d = den[top];
+
+						switch (instructions[i]) {
+							case ADD:
+								num[top - 1] = add(multiply(a, d), multiply(c, b));
+								den[top - 1] = multiply(b, d);
+								break;
+							case SUBTRACT:
+								num[top - 1] = add(multiply(a, d), PRIME - multiply(c, b));
+								den[top - 1] = multiply(b, d);
+								break;
+							case MULTIPLY:
+								num[top - 1] = multiply(a, c);
+								den[top - 1] = multiply(b, d);
+								break;
+							case DIVIDE:
+								if (c == 0) {
+									return false;
+								}
+
+								num[top - 1] = multiply(a, d);
+								den[top - 1] = multiply(b, c);
+								break;
+						}
+						break;
+					}
+				}
+			}
+
+			out[0] = num[0];
+			out[1] = den[0];
+			return true;
+		}
+	}
+
+	/**
+	 * Adds two residues modulo {@link #PRIME}.
+	 *
+	 * @param a first residue, in <code>[0, PRIME)</code>
+	 * @param b second residue, in <code>[0, PRIME]</code>
+	 * @return <code>(a + b) mod PRIME</code>
+	 */
+	private static long add(final long a, final long b) {
+		final long sum = a + b;
+		return (sum >= PRIME) ? sum - PRIME : sum;
+	}
+
+	/**
+	 * Multiplies two residues modulo {@link #PRIME}. Because <code>2^61</code> is 1 modulo the prime, the high and low parts
+	 * of the 122-bit product can be added instead of divided.
+	 *
+	 * @param a first residue, in <code>[0, PRIME)</code>
+	 * @param b second residue, in <code>[0, PRIME)</code>
+	 * @return <code>(a * b) mod PRIME</code>
+	 */
+	private static long multiply(final long a, final long b) {
+		final long low = a * b;
+		final long high = Math.multiplyHigh(a, b);
+		final long sum = ((high << 3) | (low >>> 61)) + (low & PRIME);
+
+		return (sum >= PRIME) ? sum - PRIME : sum;
+	}
+
+	/**
+	 * Raises a residue to a non-negative power modulo {@link #PRIME}.
+	 *
+	 * @param base residue
+	 * @param exponent non-negative exponent
+	 * @return <code>(base ^ exponent) mod PRIME</code>
+	 */
+	private static long pow(final long base, final long exponent) {
+		long result = 1;
+		long square = base;
+
+		for (long e = exponent; e != 0; e >>>= 1) {
+			if ((e & 1) != 0) {
+				result = multiply(result, square);
+			}
+
+			square = multiply(square, square);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds two non-negative degrees without overflowing.
+	 *
+	 * @param a first degree
+	 * @param b second degree
+	 * @return <code>a + b</code>, or {@link Long#MAX_VALUE} if the sum overflows
+	 */
+	private static long saturatingAdd(final long a, final long b) {
+		final long sum = a + b;
+		return (sum < 0) ? Long.MAX_VALUE : sum;
+	}
+
+	/**
+	 * Multiplies two non-negative degrees without overflowing.
+	 *
+	 * @param a first degree
+	 * @param b second degree
+	 * @return <code>a * b</code>, or {@link Long#MAX_VALUE} if the product overflows
+	 */
+	private static long saturatingMultiply(final long a, final long b) {
+		return (Math.multiplyHigh(a, b) != 0 || a * b < 0) ? Long.MAX_VALUE : a * b;
+	}
+}
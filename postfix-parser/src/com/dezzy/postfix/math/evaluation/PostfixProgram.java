@@ -0,0 +1,149 @@
+package com.dezzy.postfix.math.evaluation;
+
+import com.dezzy.postfix.math.Function;
+import com.dezzy.postfix.math.Operation;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicFunction;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicResult;
+import com.dezzy.postfix.math.symbolic.structure.Unknown;
+import com.dezzy.postfix.math.symbolic.structure.Value;
+
+/**
+ * An {@link Expression} tree flattened into a linear sequence of postfix instructions. Evaluators that run the same
+ * Expression many times compile it into a PostfixProgram once, resolve its names once, and then execute the instructions
+ * with a stack instead of walking the tree. Instruction <code>i</code> is described by {@link #instructions instructions[i]},
+ * and by the element at index <code>i</code> of the array that matches its kind.
+ *
+ * @author Joe Desmond
+ */
+public final class PostfixProgram {
+
+	/**
+	 * Pushes {@link #values values[i]}; compiled from a {@link Value}
+	 */
+	public static final byte VALUE = 0;
+
+	/**
+	 * Pushes the value of the name {@link #names names[i]}; compiled from an {@link Unknown}
+	 */
+	public static final byte NAME = 1;
+
+	/**
+	 * Pops two operands and pushes the result of {@link #operations operations[i]}; compiled from a {@link SymbolicResult}
+	 */
+	public static final byte OPERATION = 2;
+
+	/**
+	 * Pops one argument and pushes the result of {@link #functions functions[i]}; compiled from a {@link SymbolicFunction}
+	 */
+	public static final byte FUNCTION = 3;
+
+	/**
+	 * The kind of each instruction, in execution order
+	 */
+	public final byte[] instructions;
+
+	/**
+	 * Known values of {@link #VALUE} instructions
+	 */
+	public final double[] values;
+
+	/**
+	 * Variable or constant names of {@link #NAME} instructions
+	 */
+	public final String[] names;
+
+	/**
+	 * Operations of {@link #OPERATION} instructions
+	 */
+	public final Operation[] operations;
+
+	/**
+	 * Functions of {@link #FUNCTION} instructions
+	 */
+	public final Function[] functions;
+
+	/**
+	 * The number of instructions in this program
+	 */
+	public final int length;
+
+	/**
+	 * The largest number of operands that will be on the stack at once while this program executes
+	 */
+	public final int maxDepth;
+
+	/**
+	 * Index of the next instruction to be written while compiling
+	 */
+	private int next = 0;
+
+	/**
+	 * Compiles the given Expression into a PostfixProgram.
+	 *
+	 * @param expression expression to compile
+	 * @throws IllegalArgumentException if the Expression contains a node that is not a {@link Value}, {@link Unknown},
+	 * 			{@link SymbolicResult}, or {@link SymbolicFunction}
+	 */
+	public PostfixProgram(final Expression expression) {
+		length = size(expression);
+		instructions = new byte[length];
+		values = new double[length];
+		names = new String[length];
+		operations = new Operation[length];
+		functions = new Function[length];
+		maxDepth = compile(expression);
+	}
+
+	/**
+	 * Returns the number of nodes in an Expression tree.
+	 *
+	 * @param expression Expression tree
+	 * @return number of nodes
+	 */
+	private static int size(final Expression expression) {
+		if (expression instanceof SymbolicResult) {
+			final SymbolicResult result = (SymbolicResult) expression;
+			return 1 + size(result.operand1) + size(result.operand2);
+		} else if (expression instanceof SymbolicFunction) {
+			return 1 + size(((SymbolicFunction) expression).argument);
+		} else {
+			return 1;
+		}
+	}
+
+	/**
+	 * Writes the instructions for an Expression in postfix order.
+	 *
+	 * @param expression Expression to compile
+	 * @return the stack depth needed to execute the instructions for <code>expression</code>
+	 */
+	private int compile(final Expression expression) {
+		if (expression instanceof Value) {
+			instructions[next] = VALUE;
+			values[next++] = ((Value) expression).value;
+			return 1;
+		} else if (expression instanceof Unknown) {
+			instructions[next] = NAME;
+			names[next++] = ((Unknown) expression).varName;
+			return 1;
+		} else if (expression instanceof SymbolicResult) {
+			final SymbolicResult result = (SymbolicResult) expression;
+			final int depth1 = compile(result.operand1);
+			final int depth2 = compile(result.operand2);
+
+			instructions[next] = OPERATION;
+			operations[next++] = result.operation;
+			return Math.max(depth1, depth2 + 1);
+		} else if (expression instanceof SymbolicFunction) {
+			final SymbolicFunction function = (SymbolicFunction) expression;
+			final int depth = compile(function.argument);
+
+			instructions[next] = FUNCTION;
+			functions[next++] = function.function;
+			return depth;
+		} else {
+			throw new IllegalArgumentException("Cannot compile an Expression of type " + expression.getClass().getName() + "!");
+		}
+	}
+}
@@ -0,0 +1,875 @@
+package com.dezzy.postfix.math.precise;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Arbitrary-precision elementary functions on {@link BigDecimal BigDecimals}. Every public function returns its result
+ * rounded to the requested {@link MathContext}; transcendental results are correctly rounded, which is done with Ziv's strategy:
+ * the result is approximated with some extra guard digits, and the approximation is accepted only if every value within its
+ * error bound rounds to the same result. Otherwise the approximation is repeated with twice as many guard digits.
+ * <p>
+ * Functions throw an {@link ArithmeticException} for arguments outside of their real domain, and an {@link IllegalArgumentException}
+ * if the MathContext has unlimited precision, because a transcendental result cannot be represented exactly.
+ *
+ * @author Joe Desmond
+ */
+public final class BigMath {
+
+	/**
+	 * Guard digits used for the first approximation of a correctly rounded result
+	 */
+	private static final int GUARD_DIGITS = 8;
+
+	/**
+	 * Guard digits after which Ziv's strategy gives up and returns the best approximation. Only a result that is representable
+	 * at the target precision, or exactly halfway between two representable numbers, can need this many: no other function
+	 * has such results for the arguments that reach Ziv's strategy, and {@link #pow(BigDecimal, BigDecimal, MathContext)}
+	 * computes such results exactly instead.
+	 */
+	private static final int MAX_GUARD_DIGITS = 1024;
+
+	/**
+	 * Error bound of every kernel, in units in the last place of the working precision
+	 */
+	private static final BigDecimal KERNEL_ERROR_ULPS = BigDecimal.valueOf(64);
+
+	/**
+	 * Extra digits used internally by kernels so that they stay within {@link #KERNEL_ERROR_ULPS}
+	 */
+	private static final int KERNEL_DIGITS = 5;
+
+	/**
+	 * 2
+	 */
+	private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+	/**
+	 * Pi with the most digits computed so far
+	 */
+	private static volatile BigDecimal piCache = BigDecimal.ZERO;
+
+	/**
+	 * The natural logarithm of 10 with the most digits computed so far
+	 */
+	private static volatile BigDecimal ln10Cache = BigDecimal.ZERO;
+
+	private BigMath() {
+
+	}
+
+	/**
+	 * An approximation of a function with an error of at most {@link BigMath#KERNEL_ERROR_ULPS} at the given precision.
+	 */
+	@FunctionalInterface
+	private interface Kernel {
+
+		/**
+		 * Approximates a function.
+		 *
+		 * @param x argument
+		 * @param mc working precision
+		 * @return approximate result
+		 */
+		BigDecimal approximate(final BigDecimal x, final MathContext mc);
+	}
+
+	/**
+	 * Returns pi, rounded to the given precision.
+	 *
+	 * @param mc precision
+	 * @return pi
+	 */
+	public static BigDecimal pi(final MathContext mc) {
+		checkPrecision(mc);
+		return piDigits(mc.getPrecision() + 2).round(mc);
+	}
+
+	/**
+	 * Returns Euler's number, rounded to the given precision.
+	 *
+	 * @param mc precision
+	 * @return <i>e</i>
+	 */
+	public static BigDecimal e(final MathContext mc) {
+		return exp(BigDecimal.ONE, mc);
+	}
+
+	/**
+	 * Computes <code>e ^ x</code>.
+	 *
+	 * @param x exponent
+	 * @param mc precision
+	 * @return <code>e ^ x</code>
+	 */
+	public static BigDecimal exp(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() == 0) {
+			return BigDecimal.ONE.round(mc);
+		}
+
+		return correctlyRounded(BigMath::expKernel, x, mc);
+	}
+
+	/**
+	 * Computes the natural logarithm of <code>x</code>.
+	 *
+	 * @param x a positive number
+	 * @param mc precision
+	 * @return <code>ln(x)</code>
+	 * @throws ArithmeticException if <code>x</code> is not positive
+	 */
+	public static BigDecimal ln(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() <= 0) {
+			throw new ArithmeticException("Logarithm of a non-positive number!");
+		} else if (x.compareTo(BigDecimal.ONE) == 0) {
+			return BigDecimal.ZERO;
+		}
+
+		return correctlyRounded(BigMath::lnKernel, x, mc);
+	}
+
+	/**
+	 * Computes the base 10 logarithm of <code>x</code>. Exact powers of 10 have exact integer logarithms.
+	 *
+	 * @param x a positive number
+	 * @param mc precision
+	 * @return <code>log10(x)</code>
+	 * @throws ArithmeticException if <code>x</code> is not positive
+	 */
+	public static BigDecimal log10(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() <= 0) {
+			throw new ArithmeticException("Logarithm of a non-positive number!");
+		}
+
+		final BigDecimal stripped = x.stripTrailingZeros();
+		if (stripped.unscaledValue().equals(BigInteger.ONE)) {
+			return BigDecimal.valueOf(-stripped.scale()).round(mc);
+		}
+
+		return correctlyRounded((arg, working) -> {
+			final MathContext inner = extend(working, KERNEL_DIGITS);
+			return lnKernel(arg, inner).divide(ln10(inner), working);
+		}, x, mc);
+	}
+
+	/**
+	 * Computes the square root of <code>x</code>, correctly rounded with the rounding mode of <code>mc</code>. The result at
+	 * the target precision is truncated from an approximation and corrected with exact squares, so that it is the largest
+	 * number with that precision whose square is at most <code>x</code>. If the root is not exact, a number strictly between
+	 * that result and the next one, on the same side of their midpoint as the root, is then rounded with <code>mc</code>.
+	 *
+	 * @param x a non-negative number
+	 * @param mc precision
+	 * @return <code>sqrt(x)</code>
+	 * @throws ArithmeticException if <code>x</code> is negative, or if the rounding mode is
+	 * 			{@link RoundingMode#UNNECESSARY} and the root is not exact
+	 */
+	public static BigDecimal sqrt(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() < 0) {
+			throw new ArithmeticException("Square root of a negative number!");
+		} else if (x.signum() == 0) {
+			return BigDecimal.ZERO;
+		}
+
+		final int precision = mc.getPrecision();
+		BigDecimal root = x.sqrt(new MathContext(precision + 2, RoundingMode.HALF_EVEN)).round(new MathContext(precision, RoundingMode.DOWN));
+		BigDecimal ulp = ulp(root, precision);
+
+		while (root.multiply(root).compareTo(x) > 0) {
+			root = root.subtract(ulp);
+			ulp = ulp(root, precision);
+		}
+
+		while (root.add(ulp).multiply(root.add(ulp)).compareTo(x) <= 0) {
+			root = root.add(ulp);
+			ulp = ulp(root, precision);
+		}
+
+		if (root.multiply(root).compareTo(x) == 0) {
+			return root.round(mc);
+		}
+
+		final BigDecimal midpoint = root.add(ulp.divide(TWO));
+		final int side = x.compareTo(midpoint.multiply(midpoint));
+		final BigDecimal quarter = ulp.divide(BigDecimal.valueOf(4));
+
+		if (side < 0) {
+			return root.add(quarter).round(mc);
+		} else if (side > 0) {
+			return midpoint.add(quarter).round(mc);
+		} else {
+			return midpoint.round(mc);
+		}
+	}
+
+	/**
+	 * Returns one unit in the last place of a positive number with the given precision.
+	 *
+	 * @param x positive number
+	 * @param precision number of significant digits
+	 * @return <code>10 ^ (e - precision + 1)</code>, where <code>e</code> is the exponent of the leading digit of <code>x</code>
+	 */
+	private static BigDecimal ulp(final BigDecimal x, final int precision) {
+		return BigDecimal.ONE.scaleByPowerOfTen(x.precision() - x.scale() - precision);
+	}
+
+	/**
+	 * Computes <code>x ^ y</code>. Integer exponents are computed exactly when the exact result is reasonably small, and with
+	 * {@link BigDecimal#pow(int, MathContext)} otherwise. Other exponents are computed as <code>e ^ (y * ln(x))</code>, unless
+	 * the result is algebraic and exact: if <code>y = p / q</code> in lowest terms and <code>x</code> has an exact
+	 * <code>q</code>-th root, the result is that root raised to the integer power <code>p</code>.
+	 *
+	 * @param x base
+	 * @param y exponent
+	 * @param mc precision
+	 * @return <code>x ^ y</code>
+	 * @throws ArithmeticException if <code>x</code> is negative and <code>y</code> is not an integer, or if <code>x</code>
+	 * 			is zero and <code>y</code> is negative
+	 */
+	public static BigDecimal pow(final BigDecimal x, final BigDecimal y, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (y.signum() == 0) {
+			return BigDecimal.ONE.round(mc);
+		} else if (x.signum() == 0) {
+			if (y.signum() < 0) {
+				throw new ArithmeticException("Zero raised to a negative power!");
+			}
+
+			return BigDecimal.ZERO;
+		}
+
+		final boolean integerExponent = y.stripTrailingZeros().scale() <= 0;
+		final BigDecimal stripped = x.stripTrailingZeros();
+		final BigInteger unscaled = stripped.unscaledValue().abs();
+
+		if (integerExponent && y.abs().compareTo(BigDecimal.valueOf(999999999)) <= 0) {
+			final int n = y.intValueExact();
+			final long exactDigits = unscaled.equals(BigInteger.ONE) ? 1 : (long) stripped.precision() * Math.abs(n);
+
+			//Beyond this many digits, neither x ^ n nor 1 / x ^ -n can be exact at the target precision
+			if (exactDigits <= 4L * mc.getPrecision() + 64) {
+				return (n > 0) ? stripped.pow(n).round(mc) : BigDecimal.ONE.divide(stripped.pow(-n), mc);
+			}
+
+			return correctlyRounded((arg, working) -> arg.pow(n, extend(working, KERNEL_DIGITS + digits(Math.abs(n)))), x, mc);
+		} else if (x.signum() < 0) {
+			if (!integerExponent) {
+				throw new ArithmeticException("Negative number raised to a non-integer power!");
+			}
+
+			final BigDecimal magnitude = pow(x.negate(), y, mc);
+			return y.toBigIntegerExact().testBit(0) ? magnitude.negate() : magnitude;
+		} else if (y.compareTo(BigDecimal.valueOf(5, 1)) == 0) {
+			return sqrt(x, mc);
+		} else if (unscaled.equals(BigInteger.ONE)) {
+			//x is a power of ten, so x ^ y is exact if the product of y and that power is an integer
+			final BigDecimal exponent = y.multiply(BigDecimal.valueOf(-stripped.scale()));
+
+			if (exponent.stripTrailingZeros().scale() <= 0 && exponent.abs().compareTo(BigDecimal.valueOf(999999999)) <= 0) {
+				return BigDecimal.ONE.scaleByPowerOfTen(exponent.intValueExact()).round(mc);
+			}
+		} else {
+			//x ^ (p / q) can only be exact if x is the q-th power of an exact root, which needs q <= log2(unscaled)
+			final BigDecimal fraction = y.stripTrailingZeros();
+			final BigInteger power = BigInteger.TEN.pow(Math.min(fraction.scale(), 64));
+			final BigInteger gcd = fraction.unscaledValue().gcd(power);
+			final BigInteger q = power.divide(gcd);
+
+			if (fraction.scale() <= 64 && q.compareTo(BigInteger.valueOf(unscaled.bitLength())) <= 0) {
+				final BigDecimal root = exactRoot(stripped, q.intValue());
+
+				if (root != null) {
+					return pow(root, new BigDecimal(fraction.unscaledValue().divide(gcd)), mc);
+				}
+			}
+		}
+
+		return correctlyRounded((arg, working) -> {
+			//The error of ln(x) is scaled by the magnitude of y * ln(x) when it is exponentiated
+			final double estimate = Math.abs(y.doubleValue() * Math.log(arg.doubleValue()));
+			final int extra = (Double.isFinite(estimate) && estimate > 1) ? digits((long) Math.ceil(estimate)) : 16;
+			final MathContext inner = extend(working, KERNEL_DIGITS + extra);
+
+			return expKernel(y.multiply(lnKernel(arg, inner), inner), inner);
+		}, x, mc);
+	}
+
+	/**
+	 * Finds the exact root of a positive number, if it has one. If <code>x = r ^ q</code>, the unscaled value of <code>r</code>
+	 * has at most <code>precision(x) / q + 1</code> digits, so an approximation with a few more digits than <code>x</code>
+	 * rounds to <code>r</code>, and raising it to the power <code>q</code> confirms it.
+	 *
+	 * @param x positive number, without trailing zeros
+	 * @param q degree of the root
+	 * @return the number <code>r</code> with <code>r ^ q = x</code>, or null if it cannot be represented exactly
+	 */
+	private static BigDecimal exactRoot(final BigDecimal x, final int q) {
+		//The error of ln(x) is scaled by the magnitude of ln(x) / q when it is exponentiated
+		final int extra = digits(3L * (Math.abs(magnitude(x)) + 1));
+		final MathContext working = new MathContext(x.precision() + KERNEL_DIGITS + extra + GUARD_DIGITS, RoundingMode.HALF_EVEN);
+		final BigDecimal approximation = expKernel(lnKernel(x, working).divide(BigDecimal.valueOf(q), working), working);
+		final BigDecimal root = approximation.round(new MathContext(x.precision() / q + 1, RoundingMode.HALF_EVEN));
+
+		return (root.pow(q).compareTo(x) == 0) ? root : null;
+	}
+
+	/**
+	 * Computes the sine of <code>x</code>.
+	 *
+	 * @param x angle, in radians
+	 * @param mc precision
+	 * @return <code>sin(x)</code>
+	 */
+	public static BigDecimal sin(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() == 0) {
+			return BigDecimal.ZERO;
+		}
+
+		return correctlyRounded((arg, working) -> sinCosKernel(arg, working, false), x, mc);
+	}
+
+	/**
+	 * Computes the cosine of <code>x</code>.
+	 *
+	 * @param x angle, in radians
+	 * @param mc precision
+	 * @return <code>cos(x)</code>
+	 */
+	public static BigDecimal cos(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() == 0) {
+			return BigDecimal.ONE.round(mc);
+		}
+
+		return correctlyRounded((arg, working) -> sinCosKernel(arg, working, true), x, mc);
+	}
+
+	/**
+	 * Computes the tangent of <code>x</code>.
+	 *
+	 * @param x angle, in radians
+	 * @param mc precision
+	 * @return <code>tan(x)</code>
+	 */
+	public static BigDecimal tan(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() == 0) {
+			return BigDecimal.ZERO;
+		}
+
+		return correctlyRounded((arg, working) -> {
+			final MathContext inner = extend(working, KERNEL_DIGITS);
+			return sinCosKernel(arg, inner, false).divide(sinCosKernel(arg, inner, true), working);
+		}, x, mc);
+	}
+
+	/**
+	 * Computes the inverse sine of <code>x</code>.
+	 *
+	 * @param x a number in <code>[-1, 1]</code>
+	 * @param mc precision
+	 * @return <code>asin(x)</code>, in <code>[-pi/2, pi/2]</code>
+	 * @throws ArithmeticException if <code>|x| &gt; 1</code>
+	 */
+	public static BigDecimal asin(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		final int cmp = x.abs().compareTo(BigDecimal.ONE);
+
+		if (cmp > 0) {
+			throw new ArithmeticException("Inverse sine of a number outside of [-1, 1]!");
+		} else if (x.signum() == 0) {
+			return BigDecimal.ZERO;
+		} else if (cmp == 0) {
+			final BigDecimal halfPi = pi(extend(mc, 2)).divide(TWO);
+			return (x.signum() > 0 ? halfPi : halfPi.negate()).round(mc);
+		}
+
+		//1 - x^2 is computed exactly, so that there is no cancellation near |x| = 1
+		return correctlyRounded((arg, working) -> {
+			final MathContext inner = extend(working, KERNEL_DIGITS);
+			final BigDecimal root = BigDecimal.ONE.subtract(arg.multiply(arg)).sqrt(inner);
+			return atanKernel(arg.divide(root, inner), inner);
+		}, x, mc);
+	}
+
+	/**
+	 * Computes the inverse cosine of <code>x</code>.
+	 *
+	 * @param x a number in <code>[-1, 1]</code>
+	 * @param mc precision
+	 * @return <code>acos(x)</code>, in <code>[0, pi]</code>
+	 * @throws ArithmeticException if <code>|x| &gt; 1</code>
+	 */
+	public static BigDecimal acos(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		final int cmp = x.abs().compareTo(BigDecimal.ONE);
+
+		if (cmp > 0) {
+			throw new ArithmeticException("Inverse cosine of a number outside of [-1, 1]!");
+		} else if (cmp == 0) {
+			return (x.signum() > 0) ? BigDecimal.ZERO : pi(mc);
+		}
+
+		//acos(x) = 2 * atan(sqrt((1 - x) / (1 + x))), where 1 - x and 1 + x are exact
+		return correctlyRounded((arg, working) -> {
+			final MathContext inner = extend(working, KERNEL_DIGITS);
+			final BigDecimal ratio = BigDecimal.ONE.subtract(arg).divide(BigDecimal.ONE.add(arg), inner);
+			return atanKernel(ratio.sqrt(inner), inner).multiply(TWO);
+		}, x, mc);
+	}
+
+	/**
+	 * Computes the inverse tangent of <code>x</code>.
+	 *
+	 * @param x any number
+	 * @param mc precision
+	 * @return <code>atan(x)</code>, in <code>(-pi/2, pi/2)</code>
+	 */
+	public static BigDecimal atan(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() == 0) {
+			return BigDecimal.ZERO;
+		}
+
+		return correctlyRounded(BigMath::atanKernel, x, mc);
+	}
+
+	/**
+	 * Computes the hyperbolic sine of <code>x</code>.
+	 *
+	 * @param x any number
+	 * @param mc precision
+	 * @return <code>sinh(x)</code>
+	 */
+	public static BigDecimal sinh(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() == 0) {
+			return BigDecimal.ZERO;
+		}
+
+		return correctlyRounded(BigMath::sinhKernel, x, mc);
+	}
+
+	/**
+	 * Computes the hyperbolic cosine of <code>x</code>.
+	 *
+	 * @param x any number
+	 * @param mc precision
+	 * @return <code>cosh(x)</code>
+	 */
+	public static BigDecimal cosh(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() == 0) {
+			return BigDecimal.ONE.round(mc);
+		}
+
+		return correctlyRounded((arg, working) -> {
+			final MathContext inner = extend(working, KERNEL_DIGITS);
+			final BigDecimal exp = expKernel(arg, inner);
+			return exp.add(BigDecimal.ONE.divide(exp, inner)).divide(TWO, inner);
+		}, x, mc);
+	}
+
+	/**
+	 * Computes the hyperbolic tangent of <code>x</code>.
+	 *
+	 * @param x any number
+	 * @param mc precision
+	 * @return <code>tanh(x)</code>
+	 */
+	public static BigDecimal tanh(final BigDecimal x, final MathContext mc) {
+		checkPrecision(mc);
+
+		if (x.signum() == 0) {
+			return BigDecimal.ZERO;
+		}
+
+		return correctlyRounded((arg, working) -> {
+			final MathContext inner = extend(working, KERNEL_DIGITS);
+			final BigDecimal sinh = sinhKernel(arg, inner);
+			final BigDecimal cosh = sinh.multiply(sinh).add(BigDecimal.ONE).sqrt(inner);
+			return sinh.divide(cosh, inner);
+		}, x, mc);
+	}
+
+	/**
+	 * Applies Ziv's strategy to a kernel: approximates the result with guard digits until the rounded result no longer depends
+	 * on the approximation error.
+	 *
+	 * @param kernel approximation of the function
+	 * @param x argument
+	 * @param mc target precision
+	 * @return correctly rounded result
+	 */
+	private static BigDecimal correctlyRounded(final Kernel kernel, final BigDecimal x, final MathContext mc) {
+		for (int guard = GUARD_DIGITS; ; guard *= 2) {
+			final MathContext working = extend(mc, guard);
+			final BigDecimal approximation = kernel.approximate(x, working).round(working);
+
+			if (approximation.signum() == 0 || guard >= MAX_GUARD_DIGITS) {
+				return approximation.round(mc);
+			}
+
+			final BigDecimal error = approximation.ulp().multiply(KERNEL_ERROR_ULPS);
+			final BigDecimal low = approximation.subtract(error).round(mc);
+			final BigDecimal high = approximation.add(error).round(mc);
+
+			if (low.compareTo(high) == 0) {
+				return approximation.round(mc);
+			}
+		}
+	}
+
+	/**
+	 * Approximates <code>e ^ x</code> by dividing <code>x</code> by a power of two, summing the Taylor series, and squaring the result.
+	 *
+	 * @param x exponent
+	 * @param mc working precision
+	 * @return approximation of <code>e ^ x</code>
+	 */
+	private static BigDecimal expKernel(final BigDecimal x, final MathContext mc) {
+		final int magnitude = magnitude(x);
+		final int halvings = Math.max(0, (int) Math.ceil((magnitude + 3) * 3.3219280948873626));
+		final MathContext inner = extend(mc, KERNEL_DIGITS + digits(halvings) + (int) Math.ceil(halvings * 0.3010299956639812));
+
+		final BigDecimal r = x.divide(new BigDecimal(BigInteger.ONE.shiftLeft(halvings)), inner);
+		BigDecimal sum = BigDecimal.ONE;
+		BigDecimal term = BigDecimal.ONE;
+
+		for (int k = 1; ; k++) {
+			term = term.multiply(r, inner).divide(BigDecimal.valueOf(k), inner);
+			sum = sum.add(term, inner);
+
+			if (term.signum() == 0 || isNegligible(term, sum, inner)) {
+				break;
+			}
+		}
+
+		for (int i = 0; i < halvings; i++) {
+			sum = sum.multiply(sum, inner);
+		}
+
+		return sum.round(mc);
+	}
+
+	/**
+	 * Approximates the natural logarithm of a positive number with Halley's method applied to <code>e ^ y - x</code>.
+	 *
+	 * @param x positive number
+	 * @param mc working precision
+	 * @return approximation of <code>ln(x)</code>
+	 */
+	private static BigDecimal lnKernel(final BigDecimal x, final MathContext mc) {
+		//Near 1, the result is small, so the argument is used as-is and the working precision is extended
+		final BigDecimal distance = x.subtract(BigDecimal.ONE);
+		if (distance.abs().compareTo(BigDecimal.valueOf(5, 1)) < 0) {
+			return halleyLn(x, extend(mc, KERNEL_DIGITS + Math.max(0, -magnitude(distance))));
+		}
+
+		//x = y * 10^k, with y in [1, 10)
+		final int k = magnitude(x);
+		final BigDecimal y = x.movePointLeft(k);
+		final MathContext inner = extend(mc, KERNEL_DIGITS + digits(Math.abs(k)));
+
+		final BigDecimal lnY = halleyLn(y, inner);
+		if (k == 0) {
+			return lnY.round(mc);
+		}
+
+		return lnY.add(ln10(inner).multiply(BigDecimal.valueOf(k)), inner).round(mc);
+	}
+
+	/**
+	 * Halley's method for <code>ln(x)</code>, starting from the double precision logarithm. Converges cubically.
+	 *
+	 * @param x a positive number within the range of a double
+	 * @param mc working precision
+	 * @return approximation of <code>ln(x)</code>
+	 */
+	private static BigDecimal halleyLn(final BigDecimal x, final MathContext mc) {
+		final MathContext inner = extend(mc, KERNEL_DIGITS);
+		BigDecimal y = new BigDecimal(Math.log(x.doubleValue()));
+		final BigDecimal threshold = BigDecimal.ONE.movePointLeft(inner.getPrecision());
+
+		for (int i = 0; i < 64; i++) {
+			final BigDecimal exp = expKernel(y, inner);
+			final BigDecimal delta = x.subtract(exp).multiply(TWO).divide(x.add(exp), inner);
+			y = y.add(delta, inner);
+
+			if (delta.abs().compareTo(threshold.multiply(y.abs().max(BigDecimal.ONE))) <= 0) {
+				break;
+			}
+		}
+
+		return y.round(mc);
+	}
+
+	/**
+	 * Approximates <code>sin(x)</code> or <code>cos(x)</code> by reducing <code>x</code> to <code>[-pi/4, pi/4]</code> and
+	 * summing the Taylor series. The reduction is repeated with more digits if <code>x</code> is close to a multiple of <code>pi/2</code>.
+	 *
+	 * @param x angle, in radians
+	 * @param mc working precision
+	 * @param cosine true to approximate the cosine, false to approximate the sine
+	 * @return approximation of <code>sin(x)</code> or <code>cos(x)</code>
+	 */
+	private static BigDecimal sinCosKernel(final BigDecimal x, final MathContext mc, final boolean cosine) {
+		final int base = KERNEL_DIGITS + Math.max(0, magnitude(x) + 1);
+		int extra = base;
+		BigDecimal r;
+		int quadrant;
+
+		while (true) {
+			final MathContext inner = extend(mc, extra);
+			final BigDecimal halfPi = piDigits(inner.getPrecision()).divide(TWO, inner);
+			final BigInteger k = x.divide(halfPi, inner).setScale(0, RoundingMode.HALF_EVEN).toBigIntegerExact();
+
+			r = x.subtract(halfPi.multiply(new BigDecimal(k)), inner);
+			quadrant = k.mod(BigInteger.valueOf(4)).intValue();
+
+			if (k.signum() == 0) {
+				break;
+			}
+
+			//If the reduced argument is small, it has lost digits to cancellation
+			final int lost = (r.signum() == 0) ? extra + KERNEL_DIGITS : Math.max(0, -magnitude(r));
+			if (extra >= base + lost) {
+				break;
+			}
+
+			extra = base + lost;
+		}
+
+		final MathContext inner = extend(mc, extra);
+		final boolean useCosine = cosine ^ (quadrant % 2 == 1);
+		final boolean negate = cosine ? (quadrant == 1 || quadrant == 2) : (quadrant >= 2);
+
+		final BigDecimal negSquare = r.multiply(r, inner).negate();
+		BigDecimal term = useCosine ? BigDecimal.ONE : r;
+		BigDecimal sum = term;
+
+		for (int k = useCosine ? 1 : 2; ; k += 2) {
+			term = term.multiply(negSquare, inner).divide(BigDecimal.valueOf((long) k * (k + 1)), inner);
+			sum = sum.add(term, inner);
+
+			if (term.signum() == 0 || isNegligible(term, sum, inner)) {
+				break;
+			}
+		}
+
+		return (negate ? sum.negate() : sum).round(mc);
+	}
+
+	/**
+	 * Approximates <code>atan(x)</code> by reducing <code>x</code> with <code>atan(x) = 2 * atan(x / (1 + sqrt(1 + x^2)))</code>
+	 * and summing the Taylor series.
+	 *
+	 * @param x any number
+	 * @param mc working precision
+	 * @return approximation of <code>atan(x)</code>
+	 */
+	private static BigDecimal atanKernel(final BigDecimal x, final MathContext mc) {
+		final MathContext inner = extend(mc, KERNEL_DIGITS + 2);
+
+		if (x.abs().compareTo(BigDecimal.ONE) > 0) {
+			final BigDecimal halfPi = piDigits(inner.getPrecision()).divide(TWO, inner);
+			final BigDecimal reduced = atanKernel(BigDecimal.ONE.divide(x.abs(), inner), inner);
+			final BigDecimal result = halfPi.subtract(reduced, inner);
+
+			return (x.signum() < 0 ? result.negate() : result).round(mc);
+		}
+
+		BigDecimal t = x;
+		int doublings = 0;
+		final BigDecimal limit = BigDecimal.valueOf(1, 2);
+
+		while (t.abs().compareTo(limit) > 0) {
+			t = t.divide(BigDecimal.ONE.add(BigDecimal.ONE.add(t.multiply(t, inner)).sqrt(inner)), inner);
+			doublings++;
+		}
+
+		final BigDecimal negSquare = t.multiply(t, inner).negate();
+		BigDecimal power = t;
+		BigDecimal sum = t;
+
+		for (int k = 3; ; k += 2) {
+			power = power.multiply(negSquare, inner);
+			final BigDecimal term = power.divide(BigDecimal.valueOf(k), inner);
+			sum = sum.add(term, inner);
+
+			if (term.signum() == 0 || isNegligible(term, sum, inner)) {
+				break;
+			}
+		}
+
+		return sum.multiply(new BigDecimal(BigInteger.ONE.shiftLeft(doublings))).round(mc);
+	}
+
+	/**
+	 * Approximates <code>sinh(x)</code>, with the Taylor series for small arguments to avoid cancellation.
+	 *
+	 * @param x any number
+	 * @param mc working precision
+	 * @return approximation of <code>sinh(x)</code>
+	 */
+	private static BigDecimal sinhKernel(final BigDecimal x, final MathContext mc) {
+		final MathContext inner = extend(mc, KERNEL_DIGITS);
+
+		if (x.abs().compareTo(BigDecimal.ONE) >= 0) {
+			final BigDecimal exp = expKernel(x, inner);
+			return exp.subtract(BigDecimal.ONE.divide(exp, inner)).divide(TWO, inner).round(mc);
+		}
+
+		final BigDecimal square = x.multiply(x, inner);
+		BigDecimal term = x;
+		BigDecimal sum = x;
+
+		for (int k = 2; ; k += 2) {
+			term = term.multiply(square, inner).divide(BigDecimal.valueOf((long) k * (k + 1)), inner);
+			sum = sum.add(term, inner);
+
+			if (term.signum() == 0 || isNegligible(term, sum, inner)) {
+				break;
+			}
+		}
+
+		return sum.round(mc);
+	}
+
+	/**
+	 * Returns pi with at least the given number of significant digits, computed with Machin's formula
+	 * <code>pi = 16 * atan(1/5) - 4 * atan(1/239)</code> and cached.
+	 *
+	 * @param precision number of significant digits
+	 * @return pi
+	 */
+	private static BigDecimal piDigits(final int precision) {
+		final BigDecimal cached = piCache;
+		if (cached.precision() >= precision) {
+			return cached.round(new MathContext(precision, RoundingMode.HALF_EVEN));
+		}
+
+		final MathContext inner = new MathContext(precision + KERNEL_DIGITS, RoundingMode.HALF_EVEN);
+		final BigDecimal pi = inverseAtan(5, inner).multiply(BigDecimal.valueOf(16)).subtract(inverseAtan(239, inner).multiply(BigDecimal.valueOf(4)), inner);
+		piCache = pi;
+
+		return pi.round(new MathContext(precision, RoundingMode.HALF_EVEN));
+	}
+
+	/**
+	 * Computes <code>atan(1 / n)</code> with its Taylor series, for Machin's formula.
+	 *
+	 * @param n inverse of the argument
+	 * @param mc working precision
+	 * @return <code>atan(1 / n)</code>
+	 */
+	private static BigDecimal inverseAtan(final int n, final MathContext mc) {
+		final BigDecimal nSquared = BigDecimal.valueOf((long) n * n);
+		BigDecimal power = BigDecimal.ONE.divide(BigDecimal.valueOf(n), mc);
+		BigDecimal sum = power;
+
+		for (int k = 3; ; k += 2) {
+			power = power.divide(nSquared, mc).negate();
+			final BigDecimal term = power.divide(BigDecimal.valueOf(k), mc);
+			sum = sum.add(term, mc);
+
+			if (term.signum() == 0 || isNegligible(term, sum, mc)) {
+				return sum;
+			}
+		}
+	}
+
+	/**
+	 * Returns the natural logarithm of 10 with the given precision, computed with Halley's method and cached.
+	 *
+	 * @param mc precision
+	 * @return <code>ln(10)</code>
+	 */
+	private static BigDecimal ln10(final MathContext mc) {
+		final BigDecimal cached = ln10Cache;
+		if (cached.precision() >= mc.getPrecision()) {
+			return cached.round(mc);
+		}
+
+		final BigDecimal ln10 = halleyLn(BigDecimal.TEN, extend(mc, KERNEL_DIGITS));
+		ln10Cache = ln10;
+
+		return ln10.round(mc);
+	}
+
+	/**
+	 * Returns true if a series term no longer affects the sum at the given precision.
+	 *
+	 * @param term last term added
+	 * @param sum current sum
+	 * @param mc working precision
+	 * @return true if <code>|term|</code> is less than one unit in the last place of <code>sum</code>
+	 */
+	private static boolean isNegligible(final BigDecimal term, final BigDecimal sum, final MathContext mc) {
+		return magnitude(term) < magnitude(sum) - mc.getPrecision() - 1;
+	}
+
+	/**
+	 * Returns the decimal exponent of the most significant digit of a nonzero number, such that <code>x</code> is in
+	 * <code>[10 ^ m, 10 ^ (m + 1))</code>.
+	 *
+	 * @param x nonzero number
+	 * @return decimal magnitude of <code>x</code>
+	 */
+	private static int magnitude(final BigDecimal x) {
+		return x.precision() - x.scale() - 1;
+	}
+
+	/**
+	 * Returns the number of decimal digits in a non-negative number.
+	 *
+	 * @param n non-negative number
+	 * @return number of digits
+	 */
+	private static int digits(final long n) {
+		return Long.toString(n).length();
+	}
+
+	/**
+	 * Returns a MathContext with more digits than <code>mc</code> for intermediate results. It always rounds half-even,
+	 * whatever the rounding mode of <code>mc</code>; only the final result is rounded with <code>mc</code>.
+	 *
+	 * @param mc original MathContext
+	 * @param extra extra digits
+	 * @return extended MathContext
+	 */
+	private static MathContext extend(final MathContext mc, final int extra) {
+		return new MathContext(mc.getPrecision() + extra, RoundingMode.HALF_EVEN);
+	}
+
+	/**
+	 * Throws an exception if the MathContext has unlimited precision.
+	 *
+	 * @param mc MathContext
+	 */
+	private static void checkPrecision(final MathContext mc) {
+		if (mc.getPrecision() == 0) {
+			throw new IllegalArgumentException("Arbitrary-precision functions need a limited precision!");
+		}
+	}
+}
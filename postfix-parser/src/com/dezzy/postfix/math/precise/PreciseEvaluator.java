@@ -0,0 +1,405 @@
+package com.dezzy.postfix.math.precise;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.dezzy.postfix.math.Reserved;
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.symbolic.constants.Constant;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicFunction;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicResult;
+import com.dezzy.postfix.math.symbolic.structure.Unknown;
+import com.dezzy.postfix.math.symbolic.structure.Value;
+
+/**
+ * Evaluates an {@link Expression} repeatedly with arbitrary precision, without redoing shared work.
+ * <p>
+ * When a PreciseEvaluator is created, identical subtrees of the Expression are merged into a single node, so that a
+ * subexpression that appears several times is computed once per evaluation. Subtrees that do not depend on any variable
+ * (including named constants such as <code>pi</code>) are computed once, when the evaluator is created. Every other subtree
+ * keeps its last value, and is only recomputed when one of the variables it depends on has changed since the previous evaluation.
+ * <p>
+ * Intermediate results are computed with {@link #GUARD_DIGITS} more digits than the requested precision, and the final result
+ * is rounded to the requested {@link MathContext}. A PreciseEvaluator keeps its cache in the instance, so a single instance
+ * should not be used by multiple threads at once.
+ *
+ * @author Joe Desmond
+ */
+public final class PreciseEvaluator {
+
+	/**
+	 * Extra digits carried by intermediate results
+	 */
+	public static final int GUARD_DIGITS = 10;
+
+	/**
+	 * A node whose value never changes
+	 */
+	private static final byte CONSTANT = 0;
+
+	/**
+	 * A node whose value is one of the variables
+	 */
+	private static final byte VARIABLE = 1;
+
+	/**
+	 * A node that applies an operation to two other nodes
+	 */
+	private static final byte OPERATION = 2;
+
+	/**
+	 * A node that applies a function to another node
+	 */
+	private static final byte FUNCTION = 3;
+
+	/**
+	 * Precision and rounding mode of the results
+	 */
+	public final MathContext mathContext;
+
+	/**
+	 * Precision of intermediate results
+	 */
+	private final MathContext working;
+
+	/**
+	 * Names of the variables, in the order that their values are passed in
+	 */
+	private final String[] variables;
+
+	/**
+	 * Kind of each node. Every node appears after the nodes that it depends on.
+	 */
+	private final byte[] kinds;
+
+	/**
+	 * First operand or argument of each node, or the variable slot of a {@link #VARIABLE} node
+	 */
+	private final int[] firsts;
+
+	/**
+	 * Second operand of each {@link #OPERATION} node
+	 */
+	private final int[] seconds;
+
+	/**
+	 * Operation of each {@link #OPERATION} node
+	 */
+	private final PreciseOperation[] operations;
+
+	/**
+	 * Function of each {@link #FUNCTION} node
+	 */
+	private final PreciseFunction[] functions;
+
+	/**
+	 * The variable slots that each node depends on
+	 */
+	private final BitSet[] dependencies;
+
+	/**
+	 * Last computed value of each node, or null if the node has not been computed
+	 */
+	private final BigDecimal[] values;
+
+	/**
+	 * Variable values of the last evaluation
+	 */
+	private final BigDecimal[] lastArguments;
+
+	/**
+	 * Index of the node for the whole Expression
+	 */
+	private final int root;
+
+	/**
+	 * Creates an arbitrary-precision evaluator for an Expression. Every name in the Expression must either be one of
+	 * <code>variables</code>, or be defined in <code>constants</code>.
+	 *
+	 * @param expression expression to evaluate
+	 * @param constants known constants
+	 * @param _mathContext precision and rounding mode of the results
+	 * @param _variables names of the variables whose values will be passed in, in order
+	 * @throws UnrecognizedSymbolException if a name is neither a variable nor a known constant
+	 */
+	public PreciseEvaluator(final Expression expression, final Map<String, Constant> constants, final MathContext _mathContext, final String ... _variables) {
+		if (_mathContext.getPrecision() == 0) {
+			throw new IllegalArgumentException("Arbitrary-precision evaluation needs a limited precision!");
+		}
+
+		mathContext = _mathContext;
+		working = new MathContext(mathContext.getPrecision() + GUARD_DIGITS, RoundingMode.HALF_EVEN);
+		variables = _variables;
+
+		final Builder builder = new Builder(constants);
+		root = builder.intern(expression);
+
+		final int size = builder.nodes.size();
+		kinds = new byte[size];
+		firsts = new int[size];
+		seconds = new int[size];
+		operations = new PreciseOperation[size];
+		functions = new PreciseFunction[size];
+		dependencies = new BitSet[size];
+		values = new BigDecimal[size];
+		lastArguments = new BigDecimal[variables.length];
+
+		for (int i = 0; i < size; i++) {
+			final Node node = builder.nodes.get(i);
+			kinds[i] = node.value == null ? node.kind : CONSTANT;
+			firsts[i] = node.first;
+			seconds[i] = node.second;
+			operations[i] = node.operation;
+			functions[i] = node.function;
+			dependencies[i] = node.dependencies;
+			values[i] = node.value;
+		}
+	}
+
+	/**
+	 * Evaluates the Expression for the given variable values. Only the subtrees that depend on a variable whose value differs
+	 * from the previous evaluation are recomputed.
+	 *
+	 * @param arguments values of the variables, in the order given to the constructor
+	 * @return value of the Expression, rounded to {@link #mathContext}
+	 * @throws ArithmeticException if an operation or function is undefined for its operands
+	 */
+	public BigDecimal evaluate(final BigDecimal ... arguments) {
+		if (arguments.length != variables.length) {
+			throw new IllegalArgumentException("Expected " + variables.length + " variable values, got " + arguments.length + "!");
+		}
+
+		final BitSet changed = new BitSet(variables.length);
+
+		for (int slot = 0; slot < variables.length; slot++) {
+			if (lastArguments[slot] == null || lastArguments[slot].compareTo(arguments[slot]) != 0) {
+				lastArguments[slot] = arguments[slot];
+				changed.set(slot);
+			}
+		}
+
+		try {
+			for (int i = 0; i < kinds.length; i++) {
+				if (values[i] != null && !dependencies[i].intersects(changed)) {
+					continue;
+				}
+
+				switch (kinds[i]) {
+					case VARIABLE:
+						values[i] = arguments[firsts[i]];
+						break;
+					case OPERATION:
+						values[i] = operations[i].operate(values[firsts[i]], values[seconds[i]], working);
+						break;
+					case FUNCTION:
+						values[i] = functions[i].apply(values[firsts[i]], working);
+						break;
+				}
+			}
+		} catch (final RuntimeException e) {
+			//Some values may now belong to these arguments and some to the previous ones; recompute everything next time
+			Arrays.fill(lastArguments, null);
+			throw e;
+		}
+
+		return values[root].round(mathContext);
+	}
+
+	/**
+	 * Returns the number of distinct subtrees in the Expression, after identical subtrees have been merged.
+	 *
+	 * @return number of distinct subtrees
+	 */
+	public int nodeCount() {
+		return kinds.length;
+	}
+
+	/**
+	 * A distinct subtree, while the evaluator is being built.
+	 */
+	private static final class Node {
+
+		/**
+		 * Node kind, as built from the Expression. Nodes that do not depend on a variable become {@link #CONSTANT} only
+		 * once they are copied into the evaluator, so that this stays the same for identical subtrees.
+		 */
+		byte kind;
+
+		/**
+		 * First operand, argument, or variable slot
+		 */
+		int first = -1;
+
+		/**
+		 * Second operand
+		 */
+		int second = -1;
+
+		/**
+		 * Operation, or null
+		 */
+		PreciseOperation operation;
+
+		/**
+		 * Function, or null
+		 */
+		PreciseFunction function;
+
+		/**
+		 * Value of a constant node, or null
+		 */
+		BigDecimal value;
+
+		/**
+		 * Variable slots that this node depends on
+		 */
+		BitSet dependencies = new BitSet();
+
+		/**
+		 * Double precision value or name of a leaf, used to identify identical subtrees
+		 */
+		Object leaf;
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof Node)) {
+				return false;
+			}
+
+			final Node otherNode = (Node) other;
+			return kind == otherNode.kind && first == otherNode.first && second == otherNode.second &&
+					operation == otherNode.operation && function == otherNode.function && Objects.equals(leaf, otherNode.leaf);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(kind, first, second, operation, function, leaf);
+		}
+	}
+
+	/**
+	 * Merges identical subtrees of an Expression into distinct {@link Node Nodes}.
+	 */
+	private final class Builder {
+
+		/**
+		 * Known constants
+		 */
+		private final Map<String, Constant> constants;
+
+		/**
+		 * Distinct nodes, in dependency order
+		 */
+		private final List<Node> nodes = new ArrayList<Node>();
+
+		/**
+		 * Maps each distinct node to its index in {@link #nodes}
+		 */
+		private final Map<Node, Integer> indices = new HashMap<Node, Integer>();
+
+		/**
+		 * Creates a Builder.
+		 *
+		 * @param _constants known constants
+		 */
+		private Builder(final Map<String, Constant> _constants) {
+			constants = _constants;
+		}
+
+		/**
+		 * Returns the index of the node for the given subtree, adding nodes for it and its children if they have not been seen yet.
+		 *
+		 * @param expression subtree
+		 * @return node index
+		 */
+		private int intern(final Expression expression) {
+			final Node node = new Node();
+
+			if (expression instanceof Value) {
+				final Value value = (Value) expression;
+				node.kind = CONSTANT;
+				node.leaf = (value == Value.PI || value == Value.E) ? value : Double.valueOf(value.value);
+			} else if (expression instanceof Unknown) {
+				final String name = ((Unknown) expression).varName;
+				node.leaf = name;
+
+				for (int slot = 0; slot < variables.length; slot++) {
+					if (variables[slot].equals(name)) {
+						node.kind = VARIABLE;
+						node.first = slot;
+						node.dependencies.set(slot);
+						break;
+					}
+				}
+
+				if (node.first == -1) {
+					if (!constants.containsKey(name)) {
+						throw new UnrecognizedSymbolException("\"" + name + "\" is not a variable or a known constant!");
+					}
+
+					node.kind = CONSTANT;
+				}
+			} else if (expression instanceof SymbolicResult) {
+				final SymbolicResult result = (SymbolicResult) expression;
+				node.kind = OPERATION;
+				node.first = intern(result.operand1);
+				node.second = intern(result.operand2);
+				node.operation = Reserved.preciseOperations.get(result.operation);
+
+				if (node.operation == null) {
+					throw new UnrecognizedSymbolException("No arbitrary-precision counterpart exists for the operation \"" + result.operation.identifier() + "\"!");
+				}
+
+				node.dependencies.or(nodes.get(node.first).dependencies);
+				node.dependencies.or(nodes.get(node.second).dependencies);
+			} else if (expression instanceof SymbolicFunction) {
+				final SymbolicFunction function = (SymbolicFunction) expression;
+				node.kind = FUNCTION;
+				node.first = intern(function.argument);
+				node.function = Reserved.preciseFunctions.get(function.function);
+
+				if (node.function == null) {
+					throw new UnrecognizedSymbolException("No arbitrary-precision counterpart exists for the function \"" + Reserved.functions.inverseGet(function.function) + "\"!");
+				}
+
+				node.dependencies.or(nodes.get(node.first).dependencies);
+			} else {
+				throw new IllegalArgumentException("Cannot evaluate an Expression of type " + expression.getClass().getName() + "!");
+			}
+
+			final Integer existing = indices.get(node);
+			if (existing != null) {
+				return existing;
+			}
+
+			if (node.dependencies.isEmpty()) {
+				//Constant subtrees are computed once, here, from the values of their children
+				switch (node.kind) {
+					case OPERATION:
+						node.value = node.operation.operate(nodes.get(node.first).value, nodes.get(node.second).value, working);
+						break;
+					case FUNCTION:
+						node.value = node.function.apply(nodes.get(node.first).value, working);
+						break;
+					default:
+						node.value = expression.evaluatePrecise(constants, working);
+						break;
+				}
+			}
+
+			indices.put(node, nodes.size());
+			nodes.add(node);
+
+			return nodes.size() - 1;
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package com.dezzy.postfix.math.precise;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * The arbitrary-precision counterpart of a {@link com.dezzy.postfix.math.Function Function}. Each instance declared here has the
+ * same name as the double precision function it extends, and {@link com.dezzy.postfix.math.Reserved#preciseFunctions Reserved.preciseFunctions}
+ * maps every double precision function to its counterpart. Every result is correctly rounded to the given {@link MathContext}.
+ *
+ * @author Joe Desmond
+ */
+public interface PreciseFunction extends Serializable {
+	
+	/**
+	 * Accepts the input and returns some output, rounded to the given precision.
+	 * 
+	 * @param x input
+	 * @param mc precision and rounding mode of the output
+	 * @return output
+	 * @throws ArithmeticException if <code>x</code> is outside of the real domain of this function
+	 */
+	public BigDecimal apply(final BigDecimal x, final MathContext mc);
+	
+	/**
+	 * @see BigMath#sin(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction sin = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 9088807243025083031L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.sin(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#cos(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction cos = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 2633237323036834589L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.cos(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#tan(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction tan = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 447032062365674244L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.tan(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#asin(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction invsin = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 8775351285529897647L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.asin(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#acos(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction invcos = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -7656950109710725684L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.acos(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#atan(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction invtan = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 3828424431041414273L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.atan(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#sinh(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction sinh = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 2772742564453709274L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.sinh(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#cosh(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction cosh = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 5159755625801636265L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.cosh(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#tanh(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction tanh = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -1552995051471299317L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.tanh(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#ln(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction ln = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 9160987848656263035L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.ln(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigMath#log10(BigDecimal, MathContext)
+	 */
+	public static final PreciseFunction log10 = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 5825497643208910235L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return BigMath.log10(x, mc);
+		}
+	};
+	
+	/**
+	 * @see BigDecimal#abs(MathContext)
+	 */
+	public static final PreciseFunction abs = new PreciseFunction() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -8989359655590628186L;
+		
+		@Override
+		public BigDecimal apply(final BigDecimal x, final MathContext mc) {
+			return x.abs(mc);
+		}
+	};
+}
@@ -0,0 +1,106 @@
+package com.dezzy.postfix.math.precise;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * The arbitrary-precision counterpart of an {@link com.dezzy.postfix.math.Operation Operation}. Each instance declared here has the
+ * same name as the double precision operation it extends, and {@link com.dezzy.postfix.math.Reserved#preciseOperations Reserved.preciseOperations}
+ * maps every double precision operation to its counterpart. Every result is correctly rounded to the given {@link MathContext}.
+ *
+ * @author Joe Desmond
+ */
+public interface PreciseOperation extends Serializable {
+	
+	/**
+	 * Performs an operation on two BigDecimals and returns a BigDecimal, rounded to the given precision.
+	 * 
+	 * @param d0 first operand
+	 * @param d1 second operand
+	 * @param mc precision and rounding mode of the result
+	 * @return result
+	 * @throws ArithmeticException if the result is undefined (for example, division by zero)
+	 */
+	public BigDecimal operate(final BigDecimal d0, final BigDecimal d1, final MathContext mc);
+	
+	/**
+	 * Arbitrary-precision addition.
+	 */
+	public static final PreciseOperation ADD = new PreciseOperation() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 8431029053870819818L;
+		
+		@Override
+		public BigDecimal operate(final BigDecimal d0, final BigDecimal d1, final MathContext mc) {
+			return d0.add(d1, mc);
+		}
+	};
+	
+	/**
+	 * Arbitrary-precision subtraction.
+	 */
+	public static final PreciseOperation SUBTRACT = new PreciseOperation() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -7859253236974782111L;
+		
+		@Override
+		public BigDecimal operate(final BigDecimal d0, final BigDecimal d1, final MathContext mc) {
+			return d0.subtract(d1, mc);
+		}
+	};
+	
+	/**
+	 * Arbitrary-precision multiplication.
+	 */
+	public static final PreciseOperation MULTIPLY = new PreciseOperation() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -4557955611051697365L;
+		
+		@Override
+		public BigDecimal operate(final BigDecimal d0, final BigDecimal d1, final MathContext mc) {
+			return d0.multiply(d1, mc);
+		}
+	};
+	
+	/**
+	 * Arbitrary-precision division.
+	 */
+	public static final PreciseOperation DIVIDE = new PreciseOperation() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 5808249277722065241L;
+		
+		@Override
+		public BigDecimal operate(final BigDecimal d0, final BigDecimal d1, final MathContext mc) {
+			return d0.divide(d1, mc);
+		}
+	};
+	
+	/**
+	 * Arbitrary-precision exponentiation.
+	 */
+	public static final PreciseOperation POWER = new PreciseOperation() {
+		
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 5069442994711217053L;
+		
+		@Override
+		public BigDecimal operate(final BigDecimal d0, final BigDecimal d1, final MathContext mc) {
+			return BigMath.pow(d0, d1, mc);
+		}
+	};
+}
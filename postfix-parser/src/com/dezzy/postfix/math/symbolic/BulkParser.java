@@ -0,0 +1,394 @@
+package com.dezzy.postfix.math.symbolic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+
+/**
+ * Parses a file of postfix expressions, one per line, in parallel. The file is memory-mapped in windows of up to
+ * {@link #WINDOW_SIZE} bytes, and each window is split on line boundaries into chunks of about {@link #CHUNK_SIZE} bytes that
+ * are parsed by separate tasks. Lines are tokenized directly from the mapped bytes; only lines that contain non-ASCII characters
+ * are decoded (as UTF-8) into Strings first. Blank lines are skipped.
+ * <p>
+ * Parsed Expressions are delivered in file order, either as a {@link List} or to an {@link ExpressionConsumer}. When streaming
+ * to a consumer, at most a fixed number of chunks are parsed ahead of the consumer, so memory use does not grow with the size of
+ * the file.
+ *
+ * @author Joe Desmond
+ */
+public final class BulkParser {
+
+	/**
+	 * Approximate number of bytes parsed by each task
+	 */
+	public static final int CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * Largest number of bytes mapped at once; no line may be longer than this
+	 */
+	public static final int WINDOW_SIZE = 1 << 30;
+
+	/**
+	 * File to parse
+	 */
+	private final Path path;
+
+	/**
+	 * Executor that parses chunks
+	 */
+	private final Executor executor;
+
+	/**
+	 * Largest number of chunks that are parsed ahead of the consumer
+	 */
+	private final int maxChunksInFlight;
+
+	/**
+	 * Creates a bulk parser that parses chunks on the common {@link ForkJoinPool}, and parses up to twice as many chunks ahead
+	 * of the consumer as the pool has threads.
+	 *
+	 * @param _path file of postfix expressions, one per line
+	 */
+	public BulkParser(final Path _path) {
+		this(_path, ForkJoinPool.commonPool(), 2 * Math.max(1, ForkJoinPool.getCommonPoolParallelism()));
+	}
+
+	/**
+	 * Creates a bulk parser that parses chunks on the given executor.
+	 *
+	 * @param _path file of postfix expressions, one per line
+	 * @param _executor executor that parses chunks
+	 * @param _maxChunksInFlight largest number of chunks that are parsed ahead of the consumer; bounds memory use
+	 */
+	public BulkParser(final Path _path, final Executor _executor, final int _maxChunksInFlight) {
+		if (_maxChunksInFlight < 1) {
+			throw new IllegalArgumentException("At least one chunk must be parsed at a time!");
+		}
+
+		path = _path;
+		executor = _executor;
+		maxChunksInFlight = _maxChunksInFlight;
+	}
+
+	/**
+	 * Parses every expression in the file into a list.
+	 *
+	 * @return parsed Expressions, in file order
+	 * @throws IOException if there is a problem reading the file
+	 * @throws IllegalArgumentException if a line cannot be parsed; the message contains the line number, and the cause is the
+	 * 			exception thrown by {@link SymbolicParser}
+	 */
+	public List<Expression> parseAll() throws IOException {
+		final List<Expression> out = new ArrayList<Expression>();
+		parse((index, expression) -> out.add(expression));
+
+		return out;
+	}
+
+	/**
+	 * Parses every expression in the file and passes them to a consumer in file order. The consumer is called on the thread that
+	 * calls this method.
+	 *
+	 * @param consumer receives each parsed Expression and its index
+	 * @return number of Expressions parsed
+	 * @throws IOException if there is a problem reading the file
+	 * @throws IllegalArgumentException if a line cannot be parsed; the message contains the line number, and the cause is the
+	 * 			exception thrown by {@link SymbolicParser}
+	 */
+	public long parse(final ExpressionConsumer consumer) throws IOException {
+		final Delivery delivery = new Delivery(consumer);
+		final Deque<CompletableFuture<Chunk>> pending = new ArrayDeque<CompletableFuture<Chunk>>();
+
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			long windowStart = 0;
+
+			while (windowStart < size) {
+				final long windowLength = Math.min(WINDOW_SIZE, size - windowStart);
+				final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+				int limit = (int) windowLength;
+
+				//Windows end on a line boundary, except for the last one
+				if (windowStart + windowLength < size) {
+					limit = lastLineEnd(window, limit);
+
+					if (limit == 0) {
+						throw new IOException("A line at byte " + windowStart + " is longer than " + WINDOW_SIZE + " bytes!");
+					}
+				}
+
+				int chunkStart = 0;
+				while (chunkStart < limit) {
+					final int start = chunkStart;
+					final int end = (limit - start <= CHUNK_SIZE) ? limit : nextLineStart(window, start + CHUNK_SIZE, limit);
+
+					pending.add(CompletableFuture.supplyAsync(() -> parseChunk(window, start, end), executor));
+
+					if (pending.size() >= maxChunksInFlight) {
+						delivery.deliver(pending.poll().join());
+					}
+
+					chunkStart = end;
+				}
+
+				windowStart += limit;
+			}
+
+			while (!pending.isEmpty()) {
+				delivery.deliver(pending.poll().join());
+			}
+		} finally {
+			for (final CompletableFuture<Chunk> future : pending) {
+				future.cancel(false);
+			}
+		}
+
+		return delivery.index;
+	}
+
+	/**
+	 * Returns the index after the last newline in the first <code>limit</code> bytes of a buffer.
+	 *
+	 * @param buffer mapped bytes
+	 * @param limit number of bytes to search
+	 * @return index after the last newline, or 0 if there is none
+	 */
+	private static int lastLineEnd(final ByteBuffer buffer, final int limit) {
+		for (int i = limit - 1; i >= 0; i--) {
+			if (buffer.get(i) == '\n') {
+				return i + 1;
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Returns the index of the first line that starts at or after <code>from</code>.
+	 *
+	 * @param buffer mapped bytes
+	 * @param from index to start searching at
+	 * @param limit index to stop searching at
+	 * @return index after the first newline at or after <code>from - 1</code>, or <code>limit</code> if there is none
+	 */
+	private static int nextLineStart(final ByteBuffer buffer, final int from, final int limit) {
+		for (int i = from - 1; i < limit; i++) {
+			if (buffer.get(i) == '\n') {
+				return i + 1;
+			}
+		}
+
+		return limit;
+	}
+
+	/**
+	 * Parses the lines in a range of bytes.
+	 *
+	 * @param buffer mapped bytes
+	 * @param start index of the first byte of the chunk; the start of a line
+	 * @param end index after the last byte of the chunk; the end of a line
+	 * @return parsed Expressions, or the first parse error
+	 */
+	private static Chunk parseChunk(final ByteBuffer buffer, final int start, final int end) {
+		final Chunk chunk = new Chunk();
+		final ByteSequence sequence = new ByteSequence(buffer);
+		int lineStart = start;
+
+		while (lineStart < end) {
+			int lineEnd = lineStart;
+			boolean ascii = true;
+			boolean blank = true;
+
+			for (byte b; lineEnd < end && (b = buffer.get(lineEnd)) != '\n'; lineEnd++) {
+				ascii &= b >= 0;
+				blank &= b >= 0 && b <= ' ';
+			}
+
+			chunk.lines++;
+
+			if (!blank) {
+				final CharSequence line = ascii ? sequence.range(lineStart, lineEnd) : decode(buffer, lineStart, lineEnd);
+
+				try {
+					chunk.expressions.add(new SymbolicParser(line).createSymbolicStructure());
+				} catch (final RuntimeException e) {
+					chunk.error = e;
+					return chunk;
+				}
+			}
+
+			lineStart = lineEnd + 1;
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * Decodes a range of bytes as UTF-8.
+	 *
+	 * @param buffer mapped bytes
+	 * @param start index of the first byte
+	 * @param end index after the last byte
+	 * @return decoded characters
+	 */
+	private static String decode(final ByteBuffer buffer, final int start, final int end) {
+		final byte[] bytes = new byte[end - start];
+
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(start + i);
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Parsed lines of one chunk.
+	 */
+	private static final class Chunk {
+
+		/**
+		 * Parsed Expressions, in order
+		 */
+		private final List<Expression> expressions = new ArrayList<Expression>();
+
+		/**
+		 * Number of lines read, including blank lines and the line that caused {@link #error}
+		 */
+		private int lines = 0;
+
+		/**
+		 * Exception thrown while parsing the last line read, or null if every line was parsed
+		 */
+		private RuntimeException error = null;
+	}
+
+	/**
+	 * Delivers parsed chunks to a consumer in order, and keeps track of Expression indices and line numbers.
+	 */
+	private static final class Delivery {
+
+		/**
+		 * Receives parsed Expressions
+		 */
+		private final ExpressionConsumer consumer;
+
+		/**
+		 * Index of the next Expression
+		 */
+		private long index = 0;
+
+		/**
+		 * Number of lines in the chunks delivered so far
+		 */
+		private long lines = 0;
+
+		/**
+		 * Creates a Delivery for the given consumer.
+		 *
+		 * @param _consumer receives parsed Expressions
+		 */
+		private Delivery(final ExpressionConsumer _consumer) {
+			consumer = _consumer;
+		}
+
+		/**
+		 * Passes the Expressions in a chunk to the consumer, or throws the chunk's parse error.
+		 *
+		 * @param chunk next parsed chunk
+		 */
+		private void deliver(final Chunk chunk) {
+			for (final Expression expression : chunk.expressions) {
+				consumer.accept(index++, expression);
+			}
+
+			lines += chunk.lines;
+
+			if (chunk.error != null) {
+				throw new IllegalArgumentException("Line " + lines + ": " + chunk.error.getMessage(), chunk.error);
+			}
+		}
+	}
+
+	/**
+	 * A reusable view of a range of ASCII bytes as characters.
+	 */
+	private static final class ByteSequence implements CharSequence {
+
+		/**
+		 * Mapped bytes
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Index of the first byte in the view
+		 */
+		private int start;
+
+		/**
+		 * Number of bytes in the view
+		 */
+		private int length;
+
+		/**
+		 * Creates an empty view of a buffer.
+		 *
+		 * @param _buffer mapped bytes
+		 */
+		private ByteSequence(final ByteBuffer _buffer) {
+			buffer = _buffer;
+		}
+
+		/**
+		 * Moves this view to a range of bytes.
+		 *
+		 * @param _start index of the first byte
+		 * @param end index after the last byte
+		 * @return this view
+		 */
+		private ByteSequence range(final int _start, final int end) {
+			start = _start;
+			length = end - _start;
+
+			return this;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(final int index) {
+			return (char) buffer.get(start + index);
+		}
+
+		@Override
+		public CharSequence subSequence(final int from, final int to) {
+			final char[] chars = new char[to - from];
+
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = charAt(from + i);
+			}
+
+			return new String(chars);
+		}
+
+		@Override
+		public String toString() {
+			return subSequence(0, length).toString();
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.dezzy.postfix.math.symbolic;
+
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+
+/**
+ * Receives the Expressions parsed by a {@link BulkParser}, in the order that they appear in the input.
+ *
+ * @author Joe Desmond
+ */
+@FunctionalInterface
+public interface ExpressionConsumer {
+
+	/**
+	 * Receives one parsed Expression.
+	 *
+	 * @param index index of the Expression in the input, counting from 0 and skipping blank lines
+	 * @param expression parsed Expression
+	 */
+	void accept(final long index, final Expression expression);
+}
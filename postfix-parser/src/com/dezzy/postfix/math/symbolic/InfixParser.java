@@ -0,0 +1,254 @@
+package com.dezzy.postfix.math.symbolic;
+
+import com.dezzy.postfix.math.Function;
+import com.dezzy.postfix.math.InfixSyntaxException;
+import com.dezzy.postfix.math.Operation;
+import com.dezzy.postfix.math.Reserved;
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicFunction;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicResult;
+import com.dezzy.postfix.math.symbolic.structure.Unknown;
+import com.dezzy.postfix.math.symbolic.structure.Value;
+
+/**
+ * Parses an infix expression, such as <code>4/3 * pi * r^3</code>, directly into the same symbolic structure that
+ * {@link SymbolicParser} creates from the equivalent postfix expression. The expression is parsed in a single pass by
+ * precedence climbing, using the operations, {@link Reserved#precedences precedences}, and
+ * {@link Reserved#rightAssociative associativity} in {@link Reserved}.
+ * <p>
+ * Function arguments must be in parentheses, as in <code>sin(x)</code>. A leading minus sign negates the operand that follows
+ * it, and binds more loosely than exponentiation, so <code>-x^2</code> is <code>-1 * (x ^ 2)</code>; a negated number becomes a
+ * negative {@link Value}. Whitespace between tokens is optional.
+ *
+ * @author Joe Desmond
+ */
+public class InfixParser {
+
+	/**
+	 * Precedence of a leading minus or plus sign; between multiplication and exponentiation
+	 */
+	private static final int UNARY_PRECEDENCE = 3;
+
+	/**
+	 * Infix expression
+	 */
+	private final CharSequence expression;
+
+	/**
+	 * Creates an infix parser for the given expression.
+	 *
+	 * @param _expression infix expression
+	 */
+	public InfixParser(final CharSequence _expression) {
+		expression = _expression;
+	}
+
+	/**
+	 * Converts the infix expression into a symbolic expression structure.
+	 *
+	 * @return symbolic expression
+	 * @throws InfixSyntaxException if the expression is malformed
+	 * @throws UnrecognizedSymbolException if a name that is not a function is followed by parentheses
+	 * @see SymbolicParser#createSymbolicStructure()
+	 */
+	public final Expression createSymbolicStructure() {
+		final Cursor cursor = new Cursor(expression);
+		final Expression result = cursor.parseExpression(0);
+
+		if (cursor.peek() != -1) {
+			throw new InfixSyntaxException("Unexpected character '" + (char) cursor.peek() + "'!", cursor.position);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Position in the expression being parsed.
+	 */
+	private static final class Cursor {
+
+		/**
+		 * Infix expression
+		 */
+		private final CharSequence text;
+
+		/**
+		 * Length of {@link #text}
+		 */
+		private final int length;
+
+		/**
+		 * Index of the next character to read
+		 */
+		private int position = 0;
+
+		/**
+		 * Creates a cursor at the beginning of an expression.
+		 *
+		 * @param _text infix expression
+		 */
+		private Cursor(final CharSequence _text) {
+			text = _text;
+			length = text.length();
+		}
+
+		/**
+		 * Skips whitespace and returns the next character, without consuming it.
+		 *
+		 * @return next character, or -1 if there are no more characters
+		 */
+		private int peek() {
+			while (position < length && Character.isWhitespace(text.charAt(position))) {
+				position++;
+			}
+
+			return (position < length) ? text.charAt(position) : -1;
+		}
+
+		/**
+		 * Parses operands joined by operations whose precedence is at least <code>minPrecedence</code>.
+		 *
+		 * @param minPrecedence lowest precedence of an operation that may be part of this expression
+		 * @return symbolic expression
+		 */
+		private Expression parseExpression(final int minPrecedence) {
+			Expression left = parseUnary();
+
+			while (peek() != -1) {
+				final Operation operation = PostfixTokenizer.findOperation(text, position, position + 1);
+
+				if (operation == null) {
+					break;
+				}
+
+				final int precedence = Reserved.precedences.get(operation);
+
+				if (precedence < minPrecedence) {
+					break;
+				}
+
+				position++;
+
+				final int nextPrecedence = Reserved.rightAssociative.contains(operation) ? precedence : precedence + 1;
+				final Expression right = parseExpression(nextPrecedence);
+
+				left = new SymbolicResult(left, right, operation);
+			}
+
+			return left;
+		}
+
+		/**
+		 * Parses an operand that may have a leading sign.
+		 *
+		 * @return symbolic expression
+		 */
+		private Expression parseUnary() {
+			final int c = peek();
+
+			if (c == '-') {
+				position++;
+				final Expression operand = parseExpression(UNARY_PRECEDENCE);
+
+				if (operand instanceof Value) {
+					return Value.of(-((Value) operand).value);
+				}
+
+				return new SymbolicResult(Value.NEG_ONE, operand, Operation.MULTIPLY);
+			} else if (c == '+') {
+				position++;
+				return parseExpression(UNARY_PRECEDENCE);
+			}
+
+			return parsePrimary();
+		}
+
+		/**
+		 * Parses a number, a name, a function application, or a parenthesized expression.
+		 *
+		 * @return symbolic expression
+		 */
+		private Expression parsePrimary() {
+			final int c = peek();
+
+			if (c == -1) {
+				throw new InfixSyntaxException("Expected an operand, found the end of the expression!", position);
+			} else if (c == '(') {
+				position++;
+				final Expression inner = parseExpression(0);
+				expect(')');
+
+				return inner;
+			}
+
+			final int start = position;
+			final int decimalEnd = PostfixTokenizer.scanDecimal(text, start, length);
+
+			if (decimalEnd != start) {
+				position = decimalEnd;
+				return Value.of(PostfixTokenizer.parseDecimal(text, start, decimalEnd));
+			}
+
+			if (!isNameStart((char) c)) {
+				throw new InfixSyntaxException("Expected an operand, found '" + (char) c + "'!", position);
+			}
+
+			position++;
+			while (position < length && isNamePart(text.charAt(position))) {
+				position++;
+			}
+
+			final int end = position;
+
+			if (peek() == '(') {
+				final Function function = PostfixTokenizer.findFunction(text, start, end);
+
+				if (function == null) {
+					throw new UnrecognizedSymbolException("\"" + text.subSequence(start, end) + "\" is not a function!");
+				}
+
+				position++;
+				final Expression argument = parseExpression(0);
+				expect(')');
+
+				return new SymbolicFunction(argument, function);
+			}
+
+			return Unknown.of(text.subSequence(start, end).toString());
+		}
+
+		/**
+		 * Consumes the given character, which must be next.
+		 *
+		 * @param expected expected character
+		 */
+		private void expect(final char expected) {
+			if (peek() != expected) {
+				throw new InfixSyntaxException("Expected '" + expected + "'!", position);
+			}
+
+			position++;
+		}
+
+		/**
+		 * Returns true if a character can start a name.
+		 *
+		 * @param c character
+		 * @return true if <code>c</code> is a letter or an underscore
+		 */
+		private static boolean isNameStart(final char c) {
+			return Character.isLetter(c) || c == '_';
+		}
+
+		/**
+		 * Returns true if a character can be part of a name after its first character.
+		 *
+		 * @param c character
+		 * @return true if <code>c</code> is a letter, a digit, or an underscore
+		 */
+		private static boolean isNamePart(final char c) {
+			return Character.isLetterOrDigit(c) || c == '_';
+		}
+	}
+}
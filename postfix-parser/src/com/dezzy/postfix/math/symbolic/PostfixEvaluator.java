@@ -0,0 +1,131 @@
+package com.dezzy.postfix.math.symbolic;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.dezzy.postfix.math.StackLengthException;
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.symbolic.constants.Constant;
+
+/**
+ * Evaluates a postfix expression directly from its tokens, without building a symbolic structure. Each operand is pushed
+ * onto a stack of doubles as it is read, and each {@link com.dezzy.postfix.math.Operation Operation} or
+ * {@link com.dezzy.postfix.math.Function Function} is applied to the top of the stack immediately. Tokens are recognized with
+ * the same {@link com.dezzy.postfix.math.Reserved Reserved} tables as {@link SymbolicParser}, and a malformed expression throws
+ * the same {@link StackLengthException}, so
+ * <pre>
+ * new PostfixEvaluator(expression).evaluate(constants)
+ * </pre>
+ * returns the same result as
+ * <pre>
+ * new SymbolicParser(expression).createSymbolicStructure().evaluate(constants)
+ * </pre>
+ * This is meant for expressions that are evaluated once; an expression that is evaluated many times should be parsed once,
+ * or compiled into a {@link com.dezzy.postfix.math.evaluation.CompiledExpression CompiledExpression}.
+ *
+ * @author Joe Desmond
+ */
+public class PostfixEvaluator {
+
+	/**
+	 * Initial size of the operand stack, which grows as needed
+	 */
+	private static final int INITIAL_STACK_SIZE = 16;
+
+	/**
+	 * Postfix expression, or null if the expression is read from {@link #reader}
+	 */
+	private final CharSequence expression;
+
+	/**
+	 * Source of the postfix expression, or null if the expression is {@link #expression}
+	 */
+	private final Reader reader;
+
+	/**
+	 * Creates a postfix evaluator for a postfix expression whose tokens are separated by whitespace.
+	 *
+	 * @param _expression postfix expression
+	 */
+	public PostfixEvaluator(final CharSequence _expression) {
+		expression = _expression;
+		reader = null;
+	}
+
+	/**
+	 * Creates a postfix evaluator that reads a postfix expression, whose tokens are separated by whitespace, from a Reader.
+	 * The expression is read when {@link #evaluate(Map)} is called, so that method can only be called once.
+	 * The Reader is not closed.
+	 *
+	 * @param _reader source of the postfix expression
+	 */
+	public PostfixEvaluator(final Reader _reader) {
+		expression = null;
+		reader = _reader;
+	}
+
+	/**
+	 * Evaluates the postfix expression. Names are looked up in <code>constants</code> and their mappings are evaluated,
+	 * as in {@link com.dezzy.postfix.math.symbolic.structure.Unknown#evaluate(Map) Unknown.evaluate(Map)}.
+	 *
+	 * @param constants known constants and variable values
+	 * @return value of the expression
+	 * @throws StackLengthException if an operation or function does not have enough operands, or if there is no result
+	 * @throws UnrecognizedSymbolException if a name has no mapping in <code>constants</code>
+	 */
+	public final double evaluate(final Map<String, Constant> constants) {
+		final PostfixTokenizer tokenizer = (reader == null) ? new PostfixTokenizer(expression) : new PostfixTokenizer(reader);
+		double[] stack = new double[INITIAL_STACK_SIZE];
+		int top = 0;
+
+		for (int kind = tokenizer.next(); kind != PostfixTokenizer.END; kind = tokenizer.next()) {
+			final int i = tokenizer.count() - 1;
+
+			if (kind == PostfixTokenizer.FUNCTION) {
+				if (top >= 1) {
+					stack[top - 1] = tokenizer.function().apply(stack[top - 1]);
+				} else {
+					throw new StackLengthException("Not enough operands on the expression stack! Index: " + i);
+				}
+			} else if (kind == PostfixTokenizer.OPERATION) {
+				if (top >= 2) {
+					stack[top - 2] = tokenizer.operation().operate(stack[top - 2], stack[top - 1]);
+					top--;
+				} else {
+					throw new StackLengthException("Not enough operands on the expression stack! Index: " + i);
+				}
+			} else {
+				if (top == stack.length) {
+					stack = Arrays.copyOf(stack, 2 * stack.length);
+				}
+
+				stack[top++] = (kind == PostfixTokenizer.NUMBER) ? tokenizer.number() : lookup(tokenizer.name(), constants);
+			}
+		}
+
+		if (top == 0) {
+			throw new StackLengthException("No final result on the stack!");
+		} else {
+			return stack[top - 1];
+		}
+	}
+
+	/**
+	 * Evaluates the mapping of a name.
+	 *
+	 * @param name constant or variable name
+	 * @param constants known constants and variable values
+	 * @return value of the name
+	 * @throws UnrecognizedSymbolException if <code>name</code> has no mapping in <code>constants</code>
+	 */
+	private static double lookup(final String name, final Map<String, Constant> constants) {
+		final Constant constant = constants.get(name);
+
+		if (constant == null) {
+			throw new UnrecognizedSymbolException("\"" + name + "\" is unknown!");
+		} else {
+			return constant.expression.evaluate(constants);
+		}
+	}
+}
@@ -0,0 +1,689 @@
+package com.dezzy.postfix.math.symbolic;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Map;
+
+import com.dezzy.postfix.math.Function;
+import com.dezzy.postfix.math.Operation;
+import com.dezzy.postfix.math.Reserved;
+
+/**
+ * Splits a postfix expression into tokens and classifies them, without allocating for numbers, operations, or functions.
+ * Tokens are separated by any amount of whitespace, or are given one by one in an array. Each call to {@link #next()} advances to the next token and returns its
+ * kind; the token itself can then be read with {@link #number()}, {@link #operation()}, {@link #function()}, or {@link #name()}.
+ * <p>
+ * Tokens are classified by scanning their characters: a token is a {@link #NUMBER} if it is a decimal literal (such as
+ * <code>-2</code>, <code>.5</code>, or <code>6.02e23</code>) or any other literal accepted by {@link Double#parseDouble(String)}
+ * (such as <code>0x1p3</code>, <code>2f</code>, <code>NaN</code>, or <code>-Infinity</code>), an {@link #OPERATION} or a {@link #FUNCTION} if it is the name of one in
+ * {@link Reserved}, and a {@link #NAME} otherwise. Numbers with at most 15 significant digits and a small exponent are
+ * converted exactly without creating a String.
+ *
+ * @author Joe Desmond
+ */
+public final class PostfixTokenizer {
+
+	/**
+	 * There are no more tokens
+	 */
+	public static final int END = 0;
+
+	/**
+	 * The token is a number
+	 */
+	public static final int NUMBER = 1;
+
+	/**
+	 * The token is a variable or constant name
+	 */
+	public static final int NAME = 2;
+
+	/**
+	 * The token is an {@link Operation}
+	 */
+	public static final int OPERATION = 3;
+
+	/**
+	 * The token is a {@link Function}
+	 */
+	public static final int FUNCTION = 4;
+
+	/**
+	 * Size of the buffer used when reading from a {@link Reader}
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Largest number of significant digits that are converted without rounding error by the fast path
+	 */
+	private static final int MAX_FAST_DIGITS = 15;
+
+	/**
+	 * Powers of ten that are exactly representable as doubles
+	 */
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * Operations with single-character names, indexed by that character
+	 */
+	private static final Operation[] CHAR_OPERATIONS = new Operation[128];
+
+	/**
+	 * Operations with longer names
+	 */
+	private static final Operation[] OPERATIONS;
+
+	/**
+	 * Names of {@link #OPERATIONS}
+	 */
+	private static final String[] OPERATION_NAMES;
+
+	/**
+	 * Functions
+	 */
+	private static final Function[] FUNCTIONS;
+
+	/**
+	 * Names of {@link #FUNCTIONS}
+	 */
+	private static final String[] FUNCTION_NAMES;
+
+	static {
+		int longNames = 0;
+
+		for (final String name : Reserved.operations.keySet()) {
+			if (name.length() == 1 && name.charAt(0) < CHAR_OPERATIONS.length) {
+				CHAR_OPERATIONS[name.charAt(0)] = Reserved.operations.get(name);
+			} else {
+				longNames++;
+			}
+		}
+
+		OPERATIONS = new Operation[longNames];
+		OPERATION_NAMES = new String[longNames];
+		int i = 0;
+
+		for (final Map.Entry<String, Operation> entry : Reserved.operations.entrySet()) {
+			final String name = entry.getKey();
+
+			if (name.length() != 1 || name.charAt(0) >= CHAR_OPERATIONS.length) {
+				OPERATION_NAMES[i] = name;
+				OPERATIONS[i++] = entry.getValue();
+			}
+		}
+
+		FUNCTIONS = new Function[Reserved.functions.size()];
+		FUNCTION_NAMES = new String[FUNCTIONS.length];
+		i = 0;
+
+		for (final Map.Entry<String, Function> entry : Reserved.functions.entrySet()) {
+			FUNCTION_NAMES[i] = entry.getKey();
+			FUNCTIONS[i++] = entry.getValue();
+		}
+	}
+
+	/**
+	 * Tokens given one by one, or null if the tokens are separated by whitespace
+	 */
+	private final String[] tokens;
+
+	/**
+	 * Reader to read characters from, or null if the whole expression is in {@link #text}
+	 */
+	private final Reader reader;
+
+	/**
+	 * Buffered characters when reading from {@link #reader}
+	 */
+	private char[] buffer;
+
+	/**
+	 * Characters being tokenized; either the whole expression, or a view of {@link #buffer}
+	 */
+	private CharSequence text;
+
+	/**
+	 * Index after the last valid character in {@link #text}
+	 */
+	private int limit;
+
+	/**
+	 * Index of the next character to scan
+	 */
+	private int position = 0;
+
+	/**
+	 * True if {@link #reader} has no more characters
+	 */
+	private boolean exhausted;
+
+	/**
+	 * Index of the first character of the current token
+	 */
+	private int tokenStart = 0;
+
+	/**
+	 * Index after the last character of the current token
+	 */
+	private int tokenEnd = 0;
+
+	/**
+	 * Kind of the current token
+	 */
+	private int kind = END;
+
+	/**
+	 * Number of tokens read so far
+	 */
+	private int count = 0;
+
+	/**
+	 * Value of the current token, if it is a {@link #NUMBER}
+	 */
+	private double number;
+
+	/**
+	 * Operation of the current token, if it is an {@link #OPERATION}
+	 */
+	private Operation operation;
+
+	/**
+	 * Function of the current token, if it is a {@link #FUNCTION}
+	 */
+	private Function function;
+
+	/**
+	 * Creates a tokenizer over a postfix expression.
+	 *
+	 * @param expression postfix expression
+	 */
+	public PostfixTokenizer(final CharSequence expression) {
+		tokens = null;
+		reader = null;
+		text = expression;
+		limit = expression.length();
+		exhausted = true;
+	}
+
+	/**
+	 * Creates a tokenizer that reads a postfix expression from a Reader. The Reader is buffered internally and is not closed.
+	 *
+	 * @param _reader source of the postfix expression
+	 */
+	public PostfixTokenizer(final Reader _reader) {
+		tokens = null;
+		reader = _reader;
+		buffer = new char[BUFFER_SIZE];
+		text = CharBuffer.wrap(buffer);
+		limit = 0;
+		exhausted = false;
+	}
+
+	/**
+	 * Creates a tokenizer over tokens that have already been split. Each element of <code>_tokens</code> is one token, even if
+	 * it is empty or contains whitespace.
+	 *
+	 * @param _tokens postfix tokens
+	 */
+	public PostfixTokenizer(final String[] _tokens) {
+		tokens = _tokens;
+		reader = null;
+		text = "";
+		limit = 0;
+		exhausted = true;
+	}
+
+	/**
+	 * Advances to the next token.
+	 *
+	 * @return kind of the next token, or {@link #END} if there are no more tokens
+	 * @throws UncheckedIOException if the Reader throws an IOException
+	 */
+	public int next() {
+		if (tokens != null) {
+			return nextElement();
+		}
+
+		while (true) {
+			while (position < limit && Character.isWhitespace(text.charAt(position))) {
+				position++;
+			}
+
+			if (position < limit || !fill(position)) {
+				break;
+			}
+		}
+
+		if (position == limit) {
+			tokenStart = tokenEnd = position;
+			return kind = END;
+		}
+
+		tokenStart = position;
+
+		while (true) {
+			while (position < limit && !Character.isWhitespace(text.charAt(position))) {
+				position++;
+			}
+
+			if (position < limit || !fill(tokenStart)) {
+				break;
+			}
+		}
+
+		tokenEnd = position;
+		count++;
+
+		return kind = classify();
+	}
+
+	/**
+	 * Advances to the next element of {@link #tokens}.
+	 *
+	 * @return kind of the next token, or {@link #END} if there are no more tokens
+	 */
+	private int nextElement() {
+		if (count == tokens.length) {
+			tokenStart = tokenEnd = position = limit;
+			return kind = END;
+		}
+
+		text = tokens[count];
+		tokenStart = 0;
+		tokenEnd = position = limit = text.length();
+		count++;
+
+		return kind = classify();
+	}
+
+	/**
+	 * Reads more characters from the Reader, keeping the characters from <code>keep</code> onward.
+	 *
+	 * @param keep index of the first character that is still needed
+	 * @return false if there are no more characters
+	 */
+	private boolean fill(final int keep) {
+		if (exhausted) {
+			return false;
+		}
+
+		final int kept = limit - keep;
+		if (keep == 0 && limit == buffer.length) {
+			final char[] larger = new char[buffer.length * 2];
+			System.arraycopy(buffer, 0, larger, 0, limit);
+			buffer = larger;
+			text = CharBuffer.wrap(buffer);
+		} else {
+			System.arraycopy(buffer, keep, buffer, 0, kept);
+		}
+
+		position -= keep;
+		tokenStart -= Math.min(tokenStart, keep);
+		limit = kept;
+
+		try {
+			final int read = reader.read(buffer, limit, buffer.length - limit);
+
+			if (read == -1) {
+				exhausted = true;
+				return false;
+			}
+
+			limit += read;
+			return true;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Classifies the current token.
+	 *
+	 * @return token kind
+	 */
+	private int classify() {
+		if (parseNumber()) {
+			return NUMBER;
+		}
+
+		operation = findOperation(text, tokenStart, tokenEnd);
+		if (operation != null) {
+			return OPERATION;
+		}
+
+		function = findFunction(text, tokenStart, tokenEnd);
+		if (function != null) {
+			return FUNCTION;
+		}
+
+		return NAME;
+	}
+
+	/**
+	 * Finds the operation named by a range of characters, without allocating.
+	 *
+	 * @param text characters to look in
+	 * @param start index of the first character of the name
+	 * @param end index after the last character of the name
+	 * @return operation, or null if the characters do not name an operation
+	 */
+	static Operation findOperation(final CharSequence text, final int start, final int end) {
+		if (end - start == 1) {
+			final char c = text.charAt(start);
+
+			if (c < CHAR_OPERATIONS.length && CHAR_OPERATIONS[c] != null) {
+				return CHAR_OPERATIONS[c];
+			}
+		}
+
+		for (int i = 0; i < OPERATION_NAMES.length; i++) {
+			if (matches(OPERATION_NAMES[i], text, start, end)) {
+				return OPERATIONS[i];
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Finds the function named by a range of characters, without allocating.
+	 *
+	 * @param text characters to look in
+	 * @param start index of the first character of the name
+	 * @param end index after the last character of the name
+	 * @return function, or null if the characters do not name a function
+	 */
+	static Function findFunction(final CharSequence text, final int start, final int end) {
+		for (int i = 0; i < FUNCTION_NAMES.length; i++) {
+			if (matches(FUNCTION_NAMES[i], text, start, end)) {
+				return FUNCTIONS[i];
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns true if a range of characters is exactly the given name.
+	 *
+	 * @param name name to compare with
+	 * @param text characters to compare
+	 * @param start index of the first character to compare
+	 * @param end index after the last character to compare
+	 * @return true if the characters are <code>name</code>
+	 */
+	private static boolean matches(final String name, final CharSequence text, final int start, final int end) {
+		if (name.length() != end - start) {
+			return false;
+		}
+
+		for (int i = 0; i < name.length(); i++) {
+			if (name.charAt(i) != text.charAt(start + i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Parses the current token as a number with an optional sign, and stores its value in {@link #number}. Decimal literals
+	 * are parsed directly; any other token that could be a floating point literal (one that starts with a digit or a point, or
+	 * is <code>NaN</code> or <code>Infinity</code>) is given to {@link Double#parseDouble(String)}.
+	 *
+	 * @return false if the token is not a number
+	 */
+	private boolean parseNumber() {
+		if (tokenStart == tokenEnd) {
+			return false;
+		}
+
+		final char first = text.charAt(tokenStart);
+		final int start = (first == '+' || first == '-') ? tokenStart + 1 : tokenStart;
+
+		if (start == tokenEnd) {
+			return false;
+		}
+
+		if (scanDecimal(text, start, tokenEnd) != tokenEnd) {
+			return parseOtherNumber(start);
+		}
+
+		final double magnitude = parseDecimal(text, start, tokenEnd);
+		number = (first == '-') ? -magnitude : magnitude;
+
+		return true;
+	}
+
+	/**
+	 * Parses the current token with {@link Double#parseDouble(String)}, which also accepts hexadecimal literals, literals with a
+	 * <code>d</code> or <code>f</code> suffix, <code>NaN</code>, and <code>Infinity</code>. Only tokens that could be such a literal
+	 * are given to it, so that names are not parsed. Like that method, leading and trailing whitespace is ignored, which only
+	 * tokens given in an array can have.
+	 *
+	 * @param start index of the first character of the token after its sign
+	 * @return false if the token is not a number
+	 */
+	private boolean parseOtherNumber(final int start) {
+		int literalStart = start;
+		int literalEnd = tokenEnd;
+
+		while (literalStart < literalEnd && text.charAt(literalStart) <= ' ') {
+			literalStart++;
+		}
+
+		while (literalEnd > literalStart && text.charAt(literalEnd - 1) <= ' ') {
+			literalEnd--;
+		}
+
+		if (literalStart != start && literalStart < literalEnd && (text.charAt(literalStart) == '+' || text.charAt(literalStart) == '-')) {
+			literalStart++;
+		}
+
+		if (literalStart == literalEnd) {
+			return false;
+		}
+
+		final char first = text.charAt(literalStart);
+
+		if (!(first >= '0' && first <= '9') && first != '.' && !matches("NaN", text, literalStart, literalEnd)
+				&& !matches("Infinity", text, literalStart, literalEnd)) {
+			return false;
+		}
+
+		try {
+			number = Double.parseDouble(text.subSequence(tokenStart, tokenEnd).toString());
+			return true;
+		} catch (final NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Finds the longest unsigned decimal literal (such as <code>2</code>, <code>.5</code>, or <code>6.02e23</code>) that starts
+	 * at <code>start</code>. An exponent is only part of the literal if it has at least one digit.
+	 *
+	 * @param text characters to scan
+	 * @param start index of the first character of the literal
+	 * @param end index after the last character that may be part of the literal
+	 * @return index after the literal, or <code>start</code> if there is no literal at <code>start</code>
+	 */
+	static int scanDecimal(final CharSequence text, final int start, final int end) {
+		int i = start;
+		int digits = 0;
+
+		while (i < end && isDigit(text.charAt(i))) {
+			i++;
+			digits++;
+		}
+
+		if (i < end && text.charAt(i) == '.') {
+			i++;
+
+			while (i < end && isDigit(text.charAt(i))) {
+				i++;
+				digits++;
+			}
+		}
+
+		if (digits == 0) {
+			return start;
+		}
+
+		if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+			int j = i + 1;
+
+			if (j < end && (text.charAt(j) == '+' || text.charAt(j) == '-')) {
+				j++;
+			}
+
+			if (j < end && isDigit(text.charAt(j))) {
+				while (j < end && isDigit(text.charAt(j))) {
+					j++;
+				}
+
+				i = j;
+			}
+		}
+
+		return i;
+	}
+
+	/**
+	 * Converts an unsigned decimal literal found by {@link #scanDecimal(CharSequence, int, int)}. Literals with at most
+	 * {@value #MAX_FAST_DIGITS} significant digits whose scale is a power of ten that is exactly representable are converted
+	 * with a single multiplication or division, which is correctly rounded; other literals are passed to
+	 * {@link Double#parseDouble(String)}.
+	 *
+	 * @param text characters of the literal
+	 * @param start index of the first character of the literal
+	 * @param end index after the last character of the literal
+	 * @return value of the literal
+	 */
+	static double parseDecimal(final CharSequence text, final int start, final int end) {
+		long mantissa = 0;
+		int significantDigits = 0;
+		int fractionDigits = 0;
+		boolean point = false;
+		int i = start;
+
+		for (; i < end; i++) {
+			final char c = text.charAt(i);
+
+			if (c == '.') {
+				point = true;
+			} else if (isDigit(c)) {
+				if (significantDigits != 0 || c != '0') {
+					significantDigits++;
+				}
+
+				//Longer literals are parsed by Double.parseDouble
+				if (significantDigits <= MAX_FAST_DIGITS) {
+					mantissa = mantissa * 10 + (c - '0');
+
+					if (point) {
+						fractionDigits++;
+					}
+				}
+			} else {
+				break;
+			}
+		}
+
+		int exponent = 0;
+
+		if (i < end) {
+			i++;
+			final boolean negativeExponent = text.charAt(i) == '-';
+
+			if (text.charAt(i) == '+' || negativeExponent) {
+				i++;
+			}
+
+			for (; i < end; i++) {
+				exponent = Math.min(exponent * 10 + (text.charAt(i) - '0'), 100000);
+			}
+
+			if (negativeExponent) {
+				exponent = -exponent;
+			}
+		}
+
+		final int scale = exponent - fractionDigits;
+
+		if (significantDigits <= MAX_FAST_DIGITS && Math.abs(scale) < POWERS_OF_TEN.length) {
+			return (scale >= 0) ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+		} else {
+			return Double.parseDouble(text.subSequence(start, end).toString());
+		}
+	}
+
+	/**
+	 * Returns true if a character is an ASCII digit.
+	 *
+	 * @param c character
+	 * @return true if <code>c</code> is between '0' and '9'
+	 */
+	private static boolean isDigit(final char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Returns the kind of the current token.
+	 *
+	 * @return kind of the token last returned by {@link #next()}
+	 */
+	public int kind() {
+		return kind;
+	}
+
+	/**
+	 * Returns the number of tokens read so far; the index of the current token is one less than this.
+	 *
+	 * @return number of tokens read
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Returns the value of the current token.
+	 *
+	 * @return value of the token, if it is a {@link #NUMBER}
+	 */
+	public double number() {
+		return number;
+	}
+
+	/**
+	 * Returns the operation of the current token.
+	 *
+	 * @return operation, if the token is an {@link #OPERATION}
+	 */
+	public Operation operation() {
+		return operation;
+	}
+
+	/**
+	 * Returns the function of the current token.
+	 *
+	 * @return function, if the token is a {@link #FUNCTION}
+	 */
+	public Function function() {
+		return function;
+	}
+
+	/**
+	 * Returns the current token as a String. This is the only accessor that allocates.
+	 *
+	 * @return text of the current token
+	 */
+	public String name() {
+		return text.subSequence(tokenStart, tokenEnd).toString();
+	}
+}
@@ -1,11 +1,9 @@
 package com.dezzy.postfix.math.symbolic;
 
+import java.io.Reader;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
-import com.dezzy.postfix.math.Function;
-import com.dezzy.postfix.math.Operation;
-import com.dezzy.postfix.math.Reserved;
 import com.dezzy.postfix.math.StackLengthException;
 import com.dezzy.postfix.math.symbolic.structure.Expression;
 import com.dezzy.postfix.math.symbolic.structure.SymbolicFunction;
@@ -15,24 +13,62 @@ import com.dezzy.postfix.math.symbolic.structure.Value;
 
 /**
  * Parses a Postfix expression by using an expression stack to construct a symbolic representation of
- * the expression.
+ * the expression. Tokens are read by a {@link PostfixTokenizer}, so the expression can be given as a String, any other
+ * CharSequence, or a Reader.
  * 
  * @author Joe Desmond
  */
 public class SymbolicParser {
 	
 	/**
-	 * Postfix tokens
+	 * Postfix tokens, or null if the expression is {@link #expression} or is read from {@link #reader}
 	 */
 	private final String[] tokens;
 	
 	/**
-	 * Creates a symbolic parser from the given tokens.
+	 * Postfix expression, or null if the expression is given as {@link #tokens} or is read from {@link #reader}
+	 */
+	private final CharSequence expression;
+	
+	/**
+	 * Source of the postfix expression, or null if the expression is given as {@link #tokens} or {@link #expression}
+	 */
+	private final Reader reader;
+	
+	/**
+	 * Creates a symbolic parser from the given tokens. Each element of <code>_tokens</code> is one token, so the indices in
+	 * {@link StackLengthException StackLengthExceptions} are indices into this array.
 	 * 
 	 * @param _tokens postfix tokens
 	 */
 	public SymbolicParser(final String[] _tokens) {
 		tokens = _tokens;
+		expression = null;
+		reader = null;
+	}
+	
+	/**
+	 * Creates a symbolic parser for a postfix expression whose tokens are separated by whitespace.
+	 * 
+	 * @param _expression postfix expression
+	 */
+	public SymbolicParser(final CharSequence _expression) {
+		tokens = null;
+		expression = _expression;
+		reader = null;
+	}
+	
+	/**
+	 * Creates a symbolic parser that reads a postfix expression, whose tokens are separated by whitespace, from a Reader.
+	 * The expression is read when {@link #createSymbolicStructure()} is called, so that method can only be called once.
+	 * The Reader is not closed.
+	 * 
+	 * @param _reader source of the postfix expression
+	 */
+	public SymbolicParser(final Reader _reader) {
+		tokens = null;
+		expression = null;
+		reader = _reader;
 	}
 	
 	/**
@@ -59,35 +95,38 @@ public class SymbolicParser {
 	 * @see Expression#derivative(String)
 	 */
 	public final Expression createSymbolicStructure() {
-		final Deque<Expression> expressionStack = new ArrayDeque<Expression>(tokens.length - 1);
+		final PostfixTokenizer tokenizer;
+		if (tokens != null) {
+			tokenizer = new PostfixTokenizer(tokens);
+		} else if (expression != null) {
+			tokenizer = new PostfixTokenizer(expression);
+		} else {
+			tokenizer = new PostfixTokenizer(reader);
+		}
+		final Deque<Expression> expressionStack = new ArrayDeque<Expression>();
 		
-		for (int i = 0; i < tokens.length; i++) {
-			final String token = tokens[i];
-			
-			final Operation potentialOperation = Reserved.operations.get(token);
-			final Function potentialFunction = Reserved.functions.get(token);
+		for (int kind = tokenizer.next(); kind != PostfixTokenizer.END; kind = tokenizer.next()) {
+			final int i = tokenizer.count() - 1;
 			
-			if (potentialOperation == null ) {
-				if (potentialFunction == null) {
-					expressionStack.push(symbolize(token));
+			if (kind == PostfixTokenizer.FUNCTION) {
+				if (expressionStack.size() >= 1) {
+					final Expression argument = expressionStack.pop();
+					
+					expressionStack.push(new SymbolicFunction(argument, tokenizer.function()));
 				} else {
-					if (expressionStack.size() >= 1) {
-						final Expression argument = expressionStack.pop();
-						
-						expressionStack.push(new SymbolicFunction(argument, potentialFunction));
-					} else {
-						throw new StackLengthException("Not enough operands on the expression stack! Index: " + i);
-					}
-				}				
-			} else {
+					throw new StackLengthException("Not enough operands on the expression stack! Index: " + i);
+				}
+			} else if (kind == PostfixTokenizer.OPERATION) {
 				if (expressionStack.size() >= 2) {
 					final Expression operand2 = expressionStack.pop();
 					final Expression operand1 = expressionStack.pop();
 					
-					expressionStack.push(new SymbolicResult(operand1, operand2, potentialOperation));
+					expressionStack.push(new SymbolicResult(operand1, operand2, tokenizer.operation()));
 				} else {
 					throw new StackLengthException("Not enough operands on the expression stack! Index: " + i);
 				}
+			} else {
+				expressionStack.push(symbolize(tokenizer));
 			}
 		}
 		
@@ -105,15 +144,14 @@ public class SymbolicParser {
 	 * <b>NOTE:</b> This function returns an Unknown if it receives anything other than an explicit double or integer value.
 	 * This means that mathematical constants, such as <code>pi</code> or <code>e</code>, will be returned in Unknowns.
 	 * 
-	 * @param operand operand, either a variable, constant, or value
+	 * @param tokenizer tokenizer positioned at a {@link PostfixTokenizer#NUMBER} or {@link PostfixTokenizer#NAME} token
 	 * @return either a {@link Value} or an {@link Unknown}
 	 */
-	private final Expression symbolize(final String operand) {
-		try {
-			final double value = Double.parseDouble(operand);
-			return new Value(value);
-		} catch (Exception e) {
-			return new Unknown(operand);
+	private final Expression symbolize(final PostfixTokenizer tokenizer) {
+		if (tokenizer.kind() == PostfixTokenizer.NUMBER) {
+			return Value.of(tokenizer.number());
+		} else {
+			return Unknown.of(tokenizer.name());
 		}
 	}
 }
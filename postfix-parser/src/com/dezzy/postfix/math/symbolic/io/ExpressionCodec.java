@@ -0,0 +1,866 @@
+package com.dezzy.postfix.math.symbolic.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.dezzy.postfix.math.Function;
+import com.dezzy.postfix.math.Operation;
+import com.dezzy.postfix.math.Reserved;
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicFunction;
+import com.dezzy.postfix.math.symbolic.structure.SymbolicResult;
+import com.dezzy.postfix.math.symbolic.structure.Unknown;
+import com.dezzy.postfix.math.symbolic.structure.Value;
+
+/**
+ * Reads and writes Expressions in a compact binary format. An encoded Expression consists of:
+ * <ol>
+ * <li>the 4 bytes of {@link #MAGIC} and one {@link #VERSION} byte;</li>
+ * <li>a table of every distinct variable name, operator token, and function name, as UTF-8 strings;</li>
+ * <li>a table of every distinct numeric value; integers are written as variable-length integers, {@link Value#PI} and
+ * {@link Value#E} as single tags, and other values as 8 bytes;</li>
+ * <li>the Expression as a stream of postfix instructions, ending with an end instruction.</li>
+ * </ol>
+ * Every instruction is a single variable-length integer whose low 3 bits are an opcode and whose remaining bits are an index
+ * into one of the tables. A subtree that occurs more than once (as structurally identical copies, or as the same object, which
+ * is common in derivatives) is written once; later occurrences are a back-reference to the subtree's first occurrence.
+ * <p>
+ * Operations and functions are written by their tokens in {@link Reserved#operations} and {@link Reserved#functions}, and are
+ * read back as those same singleton objects, so they can be compared by reference after loading. Values and Unknowns are read
+ * back with {@link Value#of(double)} and {@link Unknown#of(String)}.
+ *
+ * @author Joe Desmond
+ */
+public final class ExpressionCodec {
+
+	/**
+	 * First 4 bytes of an encoded Expression
+	 */
+	public static final byte[] MAGIC = {'S', 'P', 'X', 'E'};
+
+	/**
+	 * Version of the format written by this class
+	 */
+	public static final byte VERSION = 1;
+
+	/**
+	 * Opcode of an instruction that pushes a value from the value table
+	 */
+	private static final int VALUE = 0;
+
+	/**
+	 * Opcode of an instruction that pushes an Unknown named in the symbol table
+	 */
+	private static final int NAME = 1;
+
+	/**
+	 * Opcode of an instruction that applies an operation named in the symbol table to the top two operands
+	 */
+	private static final int OPERATION = 2;
+
+	/**
+	 * Opcode of an instruction that applies a function named in the symbol table to the top operand
+	 */
+	private static final int FUNCTION = 3;
+
+	/**
+	 * Opcode of an instruction that pushes a previously decoded operation or function again
+	 */
+	private static final int BACKREF = 4;
+
+	/**
+	 * Opcode of the last instruction
+	 */
+	private static final int END = 5;
+
+	/**
+	 * Number of bits in an opcode
+	 */
+	private static final int OPCODE_BITS = 3;
+
+	/**
+	 * Value table tag of an integer, followed by a zigzag-encoded variable-length integer
+	 */
+	private static final int INTEGER_TAG = 0;
+
+	/**
+	 * Value table tag of a double, followed by its 8 bytes, least significant first
+	 */
+	private static final int DOUBLE_TAG = 1;
+
+	/**
+	 * Value table tag of {@link Value#PI}
+	 */
+	private static final int PI_TAG = 2;
+
+	/**
+	 * Value table tag of {@link Value#E}
+	 */
+	private static final int E_TAG = 3;
+
+	/**
+	 * Largest magnitude of an integer that is written as a variable-length integer; every integer up to this size is exact
+	 */
+	private static final double MAX_EXACT_INTEGER = 1L << 53;
+
+	/**
+	 * No instances.
+	 */
+	private ExpressionCodec() {
+
+	}
+
+	/**
+	 * Encodes an Expression.
+	 *
+	 * @param expression Expression to encode
+	 * @return encoded Expression
+	 * @throws IllegalArgumentException if the Expression contains a node that is not a {@link Value}, {@link Unknown},
+	 * 			{@link SymbolicResult}, or {@link SymbolicFunction}
+	 * @throws UnrecognizedSymbolException if the Expression contains an operation or function that is not in {@link Reserved}
+	 */
+	public static byte[] encode(final Expression expression) {
+		return new Encoder(expression).encode();
+	}
+
+	/**
+	 * Encodes an Expression and writes it to a stream. The stream is not closed.
+	 *
+	 * @param expression Expression to encode
+	 * @param out destination stream
+	 * @throws IOException if there is a problem writing to the stream
+	 * @see #encode(Expression)
+	 */
+	public static void write(final Expression expression, final OutputStream out) throws IOException {
+		out.write(encode(expression));
+	}
+
+	/**
+	 * Decodes an Expression.
+	 *
+	 * @param bytes encoded Expression
+	 * @return decoded Expression
+	 * @throws IOException if the bytes are not a valid encoded Expression
+	 */
+	public static Expression decode(final byte[] bytes) throws IOException {
+		return decode(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Decodes an Expression that starts at the position of a buffer, and advances the position past it.
+	 *
+	 * @param buffer buffer positioned at an encoded Expression
+	 * @return decoded Expression
+	 * @throws IOException if the buffer does not contain a valid encoded Expression
+	 */
+	public static Expression decode(final ByteBuffer buffer) throws IOException {
+		try {
+			return new Decoder(buffer).decode();
+		} catch (final BufferUnderflowException e) {
+			throw new IOException("Encoded Expression is truncated!", e);
+		}
+	}
+
+	/**
+	 * Reads the rest of a stream and decodes it as an Expression. The stream is not closed.
+	 *
+	 * @param in source stream
+	 * @return decoded Expression
+	 * @throws IOException if there is a problem reading the stream, or it does not contain a valid encoded Expression
+	 */
+	public static Expression read(final InputStream in) throws IOException {
+		return decode(in.readAllBytes());
+	}
+
+	/**
+	 * Returns true if a byte array starts with {@link #MAGIC}.
+	 *
+	 * @param bytes bytes to check
+	 * @return true if <code>bytes</code> may be an encoded Expression
+	 */
+	public static boolean hasMagic(final byte[] bytes) {
+		return bytes.length >= MAGIC.length && Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+	}
+
+	/**
+	 * Returns a 64-bit hash of an Expression's structure. Expressions that have the same structure, operations, functions,
+	 * names, and exactly the same values have the same encoding, and so the same hash.
+	 *
+	 * @param expression Expression to hash
+	 * @return structural hash
+	 * @see #hash(byte[], int, int)
+	 */
+	public static long structuralHash(final Expression expression) {
+		final byte[] bytes = encode(expression);
+
+		return hash(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Returns the 64-bit FNV-1a hash of a range of an encoded Expression.
+	 *
+	 * @param bytes bytes to hash
+	 * @param offset index of the first byte
+	 * @param length number of bytes
+	 * @return hash
+	 */
+	public static long hash(final byte[] bytes, final int offset, final int length) {
+		long hash = 0xCBF29CE484222325L;
+
+		for (int i = offset; i < offset + length; i++) {
+			hash ^= bytes[i] & 0xFF;
+			hash *= 0x100000001B3L;
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Returns a copy of an Expression whose operations and functions are the singletons in {@link Reserved}. An operation or
+	 * function that is not one of the singletons is matched to the singleton of the same class; this repairs Expressions that
+	 * were loaded with Java serialization, which creates new operation and function objects.
+	 *
+	 * @param expression Expression to copy
+	 * @return canonical copy of <code>expression</code>
+	 * @throws UnrecognizedSymbolException if the Expression contains an operation or function that does not match one in
+	 * 			{@link Reserved}
+	 */
+	public static Expression canonicalize(final Expression expression) {
+		try {
+			return decode(encode(expression));
+		} catch (final IOException e) {
+			throw new IllegalStateException("An encoded Expression could not be decoded!", e);
+		}
+	}
+
+	/**
+	 * Finds the token of an operation or function in one of the {@link Reserved} maps, first by identity and then by class.
+	 *
+	 * @param <T> {@link Operation} or {@link Function}
+	 * @param symbols {@link Reserved#operations} or {@link Reserved#functions}
+	 * @param symbol operation or function
+	 * @return token
+	 * @throws UnrecognizedSymbolException if there is no match
+	 */
+	private static <T> String tokenOf(final Map<String, T> symbols, final T symbol) {
+		String sameClass = null;
+
+		for (final Entry<String, T> entry : symbols.entrySet()) {
+			if (entry.getValue() == symbol) {
+				return entry.getKey();
+			} else if (entry.getValue().getClass() == symbol.getClass()) {
+				sameClass = entry.getKey();
+			}
+		}
+
+		if (sameClass == null) {
+			throw new UnrecognizedSymbolException("No token exists for " + symbol + "!");
+		}
+
+		return sameClass;
+	}
+
+	/**
+	 * One distinct node of an Expression being encoded. Operands refer to other Nodes by index, so structurally identical
+	 * subtrees are equal Nodes.
+	 */
+	private static final class Node {
+
+		/**
+		 * {@link #VALUE}, {@link #NAME}, {@link #OPERATION}, or {@link #FUNCTION}
+		 */
+		private final int opcode;
+
+		/**
+		 * Value table or symbol table index
+		 */
+		private final int index;
+
+		/**
+		 * Node index of the first operand or the function argument, or -1
+		 */
+		private final int operand1;
+
+		/**
+		 * Node index of the second operand, or -1
+		 */
+		private final int operand2;
+
+		/**
+		 * Creates a Node.
+		 *
+		 * @param _opcode instruction opcode
+		 * @param _index table index
+		 * @param _operand1 first operand, or -1
+		 * @param _operand2 second operand, or -1
+		 */
+		private Node(final int _opcode, final int _index, final int _operand1, final int _operand2) {
+			opcode = _opcode;
+			index = _index;
+			operand1 = _operand1;
+			operand2 = _operand2;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof Node)) {
+				return false;
+			} else {
+				final Node otherNode = (Node) other;
+				return opcode == otherNode.opcode && index == otherNode.index && operand1 == otherNode.operand1 && operand2 == otherNode.operand2;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(opcode, index, operand1, operand2);
+		}
+	}
+
+	/**
+	 * Encodes one Expression.
+	 */
+	private static final class Encoder {
+
+		/**
+		 * Expression to encode
+		 */
+		private final Expression expression;
+
+		/**
+		 * Symbol table, in order
+		 */
+		private final List<String> symbols = new ArrayList<String>();
+
+		/**
+		 * Symbol table indices
+		 */
+		private final Map<String, Integer> symbolIndices = new HashMap<String, Integer>();
+
+		/**
+		 * Value table, in order
+		 */
+		private final List<Value> values = new ArrayList<Value>();
+
+		/**
+		 * Value table indices, by the bits of the value; {@link Value#PI} and {@link Value#E} are stored under their tags instead
+		 */
+		private final Map<Long, Integer> valueIndices = new HashMap<Long, Integer>();
+
+		/**
+		 * Value table indices of {@link Value#PI} and {@link Value#E}
+		 */
+		private final Map<Value, Integer> constantIndices = new IdentityHashMap<Value, Integer>();
+
+		/**
+		 * Distinct Nodes, in postfix order
+		 */
+		private final List<Node> nodes = new ArrayList<Node>();
+
+		/**
+		 * Node indices of distinct Nodes
+		 */
+		private final Map<Node, Integer> nodeIndices = new HashMap<Node, Integer>();
+
+		/**
+		 * Node indices of Expression objects that have already been visited
+		 */
+		private final Map<Expression, Integer> visited = new IdentityHashMap<Expression, Integer>();
+
+		/**
+		 * Position of each Node in the decoder's table of operations and functions, or -1 if it has not been written yet
+		 */
+		private int[] positions;
+
+		/**
+		 * Number of operations and functions written so far
+		 */
+		private int written = 0;
+
+		/**
+		 * Encoded instructions
+		 */
+		private final ByteWriter instructions = new ByteWriter();
+
+		/**
+		 * Creates an encoder for an Expression.
+		 *
+		 * @param _expression Expression to encode
+		 */
+		private Encoder(final Expression _expression) {
+			expression = _expression;
+		}
+
+		/**
+		 * Encodes the Expression.
+		 *
+		 * @return encoded Expression
+		 */
+		private byte[] encode() {
+			final int root = intern(expression);
+
+			positions = new int[nodes.size()];
+			Arrays.fill(positions, -1);
+			write(root);
+			instructions.writeVarint(END);
+
+			final ByteWriter out = new ByteWriter();
+			out.writeBytes(MAGIC, MAGIC.length);
+			out.writeByte(VERSION);
+
+			out.writeVarint(symbols.size());
+			for (final String symbol : symbols) {
+				final byte[] utf8 = symbol.getBytes(StandardCharsets.UTF_8);
+				out.writeVarint(utf8.length);
+				out.writeBytes(utf8, utf8.length);
+			}
+
+			out.writeVarint(values.size());
+			for (final Value value : values) {
+				writeValue(out, value);
+			}
+
+			out.writeBytes(instructions.bytes, instructions.length);
+
+			return Arrays.copyOf(out.bytes, out.length);
+		}
+
+		/**
+		 * Adds the distinct Nodes of an Expression to {@link #nodes}, operands first.
+		 *
+		 * @param expr Expression
+		 * @return Node index of <code>expr</code>
+		 */
+		private int intern(final Expression expr) {
+			final Integer seen = visited.get(expr);
+
+			if (seen != null) {
+				return seen;
+			}
+
+			final Node node;
+
+			if (expr instanceof Value) {
+				node = new Node(VALUE, valueIndex((Value) expr), -1, -1);
+			} else if (expr instanceof Unknown) {
+				node = new Node(NAME, symbolIndex(((Unknown) expr).varName), -1, -1);
+			} else if (expr instanceof SymbolicResult) {
+				final SymbolicResult result = (SymbolicResult) expr;
+				final int operand1 = intern(result.operand1);
+				final int operand2 = intern(result.operand2);
+
+				node = new Node(OPERATION, symbolIndex(tokenOf(Reserved.operations, result.operation)), operand1, operand2);
+			} else if (expr instanceof SymbolicFunction) {
+				final SymbolicFunction function = (SymbolicFunction) expr;
+				final int argument = intern(function.argument);
+
+				node = new Node(FUNCTION, symbolIndex(tokenOf(Reserved.functions, function.function)), argument, -1);
+			} else {
+				throw new IllegalArgumentException("Cannot encode an Expression of type " + expr.getClass().getName() + "!");
+			}
+
+			Integer index = nodeIndices.get(node);
+
+			if (index == null) {
+				index = nodes.size();
+				nodes.add(node);
+				nodeIndices.put(node, index);
+			}
+
+			visited.put(expr, index);
+
+			return index;
+		}
+
+		/**
+		 * Writes the instructions for a Node. Values and names are always written directly; an operation or function that has
+		 * already been written is written as a back-reference.
+		 *
+		 * @param index Node index
+		 */
+		private void write(final int index) {
+			final Node node = nodes.get(index);
+
+			if (positions[index] != -1) {
+				instructions.writeVarint(((long) positions[index] << OPCODE_BITS) | BACKREF);
+				return;
+			}
+
+			if (node.operand1 != -1) {
+				write(node.operand1);
+			}
+
+			if (node.operand2 != -1) {
+				write(node.operand2);
+			}
+
+			instructions.writeVarint(((long) node.index << OPCODE_BITS) | node.opcode);
+
+			if (node.opcode == OPERATION || node.opcode == FUNCTION) {
+				positions[index] = written++;
+			}
+		}
+
+		/**
+		 * Returns the symbol table index of a string, adding it if necessary.
+		 *
+		 * @param symbol name or token
+		 * @return symbol table index
+		 */
+		private int symbolIndex(final String symbol) {
+			Integer index = symbolIndices.get(symbol);
+
+			if (index == null) {
+				index = symbols.size();
+				symbols.add(symbol);
+				symbolIndices.put(symbol, index);
+			}
+
+			return index;
+		}
+
+		/**
+		 * Returns the value table index of a Value, adding it if necessary.
+		 *
+		 * @param value Value
+		 * @return value table index
+		 */
+		private int valueIndex(final Value value) {
+			final boolean constant = value == Value.PI || value == Value.E;
+			final Long bits = Double.doubleToRawLongBits(value.value);
+			Integer index = constant ? constantIndices.get(value) : valueIndices.get(bits);
+
+			if (index == null) {
+				index = values.size();
+				values.add(value);
+
+				if (constant) {
+					constantIndices.put(value, index);
+				} else {
+					valueIndices.put(bits, index);
+				}
+			}
+
+			return index;
+		}
+
+		/**
+		 * Writes one entry of the value table.
+		 *
+		 * @param out destination
+		 * @param value Value
+		 */
+		private static void writeValue(final ByteWriter out, final Value value) {
+			final double d = value.value;
+
+			if (value == Value.PI) {
+				out.writeVarint(PI_TAG);
+			} else if (value == Value.E) {
+				out.writeVarint(E_TAG);
+			} else if (d == Math.rint(d) && Math.abs(d) <= MAX_EXACT_INTEGER && Double.doubleToRawLongBits(d) != Double.doubleToRawLongBits(-0.0)) {
+				final long n = (long) d;
+
+				out.writeVarint(INTEGER_TAG);
+				out.writeVarint((n << 1) ^ (n >> 63));
+			} else {
+				final long bits = Double.doubleToRawLongBits(d);
+
+				out.writeVarint(DOUBLE_TAG);
+				for (int i = 0; i < Long.BYTES; i++) {
+					out.writeByte((byte) (bits >>> (8 * i)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decodes one Expression.
+	 */
+	private static final class Decoder {
+
+		/**
+		 * Encoded Expression
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Creates a decoder that reads from the position of a buffer.
+		 *
+		 * @param _buffer encoded Expression
+		 */
+		private Decoder(final ByteBuffer _buffer) {
+			buffer = _buffer;
+		}
+
+		/**
+		 * Decodes the Expression.
+		 *
+		 * @return decoded Expression
+		 * @throws IOException if the Expression is malformed
+		 */
+		private Expression decode() throws IOException {
+			for (final byte b : MAGIC) {
+				if (buffer.get() != b) {
+					throw new IOException("Not an encoded Expression!");
+				}
+			}
+
+			final byte version = buffer.get();
+
+			if (version != VERSION) {
+				throw new IOException("Unsupported encoded Expression version: " + version);
+			}
+
+			final String[] symbols = new String[readCount()];
+			for (int i = 0; i < symbols.length; i++) {
+				final byte[] utf8 = new byte[readCount()];
+				buffer.get(utf8);
+				symbols[i] = new String(utf8, StandardCharsets.UTF_8);
+			}
+
+			final Value[] values = new Value[readCount()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = readValue();
+			}
+
+			final Object[] resolved = new Object[symbols.length];
+			final List<Expression> table = new ArrayList<Expression>();
+			Expression[] stack = new Expression[16];
+			int top = 0;
+
+			while (true) {
+				final long instruction = readVarint();
+				final int opcode = (int) (instruction & ((1 << OPCODE_BITS) - 1));
+				final long operand = instruction >>> OPCODE_BITS;
+
+				if (opcode == END) {
+					break;
+				}
+
+				if (top == stack.length) {
+					stack = Arrays.copyOf(stack, 2 * stack.length);
+				}
+
+				switch (opcode) {
+					case VALUE:
+						stack[top++] = values[checkIndex(operand, values.length, "value")];
+						break;
+					case NAME:
+						final int nameIndex = checkIndex(operand, symbols.length, "symbol");
+
+						if (resolved[nameIndex] == null) {
+							resolved[nameIndex] = Unknown.of(symbols[nameIndex]);
+						}
+
+						stack[top++] = (Expression) resolved[nameIndex];
+						break;
+					case OPERATION:
+						if (top < 2) {
+							throw new IOException("Not enough operands for an operation!");
+						}
+
+						final int operationIndex = checkIndex(operand, symbols.length, "symbol");
+						final Operation operation = Reserved.operations.get(symbols[operationIndex]);
+
+						if (operation == null) {
+							throw new IOException("\"" + symbols[operationIndex] + "\" is not an operation!");
+						}
+
+						stack[top - 2] = new SymbolicResult(stack[top - 2], stack[top - 1], operation);
+						top--;
+						table.add(stack[top - 1]);
+						break;
+					case FUNCTION:
+						if (top < 1) {
+							throw new IOException("No argument for a function!");
+						}
+
+						final int functionIndex = checkIndex(operand, symbols.length, "symbol");
+						final Function function = Reserved.functions.get(symbols[functionIndex]);
+
+						if (function == null) {
+							throw new IOException("\"" + symbols[functionIndex] + "\" is not a function!");
+						}
+
+						stack[top - 1] = new SymbolicFunction(stack[top - 1], function);
+						table.add(stack[top - 1]);
+						break;
+					case BACKREF:
+						stack[top++] = table.get(checkIndex(operand, table.size(), "back-reference"));
+						break;
+					default:
+						throw new IOException("Unknown opcode: " + opcode);
+				}
+			}
+
+			if (top != 1) {
+				throw new IOException("Encoded Expression leaves " + top + " operands on the stack!");
+			}
+
+			return stack[0];
+		}
+
+		/**
+		 * Reads one entry of the value table.
+		 *
+		 * @return Value
+		 * @throws IOException if the tag is unknown
+		 */
+		private Value readValue() throws IOException {
+			final long tag = readVarint();
+
+			if (tag == INTEGER_TAG) {
+				final long n = readVarint();
+				return Value.of((n >>> 1) ^ -(n & 1));
+			} else if (tag == DOUBLE_TAG) {
+				long bits = 0;
+				for (int i = 0; i < Long.BYTES; i++) {
+					bits |= (buffer.get() & 0xFFL) << (8 * i);
+				}
+
+				return Value.of(Double.longBitsToDouble(bits));
+			} else if (tag == PI_TAG) {
+				return Value.PI;
+			} else if (tag == E_TAG) {
+				return Value.E;
+			} else {
+				throw new IOException("Unknown value tag: " + tag);
+			}
+		}
+
+		/**
+		 * Reads a table size or string length.
+		 *
+		 * @return non-negative count that fits in the remaining bytes
+		 * @throws IOException if the count is too large
+		 */
+		private int readCount() throws IOException {
+			final long count = readVarint();
+
+			if (count > buffer.remaining()) {
+				throw new IOException("Count " + count + " exceeds the remaining " + buffer.remaining() + " bytes!");
+			}
+
+			return (int) count;
+		}
+
+		/**
+		 * Reads an unsigned variable-length integer: 7 bits per byte, least significant first, with the high bit set on every
+		 * byte but the last.
+		 *
+		 * @return integer
+		 * @throws IOException if the integer is longer than 64 bits
+		 */
+		private long readVarint() throws IOException {
+			long out = 0;
+
+			for (int shift = 0; shift < Long.SIZE; shift += 7) {
+				final byte b = buffer.get();
+				out |= (long) (b & 0x7F) << shift;
+
+				if (b >= 0) {
+					return out;
+				}
+			}
+
+			throw new IOException("Malformed variable-length integer!");
+		}
+
+		/**
+		 * Checks a table index.
+		 *
+		 * @param index index read from an instruction
+		 * @param size size of the table
+		 * @param table name of the table, for the exception message
+		 * @return <code>index</code>
+		 * @throws IOException if <code>index</code> is out of bounds
+		 */
+		private static int checkIndex(final long index, final int size, final String table) throws IOException {
+			if (index >= size) {
+				throw new IOException("Invalid " + table + " index: " + index);
+			}
+
+			return (int) index;
+		}
+	}
+
+	/**
+	 * A growable byte array.
+	 */
+	private static final class ByteWriter {
+
+		/**
+		 * Written bytes, followed by unused capacity
+		 */
+		private byte[] bytes = new byte[64];
+
+		/**
+		 * Number of bytes written
+		 */
+		private int length = 0;
+
+		/**
+		 * Ensures that there is room for more bytes.
+		 *
+		 * @param count number of bytes to be written
+		 */
+		private void reserve(final int count) {
+			if (length + count > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + count));
+			}
+		}
+
+		/**
+		 * Writes one byte.
+		 *
+		 * @param b byte
+		 */
+		private void writeByte(final byte b) {
+			reserve(1);
+			bytes[length++] = b;
+		}
+
+		/**
+		 * Writes the first <code>count</code> bytes of an array.
+		 *
+		 * @param b bytes
+		 * @param count number of bytes
+		 */
+		private void writeBytes(final byte[] b, final int count) {
+			reserve(count);
+			System.arraycopy(b, 0, bytes, length, count);
+			length += count;
+		}
+
+		/**
+		 * Writes an unsigned variable-length integer.
+		 *
+		 * @param value integer, treated as unsigned
+		 * @see Decoder#readVarint()
+		 */
+		private void writeVarint(final long value) {
+			reserve(10);
+			long v = value;
+
+			while ((v & ~0x7FL) != 0) {
+				bytes[length++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+
+			bytes[length++] = (byte) v;
+		}
+	}
+}
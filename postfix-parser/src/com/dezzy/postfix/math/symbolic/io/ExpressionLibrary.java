@@ -0,0 +1,681 @@
+package com.dezzy.postfix.math.symbolic.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+
+/**
+ * A single-file store of many Expressions, in the format of {@link ExpressionCodec}. Each Expression gets an integer id, in
+ * the order it was added, and is indexed by its {@link ExpressionCodec#structuralHash(Expression) structural hash}; looking an
+ * Expression up by id or by hash takes constant time. Adding an Expression that is already in the library returns the existing
+ * id.
+ * <p>
+ * The file is append-only. Added Expressions are kept in memory until {@link #flush()}, which appends them to the file followed
+ * by an index record, and only then points the file header at the new record. An index record lists the Expressions added since
+ * the previous record and refers back to it; once the records written since the last complete index would be larger than a
+ * complete index, a complete index is written instead, so the file grows in proportion to the Expressions in it however often it
+ * is flushed. A library that was not flushed, or whose flush was interrupted, still opens to its last flushed state.
+ * <p>
+ * The file is memory-mapped in windows of up to {@link #WINDOW_LIMIT} bytes when it is opened. Flushed Expressions stay in memory
+ * until they add up to {@link #MAP_THRESHOLD} bytes, and are then mapped as one window, so that frequent flushes do not each
+ * create a mapping. An Expression is only decoded when it is retrieved with {@link #get(int)}.
+ * <p>
+ * A library may be read by several threads at once, but must not be read while it is being modified.
+ *
+ * @author Joe Desmond
+ */
+public final class ExpressionLibrary implements Closeable {
+
+	/**
+	 * First 4 bytes of a library file
+	 */
+	private static final int FILE_MAGIC = 0x5350584C;
+
+	/**
+	 * First 4 bytes of an index record
+	 */
+	private static final int INDEX_MAGIC = 0x53505849;
+
+	/**
+	 * Version of the file format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Size of the file header: magic, version, and offset of the current index record
+	 */
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * Size of the start of an index record: magic, offset of the previous record, first id, and number of Expressions
+	 */
+	private static final int INDEX_HEADER_SIZE = 20;
+
+	/**
+	 * Bytes per Expression in an index record: file offset, length, and hash
+	 */
+	private static final int ENTRY_SIZE = 20;
+
+	/**
+	 * Largest number of Expressions read or written at once in an index record
+	 */
+	private static final int ENTRY_BATCH = 1 << 16;
+
+	/**
+	 * Largest number of bytes in a mapped window or a single write, unless one Expression is larger
+	 */
+	private static final int WINDOW_LIMIT = 1 << 30;
+
+	/**
+	 * Number of flushed bytes that are kept in memory before they are mapped
+	 */
+	private static final int MAP_THRESHOLD = 1 << 24;
+
+	/**
+	 * Library file
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Mapped windows of the file
+	 */
+	private final List<MappedByteBuffer> windows = new ArrayList<MappedByteBuffer>();
+
+	/**
+	 * File offset of each window
+	 */
+	private final List<Long> windowOffsets = new ArrayList<Long>();
+
+	/**
+	 * Encoded Expressions that are not mapped, starting with id {@link #firstUnmapped}: those that have not been flushed, and
+	 * those that were flushed since the last window was mapped
+	 */
+	private final List<byte[]> unmapped = new ArrayList<byte[]>();
+
+	/**
+	 * Id of the first Expression that is not mapped
+	 */
+	private int firstUnmapped = 0;
+
+	/**
+	 * Number of flushed bytes in {@link #unmapped}
+	 */
+	private long unmappedBytes = 0;
+
+	/**
+	 * Number of Expressions that have been flushed
+	 */
+	private int flushed = 0;
+
+	/**
+	 * Window of each mapped Expression
+	 */
+	private int[] windowNumbers = new int[16];
+
+	/**
+	 * File offset of each flushed Expression
+	 */
+	private long[] positions = new long[16];
+
+	/**
+	 * Encoded length of each Expression
+	 */
+	private int[] lengths = new int[16];
+
+	/**
+	 * Structural hash of each Expression
+	 */
+	private long[] hashes = new long[16];
+
+	/**
+	 * Open-addressed hash table of ids, by hash; each slot holds an id plus one, or 0 if the slot is empty
+	 */
+	private int[] table = new int[32];
+
+	/**
+	 * Number of Expressions
+	 */
+	private int size = 0;
+
+	/**
+	 * File offset of the current index record, or 0 if there is none
+	 */
+	private long indexOffset = 0;
+
+	/**
+	 * Number of bytes in the index records written since the last complete index
+	 */
+	private long chainLength = 0;
+
+	/**
+	 * File offset after the current index record; the next Expressions are written here
+	 */
+	private long end;
+
+	/**
+	 * Opens a library file, creating it if it does not exist. Anything written after the last completed {@link #flush()} is
+	 * discarded.
+	 *
+	 * @param path library file
+	 * @throws IOException if there is a problem reading the file, or it is not a library file
+	 */
+	public ExpressionLibrary(final Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+
+		try {
+			if (channel.size() == 0) {
+				writeHeader(0);
+				end = HEADER_SIZE;
+			} else {
+				final ByteBuffer header = readFully(0, HEADER_SIZE);
+
+				if (header.getInt() != FILE_MAGIC) {
+					throw new IOException(path + " is not an expression library!");
+				}
+
+				final int version = header.getInt();
+
+				if (version != VERSION) {
+					throw new IOException("Unsupported expression library version: " + version);
+				}
+
+				final long offset = header.getLong();
+				end = (offset == 0) ? HEADER_SIZE : readIndex(offset);
+				channel.truncate(end);
+
+				flushed = size;
+				map(0, size);
+				firstUnmapped = size;
+			}
+		} catch (final IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of Expressions in this library, including those that have not been flushed.
+	 *
+	 * @return number of Expressions
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds an Expression to this library, unless a structurally identical Expression is already in it. The Expression is not
+	 * written to the file until {@link #flush()} is called.
+	 *
+	 * @param expression Expression to add
+	 * @return id of the Expression
+	 * @see ExpressionCodec#encode(Expression)
+	 */
+	public int add(final Expression expression) {
+		final byte[] bytes = ExpressionCodec.encode(expression);
+		final long hash = ExpressionCodec.hash(bytes, 0, bytes.length);
+		final int existing = find(bytes, hash);
+
+		if (existing != -1) {
+			return existing;
+		}
+
+		final int id = size;
+		ensureCapacity(id + 1);
+
+		lengths[id] = bytes.length;
+		hashes[id] = hash;
+		unmapped.add(bytes);
+		size++;
+		insert(id);
+
+		return id;
+	}
+
+	/**
+	 * Decodes the Expression with the given id.
+	 *
+	 * @param id Expression id
+	 * @return Expression
+	 * @throws IOException if the stored Expression cannot be decoded
+	 * @throws IndexOutOfBoundsException if there is no Expression with this id
+	 */
+	public Expression get(final int id) throws IOException {
+		return ExpressionCodec.decode(bytes(id));
+	}
+
+	/**
+	 * Returns the structural hash of the Expression with the given id, without decoding it.
+	 *
+	 * @param id Expression id
+	 * @return structural hash
+	 * @throws IndexOutOfBoundsException if there is no Expression with this id
+	 */
+	public long hashOf(final int id) {
+		return hashes[checkId(id)];
+	}
+
+	/**
+	 * Returns the id of a structurally identical Expression in this library.
+	 *
+	 * @param expression Expression to find
+	 * @return id, or -1 if there is no such Expression
+	 */
+	public int indexOf(final Expression expression) {
+		final byte[] bytes = ExpressionCodec.encode(expression);
+
+		return find(bytes, ExpressionCodec.hash(bytes, 0, bytes.length));
+	}
+
+	/**
+	 * Returns the ids of every Expression with the given structural hash.
+	 *
+	 * @param hash structural hash
+	 * @return ids, in increasing order
+	 */
+	public int[] idsWithHash(final long hash) {
+		int[] out = new int[0];
+
+		for (int slot = slot(hash); table[slot] != 0; slot = (slot + 1) & (table.length - 1)) {
+			final int id = table[slot] - 1;
+
+			if (hashes[id] == hash) {
+				out = Arrays.copyOf(out, out.length + 1);
+				out[out.length - 1] = id;
+			}
+		}
+
+		Arrays.sort(out);
+
+		return out;
+	}
+
+	/**
+	 * Writes every Expression added since the last flush to the file, followed by an index record, and then points the file
+	 * header at the new record. Data and index are forced to the storage device before the header is changed.
+	 *
+	 * @throws IOException if there is a problem writing to the file; the file keeps its previous state, and this library
+	 * 			should be closed
+	 */
+	public void flush() throws IOException {
+		if (flushed == size) {
+			return;
+		}
+
+		long position = end;
+		int i = flushed;
+
+		while (i < size) {
+			int length = 0;
+			int j = i;
+
+			while (j < size && (j == i || (long) length + lengths[j] <= WINDOW_LIMIT)) {
+				length += lengths[j];
+				j++;
+			}
+
+			final ByteBuffer data = ByteBuffer.allocate(length);
+			for (int k = i; k < j; k++) {
+				positions[k] = position + data.position();
+				data.put(unmapped.get(k - firstUnmapped));
+			}
+
+			data.flip();
+			writeFully(data, position);
+
+			position += length;
+			i = j;
+		}
+
+		//Append only the new entries, unless the records since the last complete index would outgrow a complete index
+		final boolean complete = chainLength + indexLength(size - flushed) > indexLength(size);
+		final int first = complete ? 0 : flushed;
+		final long length = writeIndex(position, complete ? 0 : indexOffset, first);
+		channel.force(false);
+
+		writeHeader(position);
+
+		unmappedBytes += position - end;
+		chainLength = complete ? 0 : chainLength + length;
+		indexOffset = position;
+		end = position + length;
+		flushed = size;
+
+		if (unmappedBytes >= MAP_THRESHOLD) {
+			map(firstUnmapped, size);
+			unmapped.clear();
+			unmappedBytes = 0;
+			firstUnmapped = size;
+		}
+	}
+
+	/**
+	 * Flushes this library and closes the file.
+	 *
+	 * @throws IOException if there is a problem writing to the file
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Reads the chain of index records that ends at the given record, from the last complete index onwards.
+	 *
+	 * @param offset file offset of the current index record
+	 * @return file offset after the current index record
+	 * @throws IOException if an index record is malformed
+	 */
+	private long readIndex(final long offset) throws IOException {
+		final List<Long> chain = new ArrayList<Long>();
+		long recordOffset = offset;
+
+		while (true) {
+			chain.add(recordOffset);
+
+			final ByteBuffer header = readFully(recordOffset, INDEX_HEADER_SIZE);
+			final long previous = (header.getInt() == INDEX_MAGIC) ? header.getLong() : -1;
+
+			if (previous == 0) {
+				break;
+			} else if (previous < HEADER_SIZE || previous >= recordOffset) {
+				throw new IOException("Expression library index is corrupt!");
+			}
+
+			recordOffset = previous;
+		}
+
+		long recordEnd = 0;
+
+		for (int r = chain.size() - 1; r >= 0; r--) {
+			recordOffset = chain.get(r);
+
+			final ByteBuffer header = readFully(recordOffset + 12, INDEX_HEADER_SIZE - 12);
+			final int first = header.getInt();
+			final int count = header.getInt();
+			final long length = indexLength(count);
+
+			if (first != size || count < 0 || (long) size + count > Integer.MAX_VALUE || recordOffset + length > channel.size()) {
+				throw new IOException("Expression library index is corrupt!");
+			}
+
+			ensureCapacity(size + count);
+
+			for (int batch = 0; batch < count; batch += ENTRY_BATCH) {
+				final int entries = Math.min(ENTRY_BATCH, count - batch);
+				final ByteBuffer index = readFully(recordOffset + INDEX_HEADER_SIZE + (long) ENTRY_SIZE * batch, ENTRY_SIZE * entries);
+
+				for (int k = 0; k < entries; k++) {
+					final int id = size;
+
+					positions[id] = index.getLong();
+					lengths[id] = index.getInt();
+					hashes[id] = index.getLong();
+
+					if (positions[id] < HEADER_SIZE || lengths[id] < 0 || positions[id] + lengths[id] > recordOffset) {
+						throw new IOException("Expression library index is corrupt!");
+					}
+
+					size++;
+					insert(id);
+				}
+			}
+
+			if (r < chain.size() - 1) {
+				chainLength += length;
+			}
+
+			recordEnd = recordOffset + length;
+		}
+
+		indexOffset = offset;
+
+		return recordEnd;
+	}
+
+	/**
+	 * Writes an index record of the Expressions from <code>first</code> onwards.
+	 *
+	 * @param position file offset of the record
+	 * @param previous file offset of the previous index record, or 0 if this record starts the chain
+	 * @param first id of the first Expression in the record
+	 * @return length of the record
+	 * @throws IOException if there is a problem writing to the file
+	 */
+	private long writeIndex(final long position, final long previous, final int first) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+		header.putInt(INDEX_MAGIC).putLong(previous).putInt(first).putInt(size - first).flip();
+		writeFully(header, position);
+
+		long at = position + INDEX_HEADER_SIZE;
+		final ByteBuffer index = ByteBuffer.allocate(ENTRY_SIZE * Math.min(ENTRY_BATCH, size - first));
+
+		for (int batch = first; batch < size; batch += ENTRY_BATCH) {
+			final int batchEnd = Math.min(batch + ENTRY_BATCH, size);
+			index.clear();
+
+			for (int id = batch; id < batchEnd; id++) {
+				index.putLong(positions[id]).putInt(lengths[id]).putLong(hashes[id]);
+			}
+
+			final int length = index.flip().remaining();
+			writeFully(index, at);
+			at += length;
+		}
+
+		return at - position;
+	}
+
+	/**
+	 * Returns the length of an index record.
+	 *
+	 * @param count number of Expressions in the record
+	 * @return length in bytes
+	 */
+	private static long indexLength(final int count) {
+		return INDEX_HEADER_SIZE + (long) ENTRY_SIZE * count;
+	}
+
+	/**
+	 * Maps the part of the file that holds a range of flushed Expressions, in as few windows as possible.
+	 *
+	 * @param from id of the first Expression to map
+	 * @param to id after the last Expression to map
+	 * @throws IOException if there is a problem mapping the file
+	 */
+	private void map(final int from, final int to) throws IOException {
+		int i = from;
+
+		while (i < to) {
+			final long start = positions[i];
+			int j = i;
+
+			while (j < to && (j == i || positions[j] + lengths[j] - start <= WINDOW_LIMIT)) {
+				windowNumbers[j] = windows.size();
+				j++;
+			}
+
+			windows.add(channel.map(FileChannel.MapMode.READ_ONLY, start, positions[j - 1] + lengths[j - 1] - start));
+			windowOffsets.add(start);
+			i = j;
+		}
+	}
+
+	/**
+	 * Writes the file header and forces it to the storage device.
+	 *
+	 * @param offset file offset of the current index record, or 0 if there is none
+	 * @throws IOException if there is a problem writing to the file
+	 */
+	private void writeHeader(final long offset) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(FILE_MAGIC).putInt(VERSION).putLong(offset).flip();
+
+		writeFully(header, 0);
+		channel.force(false);
+	}
+
+	/**
+	 * Returns the encoded bytes of an Expression, as a buffer positioned at the first byte.
+	 *
+	 * @param id Expression id
+	 * @return encoded Expression
+	 */
+	private ByteBuffer bytes(final int id) {
+		checkId(id);
+
+		if (id >= firstUnmapped) {
+			return ByteBuffer.wrap(unmapped.get(id - firstUnmapped));
+		}
+
+		final int window = windowNumbers[id];
+		final int offset = (int) (positions[id] - windowOffsets.get(window));
+		final ByteBuffer out = windows.get(window).duplicate();
+		out.limit(offset + lengths[id]).position(offset);
+
+		return out;
+	}
+
+	/**
+	 * Finds an Expression with the given encoding.
+	 *
+	 * @param encoded encoded Expression
+	 * @param hash hash of <code>encoded</code>
+	 * @return id, or -1 if there is no such Expression
+	 */
+	private int find(final byte[] encoded, final long hash) {
+		final ByteBuffer wrapped = ByteBuffer.wrap(encoded);
+
+		for (int slot = slot(hash); table[slot] != 0; slot = (slot + 1) & (table.length - 1)) {
+			final int id = table[slot] - 1;
+
+			if (hashes[id] == hash && lengths[id] == encoded.length && bytes(id).equals(wrapped)) {
+				return id;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Adds an id to the hash table, growing it if it is half full.
+	 *
+	 * @param id Expression id
+	 */
+	private void insert(final int id) {
+		if (2 * size > table.length) {
+			table = new int[2 * table.length];
+
+			for (int i = 0; i < size; i++) {
+				if (i != id) {
+					place(i);
+				}
+			}
+		}
+
+		place(id);
+	}
+
+	/**
+	 * Puts an id in the first empty slot of the hash table at or after its hash's slot.
+	 *
+	 * @param id Expression id
+	 */
+	private void place(final int id) {
+		int slot = slot(hashes[id]);
+
+		while (table[slot] != 0) {
+			slot = (slot + 1) & (table.length - 1);
+		}
+
+		table[slot] = id + 1;
+	}
+
+	/**
+	 * Returns the home slot of a hash in the hash table.
+	 *
+	 * @param hash structural hash
+	 * @return slot index
+	 */
+	private int slot(final long hash) {
+		return (int) (hash ^ (hash >>> 32)) & (table.length - 1);
+	}
+
+	/**
+	 * Grows the per-Expression arrays.
+	 *
+	 * @param capacity required number of Expressions
+	 */
+	private void ensureCapacity(final int capacity) {
+		if (capacity > windowNumbers.length) {
+			final int newLength = Math.max(capacity, 2 * windowNumbers.length);
+
+			windowNumbers = Arrays.copyOf(windowNumbers, newLength);
+			positions = Arrays.copyOf(positions, newLength);
+			lengths = Arrays.copyOf(lengths, newLength);
+			hashes = Arrays.copyOf(hashes, newLength);
+		}
+	}
+
+	/**
+	 * Checks an Expression id.
+	 *
+	 * @param id Expression id
+	 * @return <code>id</code>
+	 * @throws IndexOutOfBoundsException if there is no Expression with this id
+	 */
+	private int checkId(final int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("No expression with id " + id + "; size " + size);
+		}
+
+		return id;
+	}
+
+	/**
+	 * Reads a range of the file.
+	 *
+	 * @param position file offset
+	 * @param length number of bytes
+	 * @return buffer positioned at the first byte
+	 * @throws IOException if the file ends before the range does
+	 */
+	private ByteBuffer readFully(final long position, final int length) throws IOException {
+		final ByteBuffer out = ByteBuffer.allocate(length);
+
+		while (out.hasRemaining()) {
+			if (channel.read(out, position + out.position()) < 0) {
+				throw new IOException("Unexpected end of expression library!");
+			}
+		}
+
+		return out.flip();
+	}
+
+	/**
+	 * Writes a buffer to the file.
+	 *
+	 * @param buffer bytes to write
+	 * @param position file offset
+	 * @throws IOException if there is a problem writing to the file
+	 */
+	private void writeFully(final ByteBuffer buffer, final long position) throws IOException {
+		long at = position;
+
+		while (buffer.hasRemaining()) {
+			at += channel.write(buffer, at);
+		}
+	}
+}
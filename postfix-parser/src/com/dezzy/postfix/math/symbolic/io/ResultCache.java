@@ -0,0 +1,611 @@
+package com.dezzy.postfix.math.symbolic.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+import com.dezzy.postfix.math.symbolic.constants.Constant;
+import com.dezzy.postfix.math.symbolic.structure.Expression;
+import com.dezzy.postfix.math.symbolic.structure.Value;
+
+/**
+ * A persistent cache of derivatives, simplifications, and other transformations of Expressions, so that a restarted program
+ * does not recompute results it has already seen. A result is keyed by the input Expression's {@link ExpressionCodec encoding},
+ * the name of the transformation, an argument such as a variable name, and a {@link #fingerprint(Map) fingerprint} of the
+ * constants it used. Chains like
+ * <pre>
+ * expr.derivative("y").simplify(Reserved.constants).cleanDecimals(Reserved.constants)
+ * </pre>
+ * become
+ * <pre>
+ * cache.cleanDecimals(cache.simplify(cache.derivative(expr, "y"), Reserved.constants), Reserved.constants)
+ * </pre>
+ * <p>
+ * Results are appended to a log file as they are computed, and the log is read back when the cache is opened. Each record has
+ * a length and a CRC, so a record that was only partly written when a program stopped is detected and discarded, along with
+ * everything after it. The cache holds at most a given number of bytes of keys and results; beyond that, the least recently
+ * used results are evicted. When the log holds more than twice that many bytes, it is compacted by writing the live results to
+ * a new file and atomically renaming it over the log.
+ * <p>
+ * Appended records reach the operating system immediately, so they survive the program crashing, but are only forced to the
+ * storage device by {@link #sync()} and {@link #close()}. This class is thread-safe.
+ *
+ * @author Joe Desmond
+ */
+public final class ResultCache implements Closeable {
+
+	/**
+	 * Name of the {@link #derivative(Expression, String)} transformation
+	 */
+	public static final String DERIVATIVE = "derivative";
+
+	/**
+	 * Name of the {@link #simplify(Expression, Map)} transformation
+	 */
+	public static final String SIMPLIFY = "simplify";
+
+	/**
+	 * Name of the {@link #cleanDecimals(Expression, Map)} transformation
+	 */
+	public static final String CLEAN_DECIMALS = "cleanDecimals";
+
+	/**
+	 * Largest cache size
+	 */
+	public static final long MAX_CAPACITY = 1L << 29;
+
+	/**
+	 * First 4 bytes of a log file
+	 */
+	private static final int MAGIC = 0x53505843;
+
+	/**
+	 * Version of the log format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Size of the log header: magic and version
+	 */
+	private static final int HEADER_SIZE = 8;
+
+	/**
+	 * Size of a record header: payload length and CRC
+	 */
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	/**
+	 * Log file
+	 */
+	private final Path path;
+
+	/**
+	 * Largest number of bytes of keys and results held by the cache
+	 */
+	private final long maxBytes;
+
+	/**
+	 * Cached results, from least to most recently used
+	 */
+	private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<Key, byte[]>(16, 0.75f, true);
+
+	/**
+	 * Open log file
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Size of the log file
+	 */
+	private long logSize;
+
+	/**
+	 * Number of bytes of records in the log for the entries in {@link #entries}
+	 */
+	private long liveBytes = 0;
+
+	/**
+	 * Number of lookups that found a result
+	 */
+	private long hits = 0;
+
+	/**
+	 * Number of lookups that computed a result
+	 */
+	private long misses = 0;
+
+	/**
+	 * Opens a cache log file, creating it if it does not exist, and loads the results in it. A damaged or partly written
+	 * record, and everything after it, is removed from the log.
+	 *
+	 * @param _path log file
+	 * @param _maxBytes largest number of bytes of keys and results to hold; the least recently used results are evicted
+	 * 			beyond this; at most {@link #MAX_CAPACITY}
+	 * @throws IOException if there is a problem reading the log, or it is not a cache log
+	 */
+	public ResultCache(final Path _path, final long _maxBytes) throws IOException {
+		if (_maxBytes <= 0 || _maxBytes > MAX_CAPACITY) {
+			throw new IllegalArgumentException("The cache size must be between 1 and " + MAX_CAPACITY + " bytes!");
+		}
+
+		path = _path;
+		maxBytes = _maxBytes;
+		channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+
+		try {
+			load();
+		} catch (final IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the derivative of an Expression, computing it only if it is not cached.
+	 *
+	 * @param expression Expression to differentiate
+	 * @param varName variable name
+	 * @return derivative
+	 * @see Expression#derivative(String)
+	 */
+	public Expression derivative(final Expression expression, final String varName) {
+		return compute(expression, DERIVATIVE, varName, Map.of(), e -> e.derivative(varName));
+	}
+
+	/**
+	 * Returns the simplified form of an Expression, computing it only if it is not cached.
+	 *
+	 * @param expression Expression to simplify
+	 * @param constants known constants
+	 * @return simplified Expression
+	 * @see Expression#simplify(Map)
+	 */
+	public Expression simplify(final Expression expression, final Map<String, Constant> constants) {
+		return compute(expression, SIMPLIFY, "", constants, e -> e.simplify(constants));
+	}
+
+	/**
+	 * Returns an Expression with decimals replaced by fractions and constants, computing it only if it is not cached.
+	 *
+	 * @param expression Expression to clean
+	 * @param constants known constants
+	 * @return Expression without decimals
+	 * @see Expression#cleanDecimals(Map)
+	 */
+	public Expression cleanDecimals(final Expression expression, final Map<String, Constant> constants) {
+		return compute(expression, CLEAN_DECIMALS, "", constants, e -> e.cleanDecimals(constants));
+	}
+
+	/**
+	 * Returns the cached result of a transformation, or computes, caches, and returns it. The transformation must be a pure
+	 * function of the input Expression, <code>argument</code>, and <code>constants</code>.
+	 *
+	 * @param expression input Expression
+	 * @param operation name of the transformation
+	 * @param argument argument of the transformation that is not part of <code>constants</code>, such as a variable name
+	 * @param constants known constants used by the transformation
+	 * @param transformation computes the result from the input Expression
+	 * @return result
+	 * @throws UncheckedIOException if the result cannot be appended to the log
+	 */
+	public Expression compute(final Expression expression, final String operation, final String argument, final Map<String, Constant> constants, final UnaryOperator<Expression> transformation) {
+		final Key key = new Key(ExpressionCodec.encode(expression), operation, argument, fingerprint(constants));
+		final byte[] cached;
+
+		synchronized (this) {
+			cached = entries.get(key);
+
+			if (cached != null) {
+				hits++;
+			} else {
+				misses++;
+			}
+		}
+
+		try {
+			if (cached != null) {
+				return ExpressionCodec.decode(cached);
+			}
+
+			final Expression result = transformation.apply(expression);
+			put(key, ExpressionCodec.encode(result));
+
+			return result;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns a fingerprint of a constants map and of {@link Value#getAcceptedError()}, both of which affect simplification.
+	 * Maps with the same names, reduce flags, and structurally identical expressions have the same fingerprint, regardless of
+	 * their order.
+	 *
+	 * @param constants known constants
+	 * @return fingerprint
+	 */
+	public static long fingerprint(final Map<String, Constant> constants) {
+		long out = Double.doubleToLongBits(Value.getAcceptedError()) * 0x9E3779B97F4A7C15L;
+
+		for (final Entry<String, Constant> entry : constants.entrySet()) {
+			final byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+			final Constant constant = entry.getValue();
+			long hash = ExpressionCodec.hash(name, 0, name.length);
+
+			hash = 31 * hash + ExpressionCodec.structuralHash(constant.expression);
+			hash = 31 * hash + (constant.reduce ? 1 : 0);
+			out += hash * 0xC2B2AE3D27D4EB4FL;
+		}
+
+		return out;
+	}
+
+	/**
+	 * Returns the number of cached results.
+	 *
+	 * @return number of results
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the number of lookups since this cache was opened that found a cached result.
+	 *
+	 * @return number of hits
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of lookups since this cache was opened that computed a result.
+	 *
+	 * @return number of misses
+	 */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/**
+	 * Forces every appended result to the storage device.
+	 *
+	 * @throws IOException if there is a problem writing to the log
+	 */
+	public synchronized void sync() throws IOException {
+		channel.force(false);
+	}
+
+	/**
+	 * Forces every appended result to the storage device and closes the log.
+	 *
+	 * @throws IOException if there is a problem writing to the log
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			channel.force(false);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Adds a result, appends it to the log, evicts least recently used results, and compacts the log if it has grown too large.
+	 *
+	 * @param key key
+	 * @param result encoded result
+	 * @throws IOException if there is a problem writing to the log
+	 */
+	private synchronized void put(final Key key, final byte[] result) throws IOException {
+		final ByteBuffer record = record(key, result);
+		writeFully(record, logSize);
+		logSize += record.capacity();
+
+		insert(key, result);
+
+		if (logSize - HEADER_SIZE > 2 * maxBytes) {
+			compact();
+		}
+	}
+
+	/**
+	 * Adds a result without logging it, and evicts least recently used results.
+	 *
+	 * @param key key
+	 * @param result encoded result
+	 */
+	private void insert(final Key key, final byte[] result) {
+		final byte[] previous = entries.put(key, result);
+
+		if (previous != null) {
+			liveBytes -= recordSize(key, previous);
+		}
+
+		liveBytes += recordSize(key, result);
+
+		final Iterator<Entry<Key, byte[]>> iterator = entries.entrySet().iterator();
+
+		while (liveBytes > maxBytes && iterator.hasNext()) {
+			final Entry<Key, byte[]> eldest = iterator.next();
+
+			liveBytes -= recordSize(eldest.getKey(), eldest.getValue());
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Reads the log into {@link #entries}. Reading stops at the first damaged record, and the log is truncated there.
+	 *
+	 * @throws IOException if there is a problem reading the log
+	 */
+	private void load() throws IOException {
+		final long size = channel.size();
+
+		if (size < HEADER_SIZE) {
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).flip();
+
+			channel.truncate(0);
+			writeFully(header, 0);
+			logSize = HEADER_SIZE;
+			return;
+		}
+
+		//The log is read through the channel rather than mapped, so that it can be truncated afterwards; the stream is not closed,
+		//because that would close the channel
+		final DataInputStream log = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16));
+
+		if (log.readInt() != MAGIC) {
+			throw new IOException(path + " is not a result cache!");
+		}
+
+		final int version = log.readInt();
+
+		if (version != VERSION) {
+			throw new IOException("Unsupported result cache version: " + version);
+		}
+
+		final CRC32 crc = new CRC32();
+		long position = HEADER_SIZE;
+
+		while (size - position >= RECORD_HEADER_SIZE) {
+			final int length = log.readInt();
+			final int checksum = log.readInt();
+
+			if (length < 0 || length > size - position - RECORD_HEADER_SIZE) {
+				break;
+			}
+
+			final byte[] bytes = new byte[length];
+			log.readFully(bytes);
+			crc.reset();
+			crc.update(bytes);
+
+			if ((int) crc.getValue() != checksum) {
+				break;
+			}
+
+			try {
+				final ByteBuffer payload = ByteBuffer.wrap(bytes);
+				final byte[] input = readBytes(payload);
+				final String operation = new String(readBytes(payload), StandardCharsets.UTF_8);
+				final String argument = new String(readBytes(payload), StandardCharsets.UTF_8);
+				final long fingerprint = payload.getLong();
+				final byte[] result = readBytes(payload);
+
+				insert(new Key(input, operation, argument, fingerprint), result);
+			} catch (final RuntimeException e) {
+				break;
+			}
+
+			position += RECORD_HEADER_SIZE + length;
+		}
+
+		logSize = position;
+
+		if (logSize < size) {
+			channel.truncate(logSize);
+		}
+	}
+
+	/**
+	 * Rewrites the log with only the cached results, in least to most recently used order, and atomically replaces the old log.
+	 * If the file system cannot move the new log atomically, it is moved over the old log without that guarantee.
+	 *
+	 * @throws IOException if there is a problem writing the new log or moving it over the old log
+	 */
+	private void compact() throws IOException {
+		final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		final List<ByteBuffer> records = new ArrayList<ByteBuffer>();
+		long size = HEADER_SIZE;
+
+		for (final Entry<Key, byte[]> entry : entries.entrySet()) {
+			final ByteBuffer record = record(entry.getKey(), entry.getValue());
+			records.add(record);
+			size += record.capacity();
+		}
+
+		try (final FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).flip();
+			out.write(header);
+
+			for (final ByteBuffer record : records) {
+				while (record.hasRemaining()) {
+					out.write(record);
+				}
+			}
+
+			out.force(false);
+		}
+
+		//The log is closed first because some systems cannot replace an open file; it is reopened even if the move fails
+		channel.close();
+
+		try {
+			try {
+				Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+
+		logSize = size;
+	}
+
+	/**
+	 * Creates the log record of a result.
+	 *
+	 * @param key key
+	 * @param result encoded result
+	 * @return record, ready to be written
+	 */
+	private static ByteBuffer record(final Key key, final byte[] result) {
+		final byte[] operation = key.operation.getBytes(StandardCharsets.UTF_8);
+		final byte[] argument = key.argument.getBytes(StandardCharsets.UTF_8);
+		final int length = 4 + key.input.length + 4 + operation.length + 4 + argument.length + 8 + 4 + result.length;
+		final ByteBuffer out = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+
+		out.putInt(length).putInt(0);
+		out.putInt(key.input.length).put(key.input);
+		out.putInt(operation.length).put(operation);
+		out.putInt(argument.length).put(argument);
+		out.putLong(key.fingerprint);
+		out.putInt(result.length).put(result);
+
+		final CRC32 crc = new CRC32();
+		crc.update(out.array(), RECORD_HEADER_SIZE, length);
+		out.putInt(4, (int) crc.getValue());
+
+		return out.flip();
+	}
+
+	/**
+	 * Returns the number of bytes that a result takes up in the log, which is also the size it is counted as in memory.
+	 *
+	 * @param key key
+	 * @param result encoded result
+	 * @return record size in bytes
+	 */
+	private static long recordSize(final Key key, final byte[] result) {
+		final int operation = key.operation.getBytes(StandardCharsets.UTF_8).length;
+		final int argument = key.argument.getBytes(StandardCharsets.UTF_8).length;
+
+		return RECORD_HEADER_SIZE + 24 + key.input.length + operation + argument + result.length;
+	}
+
+	/**
+	 * Reads a length-prefixed byte array.
+	 *
+	 * @param buffer source
+	 * @return bytes
+	 */
+	private static byte[] readBytes(final ByteBuffer buffer) {
+		final byte[] out = new byte[buffer.getInt()];
+		buffer.get(out);
+
+		return out;
+	}
+
+	/**
+	 * Writes a buffer to the log.
+	 *
+	 * @param buffer bytes to write
+	 * @param position file offset
+	 * @throws IOException if there is a problem writing to the log
+	 */
+	private void writeFully(final ByteBuffer buffer, final long position) throws IOException {
+		long at = position;
+
+		while (buffer.hasRemaining()) {
+			at += channel.write(buffer, at);
+		}
+	}
+
+	/**
+	 * Identifies one result: the encoded input Expression, the transformation, its argument, and the constants fingerprint.
+	 */
+	private static final class Key {
+
+		/**
+		 * Encoded input Expression
+		 */
+		private final byte[] input;
+
+		/**
+		 * Name of the transformation
+		 */
+		private final String operation;
+
+		/**
+		 * Argument of the transformation
+		 */
+		private final String argument;
+
+		/**
+		 * Fingerprint of the constants
+		 */
+		private final long fingerprint;
+
+		/**
+		 * Hash code, computed once
+		 */
+		private final int hash;
+
+		/**
+		 * Creates a key.
+		 *
+		 * @param _input encoded input Expression
+		 * @param _operation name of the transformation
+		 * @param _argument argument of the transformation
+		 * @param _fingerprint fingerprint of the constants
+		 */
+		private Key(final byte[] _input, final String _operation, final String _argument, final long _fingerprint) {
+			input = _input;
+			operation = _operation;
+			argument = _argument;
+			fingerprint = _fingerprint;
+			hash = Objects.hash(Arrays.hashCode(input), operation, argument, fingerprint);
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof Key)) {
+				return false;
+			} else {
+				final Key otherKey = (Key) other;
+				return hash == otherKey.hash && fingerprint == otherKey.fingerprint && operation.equals(otherKey.operation) &&
+						argument.equals(otherKey.argument) && Arrays.equals(input, otherKey.input);
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
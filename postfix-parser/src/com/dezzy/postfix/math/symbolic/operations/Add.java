@@ -67,11 +67,11 @@ public final class Add implements Operation {
 	@Override
 	public final Expression simplify(final Expression op1, final Expression op2, final Map<String, Constant> constants) {
 		if (op1.canEvaluate(constants) && op2.canEvaluate(constants)) {
-			return new Value(operate(op1.evaluate(constants), op2.evaluate(constants)));
+			return Value.of(operate(op1.evaluate(constants), op2.evaluate(constants)));
 		}
 		
 		if (op1.equals(op2)) {
-			return new SymbolicResult(new Value(2), op1, Operation.MULTIPLY);
+			return new SymbolicResult(Value.TWO, op1, Operation.MULTIPLY);
 		} else {
 			return new SymbolicResult(op1, op2, Operation.ADD);
 		}
@@ -116,17 +116,17 @@ public final class Add implements Operation {
 		if (group.operation == Operation.ADD) {				
 			if (op1.canEvaluate(constants)) {
 				//Simplify op1
-				final Expression simple = new Value(fst.evaluate(constants) + op1.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) + op1.evaluate(constants));
 				
 				if (op2.canEvaluate(constants)) {
 					//Now simplify op2
-					return new Value(simple.evaluate(constants) + op2.evaluate(constants));
+					return Value.of(simple.evaluate(constants) + op2.evaluate(constants));
 				} else {
 					return new SymbolicResult(simple, op2, Operation.ADD);
 				}
 			} else if (op2.canEvaluate(constants)) {
 				//Simplify op2, can't simplify op1
-				final Expression simple = new Value(fst.evaluate(constants) + op2.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) + op2.evaluate(constants));
 				return new SymbolicResult(simple, op1, Operation.ADD);
 			} else {
 				//Can't simplify group operands
@@ -134,15 +134,15 @@ public final class Add implements Operation {
 			}
 		} else if (group.operation == Operation.SUBTRACT) {				
 			if (op1.canEvaluate(constants)) {
-				final Expression simple = new Value(fst.evaluate(constants) + op1.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) + op1.evaluate(constants));
 				
 				if (op2.canEvaluate(constants)) {
-					return new Value(simple.evaluate(constants) - op2.evaluate(constants));
+					return Value.of(simple.evaluate(constants) - op2.evaluate(constants));
 				} else {
 					return new SymbolicResult(simple, op2, Operation.SUBTRACT);
 				}
 			} else if (op2.canEvaluate(constants)) {
-				final Expression simple = new Value(fst.evaluate(constants) - op2.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) - op2.evaluate(constants));
 				return new SymbolicResult(simple, op1, Operation.ADD);
 			} else {
 				return new SymbolicResult(fst, group, Operation.ADD);
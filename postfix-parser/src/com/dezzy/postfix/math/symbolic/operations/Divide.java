@@ -51,7 +51,7 @@ public final class Divide implements Operation {
 			final Expression fgprime = new SymbolicResult(op1, gprime, Operation.MULTIPLY);
 
 			final Expression numerator = new SymbolicResult(fprimeg, fgprime, Operation.SUBTRACT);
-			final Expression denominator = new SymbolicResult(op2, new Value(2), Operation.POWER);
+			final Expression denominator = new SymbolicResult(op2, Value.TWO, Operation.POWER);
 			return new SymbolicResult(numerator, denominator, Operation.DIVIDE);
 		} else if (op1.isFunctionOf(varName)) {
 			final Expression coefficient = new SymbolicResult(Value.ONE, op2, Operation.DIVIDE);
@@ -79,7 +79,7 @@ public final class Divide implements Operation {
 	@Override
 	public final Expression simplify(final Expression op1, final Expression op2, final Map<String, Constant> constants) {
 		if (op1.canEvaluate(constants) && op2.canEvaluate(constants)) {
-			return new Value(operate(op1.evaluate(constants), op2.evaluate(constants)));
+			return Value.of(operate(op1.evaluate(constants), op2.evaluate(constants)));
 		}
 		
 		if (op2.equals(Value.ONE)) {
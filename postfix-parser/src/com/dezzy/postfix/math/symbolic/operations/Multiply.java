@@ -70,7 +70,7 @@ public final class Multiply implements Operation {
 	@Override
 	public final Expression simplify(final Expression op1, final Expression op2, final Map<String, Constant> constants) {
 		if (op1.canEvaluate(constants) && op2.canEvaluate(constants)) {
-			return new Value(operate(op1.evaluate(constants), op2.evaluate(constants)));
+			return Value.of(operate(op1.evaluate(constants), op2.evaluate(constants)));
 		}
 		
 		if (op1.equals(Value.ZERO) || op2.equals(Value.ZERO)) {
@@ -80,7 +80,7 @@ public final class Multiply implements Operation {
 		} else if (op2.equals(Value.ONE)) {
 			return op1;
 		} else if (op1.equals(op2)) {
-			return new SymbolicResult(op1, new Value(2), Operation.POWER);
+			return new SymbolicResult(op1, Value.TWO, Operation.POWER);
 		} else {
 			return new SymbolicResult(op1, op2, Operation.MULTIPLY);
 		}
@@ -109,17 +109,17 @@ public final class Multiply implements Operation {
 			//(fst * op1) + (fst * op2)
 			
 			if (op1.canEvaluate(constants)) {
-				final Expression simple = new Value(fst.evaluate(constants) * op1.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) * op1.evaluate(constants));
 				
 				if (op2.canEvaluate(constants)) {
-					return new Value(simple.evaluate(constants) + (fst.evaluate(constants) * op2.evaluate(constants)));
+					return Value.of(simple.evaluate(constants) + (fst.evaluate(constants) * op2.evaluate(constants)));
 				} else {
 					final Expression distributedThd = new SymbolicResult(fst, op2, Operation.MULTIPLY);
 					
 					return new SymbolicResult(simple, distributedThd, Operation.ADD);
 				}
 			} else if (op2.canEvaluate(constants)) {
-				final Expression simple = new Value(fst.evaluate(constants) * op2.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) * op2.evaluate(constants));
 				final Expression distributedSnd = new SymbolicResult(fst, op1, Operation.MULTIPLY);
 				
 				return new SymbolicResult(simple, distributedSnd, Operation.ADD);
@@ -132,11 +132,11 @@ public final class Multiply implements Operation {
 			
 			if (op1.canEvaluate(constants)) {
 				//fst * op1
-				final Expression simple = new Value(fst.evaluate(constants) * op1.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) * op1.evaluate(constants));
 				
 				if (op2.canEvaluate(constants)) {
 					//(fst * op1) - (fst * op2)
-					return new Value(simple.evaluate(constants) - (fst.evaluate(constants) * op2.evaluate(constants)));
+					return Value.of(simple.evaluate(constants) - (fst.evaluate(constants) * op2.evaluate(constants)));
 				} else {
 					//fst * op2
 					final Expression distributedThd = new SymbolicResult(fst, op2, Operation.MULTIPLY);
@@ -146,7 +146,7 @@ public final class Multiply implements Operation {
 				}
 			} else if (op2.canEvaluate(constants)) {
 				//fst * op2
-				final Expression simple = new Value(fst.evaluate(constants) * op2.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) * op2.evaluate(constants));
 				
 				//fst * op1
 				final Expression distributedSnd = new SymbolicResult(fst, op1, Operation.MULTIPLY);
@@ -162,18 +162,18 @@ public final class Multiply implements Operation {
 			
 			if (op1.canEvaluate(constants)) {
 				//fst * op1
-				final Expression simple = new Value(fst.evaluate(constants) * op1.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) * op1.evaluate(constants));
 				
 				if (op2.canEvaluate(constants)) {
 					//fst * op1 * op2
-					return new Value(simple.evaluate(constants) * op2.evaluate(constants));
+					return Value.of(simple.evaluate(constants) * op2.evaluate(constants));
 				} else {
 					//(fst * op1) * op2
 					return new SymbolicResult(simple, op2, Operation.MULTIPLY);
 				}
 			} else if (op2.canEvaluate(constants)) {
 				//fst * op2
-				final Expression simple = new Value(fst.evaluate(constants) * op2.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) * op2.evaluate(constants));
 				
 				//(fst * op2) * op1
 				return new SymbolicResult(simple, op1, Operation.MULTIPLY);
@@ -186,18 +186,18 @@ public final class Multiply implements Operation {
 			
 			if (op1.canEvaluate(constants)) {
 				//fst * op1
-				final Expression simple = new Value(fst.evaluate(constants) * op1.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) * op1.evaluate(constants));
 				
 				if (op2.canEvaluate(constants)) {
 					//(fst * op1) / op2
-					return new Value(simple.evaluate(constants) / op2.evaluate(constants));
+					return Value.of(simple.evaluate(constants) / op2.evaluate(constants));
 				} else {
 					//(fst * op1) / op2
 					return new SymbolicResult(simple, op2, Operation.DIVIDE);
 				}
 			} else if (op2.canEvaluate(constants)) {
 				//fst / op2
-				final Expression simple = new Value(fst.evaluate(constants) / op2.evaluate(constants));
+				final Expression simple = Value.of(fst.evaluate(constants) / op2.evaluate(constants));
 				
 				//(fst / op2) * op1
 				return new SymbolicResult(simple, op1, Operation.MULTIPLY);
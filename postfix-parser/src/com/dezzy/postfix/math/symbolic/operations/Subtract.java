@@ -66,7 +66,7 @@ public class Subtract implements Operation {
 	@Override
 	public final Expression simplify(final Expression op1, final Expression op2, final Map<String, Constant> constants) {
 		if (op1.canEvaluate(constants) && op2.canEvaluate(constants)) {
-			return new Value(operate(op1.evaluate(constants), op2.evaluate(constants)));
+			return Value.of(operate(op1.evaluate(constants), op2.evaluate(constants)));
 		}
 		
 		if (op1.equals(op2)) {
@@ -94,15 +94,15 @@ public class Subtract implements Operation {
 		if (group.operation == Operation.ADD) {
 			if (fst.canEvaluate(constants)) {
 				if (op1.canEvaluate(constants)) {
-					final Expression simple = new Value(fst.evaluate(constants) - op1.evaluate(constants));
+					final Expression simple = Value.of(fst.evaluate(constants) - op1.evaluate(constants));
 					
 					if (op2.canEvaluate(constants)) {
-						return new Value(simple.evaluate(constants) - op2.evaluate(constants));
+						return Value.of(simple.evaluate(constants) - op2.evaluate(constants));
 					} else {
 						return new SymbolicResult(simple, op2, Operation.SUBTRACT);
 					}
 				} else if (op2.canEvaluate(constants)) {
-					final Expression simple = new Value(fst.evaluate(constants) - op2.evaluate(constants));
+					final Expression simple = Value.of(fst.evaluate(constants) - op2.evaluate(constants));
 					
 					return new SymbolicResult(simple, op1, Operation.SUBTRACT);
 				} else {
@@ -120,15 +120,15 @@ public class Subtract implements Operation {
 		} else if (group.operation == Operation.SUBTRACT) {
 			if (fst.canEvaluate(constants)) {
 				if (op1.canEvaluate(constants)) {
-					final Expression simple = new Value(fst.evaluate(constants) - op1.evaluate(constants));
+					final Expression simple = Value.of(fst.evaluate(constants) - op1.evaluate(constants));
 					
 					if (op2.canEvaluate(constants)) {
-						return new Value(simple.evaluate(constants) + op2.evaluate(constants));
+						return Value.of(simple.evaluate(constants) + op2.evaluate(constants));
 					} else {
 						return new SymbolicResult(simple, op2, Operation.ADD);
 					}
 				} else if (op2.canEvaluate(constants)) {
-					final Expression simple = new Value(fst.evaluate(constants) + op2.evaluate(constants));
+					final Expression simple = Value.of(fst.evaluate(constants) + op2.evaluate(constants));
 				
 					return new SymbolicResult(simple, op1, Operation.SUBTRACT);
 				} else {
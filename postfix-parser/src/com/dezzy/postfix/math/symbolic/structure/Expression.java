@@ -1,19 +1,23 @@
 package com.dezzy.postfix.math.symbolic.structure;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.dezzy.postfix.math.complex.Complex;
+import com.dezzy.postfix.math.evaluation.EquivalenceChecker;
 import com.dezzy.postfix.math.evaluation.EvaluationDomain;
 import com.dezzy.postfix.math.evaluation.VariableDomain;
 import com.dezzy.postfix.math.symbolic.constants.Constant;
+import com.dezzy.postfix.math.symbolic.io.ExpressionCodec;
 
 /**
  * Identifies any mathematical expression in symbolic form. Expression can be simplified and evaluated given a set of known constants.
@@ -31,6 +35,29 @@ public interface Expression extends Serializable {
 	 */
 	public double evaluate(final Map<String, Constant> constants);
 	
+	/**
+	 * Evaluates this mathematical expression over the complex numbers. Unlike {@link #evaluate(Map)}, this method also evaluates
+	 * constants that are not meant to be reduced (such as <code>i = (-1 ^ 0.5)</code>), and multivalued operations and functions
+	 * return their principal values.
+	 * 
+	 * @param constants maps known constants to values
+	 * @return the complex value of this expression
+	 * @see com.dezzy.postfix.math.complex.ComplexEvaluator
+	 */
+	public Complex evaluateComplex(final Map<String, Constant> constants);
+	
+	/**
+	 * Evaluates this mathematical expression with arbitrary precision. Every operation and function is correctly rounded to
+	 * <code>mathContext</code>, so rounding errors can still accumulate over many operations; 
+	 * {@link com.dezzy.postfix.math.precise.PreciseEvaluator PreciseEvaluator} evaluates with guard digits and caches intermediate results.
+	 * 
+	 * @param constants maps known constants to values
+	 * @param mathContext precision and rounding mode of every intermediate result
+	 * @return the value of this expression
+	 * @throws ArithmeticException if an operation or function is undefined for its operands
+	 */
+	public BigDecimal evaluatePrecise(final Map<String, Constant> constants, final MathContext mathContext);
+	
 	/**
 	 * Returns true if this Expression can be evaluated given the known constants.
 	 * 
@@ -139,13 +166,37 @@ public interface Expression extends Serializable {
 	public int hashCode();
 	
 	/**
-	 * Returns true if this Expression is equal to another Expression evaluated over the given domain.
+	 * Returns true if this Expression is equal to another Expression evaluated over the given domain. Both Expressions are
+	 * compiled once and compared numerically by an {@link EquivalenceChecker}. If either Expression contains a name that is
+	 * neither a variable of the domain nor a constant that can be reduced (such as <code>i</code>), both Expressions are
+	 * simplified at each point of the domain and compared symbolically instead.
 	 * 
 	 * @param other Expression to check equality with
 	 * @param evalDomain evaluation domain to test equality over
 	 * @return true if this Expression is equal to another for the given domain
+	 * @see EquivalenceChecker#check(Expression, Expression)
 	 */
 	public default boolean analyticallyEquals(final Expression other, final EvaluationDomain evalDomain) {
+		final EquivalenceChecker.Result result = new EquivalenceChecker(evalDomain).check(this, other);
+		
+		if (result.verdict != EquivalenceChecker.Verdict.UNSUPPORTED) {
+			return result.isEquivalent();
+		}
+		
+		return symbolicallyEquals(other, evalDomain);
+	}
+	
+	/**
+	 * Returns true if this Expression is equal to another Expression evaluated over the given domain, by simplifying both
+	 * Expressions at every point in the domain and comparing the results. This is much slower than
+	 * {@link #analyticallyEquals(Expression, EvaluationDomain)}, but it works for Expressions with unknowns that are not
+	 * variables of the domain, and with constants that are not reduced.
+	 * 
+	 * @param other Expression to check equality with
+	 * @param evalDomain evaluation domain to test equality over
+	 * @return true if this Expression is equal to another for the given domain
+	 */
+	public default boolean symbolicallyEquals(final Expression other, final EvaluationDomain evalDomain) {
 		final VariableDomain[] domains = evalDomain.variableDomains;
 		
 		if (domains != null && domains.length != 0) {
@@ -181,38 +232,35 @@ public interface Expression extends Serializable {
 	}
 	
 	/**
-	 * Serializes this Expression and saves it to a file. Expressions can be loaded with {@link #loadFromFile(String)}.
+	 * Encodes this Expression in the compact binary format of {@link ExpressionCodec} and saves it to a file.
+	 * Expressions can be loaded with {@link #loadFromFile(String)}.
 	 * 
 	 * @param path path to the file
 	 * @throws IOException if there is a problem writing to the file
 	 */
 	public default void saveToFile(final String path) throws IOException {
-		final FileOutputStream fos = new FileOutputStream(new File(path));
-		final ObjectOutputStream oos = new ObjectOutputStream(fos);
-		
-		oos.writeObject(this);
-		
-		oos.close();
-		fos.close();
+		Files.write(Paths.get(path), ExpressionCodec.encode(this));
 	}
 	
 	/**
-	 * Loads a serialized Expression from a file. Expressions can be saved with {@link #saveToFile(String)}.
+	 * Loads an Expression from a file. Expressions can be saved with {@link #saveToFile(String)}. Files written with Java
+	 * serialization by earlier versions can also be loaded; their operations and functions are replaced with the singletons in
+	 * {@link com.dezzy.postfix.math.Reserved Reserved}.
 	 * 
 	 * @param path path to the file
 	 * @return Expression located at <code>path</code>
 	 * @throws IOException if there is problem reading the file
-	 * @throws ClassNotFoundException if there is a problem reading the object
+	 * @throws ClassNotFoundException if there is a problem reading a serialized object
 	 */
 	public static Expression loadFromFile(final String path) throws IOException, ClassNotFoundException {
-		final FileInputStream fis = new FileInputStream(new File(path));
-		final ObjectInputStream ois = new ObjectInputStream(fis);
+		final byte[] bytes = Files.readAllBytes(Paths.get(path));
 		
-		final Expression object = (Expression) ois.readObject();
-		
-		ois.close();
-		fis.close();
+		if (ExpressionCodec.hasMagic(bytes)) {
+			return ExpressionCodec.decode(bytes);
+		}
 		
-		return object;
+		try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return ExpressionCodec.canonicalize((Expression) ois.readObject());
+		}
 	}
 }
@@ -1,11 +1,17 @@
 package com.dezzy.postfix.math.symbolic.structure;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 import com.dezzy.postfix.math.Function;
 import com.dezzy.postfix.math.Reserved;
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.complex.Complex;
+import com.dezzy.postfix.math.complex.ComplexFunction;
+import com.dezzy.postfix.math.precise.PreciseFunction;
 import com.dezzy.postfix.math.symbolic.constants.Constant;
 
 /**
@@ -53,6 +59,43 @@ public final class SymbolicFunction implements Expression {
 		return function.apply(value);
 	}
 	
+	/**
+	 * Evaluates the argument over the complex numbers, then applies the complex counterpart of the function to it.
+	 * 
+	 * @param constants known constants
+	 * @return complex value of this function applied to its argument
+	 * @throws UnrecognizedSymbolException if the function has no complex counterpart in {@link Reserved#complexFunctions}
+	 */
+	@Override
+	public final Complex evaluateComplex(final Map<String, Constant> constants) {
+		final ComplexFunction complexFunction = Reserved.complexFunctions.get(function);
+		
+		if (complexFunction == null) {
+			throw new UnrecognizedSymbolException("No complex counterpart exists for the function \"" + Reserved.functions.inverseGet(function) + "\"!");
+		}
+		
+		return complexFunction.apply(argument.evaluateComplex(constants));
+	}
+	
+	/**
+	 * Evaluates the argument with arbitrary precision, then applies the arbitrary-precision counterpart of the function to it.
+	 * 
+	 * @param constants known constants
+	 * @param mathContext precision
+	 * @return value of this function applied to its argument
+	 * @throws UnrecognizedSymbolException if the function has no counterpart in {@link Reserved#preciseFunctions}
+	 */
+	@Override
+	public final BigDecimal evaluatePrecise(final Map<String, Constant> constants, final MathContext mathContext) {
+		final PreciseFunction preciseFunction = Reserved.preciseFunctions.get(function);
+		
+		if (preciseFunction == null) {
+			throw new UnrecognizedSymbolException("No arbitrary-precision counterpart exists for the function \"" + Reserved.functions.inverseGet(function) + "\"!");
+		}
+		
+		return preciseFunction.apply(argument.evaluatePrecise(constants, mathContext), mathContext);
+	}
+	
 	/**
 	 * The function is already defined, so this method checks to see if the argument can be evaluated.
 	 * 
@@ -78,7 +121,7 @@ public final class SymbolicFunction implements Expression {
 		
 		if (simplifiedArg.canEvaluate(constants)) {
 			final double arg = simplifiedArg.evaluate(constants);
-			return new Value(function.apply(arg));
+			return Value.of(function.apply(arg));
 		} else {
 			return new SymbolicFunction(simplifiedArg, function);
 		}
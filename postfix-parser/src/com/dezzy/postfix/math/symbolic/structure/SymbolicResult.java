@@ -1,5 +1,7 @@
 package com.dezzy.postfix.math.symbolic.structure;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -7,6 +9,10 @@ import java.util.Objects;
 
 import com.dezzy.postfix.math.Operation;
 import com.dezzy.postfix.math.Reserved;
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.complex.Complex;
+import com.dezzy.postfix.math.complex.ComplexOperation;
+import com.dezzy.postfix.math.precise.PreciseOperation;
 import com.dezzy.postfix.math.symbolic.constants.Constant;
 
 /**
@@ -64,6 +70,45 @@ public class SymbolicResult implements Expression {
 		return operation.operate(d0, d1);
 	}
 	
+	/**
+	 * Evaluates this symbolic result over the complex numbers by first evaluating the operands, then performing the
+	 * complex counterpart of the specified operation on them.
+	 * 
+	 * @param constants known constants
+	 * @return complex value of this calculation
+	 * @throws UnrecognizedSymbolException if the operation has no complex counterpart in {@link Reserved#complexOperations}
+	 */
+	@Override
+	public final Complex evaluateComplex(final Map<String, Constant> constants) {
+		final ComplexOperation complexOperation = Reserved.complexOperations.get(operation);
+		
+		if (complexOperation == null) {
+			throw new UnrecognizedSymbolException("No complex counterpart exists for the operation \"" + operation.identifier() + "\"!");
+		}
+		
+		return complexOperation.operate(operand1.evaluateComplex(constants), operand2.evaluateComplex(constants));
+	}
+	
+	/**
+	 * Evaluates this symbolic result with arbitrary precision by first evaluating the operands, then performing the
+	 * arbitrary-precision counterpart of the specified operation on them.
+	 * 
+	 * @param constants known constants
+	 * @param mathContext precision
+	 * @return value of this calculation
+	 * @throws UnrecognizedSymbolException if the operation has no counterpart in {@link Reserved#preciseOperations}
+	 */
+	@Override
+	public final BigDecimal evaluatePrecise(final Map<String, Constant> constants, final MathContext mathContext) {
+		final PreciseOperation preciseOperation = Reserved.preciseOperations.get(operation);
+		
+		if (preciseOperation == null) {
+			throw new UnrecognizedSymbolException("No arbitrary-precision counterpart exists for the operation \"" + operation.identifier() + "\"!");
+		}
+		
+		return preciseOperation.operate(operand1.evaluatePrecise(constants, mathContext), operand2.evaluatePrecise(constants, mathContext), mathContext);
+	}
+	
 	/**
 	 * Returns true if the operation can be performed with the given known constants.
 	 * 
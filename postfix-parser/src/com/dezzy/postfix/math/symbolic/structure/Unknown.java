@@ -1,9 +1,14 @@
 package com.dezzy.postfix.math.symbolic.structure;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.dezzy.postfix.math.UnrecognizedSymbolException;
+import com.dezzy.postfix.math.complex.Complex;
 import com.dezzy.postfix.math.symbolic.constants.Constant;
 
 /**
@@ -19,6 +24,11 @@ public final class Unknown implements Expression {
 	 */
 	private static final long serialVersionUID = 660867081208894847L;
 	
+	/**
+	 * Shared Unknowns returned by {@link #of(String)}, by name
+	 */
+	private static final Map<String, Unknown> interned = new ConcurrentHashMap<String, Unknown>();
+	
 	/**
 	 * String representation of this unknown
 	 */
@@ -33,6 +43,29 @@ public final class Unknown implements Expression {
 		varName = _varName;
 	}
 	
+	/**
+	 * Returns the shared Unknown with the given name, creating it the first time the name is seen. Every occurrence of a
+	 * variable in expressions created this way is the same object, so it is stored once and compared by reference.
+	 * This should be preferred to the constructor; interned Unknowns are never released.
+	 * 
+	 * @param varName unknown name, can be a variable name or a mathematical constant
+	 * @return shared Unknown
+	 */
+	public static Unknown of(final String varName) {
+		final Unknown shared = interned.get(varName);
+		
+		return (shared != null) ? shared : interned.computeIfAbsent(varName, Unknown::new);
+	}
+	
+	/**
+	 * Replaces a deserialized Unknown with the shared Unknown from {@link #of(String)}.
+	 * 
+	 * @return shared Unknown
+	 */
+	private Object readResolve() {
+		return of(varName);
+	}
+	
 	/**
 	 * Attempts to find a mapping for the name of this unknown in the given constants map.
 	 * 
@@ -51,6 +84,44 @@ public final class Unknown implements Expression {
 		}
 	}
 	
+	/**
+	 * Attempts to find a mapping for the name of this unknown in the given constants map, and evaluates it over the
+	 * complex numbers. The mapping is evaluated even if it is not meant to be {@link Constant#reduce reduced}.
+	 * 
+	 * @param constants known constants
+	 * @return complex value of this unknown
+	 * @throws UnrecognizedSymbolException if no mapping exists
+	 */
+	@Override
+	public final Complex evaluateComplex(final Map<String, Constant> constants) {
+		final Constant constant = constants.get(varName);
+		
+		if (constant == null) {
+			throw new UnrecognizedSymbolException("\"" + varName + "\" is unknown!");
+		} else {
+			return constant.expression.evaluateComplex(constants);
+		}
+	}
+	
+	/**
+	 * Attempts to find a mapping for the name of this unknown in the given constants map, and evaluates it with arbitrary precision.
+	 * 
+	 * @param constants known constants
+	 * @param mathContext precision
+	 * @return value of this unknown
+	 * @throws UnrecognizedSymbolException if no mapping exists
+	 */
+	@Override
+	public final BigDecimal evaluatePrecise(final Map<String, Constant> constants, final MathContext mathContext) {
+		final Constant constant = constants.get(varName);
+		
+		if (constant == null) {
+			throw new UnrecognizedSymbolException("\"" + varName + "\" is unknown!");
+		} else {
+			return constant.expression.evaluatePrecise(constants, mathContext);
+		}
+	}
+	
 	/**
 	 * Returns true if the given constants mapping contains a definition for this Unknown.
 	 * 
@@ -72,7 +143,7 @@ public final class Unknown implements Expression {
 	@Override
 	public final Expression simplify(final Map<String, Constant> constants) {
 		if (canEvaluate(constants)) {
-			return new Value(evaluate(constants));
+			return Value.of(evaluate(constants));
 		} else {
 			return this;
 		}
@@ -201,7 +272,9 @@ public final class Unknown implements Expression {
 	 */
 	@Override
 	public boolean equals(final Object other) {
-		if (!(other instanceof Unknown)) {
+		if (this == other) {
+			return true;
+		} else if (!(other instanceof Unknown)) {
 			return false;
 		} else {
 			final Unknown otherUnknown = (Unknown) other;
@@ -1,11 +1,15 @@
 package com.dezzy.postfix.math.symbolic.structure;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 
 import com.dezzy.postfix.math.Operation;
+import com.dezzy.postfix.math.complex.Complex;
+import com.dezzy.postfix.math.precise.BigMath;
 import com.dezzy.postfix.math.symbolic.constants.Constant;
 
 /**
@@ -71,6 +75,27 @@ public final class Value implements Expression {
 	 */
 	public static final Value PI = new Value(Math.PI);
 	
+	/**
+	 * Smallest Value returned from the cache in {@link #of(double)}
+	 */
+	private static final int CACHE_LOW = -128;
+	
+	/**
+	 * Largest Value returned from the cache in {@link #of(double)}
+	 */
+	private static final int CACHE_HIGH = 1024;
+	
+	/**
+	 * Bits of <code>-0.0</code>, which is not cached so that its sign is preserved
+	 */
+	private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+	
+	/**
+	 * Shared Values for every integer and half-integer from {@link #CACHE_LOW} to {@link #CACHE_HIGH}, indexed by
+	 * <code>2 * value - 2 * CACHE_LOW</code>. {@link #ZERO}, {@link #ONE}, {@link #NEG_ONE}, and {@link #TWO} are reused.
+	 */
+	private static final Value[] cache = createCache();
+	
 	/**
 	 * Used internally to check for equality, specifies the precision of the check.
 	 * Accounts for floating-point errors after calculations. <br>
@@ -86,6 +111,15 @@ public final class Value implements Expression {
 	public static void setAcceptedError(final double _epsilon) {
 		epsilon = _epsilon;
 	}
+
+	/**
+	 * Returns the accepted error when checking for equality between this and other values.
+	 *
+	 * @return precision
+	 */
+	public static double getAcceptedError() {
+		return epsilon;
+	}
 	
 	/**
 	 * The value
@@ -101,6 +135,71 @@ public final class Value implements Expression {
 		value = _value;
 	}
 	
+	/**
+	 * Returns a Value with the given known value. Integers and halves from -128 to 1024 (such as <code>2</code> or
+	 * <code>0.5</code>) are returned from a shared cache, so that expressions that repeat them do not allocate a new Value
+	 * for each occurrence; other values are returned in a new Value. This should be preferred to the constructor.
+	 * 
+	 * @param value known value
+	 * @return a cached or new Value
+	 */
+	public static Value of(final double value) {
+		final Value shared = cached(value);
+		
+		return (shared != null) ? shared : new Value(value);
+	}
+	
+	/**
+	 * Returns the shared Value for the given value, if it is cached.
+	 * 
+	 * @param value known value
+	 * @return shared Value, or null if <code>value</code> is not cached
+	 */
+	private static Value cached(final double value) {
+		final double twice = value * 2;
+		
+		if (twice >= 2 * CACHE_LOW && twice <= 2 * CACHE_HIGH) {
+			final int index = (int) twice;
+			
+			if (index == twice && Double.doubleToRawLongBits(value) != NEGATIVE_ZERO_BITS) {
+				return cache[index - 2 * CACHE_LOW];
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Creates the shared Values returned by {@link #of(double)}.
+	 * 
+	 * @return cached Values
+	 */
+	private static Value[] createCache() {
+		final Value[] out = new Value[2 * (CACHE_HIGH - CACHE_LOW) + 1];
+		
+		for (int i = 0; i < out.length; i++) {
+			out[i] = new Value((i + 2 * CACHE_LOW) / 2.0);
+		}
+		
+		out[-2 * CACHE_LOW] = ZERO;
+		out[2 - 2 * CACHE_LOW] = ONE;
+		out[-2 - 2 * CACHE_LOW] = NEG_ONE;
+		out[4 - 2 * CACHE_LOW] = TWO;
+		
+		return out;
+	}
+	
+	/**
+	 * Replaces a deserialized Value with the shared Value from {@link #of(double)}, if there is one.
+	 * 
+	 * @return shared or deserialized Value
+	 */
+	private Object readResolve() {
+		final Value shared = cached(value);
+		
+		return (shared != null) ? shared : this;
+	}
+	
 	/**
 	 * Returns this value.
 	 * 
@@ -112,6 +211,38 @@ public final class Value implements Expression {
 		return value;
 	}
 	
+	/**
+	 * Returns this value as a complex number with no imaginary part.
+	 * 
+	 * @param constants known constants, ignored when evaluating a Value
+	 * @return complex value
+	 */
+	@Override
+	public final Complex evaluateComplex(final Map<String, Constant> constants) {
+		return new Complex(value, 0);
+	}
+	
+	/**
+	 * Returns this value as a BigDecimal. The double is converted through its shortest decimal representation, so that
+	 * a Value parsed from <code>0.1</code> is exactly 0.1. {@link #PI} and {@link #E} are computed to the full precision of
+	 * <code>mathContext</code> instead.
+	 * 
+	 * @param constants known constants, ignored when evaluating a Value
+	 * @param mathContext precision
+	 * @return BigDecimal value
+	 * @throws NumberFormatException if this value is infinite or NaN
+	 */
+	@Override
+	public final BigDecimal evaluatePrecise(final Map<String, Constant> constants, final MathContext mathContext) {
+		if (this == PI) {
+			return BigMath.pi(mathContext);
+		} else if (this == E) {
+			return BigMath.e(mathContext);
+		} else {
+			return BigDecimal.valueOf(value).round(mathContext);
+		}
+	}
+	
 	/**
 	 * Returns true, because a value can always be evaluated.
 	 * 
@@ -184,7 +315,7 @@ public final class Value implements Expression {
 	}
 	
 	/**
-	 * If this Value is an integer within {@link #epsilon}, returns a new Value with this value rounded to the nearest integer. <br>
+	 * If this Value is an integer within {@link #epsilon}, returns a Value with this value rounded to the nearest integer. <br>
 	 * If this Value maps to a known constant within {@link epsilon}, returns a new {@link Unknown} with the name of the constant. <br>
 	 * If this Value is not an integer and does not map to a known constant, returns a new {@link SymbolicResult} with this Value
 	 * represented as a fraction within {@link #epsilon}.
@@ -197,12 +328,12 @@ public final class Value implements Expression {
 		for (final Entry<String, Constant> entry : constants.entrySet()) {
 			final Expression entryValue = entry.getValue().expression;
 			if (equals(entryValue)) {
-				return new Unknown(entry.getKey());
+				return Unknown.of(entry.getKey());
 			}
 		}
 		
 		if (isInteger()) {
-			return new Value(Math.round(value));
+			return of(Math.round(value));
 		}
 		
 		final int n = (int) Math.floor(value);
@@ -225,7 +356,7 @@ public final class Value implements Expression {
 				lowerN = middleN;
 				lowerD = middleD;
 			} else {
-				return new SymbolicResult(new Value((n * middleD) + middleN), new Value(middleD), Operation.DIVIDE);
+				return new SymbolicResult(of((n * middleD) + middleN), of(middleD), Operation.DIVIDE);
 			}
 		}
 	}
@@ -272,14 +403,16 @@ public final class Value implements Expression {
 	
 	/**
 	 * Returns true if these two Values have the same numeric value, within 
-	 * +/- {@link #epsilon}.
+	 * +/- {@link #epsilon}. Shared Values from {@link #of(double)} are compared by reference first.
 	 * 
 	 * @param other other Value
 	 * @return true if these Values are equal
 	 */
 	@Override
 	public boolean equals(final Object other) {
-		if (!(other instanceof Value)) {
+		if (this == other) {
+			return true;
+		} else if (!(other instanceof Value)) {
 			return false;
 		} else {
 			final Value otherValue = (Value) other;
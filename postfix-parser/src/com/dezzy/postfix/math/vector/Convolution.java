@@ -0,0 +1,462 @@
+package com.dezzy.postfix.math.vector;
+
+import java.util.Arrays;
+
+/**
+ * Low-level loops for {@link Matrix#convolve(Matrix, com.dezzy.postfix.math.vector.utility.DoubleApplier) Matrix.convolve}.
+ * Like the "convolution" layers of a neural network, these compute the cross-correlation of an image with a kernel over the
+ * positions where the kernel fits entirely inside the image:
+ * <code>out[r][c] = sum over i, j of image[r + i][c + j] * kernel[i][j]</code>.
+ * <p>
+ * There are two methods. The direct method slides the kernel over the image, taking <code>kr * kc</code> multiply-adds per
+ * output. The transform method splits the output into tiles and computes each tile with a fast Fourier transform
+ * (overlap-save), taking <code>O(log(tile size))</code> operations per output regardless of the kernel size. Images are given
+ * as an array, the index of their first element, and their row stride, as in {@link MatrixKernels}.
+ *
+ * @author Joe Desmond
+ */
+final class Convolution {
+	
+	/**
+	 * Estimated cost of one complex butterfly, in multiply-adds of the direct method (which are vectorized); measured so that
+	 * the transform method takes over from about 10x10 kernels
+	 */
+	private static final double BUTTERFLY_COST = 10.0;
+	
+	/**
+	 * Smallest side length of a transform tile
+	 */
+	private static final int MIN_TILE = 32;
+	
+	/**
+	 * No instances.
+	 */
+	private Convolution() {
+		
+	}
+	
+	/**
+	 * Returns true if the transform method is expected to be faster than the direct method for the given sizes.
+	 * 
+	 * @param rows rows in the image
+	 * @param cols columns in the image
+	 * @param kernelRows rows in the kernel
+	 * @param kernelCols columns in the kernel
+	 * @return true to use {@link #transform}
+	 */
+	static boolean prefersTransform(final int rows, final int cols, final int kernelRows, final int kernelCols) {
+		final int tileRows = tileSize(rows, kernelRows);
+		final int tileCols = tileSize(cols, kernelCols);
+		final double outputsPerTile = (double) (tileRows - kernelRows + 1) * (tileCols - kernelCols + 1);
+		final double log = Integer.numberOfTrailingZeros(tileRows) + Integer.numberOfTrailingZeros(tileCols);
+		
+		//Two transforms (forward and inverse) of tileRows * tileCols / 2 * log butterflies each, shared by two tiles
+		final double transformCost = BUTTERFLY_COST * tileRows * tileCols * log / (2 * outputsPerTile);
+		
+		return (double) kernelRows * kernelCols > transformCost;
+	}
+	
+	/**
+	 * Returns the side length of a transform tile: a power of two that is at least twice the kernel size, so that most of
+	 * each tile is output, but no larger than needed to cover the whole image.
+	 * 
+	 * @param imageSize rows or columns in the image
+	 * @param kernelSize rows or columns in the kernel
+	 * @return the side length of a tile
+	 */
+	private static int tileSize(final int imageSize, final int kernelSize) {
+		final int size = Math.min(Math.max(MIN_TILE, 2 * kernelSize), imageSize);
+		
+		return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+	}
+	
+	/**
+	 * Computes output rows <code>[rowStart, rowEnd)</code> by the direct method. For each kernel element, a scaled row of the
+	 * image is added to the output row, so the innermost loop runs along contiguous rows and can be vectorized.
+	 * 
+	 * @param image elements of the image
+	 * @param offset index of the first element of the image
+	 * @param stride row stride of the image
+	 * @param kernel elements of the kernel, row-major with no gaps
+	 * @param kernelRows rows in the kernel
+	 * @param kernelCols columns in the kernel
+	 * @param out output, row-major with no gaps; the rows to compute must be zero
+	 * @param outCols columns in the output
+	 * @param rowStart first output row (inclusive)
+	 * @param rowEnd last output row (exclusive)
+	 */
+	static void direct(final double[] image, final int offset, final int stride, final double[] kernel, final int kernelRows,
+			final int kernelCols, final double[] out, final int outCols, final int rowStart, final int rowEnd) {
+		for (int row = rowStart; row < rowEnd; row++) {
+			final int outRow = row * outCols;
+			
+			for (int i = 0; i < kernelRows; i++) {
+				final int imageRow = offset + (row + i) * stride;
+				
+				for (int j = 0; j < kernelCols; j++) {
+					final double weight = kernel[i * kernelCols + j];
+					final int imageStart = imageRow + j;
+					
+					for (int col = 0; col < outCols; col++) {
+						out[outRow + col] += weight * image[imageStart + col];
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Computes every output by the transform method. The output is split into tiles of
+	 * <code>(tileRows - kernelRows + 1) x (tileCols - kernelCols + 1)</code>, each of which depends on a
+	 * <code>tileRows x tileCols</code> window of the image. The correlation of a window with the kernel is the inverse
+	 * transform of the window's transform times the conjugate of the kernel's transform. Because the image and kernel are
+	 * real, two windows are transformed together, one as the real part and one as the imaginary part, and the two results
+	 * come back the same way.
+	 * 
+	 * @param image elements of the image
+	 * @param offset index of the first element of the image
+	 * @param stride row stride of the image
+	 * @param rows rows in the image
+	 * @param cols columns in the image
+	 * @param kernel elements of the kernel, row-major with no gaps
+	 * @param kernelRows rows in the kernel
+	 * @param kernelCols columns in the kernel
+	 * @param out output, row-major with no gaps, with <code>rows - kernelRows + 1</code> rows and
+	 * 			<code>cols - kernelCols + 1</code> columns
+	 * @param parallel true to compute pairs of tiles in parallel
+	 */
+	static void transform(final double[] image, final int offset, final int stride, final int rows, final int cols, final double[] kernel,
+			final int kernelRows, final int kernelCols, final double[] out, final boolean parallel) {
+		final int outRows = rows - kernelRows + 1;
+		final int outCols = cols - kernelCols + 1;
+		final Plan plan = new Plan(tileSize(rows, kernelRows), tileSize(cols, kernelCols));
+		final int tileRows = plan.rows - kernelRows + 1;
+		final int tileCols = plan.cols - kernelCols + 1;
+		final int tilesAcross = (outCols + tileCols - 1) / tileCols;
+		final int tiles = ((outRows + tileRows - 1) / tileRows) * tilesAcross;
+		
+		final double[] kernelReal = new double[plan.rows * plan.cols];
+		final double[] kernelImaginary = new double[plan.rows * plan.cols];
+		
+		for (int i = 0; i < kernelRows; i++) {
+			System.arraycopy(kernel, i * kernelCols, kernelReal, i * plan.cols, kernelCols);
+		}
+		
+		plan.forward(kernelReal, kernelImaginary);
+		
+		MatrixKernels.forEachRange((tiles + 1) / 2, 1, parallel, (start, end) -> {
+			final double[] real = new double[plan.rows * plan.cols];
+			final double[] imaginary = new double[plan.rows * plan.cols];
+			
+			for (int pair = start; pair < end; pair++) {
+				final int first = 2 * pair;
+				final boolean hasSecond = first + 1 < tiles;
+				final int firstRow = (first / tilesAcross) * tileRows;
+				final int firstCol = (first % tilesAcross) * tileCols;
+				final int secondRow = ((first + 1) / tilesAcross) * tileRows;
+				final int secondCol = ((first + 1) % tilesAcross) * tileCols;
+				
+				loadWindow(image, offset, stride, rows, cols, firstRow, firstCol, real, plan);
+				
+				if (hasSecond) {
+					loadWindow(image, offset, stride, rows, cols, secondRow, secondCol, imaginary, plan);
+				} else {
+					Arrays.fill(imaginary, 0);
+				}
+				
+				plan.forward(real, imaginary);
+				
+				for (int i = 0; i < real.length; i++) {
+					final double a = real[i];
+					final double b = imaginary[i];
+					final double c = kernelReal[i];
+					final double d = kernelImaginary[i];
+					
+					real[i] = a * c + b * d;
+					imaginary[i] = b * c - a * d;
+				}
+				
+				plan.inverse(real, imaginary);
+				
+				storeTile(real, firstRow, firstCol, tileRows, tileCols, out, outRows, outCols, plan);
+				
+				if (hasSecond) {
+					storeTile(imaginary, secondRow, secondCol, tileRows, tileCols, out, outRows, outCols, plan);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Copies a window of the image into a transform buffer, filling the part of the window outside the image with zeros.
+	 * 
+	 * @param image elements of the image
+	 * @param offset index of the first element of the image
+	 * @param stride row stride of the image
+	 * @param rows rows in the image
+	 * @param cols columns in the image
+	 * @param row first row of the window
+	 * @param col first column of the window
+	 * @param buffer transform buffer
+	 * @param plan transform sizes
+	 */
+	private static void loadWindow(final double[] image, final int offset, final int stride, final int rows, final int cols, final int row,
+			final int col, final double[] buffer, final Plan plan) {
+		final int copyRows = Math.min(plan.rows, rows - row);
+		final int copyCols = Math.min(plan.cols, cols - col);
+		
+		for (int i = 0; i < plan.rows; i++) {
+			final int bufferRow = i * plan.cols;
+			
+			if (i < copyRows) {
+				System.arraycopy(image, offset + (row + i) * stride + col, buffer, bufferRow, copyCols);
+				Arrays.fill(buffer, bufferRow + copyCols, bufferRow + plan.cols, 0);
+			} else {
+				Arrays.fill(buffer, bufferRow, bufferRow + plan.cols, 0);
+			}
+		}
+	}
+	
+	/**
+	 * Copies the valid part of a computed tile into the output.
+	 * 
+	 * @param buffer inverse transform of the tile
+	 * @param row first output row of the tile
+	 * @param col first output column of the tile
+	 * @param tileRows rows of valid output in a tile
+	 * @param tileCols columns of valid output in a tile
+	 * @param out output, row-major with no gaps
+	 * @param outRows rows in the output
+	 * @param outCols columns in the output
+	 * @param plan transform sizes
+	 */
+	private static void storeTile(final double[] buffer, final int row, final int col, final int tileRows, final int tileCols,
+			final double[] out, final int outRows, final int outCols, final Plan plan) {
+		final int copyRows = Math.min(tileRows, outRows - row);
+		final int copyCols = Math.min(tileCols, outCols - col);
+		
+		for (int i = 0; i < copyRows; i++) {
+			System.arraycopy(buffer, i * plan.cols, out, (row + i) * outCols + col, copyCols);
+		}
+	}
+	
+	/**
+	 * Precomputed twiddle factors for two-dimensional radix-2 fast Fourier transforms of one size. The transforms are done in
+	 * place on separate real and imaginary row-major arrays. Rows are transformed one at a time; columns are transformed all
+	 * at once by running the same butterflies on whole rows, so that every innermost loop runs along a contiguous row.
+	 */
+	private static final class Plan {
+		
+		/**
+		 * Rows in the transform, a power of two
+		 */
+		final int rows;
+		
+		/**
+		 * Columns in the transform, a power of two
+		 */
+		final int cols;
+		
+		/**
+		 * <code>cos(2 * pi * k / rows)</code> for <code>k &lt; rows / 2</code>
+		 */
+		private final double[] rowCos;
+		
+		/**
+		 * <code>sin(2 * pi * k / rows)</code> for <code>k &lt; rows / 2</code>
+		 */
+		private final double[] rowSin;
+		
+		/**
+		 * <code>cos(2 * pi * k / cols)</code> for <code>k &lt; cols / 2</code>
+		 */
+		private final double[] colCos;
+		
+		/**
+		 * <code>sin(2 * pi * k / cols)</code> for <code>k &lt; cols / 2</code>
+		 */
+		private final double[] colSin;
+		
+		/**
+		 * Creates a Plan for transforms of the given size.
+		 * 
+		 * @param _rows rows in the transform, a power of two
+		 * @param _cols columns in the transform, a power of two
+		 */
+		Plan(final int _rows, final int _cols) {
+			rows = _rows;
+			cols = _cols;
+			rowCos = new double[rows / 2];
+			rowSin = new double[rows / 2];
+			colCos = new double[cols / 2];
+			colSin = new double[cols / 2];
+			
+			for (int k = 0; k < rows / 2; k++) {
+				rowCos[k] = Math.cos(2 * Math.PI * k / rows);
+				rowSin[k] = Math.sin(2 * Math.PI * k / rows);
+			}
+			
+			for (int k = 0; k < cols / 2; k++) {
+				colCos[k] = Math.cos(2 * Math.PI * k / cols);
+				colSin[k] = Math.sin(2 * Math.PI * k / cols);
+			}
+		}
+		
+		/**
+		 * Replaces a row-major array of complex numbers with its discrete Fourier transform.
+		 * 
+		 * @param real real parts
+		 * @param imaginary imaginary parts
+		 */
+		void forward(final double[] real, final double[] imaginary) {
+			transform(real, imaginary, -1);
+		}
+		
+		/**
+		 * Replaces a row-major array of complex numbers with its inverse discrete Fourier transform, including the division
+		 * by <code>rows * cols</code>.
+		 * 
+		 * @param real real parts
+		 * @param imaginary imaginary parts
+		 */
+		void inverse(final double[] real, final double[] imaginary) {
+			transform(real, imaginary, 1);
+			
+			final double scale = 1.0 / (rows * cols);
+			for (int i = 0; i < real.length; i++) {
+				real[i] *= scale;
+				imaginary[i] *= scale;
+			}
+		}
+		
+		/**
+		 * Transforms every row and then every column, without scaling.
+		 * 
+		 * @param real real parts
+		 * @param imaginary imaginary parts
+		 * @param sign sign of the exponent: -1 for the forward transform, 1 for the inverse
+		 */
+		private void transform(final double[] real, final double[] imaginary, final int sign) {
+			for (int row = 0; row < rows; row++) {
+				transformRow(real, imaginary, row * cols, sign);
+			}
+			
+			transformColumns(real, imaginary, sign);
+		}
+		
+		/**
+		 * Transforms one row in place.
+		 * 
+		 * @param real real parts
+		 * @param imaginary imaginary parts
+		 * @param start index of the first element of the row
+		 * @param sign sign of the exponent
+		 */
+		private void transformRow(final double[] real, final double[] imaginary, final int start, final int sign) {
+			for (int i = 1, j = 0; i < cols; i++) {
+				int bit = cols >> 1;
+				
+				for (; (j & bit) != 0; bit >>= 1) {
+					j ^= bit;
+				}
+				
+				j ^= bit;
+				
+				if (i < j) {
+					final double swapReal = real[start + i];
+					real[start + i] = real[start + j];
+					real[start + j] = swapReal;
+					
+					final double swapImaginary = imaginary[start + i];
+					imaginary[start + i] = imaginary[start + j];
+					imaginary[start + j] = swapImaginary;
+				}
+			}
+			
+			for (int length = 2; length <= cols; length <<= 1) {
+				final int half = length >> 1;
+				final int step = cols / length;
+				
+				for (int block = start; block < start + cols; block += length) {
+					for (int k = 0; k < half; k++) {
+						final double wr = colCos[k * step];
+						final double wi = sign * colSin[k * step];
+						final int a = block + k;
+						final int b = a + half;
+						final double tr = real[b] * wr - imaginary[b] * wi;
+						final double ti = real[b] * wi + imaginary[b] * wr;
+						
+						real[b] = real[a] - tr;
+						imaginary[b] = imaginary[a] - ti;
+						real[a] += tr;
+						imaginary[a] += ti;
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Transforms every column in place. Each butterfly combines two whole rows.
+		 * 
+		 * @param real real parts
+		 * @param imaginary imaginary parts
+		 * @param sign sign of the exponent
+		 */
+		private void transformColumns(final double[] real, final double[] imaginary, final int sign) {
+			final double[] swap = new double[cols];
+			
+			for (int i = 1, j = 0; i < rows; i++) {
+				int bit = rows >> 1;
+				
+				for (; (j & bit) != 0; bit >>= 1) {
+					j ^= bit;
+				}
+				
+				j ^= bit;
+				
+				if (i < j) {
+					swapRows(real, i, j, swap);
+					swapRows(imaginary, i, j, swap);
+				}
+			}
+			
+			for (int length = 2; length <= rows; length <<= 1) {
+				final int half = length >> 1;
+				final int step = rows / length;
+				
+				for (int block = 0; block < rows; block += length) {
+					for (int k = 0; k < half; k++) {
+						final double wr = rowCos[k * step];
+						final double wi = sign * rowSin[k * step];
+						final int a = (block + k) * cols;
+						final int b = a + half * cols;
+						
+						for (int col = 0; col < cols; col++) {
+							final double tr = real[b + col] * wr - imaginary[b + col] * wi;
+							final double ti = real[b + col] * wi + imaginary[b + col] * wr;
+							
+							real[b + col] = real[a + col] - tr;
+							imaginary[b + col] = imaginary[a + col] - ti;
+							real[a + col] += tr;
+							imaginary[a + col] += ti;
+						}
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Swaps two rows of a row-major array.
+		 * 
+		 * @param values row-major array
+		 * @param first first row
+		 * @param second second row
+		 * @param swap scratch space of {@link #cols} elements
+		 */
+		private void swapRows(final double[] values, final int first, final int second, final double[] swap) {
+			System.arraycopy(values, first * cols, swap, 0, cols);
+			System.arraycopy(values, second * cols, values, first * cols, cols);
+			System.arraycopy(swap, 0, values, second * cols, cols);
+		}
+	}
+}
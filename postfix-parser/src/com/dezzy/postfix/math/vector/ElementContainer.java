@@ -30,22 +30,22 @@ public abstract class ElementContainer<T> {
 	/**
 	 * Addition, represented as a DoubleOperator
 	 */
-	private static final DoubleOperator ADD = (a, b) -> a + b;
+	static final DoubleOperator ADD = (a, b) -> a + b;
 	
 	/**
 	 * Subtraction, represented as a DoubleOperator
 	 */
-	private static final DoubleOperator SUBTRACT = (a, b) -> a - b;
+	static final DoubleOperator SUBTRACT = (a, b) -> a - b;
 	
 	/**
 	 * Multiplication, represented as a DoubleOperator
 	 */
-	private static final DoubleOperator MULTIPLY = (a, b) -> a * b;
+	static final DoubleOperator MULTIPLY = (a, b) -> a * b;
 	
 	/**
 	 * Division, represented as a DoubleOperator
 	 */
-	private static final DoubleOperator DIVIDE = (a, b) -> a / b;
+	static final DoubleOperator DIVIDE = (a, b) -> a / b;
 	
 	/**
 	 * Adds <code>this</code> to <code>other</code>, element-wise.
@@ -0,0 +1,443 @@
+package com.dezzy.postfix.math.vector;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+
+/**
+ * The eigenvalues of a general real square {@link Matrix}. Complex eigenvalues come in conjugate pairs, which are stored next to
+ * each other with the positive imaginary part first. Use {@link SymmetricEigenDecomposition} instead if the matrix is symmetric;
+ * it is faster, more accurate, and also finds eigenvectors.
+ * <p>
+ * The matrix is first reduced to upper Hessenberg form by Householder similarity transformations, and the eigenvalues are then
+ * found by the Francis double-shift QR algorithm. Everything is stored in a flat row-major array. Applying a reflection from
+ * the left is done as two passes over contiguous rows (one to accumulate <code>v<sup>T</sup> * H</code>, one to subtract the
+ * update) rather than a pass down each column, and since no eigenvectors are needed, each QR step only updates the rows and
+ * columns of the block that has not converged yet. The matrix is first scaled by a power of two so that its largest element is
+ * near 1, and the eigenvalues are scaled back at the end, so that very small or very large elements do not underflow or overflow.
+ *
+ * @author Joe Desmond
+ */
+public final class GeneralEigenvalues {
+	
+	/**
+	 * Real parts of the eigenvalues
+	 */
+	private final double[] real;
+	
+	/**
+	 * Imaginary parts of the eigenvalues
+	 */
+	private final double[] imaginary;
+	
+	/**
+	 * Number of rows and columns of the matrix
+	 */
+	public final int size;
+	
+	/**
+	 * Computes the eigenvalues of a square Matrix.
+	 * 
+	 * @param matrix Matrix to find the eigenvalues of
+	 * @throws DimensionMismatchException if <code>matrix</code> is not square
+	 * @throws ArithmeticException if <code>matrix</code> has elements that are not finite, or if the QR algorithm does not converge
+	 * 			within 30 iterations per eigenvalue
+	 */
+	public GeneralEigenvalues(final Matrix matrix) {
+		if (!matrix.isSquare()) {
+			throw new DimensionMismatchException("Eigenvalues can only be calculated for a square matrix!");
+		}
+		
+		size = matrix.rows;
+		real = new double[size];
+		imaginary = new double[size];
+		
+		final double[] h = matrix.toArray();
+		final int exponent = MatrixKernels.normalize(h);
+		
+		reduceToHessenberg(h);
+		findEigenvalues(h);
+		
+		for (int i = 0; i < size; i++) {
+			real[i] = Math.scalb(real[i], exponent);
+			imaginary[i] = Math.scalb(imaginary[i], exponent);
+		}
+	}
+	
+	/**
+	 * Reduces a matrix to upper Hessenberg form with Householder similarity transformations. Reflection <code>m</code> zeroes
+	 * column <code>m - 1</code> below row <code>m</code>.
+	 * 
+	 * @param h matrix in row-major order, overwritten with its Hessenberg form
+	 */
+	private void reduceToHessenberg(final double[] h) {
+		final double[] v = new double[size];
+		final double[] f = new double[size];
+		
+		for (int m = 1; m < size - 1; m++) {
+			double scale = 0;
+			
+			for (int i = m; i < size; i++) {
+				scale += Math.abs(h[i * size + m - 1]);
+			}
+			
+			if (scale == 0) {
+				continue;
+			}
+			
+			double sumOfSquares = 0;
+			
+			for (int i = m; i < size; i++) {
+				v[i] = h[i * size + m - 1] / scale;
+				sumOfSquares += v[i] * v[i];
+			}
+			
+			final double g = (v[m] > 0) ? -Math.sqrt(sumOfSquares) : Math.sqrt(sumOfSquares);
+			
+			//The reflection is I - v * v^T / norm, with norm = (v^T * v) / 2
+			final double norm = sumOfSquares - v[m] * g;
+			v[m] -= g;
+			
+			//H = (I - v * v^T / norm) * H: accumulate f = v^T * H row by row, then subtract v * f^T
+			for (int j = m - 1; j < size; j++) {
+				f[j] = 0;
+			}
+			
+			for (int i = m; i < size; i++) {
+				final int iRow = i * size;
+				final double vi = v[i];
+				
+				for (int j = m; j < size; j++) {
+					f[j] += vi * h[iRow + j];
+				}
+			}
+			
+			for (int i = m; i < size; i++) {
+				final int iRow = i * size;
+				final double vi = v[i] / norm;
+				
+				for (int j = m; j < size; j++) {
+					h[iRow + j] -= vi * f[j];
+				}
+			}
+			
+			//H = H * (I - v * v^T / norm), one row at a time
+			for (int i = 0; i < size; i++) {
+				final int iRow = i * size;
+				double dot = 0;
+				
+				for (int j = m; j < size; j++) {
+					dot += h[iRow + j] * v[j];
+				}
+				
+				dot /= norm;
+				for (int j = m; j < size; j++) {
+					h[iRow + j] -= dot * v[j];
+				}
+			}
+			
+			h[m * size + m - 1] = scale * g;
+			
+			for (int i = m + 1; i < size; i++) {
+				h[i * size + m - 1] = 0;
+			}
+		}
+	}
+	
+	/**
+	 * Finds the eigenvalues of an upper Hessenberg matrix with the Francis double-shift QR algorithm, deflating one or two
+	 * eigenvalues at a time from the bottom of the matrix.
+	 * 
+	 * @param h upper Hessenberg matrix in row-major order, destroyed
+	 */
+	private void findEigenvalues(final double[] h) {
+		final int n = size;
+		final double eps = Math.ulp(1.0);
+		final int maxIterations = 30 * Math.max(n, 1);
+		double exceptionalShift = 0;
+		double norm = 0;
+		int iterations = 0;
+		int totalIterations = 0;
+		
+		for (int i = 0; i < n; i++) {
+			for (int j = Math.max(i - 1, 0); j < n; j++) {
+				norm += Math.abs(h[i * n + j]);
+			}
+		}
+		
+		int last = n - 1;
+		while (last >= 0) {
+			//Look for a single small subdiagonal element
+			int l = last;
+			while (l > 0) {
+				double s = Math.abs(h[(l - 1) * n + l - 1]) + Math.abs(h[l * n + l]);
+				
+				if (s == 0) {
+					s = norm;
+				}
+				
+				if (Math.abs(h[l * n + l - 1]) <= eps * s) {
+					break;
+				}
+				
+				l--;
+			}
+			
+			if (l == last) {
+				//One real eigenvalue
+				real[last] = h[last * n + last] + exceptionalShift;
+				imaginary[last] = 0;
+				last--;
+				iterations = 0;
+			} else if (l == last - 1) {
+				//Two eigenvalues from the trailing 2x2 block
+				final double w = h[last * n + last - 1] * h[(last - 1) * n + last];
+				final double p = (h[(last - 1) * n + last - 1] - h[last * n + last]) / 2;
+				final double q = p * p + w;
+				final double x = h[last * n + last] + exceptionalShift;
+				double z = Math.sqrt(Math.abs(q));
+				
+				if (q >= 0) {
+					z = (p >= 0) ? p + z : p - z;
+					real[last - 1] = x + z;
+					real[last] = (z != 0) ? x - w / z : x + z;
+					imaginary[last - 1] = 0;
+					imaginary[last] = 0;
+				} else {
+					real[last - 1] = x + p;
+					real[last] = x + p;
+					imaginary[last - 1] = z;
+					imaginary[last] = -z;
+				}
+				
+				last -= 2;
+				iterations = 0;
+			} else {
+				if (++totalIterations > maxIterations) {
+					throw new ArithmeticException("Eigenvalue iteration did not converge!");
+				}
+				
+				double x = h[last * n + last];
+				double y = h[(last - 1) * n + last - 1];
+				double w = h[last * n + last - 1] * h[(last - 1) * n + last];
+				
+				//Exceptional shifts, in case the iteration is stuck in a cycle
+				if (iterations == 10) {
+					exceptionalShift += x;
+					
+					for (int i = 0; i <= last; i++) {
+						h[i * n + i] -= x;
+					}
+					
+					final double s = Math.abs(h[last * n + last - 1]) + Math.abs(h[(last - 1) * n + last - 2]);
+					x = 0.75 * s;
+					y = x;
+					w = -0.4375 * s * s;
+				} else if (iterations == 30) {
+					double s = (y - x) / 2;
+					s = s * s + w;
+					
+					if (s > 0) {
+						s = Math.sqrt(s);
+						
+						if (y < x) {
+							s = -s;
+						}
+						
+						s = x - w / ((y - x) / 2 + s);
+						
+						for (int i = 0; i <= last; i++) {
+							h[i * n + i] -= s;
+						}
+						
+						exceptionalShift += s;
+						x = 0.964;
+						y = x;
+						w = x;
+					}
+				}
+				
+				iterations++;
+				francisStep(h, l, last, x, y, w, eps);
+			}
+		}
+	}
+	
+	/**
+	 * Performs one Francis double-shift QR step on the unreduced block of rows and columns <code>[l, last]</code>, with shifts
+	 * that are the eigenvalues of a 2x2 matrix with trace <code>x + y</code> and determinant <code>x * y - w</code>. The step
+	 * starts from row <code>m</code>, the last row above which two consecutive subdiagonal elements are small enough to split
+	 * the block, and chases the resulting bulge down the block with 3x3 reflections.
+	 * 
+	 * @param h upper Hessenberg matrix in row-major order
+	 * @param l first row of the block
+	 * @param last last row of the block
+	 * @param x lower-right element of the shift matrix
+	 * @param y upper-left element of the shift matrix
+	 * @param w product of the off-diagonal elements of the shift matrix
+	 * @param eps machine epsilon
+	 */
+	private void francisStep(final double[] h, final int l, final int last, final double x, final double y, final double w, final double eps) {
+		final int n = size;
+		double p = 0;
+		double q = 0;
+		double r = 0;
+		int m = last - 2;
+		
+		//Look for two consecutive small subdiagonal elements
+		while (m >= l) {
+			final double z = h[m * n + m];
+			final double rx = x - z;
+			final double sy = y - z;
+			p = (rx * sy - w) / h[(m + 1) * n + m] + h[m * n + m + 1];
+			q = h[(m + 1) * n + m + 1] - z - rx - sy;
+			r = h[(m + 2) * n + m + 1];
+			
+			final double s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+			p /= s;
+			q /= s;
+			r /= s;
+			
+			if (m == l) {
+				break;
+			}
+			
+			if (Math.abs(h[m * n + m - 1]) * (Math.abs(q) + Math.abs(r)) < eps * (Math.abs(p) * (Math.abs(h[(m - 1) * n + m - 1]) + Math.abs(z) + Math.abs(h[(m + 1) * n + m + 1])))) {
+				break;
+			}
+			
+			m--;
+		}
+		
+		for (int i = m + 2; i <= last; i++) {
+			h[i * n + i - 2] = 0;
+			
+			if (i > m + 2) {
+				h[i * n + i - 3] = 0;
+			}
+		}
+		
+		//Chase the bulge with 3x3 reflections (2x2 in the last row)
+		for (int k = m; k < last; k++) {
+			final boolean notLast = (k != last - 1);
+			double scale = 0;
+			
+			if (k != m) {
+				p = h[k * n + k - 1];
+				q = h[(k + 1) * n + k - 1];
+				r = notLast ? h[(k + 2) * n + k - 1] : 0;
+				scale = Math.abs(p) + Math.abs(q) + Math.abs(r);
+				
+				if (scale == 0) {
+					continue;
+				}
+				
+				p /= scale;
+				q /= scale;
+				r /= scale;
+			}
+			
+			double s = Math.sqrt(p * p + q * q + r * r);
+			
+			if (p < 0) {
+				s = -s;
+			}
+			
+			if (s == 0) {
+				continue;
+			}
+			
+			if (k != m) {
+				h[k * n + k - 1] = -s * scale;
+			} else if (l != m) {
+				h[k * n + k - 1] = -h[k * n + k - 1];
+			}
+			
+			p += s;
+			final double vx = p / s;
+			final double vy = q / s;
+			final double vz = r / s;
+			q /= p;
+			r /= p;
+			
+			//Rows k to k + 2, along contiguous rows
+			final int row0 = k * n;
+			final int row1 = row0 + n;
+			final int row2 = row1 + n;
+			
+			for (int j = k; j <= last; j++) {
+				double sum = h[row0 + j] + q * h[row1 + j];
+				
+				if (notLast) {
+					sum += r * h[row2 + j];
+					h[row2 + j] -= sum * vz;
+				}
+				
+				h[row0 + j] -= sum * vx;
+				h[row1 + j] -= sum * vy;
+			}
+			
+			//Columns k to k + 2
+			final int iEnd = Math.min(last, k + 3);
+			
+			for (int i = l; i <= iEnd; i++) {
+				final int iRow = i * n;
+				double sum = vx * h[iRow + k] + vy * h[iRow + k + 1];
+				
+				if (notLast) {
+					sum += vz * h[iRow + k + 2];
+					h[iRow + k + 2] -= sum * r;
+				}
+				
+				h[iRow + k] -= sum;
+				h[iRow + k + 1] -= sum * q;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the real parts of the eigenvalues.
+	 * 
+	 * @return a Vector of the real parts of the {@link #size} eigenvalues
+	 */
+	public final Vector getRealParts() {
+		return new Vector(real.clone());
+	}
+	
+	/**
+	 * Returns the imaginary parts of the eigenvalues, in the same order as {@link #getRealParts()}.
+	 * 
+	 * @return a Vector of the imaginary parts of the {@link #size} eigenvalues
+	 */
+	public final Vector getImaginaryParts() {
+		return new Vector(imaginary.clone());
+	}
+	
+	/**
+	 * Returns true if every eigenvalue is real.
+	 * 
+	 * @return true if no eigenvalue has a nonzero imaginary part
+	 */
+	public final boolean isReal() {
+		for (final double value : imaginary) {
+			if (value != 0) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the spectral radius, the largest modulus of an eigenvalue.
+	 * 
+	 * @return the largest modulus of an eigenvalue, or 0 if the matrix is empty
+	 */
+	public final double spectralRadius() {
+		double largest = 0;
+		
+		for (int i = 0; i < size; i++) {
+			largest = Math.max(largest, Math.hypot(real[i], imaginary[i]));
+		}
+		
+		return largest;
+	}
+}
@@ -0,0 +1,329 @@
+package com.dezzy.postfix.math.vector;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.SingularMatrixException;
+
+/**
+ * The LU decomposition of a square {@link Matrix} with partial pivoting: <code>P * A = L * U</code>, where <code>P</code> is a
+ * permutation matrix, <code>L</code> is lower triangular with a unit diagonal, and <code>U</code> is upper triangular.
+ * Computing the decomposition takes <code>O(n<sup>3</sup>)</code> time; afterwards the determinant is known, and each solve
+ * takes <code>O(n<sup>2</sup>)</code> time per right-hand side.
+ * <p>
+ * A Matrix caches its decomposition; see {@link Matrix#lu()}.
+ *
+ * @author Joe Desmond
+ */
+public final class LUDecomposition {
+	
+	/**
+	 * <code>L</code> (below the diagonal) and <code>U</code> (on and above the diagonal) in row-major order
+	 */
+	private final double[] lu;
+	
+	/**
+	 * Row permutation; row <code>i</code> of <code>P * A</code> is row <code>pivots[i]</code> of <code>A</code>
+	 */
+	private final int[] pivots;
+	
+	/**
+	 * Number of rows and columns of the decomposed matrix
+	 */
+	public final int size;
+	
+	/**
+	 * The determinant of the decomposed matrix
+	 */
+	private final double determinant;
+	
+	/**
+	 * True if some pivot is zero, in which case the decomposed matrix has no inverse
+	 */
+	private final boolean singular;
+	
+	/**
+	 * Computes the LU decomposition of a square Matrix.
+	 * 
+	 * @param matrix square Matrix to decompose
+	 * @throws DimensionMismatchException if <code>matrix</code> is not square
+	 */
+	public LUDecomposition(final Matrix matrix) {
+		if (!matrix.isSquare()) {
+			throw new DimensionMismatchException("LU decomposition can only be calculated for a square matrix!");
+		}
+		
+		size = matrix.rows;
+		lu = matrix.toArray();
+		pivots = new int[size];
+		
+		for (int i = 0; i < size; i++) {
+			pivots[i] = i;
+		}
+		
+		final double[] swap = new double[size];
+		boolean foundZeroPivot = false;
+		double sign = 1;
+		
+		for (int k = 0; k < size; k++) {
+			int pivot = k;
+			double largest = Math.abs(lu[k * size + k]);
+			
+			for (int i = k + 1; i < size; i++) {
+				final double candidate = Math.abs(lu[i * size + k]);
+				
+				if (candidate > largest) {
+					largest = candidate;
+					pivot = i;
+				}
+			}
+			
+			if (pivot != k) {
+				System.arraycopy(lu, pivot * size, swap, 0, size);
+				System.arraycopy(lu, k * size, lu, pivot * size, size);
+				System.arraycopy(swap, 0, lu, k * size, size);
+				
+				final int pivotRow = pivots[pivot];
+				pivots[pivot] = pivots[k];
+				pivots[k] = pivotRow;
+				sign = -sign;
+			}
+			
+			final double diagonal = lu[k * size + k];
+			
+			if (diagonal == 0) {
+				foundZeroPivot = true;
+				continue;
+			}
+			
+			final int kRow = k * size;
+			
+			for (int i = k + 1; i < size; i++) {
+				final int iRow = i * size;
+				final double factor = lu[iRow + k] / diagonal;
+				lu[iRow + k] = factor;
+				
+				if (factor != 0) {
+					for (int j = k + 1; j < size; j++) {
+						lu[iRow + j] -= factor * lu[kRow + j];
+					}
+				}
+			}
+		}
+		
+		double product = sign;
+		for (int i = 0; i < size; i++) {
+			product *= lu[i * size + i];
+		}
+		
+		singular = foundZeroPivot;
+		determinant = foundZeroPivot ? 0 : product;
+	}
+	
+	/**
+	 * Returns true if the decomposed matrix is singular (has no inverse).
+	 * 
+	 * @return true if the decomposed matrix is singular
+	 */
+	public final boolean isSingular() {
+		return singular;
+	}
+	
+	/**
+	 * Returns the determinant of the decomposed matrix: the product of the diagonal of <code>U</code>, negated if
+	 * <code>P</code> is an odd permutation. The determinant of a 0x0 matrix is 1.
+	 * 
+	 * @return the determinant of the decomposed matrix
+	 */
+	public final double determinant() {
+		return determinant;
+	}
+	
+	/**
+	 * Returns the lower triangular factor <code>L</code>, which has ones on its diagonal.
+	 * 
+	 * @return <code>L</code>
+	 */
+	public final Matrix getLower() {
+		final double[] result = new double[size * size];
+		
+		for (int row = 0; row < size; row++) {
+			System.arraycopy(lu, row * size, result, row * size, row);
+			result[row * size + row] = 1;
+		}
+		
+		return new Matrix(size, size, result);
+	}
+	
+	/**
+	 * Returns the upper triangular factor <code>U</code>.
+	 * 
+	 * @return <code>U</code>
+	 */
+	public final Matrix getUpper() {
+		final double[] result = new double[size * size];
+		
+		for (int row = 0; row < size; row++) {
+			System.arraycopy(lu, row * size + row, result, row * size + row, size - row);
+		}
+		
+		return new Matrix(size, size, result);
+	}
+	
+	/**
+	 * Returns the row permutation: row <code>i</code> of <code>L * U</code> is row <code>getPivots()[i]</code> of the
+	 * decomposed matrix.
+	 * 
+	 * @return a copy of the row permutation
+	 */
+	public final int[] getPivots() {
+		return pivots.clone();
+	}
+	
+	/**
+	 * Solves <code>A * x = b</code> for <code>x</code>, where <code>A</code> is the decomposed matrix.
+	 * 
+	 * @param b right-hand side
+	 * @return <code>x</code>
+	 * @throws DimensionMismatchException if <code>b</code> does not have {@link #size} components
+	 * @throws SingularMatrixException if the decomposed matrix is singular
+	 */
+	public final Vector solve(final Vector b) {
+		if (b.dimension != size) {
+			throw new DimensionMismatchException("Vector must have the same number of components as the matrix has rows!");
+		}
+		
+		checkNonsingular();
+		
+		final double[] x = new double[size];
+		for (int i = 0; i < size; i++) {
+			x[i] = b.get(pivots[i]);
+		}
+		
+		for (int i = 0; i < size; i++) {
+			final int iRow = i * size;
+			double sum = x[i];
+			
+			for (int j = 0; j < i; j++) {
+				sum -= lu[iRow + j] * x[j];
+			}
+			
+			x[i] = sum;
+		}
+		
+		for (int i = size - 1; i >= 0; i--) {
+			final int iRow = i * size;
+			double sum = x[i];
+			
+			for (int j = i + 1; j < size; j++) {
+				sum -= lu[iRow + j] * x[j];
+			}
+			
+			x[i] = sum / lu[iRow + i];
+		}
+		
+		return new Vector(x);
+	}
+	
+	/**
+	 * Solves <code>A * X = B</code> for <code>X</code>, where <code>A</code> is the decomposed matrix. Each column of
+	 * <code>B</code> is a separate right-hand side.
+	 * 
+	 * @param b right-hand sides
+	 * @return <code>X</code>, with the same dimensions as <code>b</code>
+	 * @throws DimensionMismatchException if <code>b</code> does not have {@link #size} rows
+	 * @throws SingularMatrixException if the decomposed matrix is singular
+	 */
+	public final Matrix solve(final Matrix b) {
+		if (b.rows != size) {
+			throw new DimensionMismatchException("Right-hand side must have the same number of rows as the matrix!");
+		}
+		
+		checkNonsingular();
+		
+		final int cols = b.cols;
+		final double[] x = new double[size * cols];
+		
+		for (int i = 0; i < size; i++) {
+			for (int col = 0; col < cols; col++) {
+				x[i * cols + col] = b.get(pivots[i], col);
+			}
+		}
+		
+		substitute(x, cols);
+		
+		return new Matrix(size, cols, x);
+	}
+	
+	/**
+	 * Returns the inverse of the decomposed matrix.
+	 * 
+	 * @return <code>A<sup>-1</sup></code>
+	 * @throws SingularMatrixException if the decomposed matrix is singular
+	 */
+	public final Matrix inverse() {
+		checkNonsingular();
+		
+		final double[] x = new double[size * size];
+		for (int i = 0; i < size; i++) {
+			x[i * size + pivots[i]] = 1;
+		}
+		
+		substitute(x, size);
+		
+		return new Matrix(size, size, x);
+	}
+	
+	/**
+	 * Overwrites <code>P * B</code> with <code>X</code> in <code>L * U * X = P * B</code>. The rows of <code>X</code> are
+	 * updated whole so that the innermost loops run over contiguous memory.
+	 * 
+	 * @param x <code>P * B</code> in row-major order, with <code>cols</code> columns
+	 * @param cols number of right-hand sides
+	 */
+	private void substitute(final double[] x, final int cols) {
+		for (int i = 0; i < size; i++) {
+			final int xRow = i * cols;
+			
+			for (int j = 0; j < i; j++) {
+				final double factor = lu[i * size + j];
+				
+				if (factor != 0) {
+					final int jRow = j * cols;
+					
+					for (int col = 0; col < cols; col++) {
+						x[xRow + col] -= factor * x[jRow + col];
+					}
+				}
+			}
+		}
+		
+		for (int i = size - 1; i >= 0; i--) {
+			final int xRow = i * cols;
+			
+			for (int j = i + 1; j < size; j++) {
+				final double factor = lu[i * size + j];
+				
+				if (factor != 0) {
+					final int jRow = j * cols;
+					
+					for (int col = 0; col < cols; col++) {
+						x[xRow + col] -= factor * x[jRow + col];
+					}
+				}
+			}
+			
+			final double diagonal = lu[i * size + i];
+			for (int col = 0; col < cols; col++) {
+				x[xRow + col] /= diagonal;
+			}
+		}
+	}
+	
+	/**
+	 * Throws a {@link SingularMatrixException} if the decomposed matrix is singular.
+	 */
+	private void checkNonsingular() {
+		if (singular) {
+			throw new SingularMatrixException("Matrix is singular!");
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.dezzy.postfix.math.vector;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.DoubleApplier;
+import com.dezzy.postfix.math.vector.utility.DoubleOperator;
+import com.dezzy.postfix.math.vector.utility.Execution;
+
+/**
+ * A {@link Matrix} that has not been computed yet. Element-wise operations on a LazyMatrix do no work; they record the
+ * operation and return a new LazyMatrix. {@link #evaluate()} then computes every element in one fused loop, in the same way
+ * as a {@link LazyVector}.
+ * <p>
+ * A LazyMatrix is immutable and can be evaluated any number of times. Each evaluation recomputes every operation.
+ *
+ * @author Joe Desmond
+ */
+public final class LazyMatrix extends ElementContainer<LazyMatrix> {
+	
+	/**
+	 * Root of the operation graph
+	 */
+	private final LazyNode root;
+	
+	/**
+	 * Number of rows in the matrix
+	 */
+	public final int rows;
+	
+	/**
+	 * Number of columns in the matrix
+	 */
+	public final int cols;
+	
+	/**
+	 * Creates a LazyMatrix from an operation graph.
+	 * 
+	 * @param _root root of the operation graph, with elements in row-major order
+	 * @param _rows number of rows
+	 * @param _cols number of columns
+	 */
+	LazyMatrix(final LazyNode _root, final int _rows, final int _cols) {
+		root = _root;
+		rows = _rows;
+		cols = _cols;
+	}
+	
+	/**
+	 * Records an operation on each element of this LazyMatrix and another. Elements from this LazyMatrix are passed in as
+	 * <code>a</code>, and elements from the other are passed in as <code>b</code>.
+	 * 
+	 * @param other other LazyMatrix
+	 * @param operator operation to be applied
+	 * @return a LazyMatrix that applies the operation when evaluated
+	 * @throws DimensionMismatchException if the matrices do not have the same dimensions
+	 */
+	@Override
+	public final LazyMatrix elementOperation(final LazyMatrix other, final DoubleOperator operator) {
+		if (rows != other.rows || cols != other.cols) {
+			throw new DimensionMismatchException("Matrices must have the same dimensions to perform element operations!");
+		}
+		
+		return new LazyMatrix(new LazyNode.Binary(root, other.root, operator), rows, cols);
+	}
+	
+	/**
+	 * Records an operation on each element of this LazyMatrix.
+	 * 
+	 * @param operator operation to be performed on each element
+	 * @return a LazyMatrix that applies the operation when evaluated
+	 */
+	@Override
+	public final LazyMatrix transform(final DoubleApplier operator) {
+		return new LazyMatrix(new LazyNode.Unary(root, operator), rows, cols);
+	}
+	
+	/**
+	 * Computes every element of this LazyMatrix. The recorded operations are applied sequentially, so they do not need to be
+	 * thread-safe.
+	 * 
+	 * @return a new Matrix
+	 * @see #evaluate(Execution)
+	 */
+	public final Matrix evaluate() {
+		return evaluate(Execution.SEQUENTIAL);
+	}
+	
+	/**
+	 * Computes every element of this LazyMatrix. In parallel, each task computes a range of elements.
+	 * 
+	 * @param execution how to run the evaluation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link Matrix#PARALLEL_ELEMENT_THRESHOLD} elements
+	 * @return a new Matrix
+	 */
+	public final Matrix evaluate(final Execution execution) {
+		final int size = rows * cols;
+		
+		return new Matrix(rows, cols, LazyNode.evaluate(root, size, execution.isParallel(size, Matrix.PARALLEL_ELEMENT_THRESHOLD)));
+	}
+}
@@ -0,0 +1,252 @@
+package com.dezzy.postfix.math.vector;
+
+import com.dezzy.postfix.math.vector.utility.DoubleApplier;
+import com.dezzy.postfix.math.vector.utility.DoubleOperator;
+
+/**
+ * A node in the operation graph of a {@link LazyVector} or {@link LazyMatrix}. The elements of a graph are numbered in
+ * row-major order. A graph is evaluated {@link #BLOCK} elements at a time: each node computes a block into a small buffer
+ * from the blocks of its children, so the buffers stay in cache and every source array is read from memory only once,
+ * however many operations are chained.
+ *
+ * @author Joe Desmond
+ */
+abstract class LazyNode {
+	
+	/**
+	 * Number of elements evaluated at once
+	 */
+	static final int BLOCK = 1024;
+	
+	/**
+	 * Number of buffers needed to evaluate this node besides the output buffer.
+	 * 
+	 * @return number of scratch buffers
+	 */
+	abstract int scratchBuffers();
+	
+	/**
+	 * Computes a block of elements of this node.
+	 * 
+	 * @param start index of the first element
+	 * @param count number of elements, at most {@link #BLOCK}
+	 * @param out buffer to write the elements into, starting at index 0
+	 * @param scratch scratch buffers
+	 * @param depth index of the first scratch buffer this node may use
+	 */
+	abstract void evaluate(final int start, final int count, final double[] out, final double[][] scratch, final int depth);
+	
+	/**
+	 * Evaluates every element of a graph.
+	 * 
+	 * @param root root of the graph
+	 * @param size number of elements
+	 * @param parallel true to evaluate blocks in parallel
+	 * @return the elements in row-major order
+	 */
+	static double[] evaluate(final LazyNode root, final int size, final boolean parallel) {
+		final double[] result = new double[size];
+		final int blocks = (size + BLOCK - 1) / BLOCK;
+		
+		MatrixKernels.forEachRange(blocks, 1, parallel, (firstBlock, lastBlock) -> {
+			final double[] out = new double[BLOCK];
+			final double[][] scratch = new double[root.scratchBuffers()][BLOCK];
+			
+			for (int block = firstBlock; block < lastBlock; block++) {
+				final int start = block * BLOCK;
+				final int count = Math.min(BLOCK, size - start);
+				
+				root.evaluate(start, count, out, scratch, 0);
+				System.arraycopy(out, 0, result, start, count);
+			}
+		});
+		
+		return result;
+	}
+	
+	/**
+	 * A node that reads elements from an array, such as the storage of a {@link Vector} or {@link Matrix}. Element
+	 * <code>i</code> is at <code>offset + (i / cols) * rowStride + (i % cols) * colStride</code>.
+	 */
+	static final class Source extends LazyNode {
+		
+		/**
+		 * Array containing the elements
+		 */
+		private final double[] data;
+		
+		/**
+		 * Index of the first element
+		 */
+		private final int offset;
+		
+		/**
+		 * Number of elements in each row
+		 */
+		private final int cols;
+		
+		/**
+		 * Distance between the first elements of consecutive rows
+		 */
+		private final int rowStride;
+		
+		/**
+		 * Distance between consecutive elements of a row
+		 */
+		private final int colStride;
+		
+		/**
+		 * Creates a Source node over part of an array. The array is not copied.
+		 * 
+		 * @param _data array containing the elements
+		 * @param _offset index of the first element
+		 * @param _cols number of elements in each row
+		 * @param _rowStride distance between the first elements of consecutive rows
+		 * @param _colStride distance between consecutive elements of a row
+		 */
+		Source(final double[] _data, final int _offset, final int _cols, final int _rowStride, final int _colStride) {
+			data = _data;
+			offset = _offset;
+			cols = _cols;
+			rowStride = _rowStride;
+			colStride = _colStride;
+		}
+		
+		@Override
+		int scratchBuffers() {
+			return 0;
+		}
+		
+		@Override
+		void evaluate(final int start, final int count, final double[] out, final double[][] scratch, final int depth) {
+			int row = start / cols;
+			int col = start % cols;
+			
+			for (int i = 0; i < count; row++, col = 0) {
+				final int length = Math.min(count - i, cols - col);
+				final int base = offset + row * rowStride + col * colStride;
+				
+				if (colStride == 1) {
+					System.arraycopy(data, base, out, i, length);
+				} else {
+					for (int j = 0; j < length; j++) {
+						out[i + j] = data[base + j * colStride];
+					}
+				}
+				
+				i += length;
+			}
+		}
+	}
+	
+	/**
+	 * A node that applies a {@link DoubleApplier} to each element of its child.
+	 */
+	static final class Unary extends LazyNode {
+		
+		/**
+		 * Child node
+		 */
+		private final LazyNode child;
+		
+		/**
+		 * Function applied to each element
+		 */
+		private final DoubleApplier function;
+		
+		/**
+		 * Creates a Unary node.
+		 * 
+		 * @param _child child node
+		 * @param _function function applied to each element
+		 */
+		Unary(final LazyNode _child, final DoubleApplier _function) {
+			child = _child;
+			function = _function;
+		}
+		
+		@Override
+		int scratchBuffers() {
+			return child.scratchBuffers();
+		}
+		
+		@Override
+		void evaluate(final int start, final int count, final double[] out, final double[][] scratch, final int depth) {
+			child.evaluate(start, count, out, scratch, depth);
+			
+			for (int i = 0; i < count; i++) {
+				out[i] = function.apply(out[i]);
+			}
+		}
+	}
+	
+	/**
+	 * A node that combines each pair of elements of its children with a {@link DoubleOperator}. The operators of
+	 * {@link ElementContainer} get loops of their own, which can be vectorized.
+	 */
+	static final class Binary extends LazyNode {
+		
+		/**
+		 * Left child, whose elements are passed as <code>a</code>
+		 */
+		private final LazyNode left;
+		
+		/**
+		 * Right child, whose elements are passed as <code>b</code>
+		 */
+		private final LazyNode right;
+		
+		/**
+		 * Operator applied to each pair of elements
+		 */
+		private final DoubleOperator operator;
+		
+		/**
+		 * Creates a Binary node.
+		 * 
+		 * @param _left left child
+		 * @param _right right child
+		 * @param _operator operator applied to each pair of elements
+		 */
+		Binary(final LazyNode _left, final LazyNode _right, final DoubleOperator _operator) {
+			left = _left;
+			right = _right;
+			operator = _operator;
+		}
+		
+		@Override
+		int scratchBuffers() {
+			return Math.max(left.scratchBuffers(), right.scratchBuffers() + 1);
+		}
+		
+		@Override
+		void evaluate(final int start, final int count, final double[] out, final double[][] scratch, final int depth) {
+			final double[] b = scratch[depth];
+			
+			left.evaluate(start, count, out, scratch, depth);
+			right.evaluate(start, count, b, scratch, depth + 1);
+			
+			if (operator == ElementContainer.ADD) {
+				for (int i = 0; i < count; i++) {
+					out[i] += b[i];
+				}
+			} else if (operator == ElementContainer.SUBTRACT) {
+				for (int i = 0; i < count; i++) {
+					out[i] -= b[i];
+				}
+			} else if (operator == ElementContainer.MULTIPLY) {
+				for (int i = 0; i < count; i++) {
+					out[i] *= b[i];
+				}
+			} else if (operator == ElementContainer.DIVIDE) {
+				for (int i = 0; i < count; i++) {
+					out[i] /= b[i];
+				}
+			} else {
+				for (int i = 0; i < count; i++) {
+					out[i] = operator.operate(out[i], b[i]);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.dezzy.postfix.math.vector;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.DoubleApplier;
+import com.dezzy.postfix.math.vector.utility.DoubleOperator;
+import com.dezzy.postfix.math.vector.utility.Execution;
+
+/**
+ * A {@link Vector} that has not been computed yet. Element-wise operations on a LazyVector do no work; they record the
+ * operation and return a new LazyVector. {@link #evaluate()} then computes every element in one fused loop, so a chain such
+ * as <code>a.lazy().plus(b.lazy()).hadamard(c.lazy()).transform(f).evaluate()</code> reads <code>a</code>, <code>b</code>,
+ * and <code>c</code> once and allocates one array, instead of allocating a Vector and making a pass over memory at every step.
+ * <p>
+ * A LazyVector is immutable and can be evaluated any number of times. Each evaluation recomputes every operation.
+ *
+ * @author Joe Desmond
+ */
+public final class LazyVector extends ElementContainer<LazyVector> {
+	
+	/**
+	 * Root of the operation graph
+	 */
+	private final LazyNode root;
+	
+	/**
+	 * The number of components in this Vector
+	 */
+	public final int dimension;
+	
+	/**
+	 * Creates a LazyVector from an operation graph.
+	 * 
+	 * @param _root root of the operation graph
+	 * @param _dimension number of components
+	 */
+	LazyVector(final LazyNode _root, final int _dimension) {
+		root = _root;
+		dimension = _dimension;
+	}
+	
+	/**
+	 * Records an operation on each element of this LazyVector and another. Elements from this LazyVector are passed in as
+	 * <code>a</code>, and elements from the other are passed in as <code>b</code>.
+	 * 
+	 * @param other other LazyVector
+	 * @param operator operation to be applied
+	 * @return a LazyVector that applies the operation when evaluated
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	@Override
+	public final LazyVector elementOperation(final LazyVector other, final DoubleOperator operator) {
+		if (dimension != other.dimension) {
+			throw new DimensionMismatchException("Vectors must have same dimensions to perform element operations!");
+		}
+		
+		return new LazyVector(new LazyNode.Binary(root, other.root, operator), dimension);
+	}
+	
+	/**
+	 * Records an operation on each element of this LazyVector.
+	 * 
+	 * @param operator operation to be performed on each element
+	 * @return a LazyVector that applies the operation when evaluated
+	 */
+	@Override
+	public final LazyVector transform(final DoubleApplier operator) {
+		return new LazyVector(new LazyNode.Unary(root, operator), dimension);
+	}
+	
+	/**
+	 * Computes every element of this LazyVector. The recorded operations are applied sequentially, so they do not need to be
+	 * thread-safe.
+	 * 
+	 * @return a new Vector
+	 * @see #evaluate(Execution)
+	 */
+	public final Vector evaluate() {
+		return evaluate(Execution.SEQUENTIAL);
+	}
+	
+	/**
+	 * Computes every element of this LazyVector. In parallel, each task computes a range of components.
+	 * 
+	 * @param execution how to run the evaluation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link Vector#PARALLEL_THRESHOLD} components
+	 * @return a new Vector
+	 */
+	public final Vector evaluate(final Execution execution) {
+		return new Vector(LazyNode.evaluate(root, dimension, execution.isParallel(dimension, Vector.PARALLEL_THRESHOLD)));
+	}
+}
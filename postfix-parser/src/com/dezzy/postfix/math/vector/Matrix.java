@@ -1,14 +1,19 @@
 package com.dezzy.postfix.math.vector;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
 import com.dezzy.postfix.math.vector.utility.DoubleApplier;
 import com.dezzy.postfix.math.vector.utility.DoubleOperator;
+import com.dezzy.postfix.math.vector.utility.Execution;
+import com.dezzy.postfix.math.vector.utility.NotPositiveDefiniteException;
+import com.dezzy.postfix.math.vector.utility.SingularMatrixException;
 
 
 /**
- * A matrix with any number of rows and columns.
+ * A matrix with any number of rows and columns. The elements are stored in one row-major <code>double[]</code>: the element at
+ * <code>(row, col)</code> is at index <code>offset + row * stride + col</code>.
  *
  * @author Joe Desmond
  */
@@ -17,12 +22,32 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 	/**
 	 * Serial Version UID
 	 */
-	private static final long serialVersionUID = -874139546253134819L;
-
+	private static final long serialVersionUID = 2608741930764925212L;
+	
+	/**
+	 * Products with at least this many multiply-adds are computed in parallel by {@link Execution#AUTOMATIC}
+	 */
+	public static final long PARALLEL_MULTIPLY_THRESHOLD = 1L << 21;
+	
+	/**
+	 * Element-wise operations on at least this many elements are run in parallel by {@link Execution#AUTOMATIC}
+	 */
+	public static final long PARALLEL_ELEMENT_THRESHOLD = 1L << 16;
+	
 	/**
-	 * The values of the matrix
+	 * The values of the matrix, in row-major order
 	 */
-	private final double[][] values;
+	final double[] data;
+	
+	/**
+	 * Index of the first element in {@link #data}
+	 */
+	final int offset;
+	
+	/**
+	 * Distance in {@link #data} between the first elements of consecutive rows
+	 */
+	final int stride;
 	
 	/**
 	 * Number of rows in the matrix
@@ -30,64 +55,92 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 	public final int rows;
 	
 	/**
-	 * Number of columns in the matrix. If the matrix is irregular, this will be -1.
+	 * Number of columns in the matrix
 	 */
 	public final int cols;
 	
 	/**
-	 * The determinant of this Matrix; the placeholder {@link Float#MAX_VALUE} signifies that the determinant has not been calculated or does not exist
+	 * The LU decomposition of this Matrix, computed when first needed; null if it has not been computed yet
 	 */
-	private double determinant = Float.MAX_VALUE;
+	private transient volatile LUDecomposition decomposition;
 	
 	/**
-	 * Creates a Matrix from the given values. If the rows are not the same length, {@link Matrix#cols} will be -1.
+	 * Creates a Matrix from the given values. The values are copied.
 	 * 
 	 * @param _values matrix values
+	 * @throws DimensionMismatchException if the rows are not the same length
 	 */
 	public Matrix(final double[][] _values) {
-		values = _values;
-		rows = values.length;
-		
-		int tempCols = values[0].length;
+		rows = _values.length;
+		cols = (rows == 0) ? 0 : _values[0].length;
+		data = new double[rows * cols];
+		offset = 0;
+		stride = cols;
 		
-		int firstRowLength = values[0].length;
-		for (int row = 1; row < values.length; row++) {
-			if (values[row].length != firstRowLength) {
-				tempCols = -1;
-				break;
+		for (int row = 0; row < rows; row++) {
+			if (_values[row].length != cols) {
+				throw new DimensionMismatchException("Every row of a Matrix must have the same length!");
 			}
+			
+			System.arraycopy(_values[row], 0, data, row * cols, cols);
 		}
-		
-		cols = tempCols;
 	}
 	
 	/**
-	 * Creates a Matrix from the given row vectors. If the rows are not the same length, {@link Matrix#cols} will be -1.
+	 * Creates a Matrix from the given row vectors.
 	 * 
 	 * @param vectors rows of the matrix
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
 	 */
 	public Matrix(final Vector ... vectors) {
-		values = new double[vectors.length][];
 		rows = vectors.length;
+		cols = (rows == 0) ? 0 : vectors[0].dimension;
+		data = new double[rows * cols];
+		offset = 0;
+		stride = cols;
 		
-		int tempCols = vectors[0].dimension;
-		
-		int firstRowLength = vectors[0].dimension;
-		for (int row = 0; row < vectors.length; row++) {
+		for (int row = 0; row < rows; row++) {
 			final Vector vector = vectors[row];
 			
-			if (vector.dimension != firstRowLength) {
-				tempCols = -1;
+			if (vector.dimension != cols) {
+				throw new DimensionMismatchException("Every row of a Matrix must have the same length!");
 			}
 			
-			values[row] = new double[vector.dimension];
-			
-			for (int col = 0; col < vector.dimension; col++) {
-				values[row][col] = vector.get(col);
-			}
+			vector.copyInto(data, row * cols);
 		}
+	}
+	
+	/**
+	 * Creates a Matrix backed by the given row-major values. The array is not copied, so it should not be changed afterwards.
+	 * 
+	 * @param _rows number of rows
+	 * @param _cols number of columns
+	 * @param _values <code>_rows * _cols</code> values; the element at <code>(row, col)</code> is <code>_values[row * _cols + col]</code>
+	 * @throws DimensionMismatchException if there are not <code>_rows * _cols</code> values
+	 */
+	public Matrix(final int _rows, final int _cols, final double ... _values) {
+		this(_rows, _cols, _values, 0, _cols);
 		
-		cols = tempCols;
+		if (_rows < 0 || _cols < 0 || (long) _rows * _cols != _values.length) {
+			throw new DimensionMismatchException("A " + _rows + "x" + _cols + " Matrix must have " + ((long) _rows * _cols) + " values!");
+		}
+	}
+	
+	/**
+	 * Creates a Matrix backed by part of an array. The array is not copied.
+	 * 
+	 * @param _rows number of rows
+	 * @param _cols number of columns
+	 * @param _data values in row-major order
+	 * @param _offset index of the first element
+	 * @param _stride distance between the first elements of consecutive rows
+	 */
+	Matrix(final int _rows, final int _cols, final double[] _data, final int _offset, final int _stride) {
+		rows = _rows;
+		cols = _cols;
+		data = _data;
+		offset = _offset;
+		stride = _stride;
 	}
 	
 	/**
@@ -99,99 +152,188 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 	 * @return the element at the given row and column
 	 */
 	public final double get(int row, int col) {
-		return values[row][col];
+		return data[offset + row * stride + col];
 	}
 	
 	/**
-	 * Returns a single row vector. Does not check to ensure that <code>row</code> is within an acceptable range.
+	 * Returns a single row vector, as a view of this Matrix; nothing is copied. Does not check to ensure that <code>row</code>
+	 * is within an acceptable range.
 	 * 
 	 * @param row must be greater than or equal to 0 and less than {@link Matrix#rows}
 	 * @return the vector at the given row
 	 */
 	public final Vector getRowVector(int row) {
-		return new Vector(values[row]);
+		return new Vector(data, offset + row * stride, 1, cols);
 	}
 	
 	/**
-	 * Returns a single column vector. Does not check to ensure that <code>col</code> is within an acceptable range or that this
-	 * Matrix is regular.
+	 * Returns a single column vector, as a view of this Matrix; nothing is copied. Does not check to ensure that
+	 * <code>col</code> is within an acceptable range.
 	 * 
 	 * @param col must be greater than or equal to 0 and less that {@link Matrix#cols}
 	 * @return the vector at the given column
 	 */
 	public final Vector getColVector(int col) {
-		final double[] result = new double[values.length];
-		
-		for (int row = 0; row < values.length; row++) {
-			result[row] = values[row][col];
+		return new Vector(data, offset + col, stride, rows);
+	}
+	
+	/**
+	 * Returns the diagonal of this Matrix, as a view of this Matrix; nothing is copied.
+	 * 
+	 * @return the elements <code>(i, i)</code> of this Matrix
+	 */
+	public final Vector getDiagonal() {
+		return new Vector(data, offset, stride + 1, Math.min(rows, cols));
+	}
+	
+	/**
+	 * Returns a submatrix of this Matrix, as a view of this Matrix; nothing is copied.
+	 * 
+	 * @param row starting row (inclusive) within this matrix
+	 * @param col starting column (inclusive) within this matrix
+	 * @param subRows number of rows in the submatrix
+	 * @param subCols number of columns in the submatrix
+	 * @return submatrix with size <code>[subRows][subCols]</code>
+	 * @throws IndexOutOfBoundsException if the submatrix is not within this Matrix
+	 */
+	public final Matrix submatrix(final int row, final int col, final int subRows, final int subCols) {
+		if (row < 0 || col < 0 || subRows < 0 || subCols < 0 || row + subRows > rows || col + subCols > cols) {
+			throw new IndexOutOfBoundsException("A " + subRows + "x" + subCols + " submatrix at (" + row + ", " + col + ") is not within a " + rows + "x" + cols + " Matrix!");
 		}
 		
-		return new Vector(result);
+		return new Matrix(subRows, subCols, data, offset + row * stride + col, stride);
+	}
+	
+	/**
+	 * Returns a {@link LazyMatrix} with the same elements as this Matrix, to build a chain of element-wise operations that is
+	 * computed in one pass. Nothing is copied.
+	 * 
+	 * @return a LazyMatrix view of this Matrix
+	 */
+	public final LazyMatrix lazy() {
+		return new LazyMatrix(new LazyNode.Source(data, offset, cols, stride, 1), rows, cols);
+	}
+	
+	/**
+	 * Returns a {@link MutableMatrix} with the same elements as this Matrix. The array of this Matrix is shared until the
+	 * MutableMatrix changes, unless this Matrix is a view of part of a larger array.
+	 * 
+	 * @return a MutableMatrix with the elements of this Matrix
+	 */
+	public final MutableMatrix toMutable() {
+		return new MutableMatrix(this);
+	}
+	
+	/**
+	 * Returns a Matrix with the same elements as this one and an array of its own. Use this to keep a small part of a large
+	 * Matrix without keeping the whole array reachable.
+	 * 
+	 * @return a compact copy of this Matrix
+	 */
+	public final Matrix copy() {
+		return new Matrix(rows, cols, toArray());
+	}
+	
+	/**
+	 * Serializes a view as a compact copy, so that only its own elements are written rather than the whole shared array.
+	 * 
+	 * @return this Matrix if it has an array of its own, or a compact copy of it
+	 */
+	private Object writeReplace() {
+		return (offset == 0 && stride == cols && data.length == rows * cols) ? this : copy();
 	}
 	
 	/**
 	 * Multiplies this Matrix with another. Produces a matrix with the same number of rows as this matrix and {@link Matrix#rows other.cols} columns.
+	 * The product is computed by a cache-blocked kernel that allocates nothing but the result. Large products are computed in
+	 * parallel; see {@link #multiply(Matrix, Execution)}.
 	 * 
 	 * @param other other matrix to be multiplied
 	 * @return the product of <code>this</code> and <code>other</code>
+	 * @throws DimensionMismatchException if the number of columns of this Matrix is not the number of rows of <code>other</code>
 	 */
 	public final Matrix multiply(final Matrix other) {
-		final double[][] values = new double[rows][other.cols];
-		
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < other.cols; col++) {
-				final Vector rowVec = getRowVector(row);
-				final Vector colVec = other.getColVector(col);
-				
-				values[row][col] = rowVec.innerProduct(colVec);
-			}
+		return multiply(other, Execution.AUTOMATIC);
+	}
+	
+	/**
+	 * Multiplies this Matrix with another. In parallel, each task computes a block of rows of the product.
+	 * 
+	 * @param other other matrix to be multiplied
+	 * @param execution how to run the multiplication; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_MULTIPLY_THRESHOLD} multiply-adds
+	 * @return the product of <code>this</code> and <code>other</code>
+	 * @throws DimensionMismatchException if the number of columns of this Matrix is not the number of rows of <code>other</code>
+	 */
+	public final Matrix multiply(final Matrix other, final Execution execution) {
+		if (cols != other.rows) {
+			throw new DimensionMismatchException("The first matrix must have as many columns as the second has rows!");
 		}
 		
-		return new Matrix(values);
+		final double[] result = new double[rows * other.cols];
+		final boolean parallel = execution.isParallel((long) rows * cols * other.cols, PARALLEL_MULTIPLY_THRESHOLD);
+		
+		MatrixKernels.forEachRange(rows, MatrixKernels.ROW_BLOCK, parallel, (start, end) -> 
+			MatrixKernels.multiplyAdd(start, end, other.cols, cols, data, offset, stride, other.data, other.offset, other.stride, result, 0, other.cols)
+		);
+		
+		return new Matrix(rows, other.cols, result);
 	}
 	
 	/**
-	 * Convolves this matrix with a kernel and applies a modifier function to each resulting element.
+	 * Convolves this matrix with a kernel and applies a modifier function to each resulting element. The convolution is
+	 * computed sequentially, so the modifier does not need to be thread-safe; see {@link #convolve(Matrix, DoubleApplier, Execution)}.
 	 * 
 	 * @param kernel kernel matrix
 	 * @param modifier modifier function
-	 * @return convolution of this matrix and the kernel, with size <code>[this.rows - kernel.rows][this.cols - kernel.cols]</code>
+	 * @return convolution of this matrix and the kernel, with size <code>[this.rows - kernel.rows + 1][this.cols - kernel.cols + 1]</code>
 	 * and modifier function applied
+	 * @throws DimensionMismatchException if the kernel is larger than this matrix in either dimension
 	 */
 	public final Matrix convolve(final Matrix kernel, final DoubleApplier modifier) {
-		final double[][] out = new double[rows - kernel.rows][cols - kernel.cols];
-		
-		for (int row = 0; row < rows - kernel.rows; row++) {
-			for (int col = 0; col < cols - kernel.cols; col++) {
-				final Matrix submatrix = submatrix(row, col, kernel.rows, kernel.cols);
-				final double frobeniusProduct = modifier.apply(submatrix.frobenius(kernel));
-				
-				out[row][col] = frobeniusProduct;
-			}
-		}
-		
-		return new Matrix(out);
+		return convolve(kernel, modifier, Execution.SEQUENTIAL);
 	}
 	
 	/**
-	 * Gets a submatrix within this matrix.
+	 * Convolves this matrix with a kernel and applies a modifier function to each resulting element. Each element of the
+	 * result is the {@link #frobenius(Matrix) Frobenius inner product} of the kernel and the part of this matrix under it, for
+	 * every position where the kernel fits entirely inside this matrix. Small kernels slide directly over this matrix; large
+	 * kernels are applied with fast Fourier transforms, whichever is expected to be faster. Either way, nothing is allocated
+	 * per element.
 	 * 
-	 * @param row starting row (inclusive) within this matrix
-	 * @param col starting column (inclusive) within this matrix
-	 * @param subRows number of rows in the submatrix
-	 * @param subCols number of columns in the submatrix
-	 * @return submatrix with size <code>[subRows][subCols]</code>
+	 * @param kernel kernel matrix
+	 * @param modifier modifier function
+	 * @param execution how to run the convolution; {@link Execution#AUTOMATIC} runs in parallel if the direct method would
+	 * 			take at least {@link #PARALLEL_MULTIPLY_THRESHOLD} multiply-adds
+	 * @return convolution of this matrix and the kernel, with size <code>[this.rows - kernel.rows + 1][this.cols - kernel.cols + 1]</code>
+	 * and modifier function applied
+	 * @throws DimensionMismatchException if the kernel is larger than this matrix in either dimension
 	 */
-	private final Matrix submatrix(final int row, final int col, final int subRows, final int subCols) {
-		final double[][] out = new double[subRows][subCols];
+	public final Matrix convolve(final Matrix kernel, final DoubleApplier modifier, final Execution execution) {
+		if (kernel.rows > rows || kernel.cols > cols) {
+			throw new DimensionMismatchException("Kernel cannot be larger than the matrix!");
+		}
 		
-		for (int rowIndex = 0; rowIndex < subRows; rowIndex++) {
-			for (int colIndex = 0; colIndex < subCols; colIndex++) {
-				out[rowIndex][colIndex] = values[rowIndex + subRows][colIndex + subCols];
-			}
+		final int outRows = rows - kernel.rows + 1;
+		final int outCols = cols - kernel.cols + 1;
+		final double[] out = new double[outRows * outCols];
+		final double[] kernelValues = kernel.toArray();
+		final long work = (long) outRows * outCols * kernel.rows * kernel.cols;
+		final boolean parallel = execution.isParallel(work, PARALLEL_MULTIPLY_THRESHOLD);
+		
+		if (work > 0 && Convolution.prefersTransform(rows, cols, kernel.rows, kernel.cols)) {
+			Convolution.transform(data, offset, stride, rows, cols, kernelValues, kernel.rows, kernel.cols, out, parallel);
+		} else {
+			MatrixKernels.forEachRange(outRows, Math.max(1, MatrixKernels.ELEMENT_BLOCK / outCols), parallel, (start, end) -> 
+				Convolution.direct(data, offset, stride, kernelValues, kernel.rows, kernel.cols, out, outCols, start, end)
+			);
+		}
+		
+		for (int i = 0; i < out.length; i++) {
+			out[i] = modifier.apply(out[i]);
 		}
 		
-		return new Matrix(out);
+		return new Matrix(outRows, outCols, out);
 	}
 	
 	/**
@@ -209,8 +351,11 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 		double product = 0;
 		
 		for (int row = 0; row < rows; row++) {
+			final int thisRow = offset + row * stride;
+			final int otherRow = other.offset + row * other.stride;
+			
 			for (int col = 0; col < cols; col++) {
-				product += values[row][col] * other.values[row][col];
+				product += data[thisRow + col] * other.data[otherRow + col];
 			}
 		}
 		
@@ -223,15 +368,17 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 	 * @return the transpose of this Matrix
 	 */
 	public final Matrix transpose() {
-		final double[][] result = new double[cols][rows];
+		final double[] result = new double[cols * rows];
 		
 		for (int row = 0; row < rows; row++) {
+			final int rowStart = offset + row * stride;
+			
 			for (int col = 0; col < cols; col++) {
-				result[col][row] = values[row][col];
+				result[col * rows + row] = data[rowStart + col];
 			}
 		}
 		
-		return new Matrix(result);
+		return new Matrix(cols, rows, result);
 	}
 	
 	/**
@@ -246,12 +393,78 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 		}
 		
 		final double[] result = new double[rows];
+		MatrixKernels.multiplyVector(rows, cols, data, offset, stride, vector.components, vector.offset, vector.stride, result);
 		
-		for (int row = 0; row < rows; row++) {
-			result[row] = vector.innerProduct(getRowVector(row));
+		return new Vector(result);
+	}
+	
+	/**
+	 * Multiplies this Matrix with another and stores the product in a MutableMatrix, without allocating.
+	 * 
+	 * @param other other matrix to be multiplied
+	 * @param target MutableMatrix to hold <code>this * other</code>
+	 * @return <code>target</code>
+	 * @throws DimensionMismatchException if the number of columns of this Matrix is not the number of rows of
+	 * 			<code>other</code>, or <code>target</code> does not have the dimensions of the product
+	 */
+	public final MutableMatrix mulInto(final Matrix other, final MutableMatrix target) {
+		if (cols != other.rows) {
+			throw new DimensionMismatchException("The first matrix must have as many columns as the second has rows!");
 		}
 		
-		return new Vector(result);
+		if (target.rows != rows || target.cols != other.cols) {
+			throw new DimensionMismatchException("Target must have as many rows as the first matrix and as many columns as the second!");
+		}
+		
+		final double[] result = target.writableData();
+		Arrays.fill(result, 0);
+		MatrixKernels.multiplyAdd(rows, other.cols, cols, data, offset, stride, other.data, other.offset, other.stride, result, 0, other.cols);
+		
+		return target;
+	}
+	
+	/**
+	 * Multiplies this Matrix by a column Vector and stores the product in a MutableVector, without allocating.
+	 * 
+	 * @param vector column vector
+	 * @param target MutableVector to hold <code>this * vector</code>
+	 * @return <code>target</code>
+	 * @throws DimensionMismatchException if <code>vector</code> does not have {@link #cols} components or <code>target</code>
+	 * 			does not have {@link #rows} components
+	 */
+	public final MutableVector mulInto(final Vector vector, final MutableVector target) {
+		if (vector.dimension != cols || target.dimension != rows) {
+			throw new DimensionMismatchException("Vector must have as many components as the matrix has columns, and target as many as it has rows!");
+		}
+		
+		MatrixKernels.multiplyVector(rows, cols, data, offset, stride, vector.components, vector.offset, vector.stride, target.writableComponents());
+		
+		return target;
+	}
+	
+	/**
+	 * Multiplies this Matrix by a column MutableVector and stores the product in another MutableVector, without allocating.
+	 * 
+	 * @param vector column vector
+	 * @param target MutableVector to hold <code>this * vector</code>, which cannot be <code>vector</code>
+	 * @return <code>target</code>
+	 * @throws DimensionMismatchException if <code>vector</code> does not have {@link #cols} components or <code>target</code>
+	 * 			does not have {@link #rows} components
+	 * @throws IllegalArgumentException if <code>target</code> is <code>vector</code>
+	 */
+	public final MutableVector mulInto(final MutableVector vector, final MutableVector target) {
+		if (vector.dimension != cols || target.dimension != rows) {
+			throw new DimensionMismatchException("Vector must have as many components as the matrix has columns, and target as many as it has rows!");
+		}
+		
+		if (vector == target) {
+			throw new IllegalArgumentException("Target cannot be the vector being multiplied!");
+		}
+		
+		final double[] result = target.writableComponents();
+		MatrixKernels.multiplyVector(rows, cols, data, offset, stride, vector.readableComponents(), 0, 1, result);
+		
+		return target;
 	}
 	
 	/**
@@ -261,56 +474,139 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 	 * @return the dimension of the row vector at the given row
 	 */
 	public final double getRowDimension(int row) {
-		return values[row].length;
+		return cols;
 	}
 	
 	/**
-	 * Recursively calculates the determinant of a Matrix if it has not yet been calculated for this Matrix. Otherwise returns the previously calculated determinant.
-	 * Throws a {@link DimensionMismatchException} if this Matrix is not a square matrix.
+	 * Returns the determinant of this Matrix, computed from its {@link #lu() LU decomposition} in <code>O(n<sup>3</sup>)</code>
+	 * time. The determinant of a 0x0 matrix is 1.
 	 * 
 	 * @return the determinant of this Matrix
+	 * @throws DimensionMismatchException if this Matrix is not a square matrix
 	 */
-	public final double determinant() {		
-		if (!isSquare()) {
-			throw new DimensionMismatchException("Determinant can only be calculated for a square matrix!");
-		}
+	public final double determinant() {
+		return lu().determinant();
+	}
+	
+	/**
+	 * Solves <code>this * x = b</code> for <code>x</code> using the {@link #lu() LU decomposition} of this Matrix.
+	 * 
+	 * @param b right-hand side
+	 * @return <code>x</code>
+	 * @throws DimensionMismatchException if this Matrix is not square or <code>b</code> does not have {@link #rows} components
+	 * @throws SingularMatrixException if this Matrix is singular
+	 */
+	public final Vector solve(final Vector b) {
+		return lu().solve(b);
+	}
+	
+	/**
+	 * Returns the inverse of this Matrix, computed from its {@link #lu() LU decomposition}.
+	 * 
+	 * @return <code>this<sup>-1</sup></code>
+	 * @throws DimensionMismatchException if this Matrix is not a square matrix
+	 * @throws SingularMatrixException if this Matrix is singular
+	 */
+	public final Matrix inverse() {
+		return lu().inverse();
+	}
+	
+	/**
+	 * Returns the LU decomposition of this Matrix. It is computed the first time it is needed and then cached, since the
+	 * values of this Matrix are immutable.
+	 * 
+	 * @return the LU decomposition of this Matrix
+	 * @throws DimensionMismatchException if this Matrix is not a square matrix
+	 */
+	public final LUDecomposition lu() {
+		LUDecomposition result = decomposition;
 		
-		//Return the determinant if it has already been calculated, since the values of this Matrix are immutable
-		if (determinant != Float.MAX_VALUE) {
-			return determinant;
+		if (result == null) {
+			result = new LUDecomposition(this);
+			decomposition = result;
 		}
 		
-		if (rows == 2) {
-			determinant = values[0][0] * values[1][1] - values[1][0] * values[0][1];
-			return determinant;
-		} else if (rows <= 1) {
-			return 0;
-		} else {
-			double determinant = 0;
-			
-			for (int col = 0; col < cols; col++) {
-				final double[][] smallMatrixValues = new double[rows - 1][cols - 1];
-				
-				for (int row = 1; row < rows; row++) {
-					
-					int colIndex = 0;
-					for (int col2 = 0; col2 < cols; col2++) {
-						if (col != col2) {
-							smallMatrixValues[row - 1][colIndex] = values[row][col2];
-							colIndex++;
-						}
-					}
-				}
-				
-				double smallMatrixDeterminant = new Matrix(smallMatrixValues).determinant();
-				double colElement = values[0][col];
-				double elementDeterminant = smallMatrixDeterminant * colElement;
-				
-				determinant += (col % 2 == 0) ? elementDeterminant : -elementDeterminant;
-			}
-			
-			return determinant;
+		return result;
+	}
+	
+	/**
+	 * Computes the Cholesky decomposition of this Matrix, which must be symmetric positive definite.
+	 * 
+	 * @return the Cholesky decomposition of this Matrix
+	 * @throws DimensionMismatchException if this Matrix is not a square matrix
+	 * @throws NotPositiveDefiniteException if this Matrix is not positive definite
+	 */
+	public final CholeskyDecomposition cholesky() {
+		return new CholeskyDecomposition(this);
+	}
+	
+	/**
+	 * Computes the Householder QR decomposition of this Matrix, which must have at least as many rows as columns.
+	 * 
+	 * @return the QR decomposition of this Matrix
+	 * @throws DimensionMismatchException if this Matrix has fewer rows than columns
+	 */
+	public final QRDecomposition qr() {
+		return new QRDecomposition(this);
+	}
+	
+	/**
+	 * Computes the eigenvalues and eigenvectors of this Matrix, which must be symmetric. Only the lower triangle is read.
+	 * 
+	 * @return the eigendecomposition of this Matrix
+	 * @throws DimensionMismatchException if this Matrix is not a square matrix
+	 */
+	public final SymmetricEigenDecomposition symmetricEigen() {
+		return new SymmetricEigenDecomposition(this);
+	}
+	
+	/**
+	 * Computes the (possibly complex) eigenvalues of this Matrix. Use {@link #symmetricEigen()} instead if this Matrix is
+	 * symmetric.
+	 * 
+	 * @return the eigenvalues of this Matrix
+	 * @throws DimensionMismatchException if this Matrix is not a square matrix
+	 */
+	public final GeneralEigenvalues eigenvalues() {
+		return new GeneralEigenvalues(this);
+	}
+	
+	/**
+	 * Computes the singular value decomposition of this Matrix.
+	 * 
+	 * @return the singular value decomposition of this Matrix
+	 */
+	public final SingularValueDecomposition svd() {
+		return new SingularValueDecomposition(this);
+	}
+	
+	/**
+	 * Finds the least squares solution of <code>this * x = b</code>, the <code>x</code> that minimizes the norm of
+	 * <code>this * x - b</code>, using the {@link #qr() QR decomposition} of this Matrix.
+	 * 
+	 * @param b right-hand side
+	 * @return <code>x</code>, with {@link #cols} components
+	 * @throws DimensionMismatchException if this Matrix has fewer rows than columns or <code>b</code> does not have
+	 * 			{@link #rows} components
+	 * @throws SingularMatrixException if the columns of this Matrix are linearly dependent
+	 */
+	public final Vector solveLeastSquares(final Vector b) {
+		return qr().solve(b);
+	}
+	
+	/**
+	 * Returns a copy of the elements of this Matrix in row-major order, with no gaps between rows.
+	 * 
+	 * @return a new array of {@link #rows} <code>*</code> {@link #cols} elements
+	 */
+	final double[] toArray() {
+		final double[] result = new double[rows * cols];
+		
+		for (int row = 0; row < rows; row++) {
+			System.arraycopy(data, offset + row * stride, result, row * cols, cols);
 		}
+		
+		return result;
 	}
 	
 	/**
@@ -325,44 +621,96 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 	/**
 	 * Applies an operation to each element of this Matrix and another. Throws a {@link DimensionMismatchException} if the matrices do not have the same dimensions.
 	 * Elements from this Matrix are passed in as <code>a</code> in <code>operator</code>, and elements from the other Matrix are passed in as <code>b</code>.
+	 * The operation is applied sequentially, so it does not need to be thread-safe.
 	 * 
 	 * @param other other Matrix
 	 * @param operator operation to be performed on each element
 	 * @return a new Matrix with the result of the operation applied to each element and the same dimensions as this Matrix
+	 * @see #elementOperation(Matrix, DoubleOperator, Execution)
 	 */
 	@Override
 	public final Matrix elementOperation(final Matrix other, final DoubleOperator operator) {
+		return elementOperation(other, operator, Execution.SEQUENTIAL);
+	}
+	
+	/**
+	 * Applies an operation to each element of this Matrix and another. In parallel, each task handles a block of rows.
+	 * 
+	 * @param other other Matrix
+	 * @param operator operation to be performed on each element
+	 * @param execution how to run the operation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_ELEMENT_THRESHOLD} elements
+	 * @return a new Matrix with the result of the operation applied to each element and the same dimensions as this Matrix
+	 * @throws DimensionMismatchException if the matrices do not have the same dimensions
+	 */
+	public final Matrix elementOperation(final Matrix other, final DoubleOperator operator, final Execution execution) {
 		if (!isSameDimensionsAs(other)) {
 			throw new DimensionMismatchException("Matrices must have the same dimensions to perform element operations!");
 		}
 		
-		final double[][] result = new double[rows][cols];
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
-				result[row][col] = operator.operate(values[row][col], other.values[row][col]);
+		final double[] result = new double[rows * cols];
+		final boolean parallel = execution.isParallel((long) rows * cols, PARALLEL_ELEMENT_THRESHOLD);
+		
+		MatrixKernels.forEachRange(rows, rowsPerBlock(), parallel, (start, end) -> {
+			for (int row = start; row < end; row++) {
+				final int thisRow = offset + row * stride;
+				final int otherRow = other.offset + row * other.stride;
+				
+				for (int col = 0; col < cols; col++) {
+					result[row * cols + col] = operator.operate(data[thisRow + col], other.data[otherRow + col]);
+				}
 			}
-		}
+		});
 		
-		return new Matrix(result);
+		return new Matrix(rows, cols, result);
 	}
 	
 	/**
-	 * Applies an operation to each element of this Matrix, transforming it into a new Matrix.
+	 * Applies an operation to each element of this Matrix, transforming it into a new Matrix. The operation is applied sequentially, so it does not
+	 * need to be thread-safe.
 	 * 
 	 * @param operator operation to be applied to each element
 	 * @return a new Matrix with <code>operator</code> applied
+	 * @see #transform(DoubleApplier, Execution)
 	 */
 	@Override
 	public final Matrix transform(final DoubleApplier operator) {
-		final double[][] result = new double[rows][cols];
+		return transform(operator, Execution.SEQUENTIAL);
+	}
+	
+	/**
+	 * Applies an operation to each element of this Matrix, transforming it into a new Matrix. In parallel, each task handles a
+	 * block of rows.
+	 * 
+	 * @param operator operation to be applied to each element
+	 * @param execution how to run the operation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_ELEMENT_THRESHOLD} elements
+	 * @return a new Matrix with <code>operator</code> applied
+	 */
+	public final Matrix transform(final DoubleApplier operator, final Execution execution) {
+		final double[] result = new double[rows * cols];
+		final boolean parallel = execution.isParallel((long) rows * cols, PARALLEL_ELEMENT_THRESHOLD);
 		
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
-				result[row][col] = operator.apply(values[row][col]);
+		MatrixKernels.forEachRange(rows, rowsPerBlock(), parallel, (start, end) -> {
+			for (int row = start; row < end; row++) {
+				final int rowStart = offset + row * stride;
+				
+				for (int col = 0; col < cols; col++) {
+					result[row * cols + col] = operator.apply(data[rowStart + col]);
+				}
 			}
-		}
+		});
 		
-		return new Matrix(result);
+		return new Matrix(rows, cols, result);
+	}
+	
+	/**
+	 * Returns the number of rows handled by one task of a parallel element-wise operation.
+	 * 
+	 * @return rows per task, at least 1
+	 */
+	private int rowsPerBlock() {
+		return Math.max(1, MatrixKernels.ELEMENT_BLOCK / Math.max(1, cols));
 	}
 	
 	/**
@@ -372,7 +720,7 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 	 * @return true if this matrix and the other have the same dimensions
 	 */
 	public final boolean isSameDimensionsAs(final Matrix other) {
-		return rows == other.rows && cols == other.cols && cols != -1 && other.cols != -1;
+		return rows == other.rows && cols == other.cols;
 	}
 	
 	/**
@@ -382,26 +730,26 @@ public final class Matrix extends ElementContainer<Matrix> implements Serializab
 	 */
 	@Override
 	public String toString() {
-		String out = "";
+		final StringBuilder out = new StringBuilder();
 		
 		for (int row = 0; row < rows; row++) {
-			out += "[";
+			out.append('[');
 			
 			for (int col = 0; col < cols; col++) {
-				out += values[row][col];
+				out.append(get(row, col));
 				
 				if (col != cols - 1) {
-					out += " ";
+					out.append(' ');
 				}
 			}
 			
-			out += "]";
+			out.append(']');
 			
 			if (row != rows - 1) {
-				out += "\n";
+				out.append('\n');
 			}
 		}
 		
-		return out;
+		return out.toString();
 	}
 }
@@ -0,0 +1,217 @@
+package com.dezzy.postfix.math.vector;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.Execution;
+import com.dezzy.postfix.math.vector.utility.SingularMatrixException;
+
+/**
+ * An immutable 2x2 matrix, for transforming points in the plane. The elements are held in fields rather than an array, and
+ * every operation is fully unrolled with no dimension checks, so it is much faster than a general {@link Matrix} of the same
+ * size. Use {@link #transform(double[], double[], int, int)} to transform many points stored as separate coordinate arrays
+ * (structure of arrays) in one call.
+ *
+ * @author Joe Desmond
+ */
+public final class Matrix2 implements Serializable {
+	
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = -3209786153468260547L;
+	
+	/**
+	 * The 2x2 identity matrix
+	 */
+	public static final Matrix2 IDENTITY = new Matrix2(1, 0, 0, 1);
+	
+	/**
+	 * Batched transformations of at least this many points are run in parallel by {@link Execution#AUTOMATIC}
+	 */
+	public static final long PARALLEL_THRESHOLD = 1L << 16;
+	
+	/**
+	 * Element at row 0, column 0
+	 */
+	public final double m00;
+	
+	/**
+	 * Element at row 0, column 1
+	 */
+	public final double m01;
+	
+	/**
+	 * Element at row 1, column 0
+	 */
+	public final double m10;
+	
+	/**
+	 * Element at row 1, column 1
+	 */
+	public final double m11;
+	
+	/**
+	 * Creates a Matrix2 with the given elements, in row-major order.
+	 * 
+	 * @param _m00 element at row 0, column 0
+	 * @param _m01 element at row 0, column 1
+	 * @param _m10 element at row 1, column 0
+	 * @param _m11 element at row 1, column 1
+	 */
+	public Matrix2(final double _m00, final double _m01,
+			final double _m10, final double _m11) {
+		m00 = _m00;
+		m01 = _m01;
+		m10 = _m10;
+		m11 = _m11;
+	}
+	
+	/**
+	 * Copies a 2x2 {@link Matrix} into a Matrix2.
+	 * 
+	 * @param matrix 2x2 Matrix
+	 * @return a Matrix2 with the elements of <code>matrix</code>
+	 * @throws DimensionMismatchException if <code>matrix</code> is not 2x2
+	 */
+	public static Matrix2 of(final Matrix matrix) {
+		if (matrix.rows != 2 || matrix.cols != 2) {
+			throw new DimensionMismatchException("Only a 2x2 Matrix can be converted to a Matrix2!");
+		}
+		
+		return new Matrix2(matrix.get(0, 0), matrix.get(0, 1),
+				matrix.get(1, 0), matrix.get(1, 1));
+	}
+	
+	/**
+	 * Copies this Matrix2 into a general {@link Matrix}.
+	 * 
+	 * @return a 2x2 Matrix with the elements of this Matrix2
+	 */
+	public final Matrix toMatrix() {
+		return new Matrix(2, 2, m00, m01,
+				m10, m11);
+	}
+	
+	/**
+	 * Multiplies this Matrix2 by another.
+	 * 
+	 * @param other right-hand Matrix2
+	 * @return <code>this * other</code>
+	 */
+	public final Matrix2 multiply(final Matrix2 other) {
+		return new Matrix2(
+				m00 * other.m00 + m01 * other.m10,
+				m00 * other.m01 + m01 * other.m11,
+				m10 * other.m00 + m11 * other.m10,
+				m10 * other.m01 + m11 * other.m11);
+	}
+	
+	/**
+	 * Returns the transpose of this Matrix2.
+	 * 
+	 * @return the transpose of this Matrix2
+	 */
+	public final Matrix2 transpose() {
+		return new Matrix2(m00, m10,
+				m01, m11);
+	}
+	
+	/**
+	 * Calculates the determinant of this Matrix2.
+	 * 
+	 * @return the determinant
+	 */
+	public final double determinant() {
+		return m00 * m11 - m01 * m10;
+	}
+	
+	/**
+	 * Calculates the inverse of this Matrix2 from its adjugate.
+	 * 
+	 * @return the inverse of this Matrix2
+	 * @throws SingularMatrixException if the determinant of this Matrix2 is 0
+	 */
+	public final Matrix2 inverse() {
+		final double determinant = determinant();
+		
+		if (determinant == 0) {
+			throw new SingularMatrixException("Matrix2 is singular!");
+		}
+		
+		final double scale = 1 / determinant;
+		
+		return new Matrix2(m11 * scale, -m01 * scale,
+				-m10 * scale, m00 * scale);
+	}
+	
+	/**
+	 * Multiplies this Matrix2 by a column Vector.
+	 * 
+	 * @param vector column vector with 2 components
+	 * @return <code>this * vector</code>
+	 * @throws DimensionMismatchException if <code>vector</code> does not have 2 components
+	 */
+	public final Vector multiply(final Vector vector) {
+		if (vector.dimension != 2) {
+			throw new DimensionMismatchException("Vector must have 2 components to be multiplied by a Matrix2!");
+		}
+		
+		final double v0 = vector.get(0);
+		final double v1 = vector.get(1);
+		
+		return new Vector(m00 * v0 + m01 * v1,
+				m10 * v0 + m11 * v1);
+	}
+	
+	/**
+	 * Multiplies each of a range of points, stored as separate coordinate arrays, by this Matrix2 in place: point <code>i</code>
+	 * is <code>(x[i], y[i])</code>.
+	 * 
+	 * @param x x coordinates
+	 * @param y y coordinates
+	 * @param offset index of the first point
+	 * @param count number of points
+	 * @see #transform(double[], double[], int, int, Execution)
+	 */
+	public final void transform(final double[] x, final double[] y, final int offset, final int count) {
+		transform(x, y, offset, count, Execution.AUTOMATIC);
+	}
+	
+	/**
+	 * Transforms each of a range of points in place. In parallel, each task handles a range of points.
+	 * 
+	 * @param x x coordinates
+	 * @param y y coordinates
+	 * @param offset index of the first point
+	 * @param count number of points
+	 * @param execution how to run the transformation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_THRESHOLD} points
+	 * @throws IndexOutOfBoundsException if <code>[offset, offset + count)</code> is not within every coordinate array
+	 */
+	public final void transform(final double[] x, final double[] y, final int offset, final int count, final Execution execution) {
+		Objects.checkFromIndexSize(offset, count, x.length);
+		Objects.checkFromIndexSize(offset, count, y.length);
+		
+		MatrixKernels.forEachRange(count, MatrixKernels.ELEMENT_BLOCK, execution.isParallel(count, PARALLEL_THRESHOLD), (start, end) -> {
+			for (int i = offset + start; i < offset + end; i++) {
+				final double x0 = x[i];
+				final double y0 = y[i];
+				
+				x[i] = m00 * x0 + m01 * y0;
+				y[i] = m10 * x0 + m11 * y0;
+			}
+		});
+	}
+	
+	/**
+	 * Outputs this Matrix2 in the same format as {@link Matrix#toString()}.
+	 * 
+	 * @return a String where each row is on its own line, rows are delimited by square brackets, and elements are delimited by spaces
+	 */
+	@Override
+	public String toString() {
+		return toMatrix().toString();
+	}
+}
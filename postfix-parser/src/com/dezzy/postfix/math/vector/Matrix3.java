@@ -0,0 +1,271 @@
+package com.dezzy.postfix.math.vector;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.Execution;
+import com.dezzy.postfix.math.vector.utility.SingularMatrixException;
+
+/**
+ * An immutable 3x3 matrix, for linear transformations of points in space. Like {@link Matrix2}, the elements are held in
+ * fields and every operation is unrolled. Use {@link #transform(double[], double[], double[], int, int)} to transform many
+ * points stored as separate coordinate arrays in one call.
+ *
+ * @author Joe Desmond
+ */
+public final class Matrix3 implements Serializable {
+	
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = 6021485117230957842L;
+	
+	/**
+	 * The 3x3 identity matrix
+	 */
+	public static final Matrix3 IDENTITY = new Matrix3(1, 0, 0, 0, 1, 0, 0, 0, 1);
+	
+	/**
+	 * Batched transformations of at least this many points are run in parallel by {@link Execution#AUTOMATIC}
+	 */
+	public static final long PARALLEL_THRESHOLD = 1L << 16;
+	
+	/**
+	 * Element at row 0, column 0
+	 */
+	public final double m00;
+	
+	/**
+	 * Element at row 0, column 1
+	 */
+	public final double m01;
+	
+	/**
+	 * Element at row 0, column 2
+	 */
+	public final double m02;
+	
+	/**
+	 * Element at row 1, column 0
+	 */
+	public final double m10;
+	
+	/**
+	 * Element at row 1, column 1
+	 */
+	public final double m11;
+	
+	/**
+	 * Element at row 1, column 2
+	 */
+	public final double m12;
+	
+	/**
+	 * Element at row 2, column 0
+	 */
+	public final double m20;
+	
+	/**
+	 * Element at row 2, column 1
+	 */
+	public final double m21;
+	
+	/**
+	 * Element at row 2, column 2
+	 */
+	public final double m22;
+	
+	/**
+	 * Creates a Matrix3 with the given elements, in row-major order.
+	 * 
+	 * @param _m00 element at row 0, column 0
+	 * @param _m01 element at row 0, column 1
+	 * @param _m02 element at row 0, column 2
+	 * @param _m10 element at row 1, column 0
+	 * @param _m11 element at row 1, column 1
+	 * @param _m12 element at row 1, column 2
+	 * @param _m20 element at row 2, column 0
+	 * @param _m21 element at row 2, column 1
+	 * @param _m22 element at row 2, column 2
+	 */
+	public Matrix3(final double _m00, final double _m01, final double _m02,
+			final double _m10, final double _m11, final double _m12,
+			final double _m20, final double _m21, final double _m22) {
+		m00 = _m00;
+		m01 = _m01;
+		m02 = _m02;
+		m10 = _m10;
+		m11 = _m11;
+		m12 = _m12;
+		m20 = _m20;
+		m21 = _m21;
+		m22 = _m22;
+	}
+	
+	/**
+	 * Copies a 3x3 {@link Matrix} into a Matrix3.
+	 * 
+	 * @param matrix 3x3 Matrix
+	 * @return a Matrix3 with the elements of <code>matrix</code>
+	 * @throws DimensionMismatchException if <code>matrix</code> is not 3x3
+	 */
+	public static Matrix3 of(final Matrix matrix) {
+		if (matrix.rows != 3 || matrix.cols != 3) {
+			throw new DimensionMismatchException("Only a 3x3 Matrix can be converted to a Matrix3!");
+		}
+		
+		return new Matrix3(matrix.get(0, 0), matrix.get(0, 1), matrix.get(0, 2),
+				matrix.get(1, 0), matrix.get(1, 1), matrix.get(1, 2),
+				matrix.get(2, 0), matrix.get(2, 1), matrix.get(2, 2));
+	}
+	
+	/**
+	 * Copies this Matrix3 into a general {@link Matrix}.
+	 * 
+	 * @return a 3x3 Matrix with the elements of this Matrix3
+	 */
+	public final Matrix toMatrix() {
+		return new Matrix(3, 3, m00, m01, m02,
+				m10, m11, m12,
+				m20, m21, m22);
+	}
+	
+	/**
+	 * Multiplies this Matrix3 by another.
+	 * 
+	 * @param other right-hand Matrix3
+	 * @return <code>this * other</code>
+	 */
+	public final Matrix3 multiply(final Matrix3 other) {
+		return new Matrix3(
+				m00 * other.m00 + m01 * other.m10 + m02 * other.m20,
+				m00 * other.m01 + m01 * other.m11 + m02 * other.m21,
+				m00 * other.m02 + m01 * other.m12 + m02 * other.m22,
+				m10 * other.m00 + m11 * other.m10 + m12 * other.m20,
+				m10 * other.m01 + m11 * other.m11 + m12 * other.m21,
+				m10 * other.m02 + m11 * other.m12 + m12 * other.m22,
+				m20 * other.m00 + m21 * other.m10 + m22 * other.m20,
+				m20 * other.m01 + m21 * other.m11 + m22 * other.m21,
+				m20 * other.m02 + m21 * other.m12 + m22 * other.m22);
+	}
+	
+	/**
+	 * Returns the transpose of this Matrix3.
+	 * 
+	 * @return the transpose of this Matrix3
+	 */
+	public final Matrix3 transpose() {
+		return new Matrix3(m00, m10, m20,
+				m01, m11, m21,
+				m02, m12, m22);
+	}
+	
+	/**
+	 * Calculates the determinant of this Matrix3.
+	 * 
+	 * @return the determinant
+	 */
+	public final double determinant() {
+		return m00 * (m11 * m22 - m12 * m21) - m01 * (m10 * m22 - m12 * m20) + m02 * (m10 * m21 - m11 * m20);
+	}
+	
+	/**
+	 * Calculates the inverse of this Matrix3 from its adjugate.
+	 * 
+	 * @return the inverse of this Matrix3
+	 * @throws SingularMatrixException if the determinant of this Matrix3 is 0
+	 */
+	public final Matrix3 inverse() {
+		final double c00 = m11 * m22 - m12 * m21;
+		final double c01 = m12 * m20 - m10 * m22;
+		final double c02 = m10 * m21 - m11 * m20;
+		final double determinant = m00 * c00 + m01 * c01 + m02 * c02;
+		
+		if (determinant == 0) {
+			throw new SingularMatrixException("Matrix3 is singular!");
+		}
+		
+		final double scale = 1 / determinant;
+		
+		return new Matrix3(c00 * scale, (m02 * m21 - m01 * m22) * scale, (m01 * m12 - m02 * m11) * scale,
+				c01 * scale, (m00 * m22 - m02 * m20) * scale, (m02 * m10 - m00 * m12) * scale,
+				c02 * scale, (m01 * m20 - m00 * m21) * scale, (m00 * m11 - m01 * m10) * scale);
+	}
+	
+	/**
+	 * Multiplies this Matrix3 by a column Vector.
+	 * 
+	 * @param vector column vector with 3 components
+	 * @return <code>this * vector</code>
+	 * @throws DimensionMismatchException if <code>vector</code> does not have 3 components
+	 */
+	public final Vector multiply(final Vector vector) {
+		if (vector.dimension != 3) {
+			throw new DimensionMismatchException("Vector must have 3 components to be multiplied by a Matrix3!");
+		}
+		
+		final double v0 = vector.get(0);
+		final double v1 = vector.get(1);
+		final double v2 = vector.get(2);
+		
+		return new Vector(m00 * v0 + m01 * v1 + m02 * v2,
+				m10 * v0 + m11 * v1 + m12 * v2,
+				m20 * v0 + m21 * v1 + m22 * v2);
+	}
+	
+	/**
+	 * Multiplies each of a range of points, stored as separate coordinate arrays, by this Matrix3 in place: point <code>i</code>
+	 * is <code>(x[i], y[i], z[i])</code>.
+	 * 
+	 * @param x x coordinates
+	 * @param y y coordinates
+	 * @param z z coordinates
+	 * @param offset index of the first point
+	 * @param count number of points
+	 * @see #transform(double[], double[], double[], int, int, Execution)
+	 */
+	public final void transform(final double[] x, final double[] y, final double[] z, final int offset, final int count) {
+		transform(x, y, z, offset, count, Execution.AUTOMATIC);
+	}
+	
+	/**
+	 * Transforms each of a range of points in place. In parallel, each task handles a range of points.
+	 * 
+	 * @param x x coordinates
+	 * @param y y coordinates
+	 * @param z z coordinates
+	 * @param offset index of the first point
+	 * @param count number of points
+	 * @param execution how to run the transformation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_THRESHOLD} points
+	 * @throws IndexOutOfBoundsException if <code>[offset, offset + count)</code> is not within every coordinate array
+	 */
+	public final void transform(final double[] x, final double[] y, final double[] z, final int offset, final int count, final Execution execution) {
+		Objects.checkFromIndexSize(offset, count, x.length);
+		Objects.checkFromIndexSize(offset, count, y.length);
+		Objects.checkFromIndexSize(offset, count, z.length);
+		
+		MatrixKernels.forEachRange(count, MatrixKernels.ELEMENT_BLOCK, execution.isParallel(count, PARALLEL_THRESHOLD), (start, end) -> {
+			for (int i = offset + start; i < offset + end; i++) {
+				final double x0 = x[i];
+				final double y0 = y[i];
+				final double z0 = z[i];
+				
+				x[i] = m00 * x0 + m01 * y0 + m02 * z0;
+				y[i] = m10 * x0 + m11 * y0 + m12 * z0;
+				z[i] = m20 * x0 + m21 * y0 + m22 * z0;
+			}
+		});
+	}
+	
+	/**
+	 * Outputs this Matrix3 in the same format as {@link Matrix#toString()}.
+	 * 
+	 * @return a String where each row is on its own line, rows are delimited by square brackets, and elements are delimited by spaces
+	 */
+	@Override
+	public String toString() {
+		return toMatrix().toString();
+	}
+}
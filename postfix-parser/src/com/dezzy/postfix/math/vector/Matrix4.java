@@ -0,0 +1,411 @@
+package com.dezzy.postfix.math.vector;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.Execution;
+import com.dezzy.postfix.math.vector.utility.SingularMatrixException;
+
+/**
+ * An immutable 4x4 matrix, for affine and projective transformations of points in space in homogeneous coordinates. Like
+ * {@link Matrix2}, the elements are held in fields and every operation is unrolled. Use
+ * {@link #transformPoints(double[], double[], double[], int, int)} to transform many points, or
+ * {@link #transformDirections(double[], double[], double[], int, int)} to transform many directions, stored as separate
+ * coordinate arrays in one call.
+ *
+ * @author Joe Desmond
+ */
+public final class Matrix4 implements Serializable {
+	
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = -1478362940582173306L;
+	
+	/**
+	 * The 4x4 identity matrix
+	 */
+	public static final Matrix4 IDENTITY = new Matrix4(1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1);
+	
+	/**
+	 * Batched transformations of at least this many points are run in parallel by {@link Execution#AUTOMATIC}
+	 */
+	public static final long PARALLEL_THRESHOLD = 1L << 16;
+	
+	/**
+	 * Element at row 0, column 0
+	 */
+	public final double m00;
+	
+	/**
+	 * Element at row 0, column 1
+	 */
+	public final double m01;
+	
+	/**
+	 * Element at row 0, column 2
+	 */
+	public final double m02;
+	
+	/**
+	 * Element at row 0, column 3
+	 */
+	public final double m03;
+	
+	/**
+	 * Element at row 1, column 0
+	 */
+	public final double m10;
+	
+	/**
+	 * Element at row 1, column 1
+	 */
+	public final double m11;
+	
+	/**
+	 * Element at row 1, column 2
+	 */
+	public final double m12;
+	
+	/**
+	 * Element at row 1, column 3
+	 */
+	public final double m13;
+	
+	/**
+	 * Element at row 2, column 0
+	 */
+	public final double m20;
+	
+	/**
+	 * Element at row 2, column 1
+	 */
+	public final double m21;
+	
+	/**
+	 * Element at row 2, column 2
+	 */
+	public final double m22;
+	
+	/**
+	 * Element at row 2, column 3
+	 */
+	public final double m23;
+	
+	/**
+	 * Element at row 3, column 0
+	 */
+	public final double m30;
+	
+	/**
+	 * Element at row 3, column 1
+	 */
+	public final double m31;
+	
+	/**
+	 * Element at row 3, column 2
+	 */
+	public final double m32;
+	
+	/**
+	 * Element at row 3, column 3
+	 */
+	public final double m33;
+	
+	/**
+	 * Creates a Matrix4 with the given elements, in row-major order.
+	 * 
+	 * @param _m00 element at row 0, column 0
+	 * @param _m01 element at row 0, column 1
+	 * @param _m02 element at row 0, column 2
+	 * @param _m03 element at row 0, column 3
+	 * @param _m10 element at row 1, column 0
+	 * @param _m11 element at row 1, column 1
+	 * @param _m12 element at row 1, column 2
+	 * @param _m13 element at row 1, column 3
+	 * @param _m20 element at row 2, column 0
+	 * @param _m21 element at row 2, column 1
+	 * @param _m22 element at row 2, column 2
+	 * @param _m23 element at row 2, column 3
+	 * @param _m30 element at row 3, column 0
+	 * @param _m31 element at row 3, column 1
+	 * @param _m32 element at row 3, column 2
+	 * @param _m33 element at row 3, column 3
+	 */
+	public Matrix4(final double _m00, final double _m01, final double _m02, final double _m03,
+			final double _m10, final double _m11, final double _m12, final double _m13,
+			final double _m20, final double _m21, final double _m22, final double _m23,
+			final double _m30, final double _m31, final double _m32, final double _m33) {
+		m00 = _m00;
+		m01 = _m01;
+		m02 = _m02;
+		m03 = _m03;
+		m10 = _m10;
+		m11 = _m11;
+		m12 = _m12;
+		m13 = _m13;
+		m20 = _m20;
+		m21 = _m21;
+		m22 = _m22;
+		m23 = _m23;
+		m30 = _m30;
+		m31 = _m31;
+		m32 = _m32;
+		m33 = _m33;
+	}
+	
+	/**
+	 * Copies a 4x4 {@link Matrix} into a Matrix4.
+	 * 
+	 * @param matrix 4x4 Matrix
+	 * @return a Matrix4 with the elements of <code>matrix</code>
+	 * @throws DimensionMismatchException if <code>matrix</code> is not 4x4
+	 */
+	public static Matrix4 of(final Matrix matrix) {
+		if (matrix.rows != 4 || matrix.cols != 4) {
+			throw new DimensionMismatchException("Only a 4x4 Matrix can be converted to a Matrix4!");
+		}
+		
+		return new Matrix4(matrix.get(0, 0), matrix.get(0, 1), matrix.get(0, 2), matrix.get(0, 3),
+				matrix.get(1, 0), matrix.get(1, 1), matrix.get(1, 2), matrix.get(1, 3),
+				matrix.get(2, 0), matrix.get(2, 1), matrix.get(2, 2), matrix.get(2, 3),
+				matrix.get(3, 0), matrix.get(3, 1), matrix.get(3, 2), matrix.get(3, 3));
+	}
+	
+	/**
+	 * Copies this Matrix4 into a general {@link Matrix}.
+	 * 
+	 * @return a 4x4 Matrix with the elements of this Matrix4
+	 */
+	public final Matrix toMatrix() {
+		return new Matrix(4, 4, m00, m01, m02, m03,
+				m10, m11, m12, m13,
+				m20, m21, m22, m23,
+				m30, m31, m32, m33);
+	}
+	
+	/**
+	 * Multiplies this Matrix4 by another.
+	 * 
+	 * @param other right-hand Matrix4
+	 * @return <code>this * other</code>
+	 */
+	public final Matrix4 multiply(final Matrix4 other) {
+		return new Matrix4(
+				m00 * other.m00 + m01 * other.m10 + m02 * other.m20 + m03 * other.m30,
+				m00 * other.m01 + m01 * other.m11 + m02 * other.m21 + m03 * other.m31,
+				m00 * other.m02 + m01 * other.m12 + m02 * other.m22 + m03 * other.m32,
+				m00 * other.m03 + m01 * other.m13 + m02 * other.m23 + m03 * other.m33,
+				m10 * other.m00 + m11 * other.m10 + m12 * other.m20 + m13 * other.m30,
+				m10 * other.m01 + m11 * other.m11 + m12 * other.m21 + m13 * other.m31,
+				m10 * other.m02 + m11 * other.m12 + m12 * other.m22 + m13 * other.m32,
+				m10 * other.m03 + m11 * other.m13 + m12 * other.m23 + m13 * other.m33,
+				m20 * other.m00 + m21 * other.m10 + m22 * other.m20 + m23 * other.m30,
+				m20 * other.m01 + m21 * other.m11 + m22 * other.m21 + m23 * other.m31,
+				m20 * other.m02 + m21 * other.m12 + m22 * other.m22 + m23 * other.m32,
+				m20 * other.m03 + m21 * other.m13 + m22 * other.m23 + m23 * other.m33,
+				m30 * other.m00 + m31 * other.m10 + m32 * other.m20 + m33 * other.m30,
+				m30 * other.m01 + m31 * other.m11 + m32 * other.m21 + m33 * other.m31,
+				m30 * other.m02 + m31 * other.m12 + m32 * other.m22 + m33 * other.m32,
+				m30 * other.m03 + m31 * other.m13 + m32 * other.m23 + m33 * other.m33);
+	}
+	
+	/**
+	 * Returns the transpose of this Matrix4.
+	 * 
+	 * @return the transpose of this Matrix4
+	 */
+	public final Matrix4 transpose() {
+		return new Matrix4(m00, m10, m20, m30,
+				m01, m11, m21, m31,
+				m02, m12, m22, m32,
+				m03, m13, m23, m33);
+	}
+	
+	/**
+	 * Calculates the determinant of this Matrix4.
+	 * 
+	 * @return the determinant
+	 */
+	public final double determinant() {
+		return (m00 * m11 - m10 * m01) * (m22 * m33 - m32 * m23) - (m00 * m12 - m10 * m02) * (m21 * m33 - m31 * m23)
+				+ (m00 * m13 - m10 * m03) * (m21 * m32 - m31 * m22) + (m01 * m12 - m11 * m02) * (m20 * m33 - m30 * m23)
+				- (m01 * m13 - m11 * m03) * (m20 * m32 - m30 * m22) + (m02 * m13 - m12 * m03) * (m20 * m31 - m30 * m21);
+	}
+	
+	/**
+	 * Calculates the inverse of this Matrix4 from its adjugate, using the 2x2 minors of the top and bottom pairs of rows.
+	 * 
+	 * @return the inverse of this Matrix4
+	 * @throws SingularMatrixException if the determinant of this Matrix4 is 0
+	 */
+	public final Matrix4 inverse() {
+		final double s0 = m00 * m11 - m10 * m01;
+		final double s1 = m00 * m12 - m10 * m02;
+		final double s2 = m00 * m13 - m10 * m03;
+		final double s3 = m01 * m12 - m11 * m02;
+		final double s4 = m01 * m13 - m11 * m03;
+		final double s5 = m02 * m13 - m12 * m03;
+		final double c0 = m20 * m31 - m30 * m21;
+		final double c1 = m20 * m32 - m30 * m22;
+		final double c2 = m20 * m33 - m30 * m23;
+		final double c3 = m21 * m32 - m31 * m22;
+		final double c4 = m21 * m33 - m31 * m23;
+		final double c5 = m22 * m33 - m32 * m23;
+		final double determinant = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+		
+		if (determinant == 0) {
+			throw new SingularMatrixException("Matrix4 is singular!");
+		}
+		
+		final double scale = 1 / determinant;
+		
+		return new Matrix4((m11 * c5 - m12 * c4 + m13 * c3) * scale, (-m01 * c5 + m02 * c4 - m03 * c3) * scale,
+					(m31 * s5 - m32 * s4 + m33 * s3) * scale, (-m21 * s5 + m22 * s4 - m23 * s3) * scale,
+				(-m10 * c5 + m12 * c2 - m13 * c1) * scale, (m00 * c5 - m02 * c2 + m03 * c1) * scale,
+					(-m30 * s5 + m32 * s2 - m33 * s1) * scale, (m20 * s5 - m22 * s2 + m23 * s1) * scale,
+				(m10 * c4 - m11 * c2 + m13 * c0) * scale, (-m00 * c4 + m01 * c2 - m03 * c0) * scale,
+					(m30 * s4 - m31 * s2 + m33 * s0) * scale, (-m20 * s4 + m21 * s2 - m23 * s0) * scale,
+				(-m10 * c3 + m11 * c1 - m12 * c0) * scale, (m00 * c3 - m01 * c1 + m02 * c0) * scale,
+					(-m30 * s3 + m31 * s1 - m32 * s0) * scale, (m20 * s3 - m21 * s1 + m22 * s0) * scale);
+	}
+	
+	/**
+	 * Multiplies this Matrix4 by a column Vector.
+	 * 
+	 * @param vector column vector with 4 components
+	 * @return <code>this * vector</code>
+	 * @throws DimensionMismatchException if <code>vector</code> does not have 4 components
+	 */
+	public final Vector multiply(final Vector vector) {
+		if (vector.dimension != 4) {
+			throw new DimensionMismatchException("Vector must have 4 components to be multiplied by a Matrix4!");
+		}
+		
+		final double v0 = vector.get(0);
+		final double v1 = vector.get(1);
+		final double v2 = vector.get(2);
+		final double v3 = vector.get(3);
+		
+		return new Vector(m00 * v0 + m01 * v1 + m02 * v2 + m03 * v3,
+				m10 * v0 + m11 * v1 + m12 * v2 + m13 * v3,
+				m20 * v0 + m21 * v1 + m22 * v2 + m23 * v3,
+				m30 * v0 + m31 * v1 + m32 * v2 + m33 * v3);
+	}
+	
+	/**
+	 * Transforms each of a range of points, stored as separate coordinate arrays, by this Matrix4 in place. Each point
+	 * <code>(x[i], y[i], z[i])</code> is treated as <code>(x, y, z, 1)</code> in homogeneous coordinates and the result is
+	 * divided by its <code>w</code> component; the division is skipped when the bottom row is <code>(0, 0, 0, 1)</code>.
+	 * 
+	 * @param x x coordinates
+	 * @param y y coordinates
+	 * @param z z coordinates
+	 * @param offset index of the first point
+	 * @param count number of points
+	 * @see #transformPoints(double[], double[], double[], int, int, Execution)
+	 */
+	public final void transformPoints(final double[] x, final double[] y, final double[] z, final int offset, final int count) {
+		transformPoints(x, y, z, offset, count, Execution.AUTOMATIC);
+	}
+	
+	/**
+	 * Transforms each of a range of points in place. In parallel, each task handles a range of points.
+	 * 
+	 * @param x x coordinates
+	 * @param y y coordinates
+	 * @param z z coordinates
+	 * @param offset index of the first point
+	 * @param count number of points
+	 * @param execution how to run the transformation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_THRESHOLD} points
+	 * @throws IndexOutOfBoundsException if <code>[offset, offset + count)</code> is not within every coordinate array
+	 */
+	public final void transformPoints(final double[] x, final double[] y, final double[] z, final int offset, final int count, final Execution execution) {
+		Objects.checkFromIndexSize(offset, count, x.length);
+		Objects.checkFromIndexSize(offset, count, y.length);
+		Objects.checkFromIndexSize(offset, count, z.length);
+		
+		MatrixKernels.forEachRange(count, MatrixKernels.ELEMENT_BLOCK, execution.isParallel(count, PARALLEL_THRESHOLD), (start, end) -> {
+			if (m30 == 0 && m31 == 0 && m32 == 0 && m33 == 1) {
+				for (int i = offset + start; i < offset + end; i++) {
+					final double x0 = x[i];
+					final double y0 = y[i];
+					final double z0 = z[i];
+					
+					x[i] = m00 * x0 + m01 * y0 + m02 * z0 + m03;
+					y[i] = m10 * x0 + m11 * y0 + m12 * z0 + m13;
+					z[i] = m20 * x0 + m21 * y0 + m22 * z0 + m23;
+				}
+			} else {
+				for (int i = offset + start; i < offset + end; i++) {
+					final double x0 = x[i];
+					final double y0 = y[i];
+					final double z0 = z[i];
+					final double w = 1 / (m30 * x0 + m31 * y0 + m32 * z0 + m33);
+					
+					x[i] = (m00 * x0 + m01 * y0 + m02 * z0 + m03) * w;
+					y[i] = (m10 * x0 + m11 * y0 + m12 * z0 + m13) * w;
+					z[i] = (m20 * x0 + m21 * y0 + m22 * z0 + m23) * w;
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Transforms each of a range of directions, stored as separate coordinate arrays, by this Matrix4 in place. Each
+	 * direction <code>(x[i], y[i], z[i])</code> is treated as <code>(x, y, z, 0)</code> in homogeneous coordinates, so it is
+	 * affected by the upper-left 3x3 block of this Matrix4 and not by translation.
+	 * 
+	 * @param x x coordinates
+	 * @param y y coordinates
+	 * @param z z coordinates
+	 * @param offset index of the first point
+	 * @param count number of points
+	 * @see #transformDirections(double[], double[], double[], int, int, Execution)
+	 */
+	public final void transformDirections(final double[] x, final double[] y, final double[] z, final int offset, final int count) {
+		transformDirections(x, y, z, offset, count, Execution.AUTOMATIC);
+	}
+	
+	/**
+	 * Transforms each of a range of directions in place. In parallel, each task handles a range of directions.
+	 * 
+	 * @param x x coordinates
+	 * @param y y coordinates
+	 * @param z z coordinates
+	 * @param offset index of the first point
+	 * @param count number of points
+	 * @param execution how to run the transformation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_THRESHOLD} points
+	 * @throws IndexOutOfBoundsException if <code>[offset, offset + count)</code> is not within every coordinate array
+	 */
+	public final void transformDirections(final double[] x, final double[] y, final double[] z, final int offset, final int count, final Execution execution) {
+		Objects.checkFromIndexSize(offset, count, x.length);
+		Objects.checkFromIndexSize(offset, count, y.length);
+		Objects.checkFromIndexSize(offset, count, z.length);
+		
+		MatrixKernels.forEachRange(count, MatrixKernels.ELEMENT_BLOCK, execution.isParallel(count, PARALLEL_THRESHOLD), (start, end) -> {
+			for (int i = offset + start; i < offset + end; i++) {
+				final double x0 = x[i];
+				final double y0 = y[i];
+				final double z0 = z[i];
+				
+				x[i] = m00 * x0 + m01 * y0 + m02 * z0;
+				y[i] = m10 * x0 + m11 * y0 + m12 * z0;
+				z[i] = m20 * x0 + m21 * y0 + m22 * z0;
+			}
+		});
+	}
+	
+	/**
+	 * Outputs this Matrix4 in the same format as {@link Matrix#toString()}.
+	 * 
+	 * @return a String where each row is on its own line, rows are delimited by square brackets, and elements are delimited by spaces
+	 */
+	@Override
+	public String toString() {
+		return toMatrix().toString();
+	}
+}
@@ -0,0 +1,224 @@
+package com.dezzy.postfix.math.vector;
+
+import java.util.stream.IntStream;
+
+/**
+ * Low-level loops over row-major <code>double[]</code> storage, shared by {@link Matrix} and {@link Vector} operations. Every
+ * matrix argument is given as an array, the index of its first element, and its stride (the distance between the starts of
+ * consecutive rows). None of these methods allocate.
+ *
+ * @author Joe Desmond
+ */
+final class MatrixKernels {
+
+	/**
+	 * Number of rows of <code>A</code> and <code>C</code> in one block; a block of <code>A</code> stays in the L2 cache
+	 */
+	static final int ROW_BLOCK = 64;
+
+	/**
+	 * Number of columns of <code>A</code> (and rows of <code>B</code>) in one block
+	 */
+	static final int DEPTH_BLOCK = 256;
+
+	/**
+	 * Number of columns of <code>B</code> and <code>C</code> in one block
+	 */
+	static final int COL_BLOCK = 1024;
+
+	/**
+	 * Number of elements handled by one task of a parallel element-wise operation
+	 */
+	static final int ELEMENT_BLOCK = 4096;
+
+	/**
+	 * No instances.
+	 */
+	private MatrixKernels() {
+
+	}
+
+	/**
+	 * Adds the product of two matrices to a third: <code>C += A * B</code>, where <code>A</code> is <code>m x k</code>,
+	 * <code>B</code> is <code>k x n</code>, and <code>C</code> is <code>m x n</code>. The loops are blocked so that the parts
+	 * of <code>A</code>, <code>B</code>, and <code>C</code> in use stay in cache. Within a block, each row of <code>C</code> is
+	 * updated with four rows of <code>B</code> at a time, keeping the four elements of <code>A</code> in registers; the
+	 * innermost loop runs along contiguous rows of <code>B</code> and <code>C</code> so that it can be vectorized.
+	 * <p>
+	 * <code>C</code> must not overlap <code>A</code> or <code>B</code>.
+	 *
+	 * @param m rows of <code>A</code> and <code>C</code>
+	 * @param n columns of <code>B</code> and <code>C</code>
+	 * @param k columns of <code>A</code> and rows of <code>B</code>
+	 * @param a elements of <code>A</code>
+	 * @param aOffset index of <code>A[0][0]</code>
+	 * @param aStride row stride of <code>A</code>
+	 * @param b elements of <code>B</code>
+	 * @param bOffset index of <code>B[0][0]</code>
+	 * @param bStride row stride of <code>B</code>
+	 * @param c elements of <code>C</code>
+	 * @param cOffset index of <code>C[0][0]</code>
+	 * @param cStride row stride of <code>C</code>
+	 */
+	static void multiplyAdd(final int m, final int n, final int k, final double[] a, final int aOffset, final int aStride,
+			final double[] b, final int bOffset, final int bStride, final double[] c, final int cOffset, final int cStride) {
+		multiplyAdd(0, m, n, k, a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride);
+	}
+
+	/**
+	 * Adds the product of a range of rows of <code>A</code> and all of <code>B</code> to the same rows of <code>C</code>.
+	 *
+	 * @param rowStart first row of <code>A</code> and <code>C</code> (inclusive)
+	 * @param rowEnd last row of <code>A</code> and <code>C</code> (exclusive)
+	 * @param n columns of <code>B</code> and <code>C</code>
+	 * @param k columns of <code>A</code> and rows of <code>B</code>
+	 * @param a elements of <code>A</code>
+	 * @param aOffset index of <code>A[0][0]</code>
+	 * @param aStride row stride of <code>A</code>
+	 * @param b elements of <code>B</code>
+	 * @param bOffset index of <code>B[0][0]</code>
+	 * @param bStride row stride of <code>B</code>
+	 * @param c elements of <code>C</code>
+	 * @param cOffset index of <code>C[0][0]</code>
+	 * @param cStride row stride of <code>C</code>
+	 * @see #multiplyAdd(int, int, int, double[], int, int, double[], int, int, double[], int, int)
+	 */
+	static void multiplyAdd(final int rowStart, final int rowEnd, final int n, final int k, final double[] a, final int aOffset, final int aStride,
+			final double[] b, final int bOffset, final int bStride, final double[] c, final int cOffset, final int cStride) {
+		for (int colBlock = 0; colBlock < n; colBlock += COL_BLOCK) {
+			final int colEnd = Math.min(colBlock + COL_BLOCK, n);
+
+			for (int depthBlock = 0; depthBlock < k; depthBlock += DEPTH_BLOCK) {
+				final int depthEnd = Math.min(depthBlock + DEPTH_BLOCK, k);
+
+				for (int rowBlock = rowStart; rowBlock < rowEnd; rowBlock += ROW_BLOCK) {
+					final int blockEnd = Math.min(rowBlock + ROW_BLOCK, rowEnd);
+
+					for (int i = rowBlock; i < blockEnd; i++) {
+						final int aRow = aOffset + i * aStride;
+						final int cRow = cOffset + i * cStride;
+						int p = depthBlock;
+
+						for (; p + 3 < depthEnd; p += 4) {
+							final double a0 = a[aRow + p];
+							final double a1 = a[aRow + p + 1];
+							final double a2 = a[aRow + p + 2];
+							final double a3 = a[aRow + p + 3];
+							final int b0 = bOffset + p * bStride;
+							final int b1 = b0 + bStride;
+							final int b2 = b1 + bStride;
+							final int b3 = b2 + bStride;
+
+							for (int j = colBlock; j < colEnd; j++) {
+								c[cRow + j] += a0 * b[b0 + j] + a1 * b[b1 + j] + a2 * b[b2 + j] + a3 * b[b3 + j];
+							}
+						}
+
+						for (; p < depthEnd; p++) {
+							final double a0 = a[aRow + p];
+							final int b0 = bOffset + p * bStride;
+
+							for (int j = colBlock; j < colEnd; j++) {
+								c[cRow + j] += a0 * b[b0 + j];
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Multiplies a matrix by a vector: <code>y = A * x</code>, where <code>A</code> is <code>m x n</code>. <code>y</code> must
+	 * not overlap <code>x</code>.
+	 *
+	 * @param m rows of <code>A</code> and components of <code>y</code>
+	 * @param n columns of <code>A</code> and components of <code>x</code>
+	 * @param a elements of <code>A</code>
+	 * @param aOffset index of <code>A[0][0]</code>
+	 * @param aStride row stride of <code>A</code>
+	 * @param x components of <code>x</code>
+	 * @param xOffset index of <code>x[0]</code>
+	 * @param xStride distance between consecutive components of <code>x</code>
+	 * @param y components of <code>y</code>, starting at index 0
+	 */
+	static void multiplyVector(final int m, final int n, final double[] a, final int aOffset, final int aStride, final double[] x,
+			final int xOffset, final int xStride, final double[] y) {
+		for (int row = 0; row < m; row++) {
+			final int rowStart = aOffset + row * aStride;
+			double sum = 0;
+
+			for (int col = 0; col < n; col++) {
+				sum += a[rowStart + col] * x[xOffset + col * xStride];
+			}
+
+			y[row] = sum;
+		}
+	}
+
+	/**
+	 * Splits <code>[0, count)</code> into consecutive ranges of <code>rangeSize</code> (the last may be shorter) and runs a
+	 * task on each, either on the calling thread or in parallel on the common {@link java.util.concurrent.ForkJoinPool}.
+	 * Returns when every range is done.
+	 *
+	 * @param count number of indices
+	 * @param rangeSize number of indices per range
+	 * @param parallel true to run the ranges in parallel
+	 * @param task task to run on each range
+	 */
+	static void forEachRange(final int count, final int rangeSize, final boolean parallel, final RangeTask task) {
+		final int ranges = (count + rangeSize - 1) / rangeSize;
+
+		if (parallel && ranges > 1) {
+			IntStream.range(0, ranges).parallel().forEach(range -> task.run(range * rangeSize, Math.min(count, (range + 1) * rangeSize)));
+		} else if (count > 0) {
+			task.run(0, count);
+		}
+	}
+
+	/**
+	 * Scales an array in place by a power of two so that its largest magnitude is between 1 and 2, which keeps squares and
+	 * products of its elements from overflowing or underflowing. Scaling by a power of two is exact, except for elements that
+	 * become subnormal, and those are negligible next to the largest element.
+	 *
+	 * @param array elements to scale
+	 * @return exponent that undoes the scaling with {@link Math#scalb(double, int)}; 0 if every element is zero
+	 * @throws ArithmeticException if some element is not finite
+	 */
+	static int normalize(final double[] array) {
+		double largest = 0;
+
+		for (final double value : array) {
+			largest = Math.max(largest, Math.abs(value));
+		}
+
+		if (!Double.isFinite(largest)) {
+			throw new ArithmeticException("Matrix has elements that are not finite!");
+		} else if (largest == 0) {
+			return 0;
+		}
+
+		final int exponent = Math.getExponent(largest);
+
+		for (int i = 0; i < array.length; i++) {
+			array[i] = Math.scalb(array[i], -exponent);
+		}
+
+		return exponent;
+	}
+
+	/**
+	 * A task that processes a range of indices, such as a block of rows.
+	 */
+	@FunctionalInterface
+	interface RangeTask {
+
+		/**
+		 * Processes a range of indices.
+		 *
+		 * @param start first index (inclusive)
+		 * @param end last index (exclusive)
+		 */
+		void run(final int start, final int end);
+	}
+}
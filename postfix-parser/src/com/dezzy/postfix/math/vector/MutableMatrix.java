@@ -0,0 +1,339 @@
+package com.dezzy.postfix.math.vector;
+
+import java.util.Arrays;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.DoubleApplier;
+
+/**
+ * A mutable counterpart of {@link Matrix}, for iterative algorithms that would otherwise allocate a new Matrix every step.
+ * Operations ending in <code>InPlace</code>, and {@link #axpy(double, Matrix) axpy}, change this MutableMatrix and return
+ * it; <code>mulInto</code> stores a product in a target without allocating.
+ * <p>
+ * Converting between Matrix and MutableMatrix is cheap. {@link #freeze()} returns a Matrix that shares this MutableMatrix's
+ * array, and {@link Matrix#toMutable()} returns a MutableMatrix that shares the Matrix's array when it can. Either way, the
+ * array is marked as shared and is copied the next time this MutableMatrix changes, so the Matrix stays immutable.
+ * <p>
+ * A MutableMatrix is not thread-safe.
+ *
+ * @author Joe Desmond
+ */
+public final class MutableMatrix {
+	
+	/**
+	 * The elements of this MutableMatrix in row-major order, with no gaps between rows
+	 */
+	private double[] data;
+	
+	/**
+	 * True if {@link #data} may be shared with a {@link Matrix} and must be copied before it changes
+	 */
+	private boolean shared;
+	
+	/**
+	 * Number of rows in the matrix
+	 */
+	public final int rows;
+	
+	/**
+	 * Number of columns in the matrix
+	 */
+	public final int cols;
+	
+	/**
+	 * Creates a MutableMatrix with every element equal to zero.
+	 * 
+	 * @param _rows number of rows
+	 * @param _cols number of columns
+	 */
+	public MutableMatrix(final int _rows, final int _cols) {
+		rows = _rows;
+		cols = _cols;
+		data = new double[rows * cols];
+		shared = false;
+	}
+	
+	/**
+	 * Creates a MutableMatrix with the same elements as a Matrix. The Matrix's array is shared until this MutableMatrix
+	 * changes if the Matrix is not a view of part of a larger array; otherwise the elements are copied.
+	 * 
+	 * @param matrix Matrix to copy
+	 */
+	public MutableMatrix(final Matrix matrix) {
+		rows = matrix.rows;
+		cols = matrix.cols;
+		
+		if (matrix.offset == 0 && matrix.stride == cols && matrix.data.length == rows * cols) {
+			data = matrix.data;
+			shared = true;
+		} else {
+			data = matrix.toArray();
+			shared = false;
+		}
+	}
+	
+	/**
+	 * Returns the element at the given row and column.
+	 * 
+	 * @param row must be greater than or equal to 0 and less than {@link #rows}
+	 * @param col must be greater than or equal to 0 and less than {@link #cols}
+	 * @return the element at the given row and column
+	 */
+	public final double get(final int row, final int col) {
+		return data[row * cols + col];
+	}
+	
+	/**
+	 * Sets the element at the given row and column.
+	 * 
+	 * @param row must be greater than or equal to 0 and less than {@link #rows}
+	 * @param col must be greater than or equal to 0 and less than {@link #cols}
+	 * @param value new value of the element
+	 * @return this MutableMatrix
+	 */
+	public final MutableMatrix set(final int row, final int col, final double value) {
+		writableData()[row * cols + col] = value;
+		return this;
+	}
+	
+	/**
+	 * Sets every element to the same value.
+	 * 
+	 * @param value new value of every element
+	 * @return this MutableMatrix
+	 */
+	public final MutableMatrix fill(final double value) {
+		if (shared) {
+			data = new double[rows * cols];
+			shared = false;
+		}
+		
+		Arrays.fill(data, value);
+		return this;
+	}
+	
+	/**
+	 * Sets the elements of this MutableMatrix to those of a Matrix.
+	 * 
+	 * @param other Matrix to copy
+	 * @return this MutableMatrix
+	 * @throws DimensionMismatchException if the matrices do not have the same dimensions
+	 */
+	public final MutableMatrix setTo(final Matrix other) {
+		checkDimensions(other.rows, other.cols);
+		
+		if (shared) {
+			data = new double[rows * cols];
+			shared = false;
+		}
+		
+		for (int row = 0; row < rows; row++) {
+			System.arraycopy(other.data, other.offset + row * other.stride, data, row * cols, cols);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Adds a Matrix to this MutableMatrix, element-wise.
+	 * 
+	 * @param other Matrix to add
+	 * @return this MutableMatrix
+	 * @throws DimensionMismatchException if the matrices do not have the same dimensions
+	 */
+	public final MutableMatrix addInPlace(final Matrix other) {
+		return axpy(1, other);
+	}
+	
+	/**
+	 * Adds another MutableMatrix to this one, element-wise.
+	 * 
+	 * @param other MutableMatrix to add
+	 * @return this MutableMatrix
+	 * @throws DimensionMismatchException if the matrices do not have the same dimensions
+	 */
+	public final MutableMatrix addInPlace(final MutableMatrix other) {
+		return axpy(1, other);
+	}
+	
+	/**
+	 * Multiplies every element of this MutableMatrix by a scalar.
+	 * 
+	 * @param scalar factor
+	 * @return this MutableMatrix
+	 */
+	public final MutableMatrix scaleInPlace(final double scalar) {
+		final double[] target = writableData();
+		
+		for (int i = 0; i < target.length; i++) {
+			target[i] *= scalar;
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Adds a multiple of a Matrix to this MutableMatrix: <code>this += a * x</code>.
+	 * 
+	 * @param a factor
+	 * @param x Matrix to add
+	 * @return this MutableMatrix
+	 * @throws DimensionMismatchException if the matrices do not have the same dimensions
+	 */
+	public final MutableMatrix axpy(final double a, final Matrix x) {
+		checkDimensions(x.rows, x.cols);
+		
+		final double[] target = writableData();
+		
+		for (int row = 0; row < rows; row++) {
+			final int targetRow = row * cols;
+			final int sourceRow = x.offset + row * x.stride;
+			
+			for (int col = 0; col < cols; col++) {
+				target[targetRow + col] += a * x.data[sourceRow + col];
+			}
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Adds a multiple of another MutableMatrix to this one: <code>this += a * x</code>.
+	 * 
+	 * @param a factor
+	 * @param x MutableMatrix to add
+	 * @return this MutableMatrix
+	 * @throws DimensionMismatchException if the matrices do not have the same dimensions
+	 */
+	public final MutableMatrix axpy(final double a, final MutableMatrix x) {
+		checkDimensions(x.rows, x.cols);
+		
+		final double[] target = writableData();
+		final double[] source = x.data;
+		
+		for (int i = 0; i < target.length; i++) {
+			target[i] += a * source[i];
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Applies an operation to each element of this MutableMatrix.
+	 * 
+	 * @param operator operation to be performed on each element
+	 * @return this MutableMatrix
+	 */
+	public final MutableMatrix transformInPlace(final DoubleApplier operator) {
+		final double[] target = writableData();
+		
+		for (int i = 0; i < target.length; i++) {
+			target[i] = operator.apply(target[i]);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Multiplies this MutableMatrix with a Matrix and stores the product in another MutableMatrix, without allocating.
+	 * 
+	 * @param other other matrix to be multiplied
+	 * @param target MutableMatrix to hold <code>this * other</code>, which cannot be this MutableMatrix
+	 * @return <code>target</code>
+	 * @throws DimensionMismatchException if the number of columns of this MutableMatrix is not the number of rows of
+	 * 			<code>other</code>, or <code>target</code> does not have the dimensions of the product
+	 * @throws IllegalArgumentException if <code>target</code> is this MutableMatrix
+	 */
+	public final MutableMatrix mulInto(final Matrix other, final MutableMatrix target) {
+		if (cols != other.rows) {
+			throw new DimensionMismatchException("The first matrix must have as many columns as the second has rows!");
+		}
+		
+		if (target.rows != rows || target.cols != other.cols) {
+			throw new DimensionMismatchException("Target must have as many rows as the first matrix and as many columns as the second!");
+		}
+		
+		if (target == this) {
+			throw new IllegalArgumentException("Target cannot be the matrix being multiplied!");
+		}
+		
+		final double[] result = target.writableData();
+		Arrays.fill(result, 0);
+		MatrixKernels.multiplyAdd(rows, other.cols, cols, data, 0, cols, other.data, other.offset, other.stride, result, 0, other.cols);
+		
+		return target;
+	}
+	
+	/**
+	 * Multiplies this MutableMatrix by a column MutableVector and stores the product in another MutableVector, without
+	 * allocating.
+	 * 
+	 * @param vector column vector
+	 * @param target MutableVector to hold <code>this * vector</code>, which cannot be <code>vector</code>
+	 * @return <code>target</code>
+	 * @throws DimensionMismatchException if <code>vector</code> does not have {@link #cols} components or <code>target</code>
+	 * 			does not have {@link #rows} components
+	 * @throws IllegalArgumentException if <code>target</code> is <code>vector</code>
+	 */
+	public final MutableVector mulInto(final MutableVector vector, final MutableVector target) {
+		if (vector.dimension != cols || target.dimension != rows) {
+			throw new DimensionMismatchException("Vector must have as many components as the matrix has columns, and target as many as it has rows!");
+		}
+		
+		if (vector == target) {
+			throw new IllegalArgumentException("Target cannot be the vector being multiplied!");
+		}
+		
+		final double[] result = target.writableComponents();
+		MatrixKernels.multiplyVector(rows, cols, data, 0, cols, vector.readableComponents(), 0, 1, result);
+		
+		return target;
+	}
+	
+	/**
+	 * Returns an immutable Matrix with the current elements of this MutableMatrix. Nothing is copied now; the elements are
+	 * copied the next time this MutableMatrix changes.
+	 * 
+	 * @return a Matrix with the elements of this MutableMatrix
+	 */
+	public final Matrix freeze() {
+		shared = true;
+		return new Matrix(rows, cols, data);
+	}
+	
+	/**
+	 * Returns the array of elements, copying it first if it is shared.
+	 * 
+	 * @return an array of elements that can be changed
+	 */
+	final double[] writableData() {
+		if (shared) {
+			data = data.clone();
+			shared = false;
+		}
+		
+		return data;
+	}
+	
+	/**
+	 * Throws a {@link DimensionMismatchException} if the given dimensions are not those of this MutableMatrix.
+	 * 
+	 * @param otherRows rows in the other matrix
+	 * @param otherCols columns in the other matrix
+	 */
+	private void checkDimensions(final int otherRows, final int otherCols) {
+		if (rows != otherRows || cols != otherCols) {
+			throw new DimensionMismatchException("Matrices must have the same dimensions to perform element operations!");
+		}
+	}
+	
+	/**
+	 * Outputs this MutableMatrix into an easily readable format, the same as {@link Matrix#toString()}.
+	 * 
+	 * @return a String where each row is on its own line, rows are delimited by square brackets, and elements are delimited by spaces
+	 */
+	@Override
+	public String toString() {
+		return new Matrix(rows, cols, data).toString();
+	}
+}
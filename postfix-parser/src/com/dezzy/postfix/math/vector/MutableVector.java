@@ -0,0 +1,319 @@
+package com.dezzy.postfix.math.vector;
+
+import java.util.Arrays;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.DoubleApplier;
+
+/**
+ * A mutable counterpart of {@link Vector}, for iterative algorithms that would otherwise allocate a new Vector every step.
+ * Operations ending in <code>InPlace</code>, and {@link #axpy(double, Vector) axpy}, change this MutableVector and return it.
+ * <p>
+ * Converting between Vector and MutableVector is cheap. {@link #freeze()} returns a Vector that shares this MutableVector's
+ * array, and {@link Vector#toMutable()} returns a MutableVector that shares the Vector's array when it can. Either way, the
+ * array is marked as shared and is copied the next time this MutableVector changes, so the Vector stays immutable.
+ * <p>
+ * A MutableVector is not thread-safe.
+ *
+ * @author Joe Desmond
+ */
+public final class MutableVector {
+	
+	/**
+	 * The components of this MutableVector
+	 */
+	private double[] components;
+	
+	/**
+	 * True if {@link #components} may be shared with a {@link Vector} and must be copied before it changes
+	 */
+	private boolean shared;
+	
+	/**
+	 * The number of components in this Vector
+	 */
+	public final int dimension;
+	
+	/**
+	 * Creates a MutableVector with every component equal to zero.
+	 * 
+	 * @param _dimension number of components
+	 */
+	public MutableVector(final int _dimension) {
+		dimension = _dimension;
+		components = new double[dimension];
+		shared = false;
+	}
+	
+	/**
+	 * Creates a MutableVector with the same components as a Vector. The Vector's array is shared until this MutableVector
+	 * changes if the Vector is not a view of part of a larger array; otherwise the components are copied.
+	 * 
+	 * @param vector Vector to copy
+	 */
+	public MutableVector(final Vector vector) {
+		dimension = vector.dimension;
+		
+		if (vector.offset == 0 && vector.stride == 1 && vector.components.length == dimension) {
+			components = vector.components;
+			shared = true;
+		} else {
+			components = new double[dimension];
+			vector.copyInto(components, 0);
+			shared = false;
+		}
+	}
+	
+	/**
+	 * Returns the value of the component at the given index.
+	 * 
+	 * @param index index of the component
+	 * @return value of the component
+	 */
+	public final double get(final int index) {
+		return components[index];
+	}
+	
+	/**
+	 * Sets the value of the component at the given index.
+	 * 
+	 * @param index index of the component
+	 * @param value new value of the component
+	 * @return this MutableVector
+	 */
+	public final MutableVector set(final int index, final double value) {
+		writableComponents()[index] = value;
+		return this;
+	}
+	
+	/**
+	 * Sets every component to the same value.
+	 * 
+	 * @param value new value of every component
+	 * @return this MutableVector
+	 */
+	public final MutableVector fill(final double value) {
+		if (shared) {
+			components = new double[dimension];
+			shared = false;
+		}
+		
+		Arrays.fill(components, value);
+		return this;
+	}
+	
+	/**
+	 * Sets the components of this MutableVector to those of a Vector.
+	 * 
+	 * @param other Vector to copy
+	 * @return this MutableVector
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	public final MutableVector setTo(final Vector other) {
+		checkDimension(other.dimension);
+		
+		if (shared) {
+			components = new double[dimension];
+			shared = false;
+		}
+		
+		other.copyInto(components, 0);
+		return this;
+	}
+	
+	/**
+	 * Adds a Vector to this MutableVector, element-wise.
+	 * 
+	 * @param other Vector to add
+	 * @return this MutableVector
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	public final MutableVector addInPlace(final Vector other) {
+		return axpy(1, other);
+	}
+	
+	/**
+	 * Adds another MutableVector to this one, element-wise.
+	 * 
+	 * @param other MutableVector to add
+	 * @return this MutableVector
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	public final MutableVector addInPlace(final MutableVector other) {
+		return axpy(1, other);
+	}
+	
+	/**
+	 * Multiplies every component of this MutableVector by a scalar.
+	 * 
+	 * @param scalar factor
+	 * @return this MutableVector
+	 */
+	public final MutableVector scaleInPlace(final double scalar) {
+		final double[] target = writableComponents();
+		
+		for (int i = 0; i < dimension; i++) {
+			target[i] *= scalar;
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Adds a multiple of a Vector to this MutableVector: <code>this += a * x</code>.
+	 * 
+	 * @param a factor
+	 * @param x Vector to add
+	 * @return this MutableVector
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	public final MutableVector axpy(final double a, final Vector x) {
+		checkDimension(x.dimension);
+		
+		final double[] target = writableComponents();
+		final double[] source = x.components;
+		
+		for (int i = 0; i < dimension; i++) {
+			target[i] += a * source[x.offset + i * x.stride];
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Adds a multiple of another MutableVector to this one: <code>this += a * x</code>.
+	 * 
+	 * @param a factor
+	 * @param x MutableVector to add
+	 * @return this MutableVector
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	public final MutableVector axpy(final double a, final MutableVector x) {
+		checkDimension(x.dimension);
+		
+		final double[] target = writableComponents();
+		final double[] source = x.components;
+		
+		for (int i = 0; i < dimension; i++) {
+			target[i] += a * source[i];
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Applies an operation to each component of this MutableVector.
+	 * 
+	 * @param operator operation to be performed on each component
+	 * @return this MutableVector
+	 */
+	public final MutableVector transformInPlace(final DoubleApplier operator) {
+		final double[] target = writableComponents();
+		
+		for (int i = 0; i < dimension; i++) {
+			target[i] = operator.apply(target[i]);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Calculates the inner (dot) product of this MutableVector and a Vector.
+	 * 
+	 * @param other other Vector
+	 * @return the dot product of this MutableVector and <code>other</code>
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	public final double innerProduct(final Vector other) {
+		checkDimension(other.dimension);
+		
+		double sum = 0;
+		for (int i = 0; i < dimension; i++) {
+			sum += components[i] * other.components[other.offset + i * other.stride];
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Calculates the inner (dot) product of this MutableVector and another.
+	 * 
+	 * @param other other MutableVector
+	 * @return the dot product of this MutableVector and <code>other</code>
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	public final double innerProduct(final MutableVector other) {
+		checkDimension(other.dimension);
+		
+		double sum = 0;
+		for (int i = 0; i < dimension; i++) {
+			sum += components[i] * other.components[i];
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Returns the current length of this MutableVector in space.
+	 * 
+	 * @return the length of this MutableVector
+	 */
+	public final double length() {
+		return Math.sqrt(innerProduct(this));
+	}
+	
+	/**
+	 * Returns an immutable Vector with the current components of this MutableVector. Nothing is copied now; the components
+	 * are copied the next time this MutableVector changes.
+	 * 
+	 * @return a Vector with the components of this MutableVector
+	 */
+	public final Vector freeze() {
+		shared = true;
+		return new Vector(components);
+	}
+	
+	/**
+	 * Returns the array of components, copying it first if it is shared.
+	 * 
+	 * @return an array of components that can be changed
+	 */
+	final double[] writableComponents() {
+		if (shared) {
+			components = components.clone();
+			shared = false;
+		}
+		
+		return components;
+	}
+	
+	/**
+	 * Returns the array of components for reading. It must not be changed.
+	 * 
+	 * @return the array of components
+	 */
+	final double[] readableComponents() {
+		return components;
+	}
+	
+	/**
+	 * Throws a {@link DimensionMismatchException} if <code>otherDimension</code> is not the dimension of this MutableVector.
+	 * 
+	 * @param otherDimension dimension of the other vector
+	 */
+	private void checkDimension(final int otherDimension) {
+		if (dimension != otherDimension) {
+			throw new DimensionMismatchException("Vectors must have same dimensions to perform element operations!");
+		}
+	}
+	
+	/**
+	 * Converts this MutableVector into an easily readable format.
+	 * 
+	 * @return every element of this MutableVector in a String, delimited by commas and surrounded by square brackets
+	 */
+	@Override
+	public String toString() {
+		return Arrays.toString(components);
+	}
+}
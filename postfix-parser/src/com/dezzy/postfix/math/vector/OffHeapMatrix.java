@@ -0,0 +1,320 @@
+package com.dezzy.postfix.math.vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.DoubleApplier;
+
+/**
+ * A matrix stored outside the Java heap in row-major order, for data such as design matrices that are too large for the
+ * heap. Its elements can be allocated in native memory or memory-mapped from a file of little-endian doubles, and it can have
+ * more than <code>Integer.MAX_VALUE</code> rows. Operations stream blocks of rows through the heap and reuse the kernels of
+ * {@link Matrix}.
+ * <p>
+ * Allocated native memory counts against the JVM's direct memory limit, which defaults to the maximum heap size; raise it
+ * with <code>-XX:MaxDirectMemorySize</code>, or map a file, which has no such limit.
+ * <p>
+ * An OffHeapMatrix must be {@link #close() closed} to release its memory (or unmap its file) deterministically; using it
+ * afterwards throws an {@link IllegalStateException}. It is not thread-safe, and must not be closed while another thread is
+ * using it.
+ *
+ * @author Joe Desmond
+ */
+public final class OffHeapMatrix implements Closeable {
+	
+	/**
+	 * The elements, in row-major order
+	 */
+	private final OffHeapStorage storage;
+	
+	/**
+	 * Number of rows in the matrix
+	 */
+	public final long rows;
+	
+	/**
+	 * Number of columns in the matrix
+	 */
+	public final int cols;
+	
+	/**
+	 * Number of rows streamed through the heap at once
+	 */
+	private final int blockRows;
+	
+	/**
+	 * Creates an OffHeapMatrix over existing storage.
+	 * 
+	 * @param _storage storage holding <code>_rows * _cols</code> elements
+	 * @param _rows number of rows
+	 * @param _cols number of columns
+	 */
+	private OffHeapMatrix(final OffHeapStorage _storage, final long _rows, final int _cols) {
+		storage = _storage;
+		rows = _rows;
+		cols = _cols;
+		blockRows = Math.max(1, OffHeapVector.BLOCK / Math.max(1, cols));
+	}
+	
+	/**
+	 * Allocates an OffHeapMatrix in native memory with every element equal to zero.
+	 * 
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @return a new OffHeapMatrix
+	 * @throws IllegalArgumentException if a dimension is negative
+	 */
+	public static OffHeapMatrix allocate(final long rows, final int cols) {
+		checkDimensions(rows, cols);
+		
+		return new OffHeapMatrix(OffHeapStorage.allocate(rows * cols), rows, cols);
+	}
+	
+	/**
+	 * Maps an OffHeapMatrix from a file of little-endian doubles in row-major order.
+	 * 
+	 * @param path file to map
+	 * @param byteOffset position in the file of the first element
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param writable true if changes to the matrix should be written to the file, which is created or extended as needed
+	 * @return an OffHeapMatrix backed by the file
+	 * @throws IOException if the file cannot be opened or mapped
+	 * @throws IllegalArgumentException if a dimension is negative
+	 */
+	public static OffHeapMatrix map(final Path path, final long byteOffset, final long rows, final int cols, final boolean writable) throws IOException {
+		checkDimensions(rows, cols);
+		
+		return new OffHeapMatrix(OffHeapStorage.map(path, byteOffset, rows * cols, writable), rows, cols);
+	}
+	
+	/**
+	 * Copies a Matrix into native memory.
+	 * 
+	 * @param matrix Matrix to copy
+	 * @return a new OffHeapMatrix with the elements of <code>matrix</code>
+	 */
+	public static OffHeapMatrix of(final Matrix matrix) {
+		final OffHeapMatrix result = allocate(matrix.rows, matrix.cols);
+		
+		for (int row = 0; row < matrix.rows; row++) {
+			result.storage.write((long) row * matrix.cols, matrix.data, matrix.offset + row * matrix.stride, matrix.cols);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Throws an {@link IllegalArgumentException} if a dimension is negative.
+	 * 
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 */
+	private static void checkDimensions(final long rows, final int cols) {
+		if (rows < 0 || cols < 0) {
+			throw new IllegalArgumentException("Matrix dimensions cannot be negative!");
+		}
+	}
+	
+	/**
+	 * Returns the element at the given row and column.
+	 * 
+	 * @param row must be greater than or equal to 0 and less than {@link #rows}
+	 * @param col must be greater than or equal to 0 and less than {@link #cols}
+	 * @return the element at the given row and column
+	 */
+	public final double get(final long row, final int col) {
+		return storage.get(row * cols + col);
+	}
+	
+	/**
+	 * Sets the element at the given row and column.
+	 * 
+	 * @param row must be greater than or equal to 0 and less than {@link #rows}
+	 * @param col must be greater than or equal to 0 and less than {@link #cols}
+	 * @param value new value of the element
+	 */
+	public final void set(final long row, final int col, final double value) {
+		storage.set(row * cols + col, value);
+	}
+	
+	/**
+	 * Copies a single row onto the heap.
+	 * 
+	 * @param row must be greater than or equal to 0 and less than {@link #rows}
+	 * @return the vector at the given row
+	 */
+	public final Vector getRowVector(final long row) {
+		final double[] result = new double[cols];
+		storage.read(row * cols, result, 0, cols);
+		
+		return new Vector(result);
+	}
+	
+	/**
+	 * Replaces a single row.
+	 * 
+	 * @param row must be greater than or equal to 0 and less than {@link #rows}
+	 * @param vector new row, with {@link #cols} components
+	 * @throws DimensionMismatchException if <code>vector</code> does not have {@link #cols} components
+	 */
+	public final void setRowVector(final long row, final Vector vector) {
+		if (vector.dimension != cols) {
+			throw new DimensionMismatchException("Row must have the same number of components as the matrix's number of columns!");
+		}
+		
+		final Vector compact = (vector.stride == 1) ? vector : vector.copy();
+		storage.write(row * cols, compact.components, compact.offset, cols);
+	}
+	
+	/**
+	 * Multiplies this matrix by a column Vector.
+	 * 
+	 * @param vector column vector
+	 * @return <code>this * vector</code>, as a new OffHeapVector in native memory, which must be closed
+	 * @throws DimensionMismatchException if <code>vector</code> does not have {@link #cols} components
+	 */
+	public final OffHeapVector multiply(final Vector vector) {
+		if (vector.dimension != cols) {
+			throw new DimensionMismatchException("Vector must have the same number of components as the matrix's number of columns!");
+		}
+		
+		final OffHeapVector result = OffHeapVector.allocate(rows);
+		final double[] block = new double[blockRows * cols];
+		final double[] products = new double[blockRows];
+		
+		for (long row = 0; row < rows; row += blockRows) {
+			final int count = (int) Math.min(blockRows, rows - row);
+			storage.read(row * cols, block, 0, count * cols);
+			MatrixKernels.multiplyVector(count, cols, block, 0, cols, vector.components, vector.offset, vector.stride, products);
+			result.storage.write(row, products, 0, count);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Multiplies the transpose of this matrix by a column vector, as in the normal equations or the gradient of a least
+	 * squares problem. Each block of rows is read once.
+	 * 
+	 * @param vector column vector with {@link #rows} components
+	 * @return <code>this<sup>T</sup> * vector</code>
+	 * @throws DimensionMismatchException if <code>vector</code> does not have {@link #rows} components
+	 */
+	public final Vector transposeMultiply(final OffHeapVector vector) {
+		if (vector.dimension != rows) {
+			throw new DimensionMismatchException("Vector must have the same number of components as the matrix's number of rows!");
+		}
+		
+		final double[] result = new double[cols];
+		final double[] block = new double[blockRows * cols];
+		final double[] weights = new double[blockRows];
+		
+		for (long row = 0; row < rows; row += blockRows) {
+			final int count = (int) Math.min(blockRows, rows - row);
+			storage.read(row * cols, block, 0, count * cols);
+			vector.storage.read(row, weights, 0, count);
+			
+			for (int i = 0; i < count; i++) {
+				final double weight = weights[i];
+				final int rowStart = i * cols;
+				
+				for (int col = 0; col < cols; col++) {
+					result[col] += weight * block[rowStart + col];
+				}
+			}
+		}
+		
+		return new Vector(result);
+	}
+	
+	/**
+	 * Multiplies this matrix with a Matrix.
+	 * 
+	 * @param other other matrix to be multiplied
+	 * @return the product of <code>this</code> and <code>other</code>, as a new OffHeapMatrix in native memory, which must be
+	 * 			closed
+	 * @throws DimensionMismatchException if the number of columns of this matrix is not the number of rows of <code>other</code>
+	 */
+	public final OffHeapMatrix multiply(final Matrix other) {
+		if (cols != other.rows) {
+			throw new DimensionMismatchException("The first matrix must have as many columns as the second has rows!");
+		}
+		
+		final OffHeapMatrix result = allocate(rows, other.cols);
+		//Both the rows read from this matrix and the rows of the product must fit in a block
+		final int productRows = Math.max(1, OffHeapVector.BLOCK / Math.max(1, Math.max(cols, other.cols)));
+		final double[] block = new double[productRows * cols];
+		final double[] products = new double[productRows * other.cols];
+		
+		for (long row = 0; row < rows; row += productRows) {
+			final int count = (int) Math.min(productRows, rows - row);
+			storage.read(row * cols, block, 0, count * cols);
+			Arrays.fill(products, 0);
+			MatrixKernels.multiplyAdd(count, other.cols, cols, block, 0, cols, other.data, other.offset, other.stride, products, 0, other.cols);
+			result.storage.write(row * other.cols, products, 0, count * other.cols);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Applies an operation to each element of this matrix, producing a new OffHeapMatrix in native memory.
+	 * 
+	 * @param operator operation to be applied to each element
+	 * @return a new OffHeapMatrix with <code>operator</code> applied, which must be closed
+	 */
+	public final OffHeapMatrix transform(final DoubleApplier operator) {
+		final OffHeapMatrix result = allocate(rows, cols);
+		final long size = storage.size;
+		final double[] block = new double[OffHeapVector.BLOCK];
+		
+		for (long start = 0; start < size; start += block.length) {
+			final int count = (int) Math.min(block.length, size - start);
+			storage.read(start, block, 0, count);
+			
+			for (int i = 0; i < count; i++) {
+				block[i] = operator.apply(block[i]);
+			}
+			
+			result.storage.write(start, block, 0, count);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Copies this OffHeapMatrix onto the heap.
+	 * 
+	 * @return a Matrix with the elements of this matrix
+	 * @throws IllegalStateException if this matrix has more than <code>Integer.MAX_VALUE - 8</code> elements
+	 */
+	public final Matrix toMatrix() {
+		if (storage.size > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("Matrix is too large to copy onto the heap!");
+		}
+		
+		final double[] result = new double[(int) storage.size];
+		storage.read(0, result, 0, result.length);
+		
+		return new Matrix((int) rows, cols, result);
+	}
+	
+	/**
+	 * Writes any changes to a memory-mapped file back to the file. Does nothing if this matrix is not mapped from a file.
+	 */
+	public final void force() {
+		storage.force();
+	}
+	
+	/**
+	 * Releases the memory of this matrix, or unmaps its file. Does nothing if this matrix is already closed.
+	 */
+	@Override
+	public final void close() {
+		storage.close();
+	}
+}
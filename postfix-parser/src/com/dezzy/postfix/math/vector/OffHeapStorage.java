@@ -0,0 +1,299 @@
+package com.dezzy.postfix.math.vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A <code>long</code>-indexed array of doubles outside the Java heap, backing {@link OffHeapMatrix} and {@link OffHeapVector}.
+ * The doubles are stored little-endian in direct or memory-mapped {@link ByteBuffer}s of up to {@link #CHUNK_SIZE} doubles
+ * each, since a single buffer cannot hold more than 2 GB.
+ * <p>
+ * {@link #close()} releases the memory (or unmaps the file) immediately instead of waiting for the buffers to be garbage
+ * collected. Any access afterwards throws an {@link IllegalStateException}; the storage must not be closed while another
+ * thread is still using it.
+ *
+ * @author Joe Desmond
+ */
+final class OffHeapStorage implements Closeable {
+	
+	/**
+	 * Base 2 logarithm of {@link #CHUNK_SIZE}
+	 */
+	private static final int CHUNK_SHIFT = 27;
+	
+	/**
+	 * Number of doubles in each buffer (1 GB)
+	 */
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	
+	/**
+	 * Mask giving the index within a buffer
+	 */
+	private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+	
+	/**
+	 * <code>sun.misc.Unsafe.invokeCleaner</code>, used to release buffers deterministically; null if it is not available,
+	 * in which case the buffers are released when they are garbage collected
+	 */
+	private static final Method INVOKE_CLEANER;
+	
+	/**
+	 * The <code>sun.misc.Unsafe</code> instance; null if it is not available
+	 */
+	private static final Object UNSAFE;
+	
+	static {
+		Method invokeCleaner = null;
+		Object unsafe = null;
+		
+		try {
+			final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafe = theUnsafe.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			invokeCleaner = null;
+			unsafe = null;
+		}
+		
+		INVOKE_CLEANER = invokeCleaner;
+		UNSAFE = unsafe;
+	}
+	
+	/**
+	 * Number of doubles
+	 */
+	final long size;
+	
+	/**
+	 * The underlying buffers, kept to release them
+	 */
+	private final ByteBuffer[] buffers;
+	
+	/**
+	 * Double views of {@link #buffers}; null once closed
+	 */
+	private volatile DoubleBuffer[] chunks;
+	
+	/**
+	 * Creates storage over the given buffers.
+	 * 
+	 * @param _size number of doubles
+	 * @param _buffers buffers holding <code>_size</code> doubles, all but the last holding {@link #CHUNK_SIZE}
+	 */
+	private OffHeapStorage(final long _size, final ByteBuffer[] _buffers) {
+		size = _size;
+		buffers = _buffers;
+		
+		final DoubleBuffer[] views = new DoubleBuffer[buffers.length];
+		for (int i = 0; i < buffers.length; i++) {
+			views[i] = buffers[i].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		}
+		
+		chunks = views;
+	}
+	
+	/**
+	 * Allocates zeroed storage outside the heap.
+	 * 
+	 * @param size number of doubles
+	 * @return new storage
+	 * @throws IllegalArgumentException if <code>size</code> is negative
+	 */
+	static OffHeapStorage allocate(final long size) {
+		final ByteBuffer[] buffers = new ByteBuffer[chunkCount(size)];
+		
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = ByteBuffer.allocateDirect(chunkLength(size, i) * Double.BYTES);
+		}
+		
+		return new OffHeapStorage(size, buffers);
+	}
+	
+	/**
+	 * Maps part of a file as storage. A writable mapping extends the file if it is too short; changes are written back to
+	 * the file by the operating system, or immediately by {@link #force()}.
+	 * 
+	 * @param path file to map
+	 * @param byteOffset position in the file of the first double
+	 * @param size number of doubles
+	 * @param writable true to map the file for reading and writing, false for reading only
+	 * @return storage backed by the file
+	 * @throws IOException if the file cannot be opened or mapped
+	 * @throws IllegalArgumentException if <code>size</code> or <code>byteOffset</code> is negative
+	 */
+	static OffHeapStorage map(final Path path, final long byteOffset, final long size, final boolean writable) throws IOException {
+		if (byteOffset < 0) {
+			throw new IllegalArgumentException("Byte offset cannot be negative!");
+		}
+		
+		final ByteBuffer[] buffers = new ByteBuffer[chunkCount(size)];
+		
+		try (final FileChannel channel = writable ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE) : FileChannel.open(path, StandardOpenOption.READ)) {
+			final FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+			
+			for (int i = 0; i < buffers.length; i++) {
+				buffers[i] = channel.map(mode, byteOffset + (long) i * CHUNK_SIZE * Double.BYTES, (long) chunkLength(size, i) * Double.BYTES);
+			}
+		}
+		
+		return new OffHeapStorage(size, buffers);
+	}
+	
+	/**
+	 * Returns the number of buffers needed for the given number of doubles.
+	 * 
+	 * @param size number of doubles
+	 * @return number of buffers
+	 * @throws IllegalArgumentException if <code>size</code> is negative
+	 */
+	private static int chunkCount(final long size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Size cannot be negative!");
+		}
+		
+		return (int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+	}
+	
+	/**
+	 * Returns the number of doubles in one buffer.
+	 * 
+	 * @param size total number of doubles
+	 * @param chunk index of the buffer
+	 * @return number of doubles in the buffer
+	 */
+	private static int chunkLength(final long size, final int chunk) {
+		return (int) Math.min(CHUNK_SIZE, size - ((long) chunk << CHUNK_SHIFT));
+	}
+	
+	/**
+	 * Returns the double views, checking that this storage is still open.
+	 * 
+	 * @return the double views
+	 * @throws IllegalStateException if this storage has been closed
+	 */
+	private DoubleBuffer[] chunks() {
+		final DoubleBuffer[] views = chunks;
+		
+		if (views == null) {
+			throw new IllegalStateException("Off-heap storage has been closed!");
+		}
+		
+		return views;
+	}
+	
+	/**
+	 * Returns the double at the given index.
+	 * 
+	 * @param index index, from 0 to {@link #size} (exclusive)
+	 * @return the double at <code>index</code>
+	 */
+	double get(final long index) {
+		return chunks()[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+	}
+	
+	/**
+	 * Sets the double at the given index.
+	 * 
+	 * @param index index, from 0 to {@link #size} (exclusive)
+	 * @param value new value
+	 */
+	void set(final long index, final double value) {
+		chunks()[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+	}
+	
+	/**
+	 * Copies doubles from this storage into an array.
+	 * 
+	 * @param index index of the first double to copy
+	 * @param destination array to copy into
+	 * @param offset position in <code>destination</code>
+	 * @param length number of doubles to copy
+	 */
+	void read(final long index, final double[] destination, final int offset, final int length) {
+		final DoubleBuffer[] views = chunks();
+		long position = index;
+		int copied = 0;
+		
+		while (copied < length) {
+			final int chunk = (int) (position >>> CHUNK_SHIFT);
+			final int start = (int) (position & CHUNK_MASK);
+			final int count = Math.min(length - copied, CHUNK_SIZE - start);
+			
+			views[chunk].get(start, destination, offset + copied, count);
+			copied += count;
+			position += count;
+		}
+	}
+	
+	/**
+	 * Copies doubles from an array into this storage.
+	 * 
+	 * @param index index of the first double to overwrite
+	 * @param source array to copy from
+	 * @param offset position in <code>source</code>
+	 * @param length number of doubles to copy
+	 */
+	void write(final long index, final double[] source, final int offset, final int length) {
+		final DoubleBuffer[] views = chunks();
+		long position = index;
+		int copied = 0;
+		
+		while (copied < length) {
+			final int chunk = (int) (position >>> CHUNK_SHIFT);
+			final int start = (int) (position & CHUNK_MASK);
+			final int count = Math.min(length - copied, CHUNK_SIZE - start);
+			
+			views[chunk].put(start, source, offset + copied, count);
+			copied += count;
+			position += count;
+		}
+	}
+	
+	/**
+	 * Writes any changes to a memory-mapped file back to the file. Does nothing for allocated storage.
+	 */
+	void force() {
+		chunks();
+		
+		for (final ByteBuffer buffer : buffers) {
+			if (buffer instanceof MappedByteBuffer) {
+				((MappedByteBuffer) buffer).force();
+			}
+		}
+	}
+	
+	/**
+	 * Releases the memory of this storage, or unmaps its file. Does nothing if this storage is already closed.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (chunks == null) {
+				return;
+			}
+			
+			chunks = null;
+		}
+		
+		if (INVOKE_CLEANER != null) {
+			for (final ByteBuffer buffer : buffers) {
+				try {
+					INVOKE_CLEANER.invoke(UNSAFE, buffer);
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					//Leave the buffer to the garbage collector
+				}
+			}
+		}
+	}
+}
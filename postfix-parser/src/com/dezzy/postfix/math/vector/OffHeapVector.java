@@ -0,0 +1,207 @@
+package com.dezzy.postfix.math.vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.DoubleApplier;
+
+/**
+ * A vector stored outside the Java heap, for data too large for the heap or for which garbage collection pauses are a
+ * problem. Its components can be allocated in native memory or memory-mapped from a file of little-endian doubles, and it can
+ * have more than <code>Integer.MAX_VALUE</code> components. Operations stream the components through small on-heap blocks.
+ * <p>
+ * Allocated native memory counts against the JVM's direct memory limit, which defaults to the maximum heap size; raise it
+ * with <code>-XX:MaxDirectMemorySize</code>, or map a file, which has no such limit.
+ * <p>
+ * An OffHeapVector must be {@link #close() closed} to release its memory (or unmap its file) deterministically; using it
+ * afterwards throws an {@link IllegalStateException}. It is not thread-safe, and must not be closed while another thread is
+ * using it.
+ *
+ * @author Joe Desmond
+ */
+public final class OffHeapVector implements Closeable {
+	
+	/**
+	 * Number of components streamed through the heap at once
+	 */
+	static final int BLOCK = 8192;
+	
+	/**
+	 * The components
+	 */
+	final OffHeapStorage storage;
+	
+	/**
+	 * The number of components in this vector
+	 */
+	public final long dimension;
+	
+	/**
+	 * Creates an OffHeapVector over existing storage.
+	 * 
+	 * @param _storage storage holding the components
+	 */
+	OffHeapVector(final OffHeapStorage _storage) {
+		storage = _storage;
+		dimension = storage.size;
+	}
+	
+	/**
+	 * Allocates an OffHeapVector in native memory with every component equal to zero.
+	 * 
+	 * @param dimension number of components
+	 * @return a new OffHeapVector
+	 */
+	public static OffHeapVector allocate(final long dimension) {
+		return new OffHeapVector(OffHeapStorage.allocate(dimension));
+	}
+	
+	/**
+	 * Maps an OffHeapVector from a file of little-endian doubles.
+	 * 
+	 * @param path file to map
+	 * @param byteOffset position in the file of the first component
+	 * @param dimension number of components
+	 * @param writable true if changes to the vector should be written to the file, which is created or extended as needed
+	 * @return an OffHeapVector backed by the file
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public static OffHeapVector map(final Path path, final long byteOffset, final long dimension, final boolean writable) throws IOException {
+		return new OffHeapVector(OffHeapStorage.map(path, byteOffset, dimension, writable));
+	}
+	
+	/**
+	 * Copies a Vector into native memory.
+	 * 
+	 * @param vector Vector to copy
+	 * @return a new OffHeapVector with the components of <code>vector</code>
+	 */
+	public static OffHeapVector of(final Vector vector) {
+		final OffHeapVector result = allocate(vector.dimension);
+		final double[] block = new double[Math.min(BLOCK, vector.dimension)];
+		
+		for (int start = 0; start < vector.dimension; start += BLOCK) {
+			final int count = Math.min(BLOCK, vector.dimension - start);
+			vector.trim(start, start + count).copyInto(block, 0);
+			result.storage.write(start, block, 0, count);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the value of the component at the given index.
+	 * 
+	 * @param index index of the component
+	 * @return value of the component
+	 */
+	public final double get(final long index) {
+		return storage.get(index);
+	}
+	
+	/**
+	 * Sets the value of the component at the given index.
+	 * 
+	 * @param index index of the component
+	 * @param value new value of the component
+	 */
+	public final void set(final long index, final double value) {
+		storage.set(index, value);
+	}
+	
+	/**
+	 * Calculates the inner (dot) product of this OffHeapVector and another.
+	 * 
+	 * @param other other OffHeapVector
+	 * @return the dot product of this vector and <code>other</code>
+	 * @throws DimensionMismatchException if the vectors do not have the same dimension
+	 */
+	public final double innerProduct(final OffHeapVector other) {
+		if (dimension != other.dimension) {
+			throw new DimensionMismatchException("Vectors must have an equal number of components to calculate an inner product!");
+		}
+		
+		final double[] a = new double[BLOCK];
+		final double[] b = new double[BLOCK];
+		double sum = 0;
+		
+		for (long start = 0; start < dimension; start += BLOCK) {
+			final int count = (int) Math.min(BLOCK, dimension - start);
+			storage.read(start, a, 0, count);
+			other.storage.read(start, b, 0, count);
+			
+			for (int i = 0; i < count; i++) {
+				sum += a[i] * b[i];
+			}
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Returns the length of this vector in space.
+	 * 
+	 * @return the length of this vector
+	 */
+	public final double length() {
+		return Math.sqrt(innerProduct(this));
+	}
+	
+	/**
+	 * Applies an operation to each component of this vector, producing a new OffHeapVector in native memory.
+	 * 
+	 * @param operator operation to be performed on each component
+	 * @return a new OffHeapVector with <code>operator</code> applied, which must be closed
+	 */
+	public final OffHeapVector transform(final DoubleApplier operator) {
+		final OffHeapVector result = allocate(dimension);
+		final double[] block = new double[BLOCK];
+		
+		for (long start = 0; start < dimension; start += BLOCK) {
+			final int count = (int) Math.min(BLOCK, dimension - start);
+			storage.read(start, block, 0, count);
+			
+			for (int i = 0; i < count; i++) {
+				block[i] = operator.apply(block[i]);
+			}
+			
+			result.storage.write(start, block, 0, count);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Copies this OffHeapVector onto the heap.
+	 * 
+	 * @return a Vector with the components of this vector
+	 * @throws IllegalStateException if this vector has more than <code>Integer.MAX_VALUE - 8</code> components
+	 */
+	public final Vector toVector() {
+		if (dimension > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("Vector is too large to copy onto the heap!");
+		}
+		
+		final double[] result = new double[(int) dimension];
+		storage.read(0, result, 0, result.length);
+		
+		return new Vector(result);
+	}
+	
+	/**
+	 * Writes any changes to a memory-mapped file back to the file. Does nothing if this vector is not mapped from a file.
+	 */
+	public final void force() {
+		storage.force();
+	}
+	
+	/**
+	 * Releases the memory of this vector, or unmaps its file. Does nothing if this vector is already closed.
+	 */
+	@Override
+	public final void close() {
+		storage.close();
+	}
+}
@@ -0,0 +1,284 @@
+package com.dezzy.postfix.math.vector;
+
+import java.util.Arrays;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+import com.dezzy.postfix.math.vector.utility.SingularMatrixException;
+
+/**
+ * The QR decomposition of an <code>m x n</code> {@link Matrix} with <code>m &gt;= n</code>, computed with Householder
+ * reflections: <code>A = Q * R</code>, where <code>Q</code> is <code>m x n</code> with orthonormal columns and <code>R</code>
+ * is <code>n x n</code> upper triangular. A full rank decomposition solves linear least squares problems without forming the
+ * normal equations <code>A<sup>T</sup> * A * x = A<sup>T</sup> * b</code>, which square the condition number.
+ * <p>
+ * Each reflection is applied to all of the remaining columns at once, one row at a time, so that the innermost loops run
+ * along contiguous rows instead of down columns.
+ *
+ * @author Joe Desmond
+ */
+public final class QRDecomposition {
+	
+	/**
+	 * <code>R</code> (above the diagonal) and the Householder vectors (on and below the diagonal) in row-major order
+	 */
+	private final double[] qr;
+	
+	/**
+	 * Diagonal of <code>R</code>
+	 */
+	private final double[] rDiagonal;
+	
+	/**
+	 * Number of rows of the decomposed matrix
+	 */
+	public final int rows;
+	
+	/**
+	 * Number of columns of the decomposed matrix
+	 */
+	public final int cols;
+	
+	/**
+	 * Computes the QR decomposition of a Matrix with at least as many rows as columns.
+	 * 
+	 * @param matrix Matrix to decompose
+	 * @throws DimensionMismatchException if <code>matrix</code> has fewer rows than columns
+	 */
+	public QRDecomposition(final Matrix matrix) {
+		if (matrix.rows < matrix.cols) {
+			throw new DimensionMismatchException("QR decomposition needs at least as many rows as columns!");
+		}
+		
+		rows = matrix.rows;
+		cols = matrix.cols;
+		qr = matrix.toArray();
+		rDiagonal = new double[cols];
+		
+		final double[] dots = new double[cols];
+		
+		for (int k = 0; k < cols; k++) {
+			double norm = columnNorm(k);
+			
+			if (norm != 0) {
+				if (qr[k * cols + k] < 0) {
+					norm = -norm;
+				}
+				
+				for (int i = k; i < rows; i++) {
+					qr[i * cols + k] /= norm;
+				}
+				
+				qr[k * cols + k] += 1;
+				
+				if (k + 1 < cols) {
+					reflect(k, qr, cols, k + 1, dots);
+				}
+			}
+			
+			rDiagonal[k] = -norm;
+		}
+	}
+	
+	/**
+	 * Returns the Euclidean norm of column <code>k</code> from row <code>k</code> down, scaling by the largest element to
+	 * avoid overflow and underflow.
+	 * 
+	 * @param k column and first row
+	 * @return the norm of the column below and including the diagonal
+	 */
+	private double columnNorm(final int k) {
+		double scale = 0;
+		
+		for (int i = k; i < rows; i++) {
+			scale = Math.max(scale, Math.abs(qr[i * cols + k]));
+		}
+		
+		if (scale == 0) {
+			return 0;
+		}
+		
+		double sum = 0;
+		for (int i = k; i < rows; i++) {
+			final double scaled = qr[i * cols + k] / scale;
+			sum += scaled * scaled;
+		}
+		
+		return scale * Math.sqrt(sum);
+	}
+	
+	/**
+	 * Applies the <code>k</code>th Householder reflection to rows <code>k</code> and below of the columns
+	 * <code>[colStart, width)</code> of a row-major array with <code>width</code> columns and {@link #rows} rows.
+	 * 
+	 * @param k index of the reflection
+	 * @param target array to reflect, in row-major order
+	 * @param width number of columns of <code>target</code>
+	 * @param colStart first column to reflect
+	 * @param dots scratch space of at least <code>width</code> elements
+	 */
+	private void reflect(final int k, final double[] target, final int width, final int colStart, final double[] dots) {
+		for (int j = colStart; j < width; j++) {
+			dots[j] = 0;
+		}
+		
+		for (int i = k; i < rows; i++) {
+			final double v = qr[i * cols + k];
+			final int row = i * width;
+			
+			for (int j = colStart; j < width; j++) {
+				dots[j] += v * target[row + j];
+			}
+		}
+		
+		final double head = qr[k * cols + k];
+		for (int j = colStart; j < width; j++) {
+			dots[j] = -dots[j] / head;
+		}
+		
+		for (int i = k; i < rows; i++) {
+			final double v = qr[i * cols + k];
+			final int row = i * width;
+			
+			for (int j = colStart; j < width; j++) {
+				target[row + j] += dots[j] * v;
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if the decomposed matrix has full column rank, which is needed to solve least squares problems. An element
+	 * on the diagonal of <code>R</code> counts as zero if it is within rounding error of zero, relative to the largest one.
+	 * 
+	 * @return true if no element on the diagonal of <code>R</code> is zero
+	 */
+	public final boolean isFullRank() {
+		double largest = 0;
+		for (int k = 0; k < cols; k++) {
+			largest = Math.max(largest, Math.abs(rDiagonal[k]));
+		}
+		
+		final double tolerance = rows * largest * Math.ulp(1.0);
+		for (int k = 0; k < cols; k++) {
+			if (Math.abs(rDiagonal[k]) <= tolerance) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the upper triangular factor <code>R</code>.
+	 * 
+	 * @return <code>R</code>, which is {@link #cols} <code>x</code> {@link #cols}
+	 */
+	public final Matrix getR() {
+		final double[] result = new double[cols * cols];
+		
+		for (int row = 0; row < cols; row++) {
+			result[row * cols + row] = rDiagonal[row];
+			System.arraycopy(qr, row * cols + row + 1, result, row * cols + row + 1, cols - row - 1);
+		}
+		
+		return new Matrix(cols, cols, result);
+	}
+	
+	/**
+	 * Returns the orthonormal factor <code>Q</code>.
+	 * 
+	 * @return <code>Q</code>, which is {@link #rows} <code>x</code> {@link #cols}
+	 */
+	public final Matrix getQ() {
+		final double[] result = new double[rows * cols];
+		final double[] dots = new double[cols];
+		
+		for (int k = cols - 1; k >= 0; k--) {
+			result[k * cols + k] = 1;
+			
+			if (qr[k * cols + k] != 0) {
+				reflect(k, result, cols, k, dots);
+			}
+		}
+		
+		return new Matrix(rows, cols, result);
+	}
+	
+	/**
+	 * Finds the least squares solution of <code>A * x = b</code>: the <code>x</code> that minimizes the norm of
+	 * <code>A * x - b</code>, where <code>A</code> is the decomposed matrix. If <code>A</code> is square, this is the exact
+	 * solution.
+	 * 
+	 * @param b right-hand side
+	 * @return <code>x</code>
+	 * @throws DimensionMismatchException if <code>b</code> does not have {@link #rows} components
+	 * @throws SingularMatrixException if the decomposed matrix does not have full rank
+	 */
+	public final Vector solve(final Vector b) {
+		if (b.dimension != rows) {
+			throw new DimensionMismatchException("Vector must have the same number of components as the matrix has rows!");
+		}
+		
+		final double[] x = new double[rows];
+		for (int i = 0; i < rows; i++) {
+			x[i] = b.get(i);
+		}
+		
+		return new Vector(Arrays.copyOf(leastSquares(x, 1), cols));
+	}
+	
+	/**
+	 * Finds the least squares solution of <code>A * X = B</code>, where <code>A</code> is the decomposed matrix. Each column
+	 * of <code>B</code> is a separate right-hand side.
+	 * 
+	 * @param b right-hand sides
+	 * @return <code>X</code>, which has {@link #cols} rows and as many columns as <code>b</code>
+	 * @throws DimensionMismatchException if <code>b</code> does not have {@link #rows} rows
+	 * @throws SingularMatrixException if the decomposed matrix does not have full rank
+	 */
+	public final Matrix solve(final Matrix b) {
+		if (b.rows != rows) {
+			throw new DimensionMismatchException("Right-hand side must have the same number of rows as the matrix!");
+		}
+		
+		return new Matrix(cols, b.cols, Arrays.copyOf(leastSquares(b.toArray(), b.cols), cols * b.cols));
+	}
+	
+	/**
+	 * Overwrites <code>B</code> with <code>Q<sup>T</sup> * B</code>, then solves <code>R * X</code> for the first
+	 * {@link #cols} rows.
+	 * 
+	 * @param x <code>B</code> in row-major order, with {@link #rows} rows and <code>width</code> columns
+	 * @param width number of right-hand sides
+	 * @return <code>x</code>, whose first {@link #cols} rows hold <code>X</code>
+	 * @throws SingularMatrixException if the decomposed matrix does not have full rank
+	 */
+	private double[] leastSquares(final double[] x, final int width) {
+		if (!isFullRank()) {
+			throw new SingularMatrixException("Matrix is rank deficient!");
+		}
+		
+		final double[] dots = new double[width];
+		for (int k = 0; k < cols; k++) {
+			reflect(k, x, width, 0, dots);
+		}
+		
+		for (int k = cols - 1; k >= 0; k--) {
+			final int xRow = k * width;
+			
+			for (int col = 0; col < width; col++) {
+				x[xRow + col] /= rDiagonal[k];
+			}
+			
+			for (int i = 0; i < k; i++) {
+				final double factor = qr[i * cols + k];
+				final int iRow = i * width;
+				
+				for (int col = 0; col < width; col++) {
+					x[iRow + col] -= factor * x[xRow + col];
+				}
+			}
+		}
+		
+		return x;
+	}
+}
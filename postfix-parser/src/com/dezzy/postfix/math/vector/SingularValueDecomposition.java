@@ -0,0 +1,428 @@
+package com.dezzy.postfix.math.vector;
+
+import java.util.Arrays;
+
+/**
+ * The thin singular value decomposition of a {@link Matrix}: <code>A = U * S * V<sup>T</sup></code>, where <code>A</code> is
+ * <code>m x n</code>, <code>k = min(m, n)</code>, <code>U</code> is <code>m x k</code> and <code>V</code> is <code>n x k</code>
+ * with orthonormal columns, and <code>S</code> is diagonal with the singular values in descending order. If <code>A</code> has
+ * zero singular values, the matching columns of <code>U</code> are zero.
+ * <p>
+ * The decomposition is computed with the one-sided Jacobi method, which rotates pairs of columns of <code>A</code> until they
+ * are all orthogonal; the singular values are then the lengths of the columns. This is slower than bidiagonalization for large
+ * matrices but simple and very accurate, even for tiny singular values. The columns are stored as contiguous rows of flat arrays
+ * so that each rotation runs along two rows, and the pairs are visited in blocks of {@link #BLOCK} columns so that both blocks of
+ * columns stay in cache while every pair between them is rotated. The columns are sorted by length before each sweep over the
+ * pairs, which reduces the number of sweeps. A matrix with more columns than rows is decomposed through its transpose.
+ * <p>
+ * The matrix is first scaled by a power of two so that its largest element is near 1, and the singular values are scaled back
+ * at the end. Column lengths are computed as scaled sums of squares and the rotations are computed from the lengths and the
+ * cosine of the angle between the columns, so no squared length is ever formed and short columns do not underflow to zero.
+ *
+ * @author Joe Desmond
+ */
+public final class SingularValueDecomposition {
+	
+	/**
+	 * Number of columns in a block of the rotation order
+	 */
+	private static final int BLOCK = 16;
+	
+	/**
+	 * Largest number of sweeps over every pair of columns before the method is considered not to converge
+	 */
+	private static final int MAX_SWEEPS = 75;
+	
+	/**
+	 * Smallest product of two column lengths for which the dot product of the columns is computed directly; below this, the
+	 * products of their elements could underflow
+	 */
+	private static final double SAFE_PRODUCT = Double.MIN_NORMAL / Math.ulp(1.0);
+	
+	/**
+	 * Smallest factor by which a rotation may shrink the squared length of a column before the length is recomputed rather than
+	 * updated, since the update would have lost too many digits
+	 */
+	private static final double RECOMPUTE_FACTOR = Math.sqrt(Math.ulp(1.0));
+	
+	/**
+	 * Singular values, in descending order
+	 */
+	private final double[] singularValues;
+	
+	/**
+	 * <code>U<sup>T</sup></code> in row-major order: row <code>i</code> is left singular vector <code>i</code>
+	 */
+	private final double[] ut;
+	
+	/**
+	 * <code>V<sup>T</sup></code> in row-major order: row <code>i</code> is right singular vector <code>i</code>
+	 */
+	private final double[] vt;
+	
+	/**
+	 * Number of rows of the decomposed matrix
+	 */
+	public final int rows;
+	
+	/**
+	 * Number of columns of the decomposed matrix
+	 */
+	public final int cols;
+	
+	/**
+	 * Number of singular values, the smaller of {@link #rows} and {@link #cols}
+	 */
+	public final int count;
+	
+	/**
+	 * Computes the singular value decomposition of a Matrix.
+	 * 
+	 * @param matrix Matrix to decompose
+	 * @throws ArithmeticException if <code>matrix</code> has elements that are not finite, or if the Jacobi method does not converge
+	 * 			within {@link #MAX_SWEEPS} sweeps
+	 */
+	public SingularValueDecomposition(final Matrix matrix) {
+		rows = matrix.rows;
+		cols = matrix.cols;
+		
+		//Decompose B = A (or A^T if A is wide), with m >= n; the columns of B are the rows of w
+		final boolean transposed = rows < cols;
+		final int m = transposed ? cols : rows;
+		final int n = transposed ? rows : cols;
+		final double[] w = transposed ? matrix.toArray() : matrix.transpose().toArray();
+		final double[] v = new double[n * n];
+		final int exponent = MatrixKernels.normalize(w);
+		
+		count = n;
+		singularValues = new double[n];
+		
+		for (int i = 0; i < n; i++) {
+			v[i * n + i] = 1;
+		}
+		
+		orthogonalize(w, v, m, n);
+		
+		//Normalize the columns and sort them by length, descending
+		final Integer[] order = new Integer[n];
+		final double[] lengths = new double[n];
+		
+		for (int j = 0; j < n; j++) {
+			order[j] = j;
+			lengths[j] = norm(w, j * m, m);
+		}
+		
+		Arrays.sort(order, (first, second) -> Double.compare(lengths[second], lengths[first]));
+		
+		final double[] left = new double[n * m];
+		final double[] right = new double[n * n];
+		
+		for (int i = 0; i < n; i++) {
+			final int j = order[i];
+			final double length = lengths[j];
+			singularValues[i] = Math.scalb(length, exponent);
+			
+			if (length > 0) {
+				for (int p = 0; p < m; p++) {
+					left[i * m + p] = w[j * m + p] / length;
+				}
+			}
+			
+			System.arraycopy(v, j * n, right, i * n, n);
+		}
+		
+		ut = transposed ? right : left;
+		vt = transposed ? left : right;
+	}
+	
+	/**
+	 * Rotates pairs of columns of <code>B</code> (rows of <code>w</code>) until every pair is orthogonal to working precision,
+	 * applying the same rotations to the columns of <code>V</code> (rows of <code>v</code>).
+	 * 
+	 * @param w columns of <code>B</code>, each of length <code>m</code>
+	 * @param v columns of <code>V</code>, each of length <code>n</code>, initially the identity
+	 * @param m number of rows of <code>B</code>
+	 * @param n number of columns of <code>B</code>
+	 * @throws ArithmeticException if the columns are not orthogonal after {@link #MAX_SWEEPS} sweeps
+	 */
+	private static void orthogonalize(final double[] w, final double[] v, final int m, final int n) {
+		final double tolerance = m * Math.ulp(1.0);
+		final double[] norms = new double[n];
+		final double[] buffer = new double[m];
+		
+		for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+			boolean rotated = false;
+			
+			for (int j = 0; j < n; j++) {
+				norms[j] = norm(w, j * m, m);
+			}
+			
+			//Sort the columns by length, descending, which reduces the number of sweeps
+			for (int j = 0; j < n - 1; j++) {
+				int longest = j;
+				
+				for (int k = j + 1; k < n; k++) {
+					if (norms[k] > norms[longest]) {
+						longest = k;
+					}
+				}
+				
+				if (longest != j) {
+					swap(w, j * m, longest * m, m, buffer);
+					swap(v, j * n, longest * n, n, buffer);
+					
+					final double norm = norms[j];
+					norms[j] = norms[longest];
+					norms[longest] = norm;
+				}
+			}
+			
+			for (int firstBlock = 0; firstBlock < n; firstBlock += BLOCK) {
+				final int firstEnd = Math.min(firstBlock + BLOCK, n);
+				
+				for (int secondBlock = firstBlock; secondBlock < n; secondBlock += BLOCK) {
+					final int secondEnd = Math.min(secondBlock + BLOCK, n);
+					
+					for (int p = firstBlock; p < firstEnd; p++) {
+						for (int q = Math.max(p + 1, secondBlock); q < secondEnd; q++) {
+							final double alpha = norms[p];
+							final double beta = norms[q];
+							
+							if (alpha == 0 || beta == 0) {
+								continue;
+							}
+							
+							final double cosine = cosine(w, p * m, q * m, m, alpha, beta);
+							
+							if (Math.abs(cosine) <= tolerance) {
+								continue;
+							}
+							
+							//Rotation that makes columns p and q orthogonal, with the smaller of the two possible angles; with
+							//gamma = cosine * alpha * beta, zeta = (beta^2 - alpha^2) / (2 * gamma)
+							final double zeta = (beta / alpha - alpha / beta) / (2 * cosine);
+							final double t = ((zeta >= 0) ? 1 : -1) / (Math.abs(zeta) + Math.hypot(1, zeta));
+							
+							if (t == 0) {
+								continue;
+							}
+							
+							final double c = 1 / Math.sqrt(1 + t * t);
+							final double s = c * t;
+							
+							rotate(w, p * m, q * m, m, c, s);
+							rotate(v, p * n, q * n, n, c, s);
+							
+							//The squared lengths become alpha^2 - t * gamma and beta^2 + t * gamma
+							final double pFactor = 1 - t * cosine * (beta / alpha);
+							final double qFactor = 1 + t * cosine * (alpha / beta);
+							norms[p] = (pFactor >= RECOMPUTE_FACTOR) ? alpha * Math.sqrt(pFactor) : norm(w, p * m, m);
+							norms[q] = (qFactor >= RECOMPUTE_FACTOR) ? beta * Math.sqrt(qFactor) : norm(w, q * m, m);
+							rotated = true;
+						}
+					}
+				}
+			}
+			
+			if (!rotated) {
+				return;
+			}
+		}
+		
+		throw new ArithmeticException("Singular value decomposition did not converge!");
+	}
+	
+	/**
+	 * Calculates the dot product of two contiguous ranges of arrays.
+	 * 
+	 * @param x first array
+	 * @param xOffset index of the first element of <code>x</code>
+	 * @param y second array
+	 * @param yOffset index of the first element of <code>y</code>
+	 * @param length number of elements
+	 * @return the dot product
+	 */
+	private static double dot(final double[] x, final int xOffset, final double[] y, final int yOffset, final int length) {
+		double sum = 0;
+		
+		for (int i = 0; i < length; i++) {
+			sum += x[xOffset + i] * y[yOffset + i];
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Calculates the length of a contiguous range of an array as a scaled sum of squares, so that neither the squares of very
+	 * small elements nor those of very large elements are lost.
+	 * 
+	 * @param x array
+	 * @param offset index of the first element
+	 * @param length number of elements
+	 * @return the 2-norm of the range
+	 */
+	private static double norm(final double[] x, final int offset, final int length) {
+		double scale = 0;
+		double sum = 1;
+		
+		for (int i = 0; i < length; i++) {
+			final double value = Math.abs(x[offset + i]);
+			
+			if (value > scale) {
+				final double ratio = scale / value;
+				sum = 1 + sum * ratio * ratio;
+				scale = value;
+			} else if (value != 0) {
+				final double ratio = value / scale;
+				sum += ratio * ratio;
+			}
+		}
+		
+		return scale * Math.sqrt(sum);
+	}
+	
+	/**
+	 * Calculates the cosine of the angle between two contiguous ranges of an array, given their lengths.
+	 * 
+	 * @param x array holding both ranges
+	 * @param xOffset index of the first element of the first range
+	 * @param yOffset index of the first element of the second range
+	 * @param length number of elements
+	 * @param xLength length of the first range
+	 * @param yLength length of the second range
+	 * @return the dot product of the ranges divided by both lengths
+	 */
+	private static double cosine(final double[] x, final int xOffset, final int yOffset, final int length, final double xLength, final double yLength) {
+		if (xLength * yLength >= SAFE_PRODUCT) {
+			return dot(x, xOffset, x, yOffset, length) / xLength / yLength;
+		}
+		
+		double sum = 0;
+		
+		for (int i = 0; i < length; i++) {
+			sum += (x[xOffset + i] / xLength) * (x[yOffset + i] / yLength);
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Swaps two contiguous ranges of an array.
+	 * 
+	 * @param array array holding both ranges
+	 * @param xOffset index of the first element of the first range
+	 * @param yOffset index of the first element of the second range
+	 * @param length number of elements
+	 * @param buffer array of at least <code>length</code> elements to use as temporary storage
+	 */
+	private static void swap(final double[] array, final int xOffset, final int yOffset, final int length, final double[] buffer) {
+		System.arraycopy(array, xOffset, buffer, 0, length);
+		System.arraycopy(array, yOffset, array, xOffset, length);
+		System.arraycopy(buffer, 0, array, yOffset, length);
+	}
+	
+	/**
+	 * Applies a plane rotation to two contiguous ranges of an array: <code>x = c * x - s * y</code> and
+	 * <code>y = s * x + c * y</code>.
+	 * 
+	 * @param array array holding both ranges
+	 * @param xOffset index of the first element of <code>x</code>
+	 * @param yOffset index of the first element of <code>y</code>
+	 * @param length number of elements
+	 * @param c cosine of the rotation
+	 * @param s sine of the rotation
+	 */
+	private static void rotate(final double[] array, final int xOffset, final int yOffset, final int length, final double c, final double s) {
+		for (int i = 0; i < length; i++) {
+			final double x = array[xOffset + i];
+			final double y = array[yOffset + i];
+			
+			array[xOffset + i] = c * x - s * y;
+			array[yOffset + i] = s * x + c * y;
+		}
+	}
+	
+	/**
+	 * Returns the singular values in descending order.
+	 * 
+	 * @return a Vector of the {@link #count} singular values
+	 */
+	public final Vector getSingularValues() {
+		return new Vector(singularValues.clone());
+	}
+	
+	/**
+	 * Returns a left singular vector, a column of <code>U</code>. Nothing is copied.
+	 * 
+	 * @param index index of the singular value
+	 * @return left singular vector <code>index</code>, with {@link #rows} components
+	 */
+	public final Vector getLeftSingularVector(final int index) {
+		return new Vector(ut, index * rows, 1, rows);
+	}
+	
+	/**
+	 * Returns a right singular vector, a column of <code>V</code>. Nothing is copied.
+	 * 
+	 * @param index index of the singular value
+	 * @return right singular vector <code>index</code>, with {@link #cols} components
+	 */
+	public final Vector getRightSingularVector(final int index) {
+		return new Vector(vt, index * cols, 1, cols);
+	}
+	
+	/**
+	 * Returns the matrix of left singular vectors <code>U</code>.
+	 * 
+	 * @return a {@link #rows} <code>x</code> {@link #count} Matrix whose column <code>i</code> is left singular vector <code>i</code>
+	 */
+	public final Matrix getU() {
+		return new Matrix(count, rows, ut).transpose();
+	}
+	
+	/**
+	 * Returns the matrix of right singular vectors <code>V</code>.
+	 * 
+	 * @return a {@link #cols} <code>x</code> {@link #count} Matrix whose column <code>i</code> is right singular vector <code>i</code>
+	 */
+	public final Matrix getV() {
+		return new Matrix(count, cols, vt).transpose();
+	}
+	
+	/**
+	 * Returns the 2-norm of the decomposed matrix, its largest singular value.
+	 * 
+	 * @return the largest singular value, or 0 if the matrix is empty
+	 */
+	public final double norm2() {
+		return (count == 0) ? 0 : singularValues[0];
+	}
+	
+	/**
+	 * Returns the 2-norm condition number of the decomposed matrix, the ratio of its largest and smallest singular values.
+	 * 
+	 * @return the condition number, which is infinite if the matrix is rank deficient
+	 */
+	public final double conditionNumber() {
+		return (count == 0) ? 0 : singularValues[0] / singularValues[count - 1];
+	}
+	
+	/**
+	 * Returns the numerical rank of the decomposed matrix: the number of singular values greater than
+	 * <code>max(rows, cols) * largest * ulp(1)</code>.
+	 * 
+	 * @return the number of singular values that are not negligible
+	 */
+	public final int numericalRank() {
+		final double tolerance = Math.max(rows, cols) * norm2() * Math.ulp(1.0);
+		int result = 0;
+		
+		for (final double value : singularValues) {
+			if (value > tolerance) {
+				result++;
+			}
+		}
+		
+		return result;
+	}
+}
@@ -0,0 +1,407 @@
+package com.dezzy.postfix.math.vector;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+
+/**
+ * An immutable matrix that stores only its nonzero elements, in compressed sparse row (CSR) form: the nonzero elements of
+ * each row are stored together, sorted by column. Memory use and the cost of multiplication are proportional to the number
+ * of nonzero elements rather than to <code>rows * cols</code>.
+ * <p>
+ * A SparseMatrix is assembled from <code>(row, col, value)</code> triplets with a {@link Builder}, or converted from a dense
+ * {@link Matrix}.
+ *
+ * @author Joe Desmond
+ */
+public final class SparseMatrix implements Serializable {
+	
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -4217392088162337265L;
+	
+	/**
+	 * Number of rows in the matrix
+	 */
+	public final int rows;
+	
+	/**
+	 * Number of columns in the matrix
+	 */
+	public final int cols;
+	
+	/**
+	 * Index in {@link #columns} and {@link #values} of the first element of each row; has <code>rows + 1</code> entries, the
+	 * last of which is the number of nonzero elements
+	 */
+	private final int[] rowStarts;
+	
+	/**
+	 * Column of each nonzero element
+	 */
+	private final int[] columns;
+	
+	/**
+	 * Value of each nonzero element
+	 */
+	private final double[] values;
+	
+	/**
+	 * Creates a SparseMatrix from CSR arrays, which are not copied.
+	 * 
+	 * @param _rows number of rows
+	 * @param _cols number of columns
+	 * @param _rowStarts index of the first element of each row, followed by the number of elements
+	 * @param _columns column of each element, sorted within each row
+	 * @param _values value of each element
+	 */
+	private SparseMatrix(final int _rows, final int _cols, final int[] _rowStarts, final int[] _columns, final double[] _values) {
+		rows = _rows;
+		cols = _cols;
+		rowStarts = _rowStarts;
+		columns = _columns;
+		values = _values;
+	}
+	
+	/**
+	 * Creates a SparseMatrix with the nonzero elements of a dense Matrix.
+	 * 
+	 * @param dense Matrix to convert
+	 */
+	public SparseMatrix(final Matrix dense) {
+		rows = dense.rows;
+		cols = dense.cols;
+		rowStarts = new int[rows + 1];
+		
+		int count = 0;
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				if (dense.get(row, col) != 0) {
+					count++;
+				}
+			}
+		}
+		
+		columns = new int[count];
+		values = new double[count];
+		
+		int index = 0;
+		for (int row = 0; row < rows; row++) {
+			rowStarts[row] = index;
+			
+			for (int col = 0; col < cols; col++) {
+				final double value = dense.get(row, col);
+				
+				if (value != 0) {
+					columns[index] = col;
+					values[index] = value;
+					index++;
+				}
+			}
+		}
+		
+		rowStarts[rows] = index;
+	}
+	
+	/**
+	 * Returns the number of stored elements. An element assembled from triplets that sum to zero is still stored.
+	 * 
+	 * @return the number of stored elements
+	 */
+	public final int nonZeros() {
+		return rowStarts[rows];
+	}
+	
+	/**
+	 * Returns the element at the given row and column, found by binary search within the row.
+	 * 
+	 * @param row must be greater than or equal to 0 and less than {@link #rows}
+	 * @param col must be greater than or equal to 0 and less than {@link #cols}
+	 * @return the element at the given row and column
+	 */
+	public final double get(final int row, final int col) {
+		final int index = Arrays.binarySearch(columns, rowStarts[row], rowStarts[row + 1], col);
+		
+		return index < 0 ? 0 : values[index];
+	}
+	
+	/**
+	 * Multiplies this SparseMatrix by a column Vector.
+	 * 
+	 * @param vector column vector
+	 * @return <code>this * vector</code>
+	 * @throws DimensionMismatchException if <code>vector</code> does not have {@link #cols} components
+	 */
+	public final Vector multiply(final Vector vector) {
+		if (vector.dimension != cols) {
+			throw new DimensionMismatchException("Vector must have the same number of components as the matrix's number of columns!");
+		}
+		
+		final double[] result = new double[rows];
+		
+		for (int row = 0; row < rows; row++) {
+			double sum = 0;
+			
+			for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+				sum += values[i] * vector.get(columns[i]);
+			}
+			
+			result[row] = sum;
+		}
+		
+		return new Vector(result);
+	}
+	
+	/**
+	 * Multiplies this SparseMatrix with a dense Matrix. Each nonzero element of this matrix adds a multiple of one row of
+	 * <code>other</code> to one row of the product.
+	 * 
+	 * @param other dense matrix to be multiplied
+	 * @return the product of <code>this</code> and <code>other</code>
+	 * @throws DimensionMismatchException if the number of columns of this matrix is not the number of rows of <code>other</code>
+	 */
+	public final Matrix multiply(final Matrix other) {
+		if (cols != other.rows) {
+			throw new DimensionMismatchException("The first matrix must have as many columns as the second has rows!");
+		}
+		
+		final int width = other.cols;
+		final double[] result = new double[rows * width];
+		
+		for (int row = 0; row < rows; row++) {
+			final int resultRow = row * width;
+			
+			for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+				final double value = values[i];
+				final int otherRow = columns[i];
+				
+				for (int col = 0; col < width; col++) {
+					result[resultRow + col] += value * other.get(otherRow, col);
+				}
+			}
+		}
+		
+		return new Matrix(rows, width, result);
+	}
+	
+	/**
+	 * Returns the transpose of this SparseMatrix. The elements are redistributed by a counting sort on their columns, which
+	 * keeps the new rows sorted.
+	 * 
+	 * @return the transpose of this matrix
+	 */
+	public final SparseMatrix transpose() {
+		final int count = nonZeros();
+		final int[] newRowStarts = new int[cols + 1];
+		final int[] newColumns = new int[count];
+		final double[] newValues = new double[count];
+		
+		for (int i = 0; i < count; i++) {
+			newRowStarts[columns[i] + 1]++;
+		}
+		
+		for (int col = 0; col < cols; col++) {
+			newRowStarts[col + 1] += newRowStarts[col];
+		}
+		
+		final int[] next = Arrays.copyOf(newRowStarts, cols);
+		for (int row = 0; row < rows; row++) {
+			for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+				final int destination = next[columns[i]]++;
+				newColumns[destination] = row;
+				newValues[destination] = values[i];
+			}
+		}
+		
+		return new SparseMatrix(cols, rows, newRowStarts, newColumns, newValues);
+	}
+	
+	/**
+	 * Converts this SparseMatrix to a dense {@link Matrix}.
+	 * 
+	 * @return a dense Matrix with the same elements
+	 */
+	public final Matrix toMatrix() {
+		final double[] result = new double[rows * cols];
+		
+		for (int row = 0; row < rows; row++) {
+			for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+				result[row * cols + columns[i]] = values[i];
+			}
+		}
+		
+		return new Matrix(rows, cols, result);
+	}
+	
+	/**
+	 * Lists the stored elements of this SparseMatrix, one per line.
+	 * 
+	 * @return a String with a line of the form <code>(row, col) value</code> for each stored element, in row-major order
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder out = new StringBuilder();
+		
+		for (int row = 0; row < rows; row++) {
+			for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+				out.append('(').append(row).append(", ").append(columns[i]).append(") ").append(values[i]).append('\n');
+			}
+		}
+		
+		return out.toString();
+	}
+	
+	/**
+	 * Assembles a {@link SparseMatrix} from <code>(row, col, value)</code> triplets, given in any order. Triplets at the same
+	 * position are summed, as when assembling a Jacobian or a finite element system.
+	 *
+	 * @author Joe Desmond
+	 */
+	public static final class Builder {
+		
+		/**
+		 * Number of rows in the matrix being built
+		 */
+		private final int rows;
+		
+		/**
+		 * Number of columns in the matrix being built
+		 */
+		private final int cols;
+		
+		/**
+		 * Row of each triplet
+		 */
+		private int[] tripletRows = new int[16];
+		
+		/**
+		 * Column of each triplet
+		 */
+		private int[] tripletCols = new int[16];
+		
+		/**
+		 * Value of each triplet
+		 */
+		private double[] tripletValues = new double[16];
+		
+		/**
+		 * Number of triplets added
+		 */
+		private int size = 0;
+		
+		/**
+		 * Creates a Builder for a matrix with the given dimensions.
+		 * 
+		 * @param _rows number of rows
+		 * @param _cols number of columns
+		 * @throws DimensionMismatchException if either dimension is negative
+		 */
+		public Builder(final int _rows, final int _cols) {
+			if (_rows < 0 || _cols < 0) {
+				throw new DimensionMismatchException("Matrix dimensions cannot be negative!");
+			}
+			
+			rows = _rows;
+			cols = _cols;
+		}
+		
+		/**
+		 * Adds a value to the element at the given position. Zeros are ignored.
+		 * 
+		 * @param row row of the element
+		 * @param col column of the element
+		 * @param value value to add
+		 * @return this Builder
+		 * @throws IndexOutOfBoundsException if the position is outside the matrix
+		 */
+		public final Builder add(final int row, final int col, final double value) {
+			if (row < 0 || row >= rows || col < 0 || col >= cols) {
+				throw new IndexOutOfBoundsException("(" + row + ", " + col + ") is outside of a " + rows + "x" + cols + " matrix!");
+			}
+			
+			if (value == 0) {
+				return this;
+			}
+			
+			if (size == tripletValues.length) {
+				final int capacity = size * 2;
+				tripletRows = Arrays.copyOf(tripletRows, capacity);
+				tripletCols = Arrays.copyOf(tripletCols, capacity);
+				tripletValues = Arrays.copyOf(tripletValues, capacity);
+			}
+			
+			tripletRows[size] = row;
+			tripletCols[size] = col;
+			tripletValues[size] = value;
+			size++;
+			
+			return this;
+		}
+		
+		/**
+		 * Builds the SparseMatrix. The triplets are sorted by a counting sort on their columns followed by a stable counting
+		 * sort on their rows, so building takes time proportional to the number of triplets plus the dimensions. The Builder
+		 * can be used again afterwards.
+		 * 
+		 * @return a SparseMatrix with the sum of the triplets at each position
+		 */
+		public final SparseMatrix build() {
+			final int[] byCol = new int[size];
+			final int[] colStarts = new int[cols + 1];
+			
+			for (int i = 0; i < size; i++) {
+				colStarts[tripletCols[i] + 1]++;
+			}
+			
+			for (int col = 0; col < cols; col++) {
+				colStarts[col + 1] += colStarts[col];
+			}
+			
+			for (int i = 0; i < size; i++) {
+				byCol[colStarts[tripletCols[i]]++] = i;
+			}
+			
+			final int[] rowStarts = new int[rows + 1];
+			for (int i = 0; i < size; i++) {
+				rowStarts[tripletRows[i] + 1]++;
+			}
+			
+			for (int row = 0; row < rows; row++) {
+				rowStarts[row + 1] += rowStarts[row];
+			}
+			
+			final int[] sorted = new int[size];
+			final int[] next = Arrays.copyOf(rowStarts, rows);
+			for (final int triplet : byCol) {
+				sorted[next[tripletRows[triplet]]++] = triplet;
+			}
+			
+			final int[] columns = new int[size];
+			final double[] values = new double[size];
+			final int[] mergedStarts = new int[rows + 1];
+			int count = 0;
+			
+			for (int row = 0; row < rows; row++) {
+				mergedStarts[row] = count;
+				
+				for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+					final int triplet = sorted[i];
+					
+					if (count > mergedStarts[row] && columns[count - 1] == tripletCols[triplet]) {
+						values[count - 1] += tripletValues[triplet];
+					} else {
+						columns[count] = tripletCols[triplet];
+						values[count] = tripletValues[triplet];
+						count++;
+					}
+				}
+			}
+			
+			mergedStarts[rows] = count;
+			
+			return new SparseMatrix(rows, cols, mergedStarts, Arrays.copyOf(columns, count), Arrays.copyOf(values, count));
+		}
+	}
+}
@@ -0,0 +1,353 @@
+package com.dezzy.postfix.math.vector;
+
+import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
+
+/**
+ * The eigendecomposition of a symmetric {@link Matrix}: <code>A = V * D * V<sup>T</sup></code>, where <code>D</code> is diagonal
+ * with the (real) eigenvalues of <code>A</code> and the columns of <code>V</code> are orthonormal eigenvectors. Only the lower
+ * triangle of the decomposed matrix is read; it is assumed to be symmetric.
+ * <p>
+ * The matrix is first reduced to tridiagonal form <code>T = Q<sup>T</sup> * A * Q</code> by Householder reflections, and the
+ * eigenvalues of <code>T</code> are then found by the implicit QL algorithm with Wilkinson shifts. Everything is stored in flat
+ * row-major arrays and each update runs along contiguous rows: a reflection updates the trailing block of <code>A</code> with a
+ * symmetric rank-2 update one row at a time, and the eigenvectors are accumulated as the rows of <code>V<sup>T</sup></code> so
+ * that each plane rotation of the QL algorithm combines two contiguous rows. The matrix is first scaled by a power of two so
+ * that its largest element is near 1, and the eigenvalues are scaled back at the end, so that very small or very large
+ * elements do not underflow or overflow.
+ *
+ * @author Joe Desmond
+ */
+public final class SymmetricEigenDecomposition {
+	
+	/**
+	 * Eigenvalues, in ascending order
+	 */
+	private final double[] eigenvalues;
+	
+	/**
+	 * <code>V<sup>T</sup></code> in row-major order: row <code>i</code> is the eigenvector of eigenvalue <code>i</code>
+	 */
+	private final double[] vt;
+	
+	/**
+	 * Number of rows and columns of the decomposed matrix
+	 */
+	public final int size;
+	
+	/**
+	 * Computes the eigendecomposition of a symmetric Matrix.
+	 * 
+	 * @param matrix symmetric Matrix to decompose
+	 * @throws DimensionMismatchException if <code>matrix</code> is not square
+	 * @throws ArithmeticException if the lower triangle of <code>matrix</code> has elements that are not finite, or if the QL
+	 * 			algorithm does not converge within 30 iterations per eigenvalue
+	 */
+	public SymmetricEigenDecomposition(final Matrix matrix) {
+		if (!matrix.isSquare()) {
+			throw new DimensionMismatchException("Eigendecomposition can only be calculated for a square matrix!");
+		}
+		
+		size = matrix.rows;
+		eigenvalues = new double[size];
+		vt = new double[size * size];
+		
+		final double[] a = new double[size * size];
+		
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j <= i; j++) {
+				a[i * size + j] = matrix.get(i, j);
+				a[j * size + i] = a[i * size + j];
+			}
+		}
+		
+		final int exponent = MatrixKernels.normalize(a);
+		final double[] offDiagonal = new double[size];
+		final double[] betas = new double[size];
+		
+		tridiagonalize(a, eigenvalues, offDiagonal, betas);
+		accumulateReflections(a, betas);
+		diagonalize(offDiagonal);
+		sort();
+		
+		for (int i = 0; i < size; i++) {
+			eigenvalues[i] = Math.scalb(eigenvalues[i], exponent);
+		}
+	}
+	
+	/**
+	 * Reduces <code>a</code> to tridiagonal form. Reflection <code>k</code> is <code>I - beta * v * v<sup>T</sup></code>, where
+	 * <code>v</code> is zero in its first <code>k + 1</code> components; its remaining components are stored in row <code>k</code>
+	 * of <code>a</code> after the diagonal, and <code>beta</code> in <code>betas[k]</code>.
+	 * 
+	 * @param a symmetric matrix, overwritten with the reflections
+	 * @param diagonal receives the diagonal of the tridiagonal matrix
+	 * @param offDiagonal receives the subdiagonal of the tridiagonal matrix: <code>offDiagonal[i]</code> is the element at
+	 * 			<code>(i + 1, i)</code>, and the last element is zero
+	 * @param betas receives the scale factor of each reflection
+	 */
+	private void tridiagonalize(final double[] a, final double[] diagonal, final double[] offDiagonal, final double[] betas) {
+		final double[] p = new double[size];
+		
+		for (int k = 0; k < size - 2; k++) {
+			final int kRow = k * size;
+			double sumOfSquares = 0;
+			
+			for (int i = k + 1; i < size; i++) {
+				sumOfSquares += a[kRow + i] * a[kRow + i];
+			}
+			
+			diagonal[k] = a[kRow + k];
+			
+			if (sumOfSquares == 0) {
+				offDiagonal[k] = 0;
+				continue;
+			}
+			
+			final double norm = Math.sqrt(sumOfSquares);
+			final double alpha = (a[kRow + k + 1] > 0) ? -norm : norm;
+			a[kRow + k + 1] -= alpha;
+			offDiagonal[k] = alpha;
+			
+			//v^T * v = -2 * alpha * v[0], so the reflection is I - beta * v * v^T with beta = 2 / (v^T * v)
+			final double beta = -1 / (alpha * a[kRow + k + 1]);
+			betas[k] = beta;
+			
+			//p = beta * A22 * v, one dot product along each row
+			double vp = 0;
+			for (int i = k + 1; i < size; i++) {
+				final int iRow = i * size;
+				double sum = 0;
+				
+				for (int j = k + 1; j < size; j++) {
+					sum += a[iRow + j] * a[kRow + j];
+				}
+				
+				p[i] = beta * sum;
+				vp += a[kRow + i] * p[i];
+			}
+			
+			//w = p - (beta / 2) * (v . p) * v, stored in p
+			final double half = beta * vp / 2;
+			for (int i = k + 1; i < size; i++) {
+				p[i] -= half * a[kRow + i];
+			}
+			
+			//A22 -= v * w^T + w * v^T
+			for (int i = k + 1; i < size; i++) {
+				final int iRow = i * size;
+				final double vi = a[kRow + i];
+				final double wi = p[i];
+				
+				for (int j = k + 1; j < size; j++) {
+					a[iRow + j] -= vi * p[j] + wi * a[kRow + j];
+				}
+			}
+		}
+		
+		if (size > 1) {
+			diagonal[size - 2] = a[(size - 2) * size + size - 2];
+			offDiagonal[size - 2] = a[(size - 1) * size + size - 2];
+		}
+		
+		if (size > 0) {
+			diagonal[size - 1] = a[size * size - 1];
+		}
+	}
+	
+	/**
+	 * Forms <code>Q<sup>T</sup></code>, the product of the reflections in reverse order, in {@link #vt}. Reflection
+	 * <code>k</code> only changes rows and columns after <code>k</code>, so it is applied to those rows only.
+	 * 
+	 * @param a reflections from {@link #tridiagonalize(double[], double[], double[], double[])}
+	 * @param betas scale factor of each reflection
+	 */
+	private void accumulateReflections(final double[] a, final double[] betas) {
+		for (int i = 0; i < size; i++) {
+			vt[i * size + i] = 1;
+		}
+		
+		for (int k = size - 3; k >= 0; k--) {
+			final int kRow = k * size;
+			final double beta = betas[k];
+			
+			if (beta == 0) {
+				continue;
+			}
+			
+			for (int i = k + 1; i < size; i++) {
+				final int iRow = i * size;
+				double dot = 0;
+				
+				for (int j = k + 1; j < size; j++) {
+					dot += vt[iRow + j] * a[kRow + j];
+				}
+				
+				final double scale = beta * dot;
+				for (int j = k + 1; j < size; j++) {
+					vt[iRow + j] -= scale * a[kRow + j];
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Finds the eigenvalues of the tridiagonal matrix with the implicit QL algorithm, replacing {@link #eigenvalues} (which
+	 * holds the diagonal) with the eigenvalues and applying every rotation to the rows of {@link #vt}.
+	 * 
+	 * @param e subdiagonal of the tridiagonal matrix, destroyed
+	 */
+	private void diagonalize(final double[] e) {
+		final double[] d = eigenvalues;
+		final double eps = Math.ulp(1.0);
+		final int maxIterations = 30 * Math.max(size, 1);
+		double shift = 0;
+		double largest = 0;
+		int iterations = 0;
+		
+		for (int l = 0; l < size; l++) {
+			largest = Math.max(largest, Math.abs(d[l]) + Math.abs(e[l]));
+			
+			int m = l;
+			while (m < size - 1 && Math.abs(e[m]) > eps * largest) {
+				m++;
+			}
+			
+			if (m > l) {
+				do {
+					if (++iterations > maxIterations) {
+						throw new ArithmeticException("Symmetric eigenvalue iteration did not converge!");
+					}
+					
+					//Wilkinson shift from the leading 2x2 block
+					double g = d[l];
+					double p = (d[l + 1] - g) / (2 * e[l]);
+					double r = Math.hypot(p, 1);
+					
+					if (p < 0) {
+						r = -r;
+					}
+					
+					d[l] = e[l] / (p + r);
+					d[l + 1] = e[l] * (p + r);
+					
+					final double dl1 = d[l + 1];
+					double h = g - d[l];
+					
+					for (int i = l + 2; i < size; i++) {
+						d[i] -= h;
+					}
+					
+					shift += h;
+					
+					//Chase the bulge from m back to l
+					p = d[m];
+					double c = 1;
+					double c2 = c;
+					double c3 = c;
+					final double el1 = e[l + 1];
+					double s = 0;
+					double s2 = 0;
+					
+					for (int i = m - 1; i >= l; i--) {
+						c3 = c2;
+						c2 = c;
+						s2 = s;
+						g = c * e[i];
+						h = c * p;
+						r = Math.hypot(p, e[i]);
+						e[i + 1] = s * r;
+						s = e[i] / r;
+						c = p / r;
+						p = c * d[i] - s * g;
+						d[i + 1] = h + s * (c * g + s * d[i]);
+						
+						rotateRows(i, i + 1, c, s);
+					}
+					
+					p = -s * s2 * c3 * el1 * e[l] / dl1;
+					e[l] = s * p;
+					d[l] = c * p;
+				} while (Math.abs(e[l]) > eps * largest);
+			}
+			
+			d[l] += shift;
+			e[l] = 0;
+		}
+	}
+	
+	/**
+	 * Applies a plane rotation to two rows of {@link #vt}.
+	 * 
+	 * @param first first row
+	 * @param second second row
+	 * @param c cosine of the rotation
+	 * @param s sine of the rotation
+	 */
+	private void rotateRows(final int first, final int second, final double c, final double s) {
+		final int firstRow = first * size;
+		final int secondRow = second * size;
+		
+		for (int j = 0; j < size; j++) {
+			final double x = vt[firstRow + j];
+			final double y = vt[secondRow + j];
+			
+			vt[secondRow + j] = s * x + c * y;
+			vt[firstRow + j] = c * x - s * y;
+		}
+	}
+	
+	/**
+	 * Sorts the eigenvalues into ascending order, moving the rows of {@link #vt} with them.
+	 */
+	private void sort() {
+		final double[] row = new double[size];
+		
+		for (int i = 0; i < size - 1; i++) {
+			int smallest = i;
+			
+			for (int j = i + 1; j < size; j++) {
+				if (eigenvalues[j] < eigenvalues[smallest]) {
+					smallest = j;
+				}
+			}
+			
+			if (smallest != i) {
+				final double value = eigenvalues[i];
+				eigenvalues[i] = eigenvalues[smallest];
+				eigenvalues[smallest] = value;
+				
+				System.arraycopy(vt, i * size, row, 0, size);
+				System.arraycopy(vt, smallest * size, vt, i * size, size);
+				System.arraycopy(row, 0, vt, smallest * size, size);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the eigenvalues in ascending order.
+	 * 
+	 * @return a Vector of the {@link #size} eigenvalues
+	 */
+	public final Vector getEigenvalues() {
+		return new Vector(eigenvalues.clone());
+	}
+	
+	/**
+	 * Returns the unit eigenvector of an eigenvalue. Nothing is copied.
+	 * 
+	 * @param index index of the eigenvalue in {@link #getEigenvalues()}
+	 * @return the eigenvector of eigenvalue <code>index</code>
+	 */
+	public final Vector getEigenvector(final int index) {
+		return new Vector(vt, index * size, 1, size);
+	}
+	
+	/**
+	 * Returns the matrix of eigenvectors <code>V</code>.
+	 * 
+	 * @return a Matrix whose column <code>i</code> is the unit eigenvector of eigenvalue <code>i</code>
+	 */
+	public final Matrix getEigenvectors() {
+		return new Matrix(size, size, vt).transpose();
+	}
+}
@@ -5,9 +5,12 @@ import java.io.Serializable;
 import com.dezzy.postfix.math.vector.utility.DimensionMismatchException;
 import com.dezzy.postfix.math.vector.utility.DoubleApplier;
 import com.dezzy.postfix.math.vector.utility.DoubleOperator;
+import com.dezzy.postfix.math.vector.utility.Execution;
 
 /**
- * Represents a Vector with any number of elements.
+ * Represents a Vector with any number of elements. The components are stored in part of a <code>double[]</code>: component
+ * <code>i</code> is at index <code>offset + i * stride</code>. This lets a Vector be a read-only view of a slice of another
+ * Vector or of a row or column of a {@link Matrix} without copying; use {@link #copy()} to get a Vector with storage of its own.
  *
  * @author Joe Desmond
  */
@@ -16,17 +19,32 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 	/**
 	 * Serial Version UID
 	 */
-	private static final long serialVersionUID = -5619629239225041578L;
+	private static final long serialVersionUID = 4726951930318874520L;
+	
+	/**
+	 * Element-wise operations on at least this many components are run in parallel by {@link Execution#AUTOMATIC}
+	 */
+	public static final long PARALLEL_THRESHOLD = 1L << 16;
 
 	/**
-	 * The components of the Vector, these should not change.
+	 * Array containing the components of the Vector, these should not change. May be shared with other Vectors and Matrices.
+	 */
+	final double[] components;
+	
+	/**
+	 * Index of the first component in {@link #components}
 	 */
-	private final double[] components;
+	final int offset;
 	
 	/**
-	 * The length of the Vector in space, calculated upon construction
+	 * Distance between consecutive components in {@link #components}
 	 */
-	public final double length;
+	final int stride;
+	
+	/**
+	 * The length of the Vector in space, calculated when first needed; negative if it has not been calculated yet
+	 */
+	private double length = -1;
 	
 	/**
 	 * The number of components in this Vector
@@ -39,9 +57,22 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 	 * @param _components the components of this vector
 	 */
 	public Vector(final double ... _components) {
+		this(_components, 0, 1, _components.length);
+	}
+	
+	/**
+	 * Creates a Vector backed by part of an array. The array is not copied.
+	 * 
+	 * @param _components array containing the components
+	 * @param _offset index of the first component
+	 * @param _stride distance between consecutive components
+	 * @param _dimension number of components
+	 */
+	Vector(final double[] _components, final int _offset, final int _stride, final int _dimension) {
 		components = _components;
-		dimension = components.length;
-		length = calculateLength();
+		offset = _offset;
+		stride = _stride;
+		dimension = _dimension;
 	}
 	
 	/**
@@ -57,8 +88,8 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 		}
 		
 		double sum = 0;
-		for (int i = 0; i < components.length; i++) {
-			sum += components[i] * other.components[i];
+		for (int i = 0; i < dimension; i++) {
+			sum += components[offset + i * stride] * other.components[other.offset + i * other.stride];
 		}
 		
 		return sum;
@@ -71,15 +102,17 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 	 * @return the tensor product of this Vector and <code>other</code>
 	 */
 	public final Matrix outerProduct(final Vector other) {
-		final double[][] result = new double[dimension][other.dimension];
+		final double[] result = new double[dimension * other.dimension];
 		
-		for (int row = 0; row < result.length; row++) {
-			for (int col = 0; col < result[0].length; col++) {
-				result[row][col] = components[row] * other.components[col];
+		for (int row = 0; row < dimension; row++) {
+			final double value = components[offset + row * stride];
+			
+			for (int col = 0; col < other.dimension; col++) {
+				result[row * other.dimension + col] = value * other.components[other.offset + col * other.stride];
 			}
 		}
 		
-		return new Matrix(result);
+		return new Matrix(dimension, other.dimension, result);
 	}
 	
 	/**
@@ -91,7 +124,21 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 	 * @return value of the component
 	 */
 	public final double get(final int index) {
-		return components[index];
+		return components[offset + index * stride];
+	}
+	
+	/**
+	 * Returns the length of this Vector in space. It is calculated the first time it is needed and then cached, since the
+	 * components of this Vector are immutable.
+	 * 
+	 * @return the length of this Vector
+	 */
+	public final double length() {
+		if (length < 0) {
+			length = calculateLength();
+		}
+		
+		return length;
 	}
 	
 	/**
@@ -101,8 +148,9 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 	 */
 	private final double calculateLength() {
 		double sum = 0;
-		for (int i = 0; i < components.length; i++) {
-			sum += (components[i] * components[i]);
+		for (int i = 0; i < dimension; i++) {
+			final double component = components[offset + i * stride];
+			sum += (component * component);
 		}
 		
 		return (double) Math.sqrt(sum);
@@ -117,10 +165,7 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 	public final Vector append(final double value) {
 		final double[] result = new double[dimension + 1];
 		
-		for (int i = 0; i < dimension; i++) {
-			result[i] = components[i];
-		}
-		
+		copyInto(result, 0);
 		result[dimension] = value;
 		
 		return new Vector(result);
@@ -135,45 +180,115 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 	public final Vector append(final Vector other) {
 		final double[] result = new double[dimension + other.dimension];
 		
-		for (int i = 0; i < dimension; i++) {
-			result[i] = components[i];
-		}
-		
-		for (int i = dimension; i < result.length; i++) {
-			result[i] = other.components[i - dimension];
-		}
+		copyInto(result, 0);
+		other.copyInto(result, dimension);
 		
 		return new Vector(result);
 	}
 	
 	/**
-	 * Returns a copy of this Vector with the last element removed.
+	 * Returns a view of this Vector with the last element removed. Nothing is copied.
 	 * 
 	 * @return this Vector without the last element
 	 */
 	public final Vector removeLastElement() {
-		final double[] result = new double[dimension - 1];
-		
-		System.arraycopy(components, 0, result, 0, dimension - 1);
-		
-		return new Vector(result);
+		return trim(0, dimension - 1);
 	}
 	
 	/**
-	 * Returns the Vector starting at the start index (inclusive) and ending at the end index (non-inclusive).
+	 * Returns a view of this Vector starting at the start index (inclusive) and ending at the end index (non-inclusive).
+	 * Nothing is copied.
 	 * 
 	 * @param start index of first component (inclusive)
 	 * @param end index of last component (non-inclusive)
 	 * @return the vector from [start, end) in this vector
+	 * @throws IndexOutOfBoundsException if the range is not within this Vector
 	 */
 	public final Vector trim(final int start, final int end) {
-		final double[] result = new double[end - start];
+		return slice(start, end, 1);
+	}
+	
+	/**
+	 * Returns a view of every <code>step</code>th component of this Vector from the start index (inclusive) to the end index
+	 * (non-inclusive). Nothing is copied.
+	 * 
+	 * @param start index of first component (inclusive)
+	 * @param end index after the last component (non-inclusive)
+	 * @param step distance between the chosen components, at least 1
+	 * @return a view of components <code>start, start + step, ...</code> of this Vector
+	 * @throws IndexOutOfBoundsException if the range is not within this Vector
+	 * @throws IllegalArgumentException if <code>step</code> is less than 1
+	 */
+	public final Vector slice(final int start, final int end, final int step) {
+		if (start < 0 || end > dimension || start > end) {
+			throw new IndexOutOfBoundsException("[" + start + ", " + end + ") is not within a Vector of dimension " + dimension + "!");
+		}
 		
-		System.arraycopy(components, start, result, 0, result.length);
+		if (step < 1) {
+			throw new IllegalArgumentException("Step must be at least 1!");
+		}
+		
+		return new Vector(components, offset + start * stride, stride * step, (end - start + step - 1) / step);
+	}
+	
+	/**
+	 * Returns a {@link LazyVector} with the same components as this Vector, to build a chain of element-wise operations that
+	 * is computed in one pass. Nothing is copied.
+	 * 
+	 * @return a LazyVector view of this Vector
+	 */
+	public final LazyVector lazy() {
+		return new LazyVector(new LazyNode.Source(components, offset, dimension, 0, stride), dimension);
+	}
+	
+	/**
+	 * Returns a {@link MutableVector} with the same components as this Vector. The array of this Vector is shared until the
+	 * MutableVector changes, unless this Vector is a view of part of a larger array.
+	 * 
+	 * @return a MutableVector with the components of this Vector
+	 */
+	public final MutableVector toMutable() {
+		return new MutableVector(this);
+	}
+	
+	/**
+	 * Returns a Vector with the same components as this one and an array of its own. Use this to keep a small part of a large
+	 * Vector or Matrix without keeping the whole array reachable.
+	 * 
+	 * @return a compact copy of this Vector
+	 */
+	public final Vector copy() {
+		final double[] result = new double[dimension];
+		copyInto(result, 0);
 		
 		return new Vector(result);
 	}
 	
+	/**
+	 * Serializes a view as a compact copy, so that only its own components are written rather than the whole shared array.
+	 * 
+	 * @return this Vector if it has an array of its own, or a compact copy of it
+	 */
+	private Object writeReplace() {
+		return (offset == 0 && stride == 1 && components.length == dimension) ? this : copy();
+	}
+	
+	/**
+	 * Copies the components of this Vector into an array.
+	 * 
+	 * @param destination array to copy into
+	 * @param position index in <code>destination</code> of the first component
+	 */
+	final void copyInto(final double[] destination, final int position) {
+		if (stride == 1) {
+			System.arraycopy(components, offset, destination, position, dimension);
+		} else {
+			for (int i = 0; i < dimension; i++) {
+				destination[position + i] = components[offset + i * stride];
+			}
+		}
+	}
+	
 	/**
 	 * Converts this Vector into an easily readable format.
 	 * 
@@ -181,49 +296,88 @@ public final class Vector extends ElementContainer<Vector> implements Serializab
 	 */
 	@Override
 	public String toString() {
-		String out = "[";
+		if (dimension == 0) {
+			return "[]";
+		}
+		
+		final StringBuilder out = new StringBuilder("[");
 		
-		for (int i = 0; i < components.length - 1; i++) {
-			out += components[i] + ", ";
+		for (int i = 0; i < dimension - 1; i++) {
+			out.append(get(i)).append(", ");
 		}
 		
-		return out + components[components.length - 1] + "]";
+		return out.append(get(dimension - 1)).append(']').toString();
 	}
 	
 	/**
 	 * Applies an operation to each element of this Vector and another. Throws a {@link DimensionMismatchException} if the dimension of this Vector
 	 * does not match the dimension of <code>other</code>. Elements from this Vector are passed in as <code>a</code>, and elements from the other Vector
-	 * are passed in as <code>b</code>.
+	 * are passed in as <code>b</code>. The operation is applied sequentially, so it does not need to be thread-safe.
 	 * 
 	 * @param other other Vector
 	 * @param operator operation to be applied
 	 * @return the result of the operation
+	 * @see #elementOperation(Vector, DoubleOperator, Execution)
 	 */
 	public final Vector elementOperation(final Vector other, final DoubleOperator operator) {
+		return elementOperation(other, operator, Execution.SEQUENTIAL);
+	}
+	
+	/**
+	 * Applies an operation to each element of this Vector and another. In parallel, each task handles a range of components.
+	 * 
+	 * @param other other Vector
+	 * @param operator operation to be applied
+	 * @param execution how to run the operation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_THRESHOLD} components
+	 * @return the result of the operation
+	 * @throws DimensionMismatchException if the Vectors do not have the same dimension
+	 */
+	public final Vector elementOperation(final Vector other, final DoubleOperator operator, final Execution execution) {
 		if (dimension != other.dimension) {
 			throw new DimensionMismatchException("Vectors must have same dimensions to perform element operations!");
 		}
 		
 		final double[] result = new double[dimension];
-		for (int i = 0; i < dimension; i++) {
-			result[i] = operator.operate(components[i], other.components[i]);
-		}
+		
+		MatrixKernels.forEachRange(dimension, MatrixKernels.ELEMENT_BLOCK, execution.isParallel(dimension, PARALLEL_THRESHOLD), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				result[i] = operator.operate(components[offset + i * stride], other.components[other.offset + i * other.stride]);
+			}
+		});
 		
 		return new Vector(result);
 	}
 	
 	/**
-	 * Applies an operation to each element of this Vector, transforming it into a new Vector.
+	 * Applies an operation to each element of this Vector, transforming it into a new Vector. The operation is applied sequentially, so it does not
+	 * need to be thread-safe.
 	 * 
 	 * @param operator operation to be performed on each element
 	 * @return new Vector with <code>operator</code> applied
+	 * @see #transform(DoubleApplier, Execution)
 	 */
 	public final Vector transform(final DoubleApplier operator) {
+		return transform(operator, Execution.SEQUENTIAL);
+	}
+	
+	/**
+	 * Applies an operation to each element of this Vector, transforming it into a new Vector. In parallel, each task handles a
+	 * range of components.
+	 * 
+	 * @param operator operation to be performed on each element
+	 * @param execution how to run the operation; {@link Execution#AUTOMATIC} runs in parallel if there are at least
+	 * 			{@link #PARALLEL_THRESHOLD} components
+	 * @return new Vector with <code>operator</code> applied
+	 */
+	public final Vector transform(final DoubleApplier operator, final Execution execution) {
 		final double[] result = new double[dimension];
 		
-		for (int i = 0; i < components.length; i++) {
-			result[i] = operator.apply(components[i]);
-		}
+		MatrixKernels.forEachRange(dimension, MatrixKernels.ELEMENT_BLOCK, execution.isParallel(dimension, PARALLEL_THRESHOLD), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				result[i] = operator.apply(components[offset + i * stride]);
+			}
+		});
 		
 		return new Vector(result);
 	}
@@ -0,0 +1,511 @@
+package com.dezzy.postfix.math.vector.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.dezzy.postfix.math.vector.Matrix;
+import com.dezzy.postfix.math.vector.OffHeapMatrix;
+import com.dezzy.postfix.math.vector.OffHeapVector;
+import com.dezzy.postfix.math.vector.Vector;
+
+/**
+ * Reads and writes {@link Vector Vectors} and {@link Matrix Matrices} in the NumPy <code>.npy</code> format, so that they can
+ * be exchanged with NumPy and between pipeline stages without text conversion or Java serialization. A file consists of:
+ * <ol>
+ * <li>the 6 bytes of {@link #MAGIC}, a major and minor version byte, and the length of the header (2 bytes in version 1, 4
+ * bytes in versions 2 and 3), little-endian;</li>
+ * <li>the header, a Python dictionary literal such as <code>{'descr': '&lt;f8', 'fortran_order': False, 'shape': (3, 4), }</code>,
+ * padded with spaces and a newline so that the data starts on a multiple of 64 bytes;</li>
+ * <li>the elements as little-endian doubles in row-major (C) order.</li>
+ * </ol>
+ * Only little-endian float64 arrays in C order with one dimension (a Vector) or two (a Matrix) are supported.
+ * <p>
+ * Writing streams the elements through a small buffer, so large matrices never need a second copy in memory. Reading maps the
+ * file with {@link FileChannel#map}: {@link #mapMatrix(Path, boolean) mapMatrix} and {@link #mapVector(Path, boolean) mapVector}
+ * load nothing at all, returning an {@link OffHeapMatrix} or {@link OffHeapVector} over the mapped file, while
+ * {@link #readMatrix(Path) readMatrix} and {@link #readVector(Path) readVector} copy the mapped elements onto the heap in bulk.
+ *
+ * @author Joe Desmond
+ */
+public final class NpyFile {
+	
+	/**
+	 * First 6 bytes of a <code>.npy</code> file
+	 */
+	public static final byte[] MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y'};
+	
+	/**
+	 * The data of a <code>.npy</code> file starts on a multiple of this many bytes
+	 */
+	private static final int ALIGNMENT = 64;
+	
+	/**
+	 * Size of the buffer that elements are written through, in bytes
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	/**
+	 * Finds the element type in a header
+	 */
+	private static final Pattern DESCR = Pattern.compile("'descr'\\s*:\\s*'([^']*)'");
+	
+	/**
+	 * Finds the storage order in a header
+	 */
+	private static final Pattern FORTRAN_ORDER = Pattern.compile("'fortran_order'\\s*:\\s*(True|False)");
+	
+	/**
+	 * Finds the shape in a header
+	 */
+	private static final Pattern SHAPE = Pattern.compile("'shape'\\s*:\\s*\\(([^)]*)\\)");
+	
+	/**
+	 * No instances.
+	 */
+	private NpyFile() {
+		
+	}
+	
+	/**
+	 * Writes a Matrix to a file as a two-dimensional array.
+	 * 
+	 * @param matrix Matrix to write
+	 * @param path file to write, which is replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(final Matrix matrix, final Path path) throws IOException {
+		try (final OutputStream out = Files.newOutputStream(path)) {
+			write(matrix, out);
+		}
+	}
+	
+	/**
+	 * Writes a Matrix to a stream as a two-dimensional array. The stream is not closed.
+	 * 
+	 * @param matrix Matrix to write
+	 * @param out stream to write to
+	 * @throws IOException if the stream cannot be written
+	 */
+	public static void write(final Matrix matrix, final OutputStream out) throws IOException {
+		final ElementWriter writer = new ElementWriter(out);
+		out.write(header(matrix.rows + ", " + matrix.cols));
+		
+		for (int row = 0; row < matrix.rows; row++) {
+			final Vector rowVector = matrix.getRowVector(row);
+			
+			for (int col = 0; col < matrix.cols; col++) {
+				writer.write(rowVector.get(col));
+			}
+		}
+		
+		writer.flush();
+	}
+	
+	/**
+	 * Writes a Vector to a file as a one-dimensional array.
+	 * 
+	 * @param vector Vector to write
+	 * @param path file to write, which is replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(final Vector vector, final Path path) throws IOException {
+		try (final OutputStream out = Files.newOutputStream(path)) {
+			write(vector, out);
+		}
+	}
+	
+	/**
+	 * Writes a Vector to a stream as a one-dimensional array. The stream is not closed.
+	 * 
+	 * @param vector Vector to write
+	 * @param out stream to write to
+	 * @throws IOException if the stream cannot be written
+	 */
+	public static void write(final Vector vector, final OutputStream out) throws IOException {
+		final ElementWriter writer = new ElementWriter(out);
+		out.write(header(vector.dimension + ","));
+		
+		for (int i = 0; i < vector.dimension; i++) {
+			writer.write(vector.get(i));
+		}
+		
+		writer.flush();
+	}
+	
+	/**
+	 * Writes an OffHeapMatrix to a file as a two-dimensional array, one row at a time.
+	 * 
+	 * @param matrix OffHeapMatrix to write
+	 * @param path file to write, which is replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(final OffHeapMatrix matrix, final Path path) throws IOException {
+		try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE)) {
+			final ElementWriter writer = new ElementWriter(out);
+			out.write(header(matrix.rows + ", " + matrix.cols));
+			
+			for (long row = 0; row < matrix.rows; row++) {
+				final Vector rowVector = matrix.getRowVector(row);
+				
+				for (int col = 0; col < matrix.cols; col++) {
+					writer.write(rowVector.get(col));
+				}
+			}
+			
+			writer.flush();
+		}
+	}
+	
+	/**
+	 * Creates a file holding a two-dimensional array of zeros and maps it for writing, so that a matrix too large for the
+	 * heap can be filled in place.
+	 * 
+	 * @param path file to create, which is replaced if it exists
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @return a writable OffHeapMatrix over the elements of the file, which must be closed
+	 * @throws IOException if the file cannot be written or mapped
+	 */
+	public static OffHeapMatrix createMatrix(final Path path, final long rows, final int cols) throws IOException {
+		final byte[] header = header(rows + ", " + cols);
+		
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.wrap(header));
+		}
+		
+		return OffHeapMatrix.map(path, header.length, rows, cols, true);
+	}
+	
+	/**
+	 * Reads a two-dimensional array from a file into a Matrix. The file is mapped and its elements are copied in bulk.
+	 * 
+	 * @param path file to read
+	 * @return a Matrix with the elements of the file
+	 * @throws IOException if the file cannot be read, is not a <code>.npy</code> file, or does not hold a two-dimensional
+	 * 			array of little-endian doubles in C order that fits on the heap
+	 */
+	public static Matrix readMatrix(final Path path) throws IOException {
+		final Header header = readHeader(path, 2);
+		
+		if (header.shape[0] * header.shape[1] > Integer.MAX_VALUE - 8) {
+			throw new IOException("Array in " + path + " is too large to read onto the heap!");
+		}
+		
+		try (final OffHeapMatrix mapped = OffHeapMatrix.map(path, header.dataOffset, header.shape[0], (int) header.shape[1], false)) {
+			return mapped.toMatrix();
+		}
+	}
+	
+	/**
+	 * Reads a one-dimensional array from a file into a Vector. The file is mapped and its elements are copied in bulk.
+	 * 
+	 * @param path file to read
+	 * @return a Vector with the elements of the file
+	 * @throws IOException if the file cannot be read, is not a <code>.npy</code> file, or does not hold a one-dimensional
+	 * 			array of little-endian doubles that fits on the heap
+	 */
+	public static Vector readVector(final Path path) throws IOException {
+		final Header header = readHeader(path, 1);
+		
+		if (header.shape[0] > Integer.MAX_VALUE - 8) {
+			throw new IOException("Array in " + path + " is too large to read onto the heap!");
+		}
+		
+		try (final OffHeapVector mapped = OffHeapVector.map(path, header.dataOffset, header.shape[0], false)) {
+			return mapped.toVector();
+		}
+	}
+	
+	/**
+	 * Maps a two-dimensional array in a file as an OffHeapMatrix, without copying anything.
+	 * 
+	 * @param path file to map
+	 * @param writable true if changes to the matrix should be written to the file
+	 * @return an OffHeapMatrix over the elements of the file, which must be closed
+	 * @throws IOException if the file cannot be read or mapped, is not a <code>.npy</code> file, or does not hold a
+	 * 			two-dimensional array of little-endian doubles in C order
+	 */
+	public static OffHeapMatrix mapMatrix(final Path path, final boolean writable) throws IOException {
+		final Header header = readHeader(path, 2);
+		
+		return OffHeapMatrix.map(path, header.dataOffset, header.shape[0], (int) header.shape[1], writable);
+	}
+	
+	/**
+	 * Maps a one-dimensional array in a file as an OffHeapVector, without copying anything.
+	 * 
+	 * @param path file to map
+	 * @param writable true if changes to the vector should be written to the file
+	 * @return an OffHeapVector over the elements of the file, which must be closed
+	 * @throws IOException if the file cannot be read or mapped, is not a <code>.npy</code> file, or does not hold a
+	 * 			one-dimensional array of little-endian doubles
+	 */
+	public static OffHeapVector mapVector(final Path path, final boolean writable) throws IOException {
+		final Header header = readHeader(path, 1);
+		
+		return OffHeapVector.map(path, header.dataOffset, header.shape[0], writable);
+	}
+	
+	/**
+	 * Builds the preamble and header for a little-endian float64 array in C order, padded so that the data is aligned to
+	 * {@link #ALIGNMENT} bytes. Version 1 is used unless the header is too long for it.
+	 * 
+	 * @param shape contents of the shape tuple, such as <code>"3, 4"</code> or <code>"5,"</code>
+	 * @return the bytes before the data
+	 */
+	private static byte[] header(final String shape) {
+		final String dictionary = "{'descr': '<f8', 'fortran_order': False, 'shape': (" + shape + "), }";
+		int preamble = MAGIC.length + 2 + 2;
+		int length = roundUp(preamble + dictionary.length() + 1) - preamble;
+		
+		if (length > 0xFFFF) {
+			preamble = MAGIC.length + 2 + 4;
+			length = roundUp(preamble + dictionary.length() + 1) - preamble;
+		}
+		
+		final ByteBuffer out = ByteBuffer.allocate(preamble + length).order(ByteOrder.LITTLE_ENDIAN);
+		out.put(MAGIC);
+		
+		if (preamble == MAGIC.length + 4) {
+			out.put((byte) 1).put((byte) 0).putShort((short) length);
+		} else {
+			out.put((byte) 2).put((byte) 0).putInt(length);
+		}
+		
+		out.put(dictionary.getBytes(StandardCharsets.US_ASCII));
+		
+		while (out.position() < out.limit() - 1) {
+			out.put((byte) ' ');
+		}
+		
+		out.put((byte) '\n');
+		
+		return out.array();
+	}
+	
+	/**
+	 * Rounds a length up to a multiple of {@link #ALIGNMENT}.
+	 * 
+	 * @param length length in bytes
+	 * @return the smallest multiple of {@link #ALIGNMENT} that is at least <code>length</code>
+	 */
+	private static int roundUp(final int length) {
+		return (length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+	
+	/**
+	 * Reads and checks the header of a file.
+	 * 
+	 * @param path file to read
+	 * @param dimensions number of dimensions the array must have
+	 * @return the parsed header
+	 * @throws IOException if the file cannot be read, is not a <code>.npy</code> file, or does not hold an array of
+	 * 			little-endian doubles in C order with the given number of dimensions
+	 */
+	private static Header readHeader(final Path path, final int dimensions) throws IOException {
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final ByteBuffer preamble = ByteBuffer.allocate(MAGIC.length + 6).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, preamble, path);
+			
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (preamble.get(i) != MAGIC[i]) {
+					throw new IOException(path + " is not a .npy file!");
+				}
+			}
+			
+			final int major = preamble.get(MAGIC.length);
+			final long dataOffset;
+			final int length;
+			
+			if (major == 1) {
+				length = Short.toUnsignedInt(preamble.getShort(MAGIC.length + 2));
+				dataOffset = MAGIC.length + 4 + length;
+			} else if (major == 2 || major == 3) {
+				length = preamble.getInt(MAGIC.length + 2);
+				dataOffset = MAGIC.length + 6 + (long) length;
+			} else {
+				throw new IOException(path + " uses unsupported .npy version " + major + "!");
+			}
+			
+			if (length < 0 || dataOffset > channel.size()) {
+				throw new IOException(path + " has a truncated header!");
+			}
+			
+			final ByteBuffer text = ByteBuffer.allocate(length);
+			channel.position(dataOffset - length);
+			readFully(channel, text, path);
+			
+			final Header header = new Header(new String(text.array(), major == 3 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1), dataOffset, path);
+			
+			if (header.shape.length != dimensions) {
+				throw new IOException(path + " holds a " + header.shape.length + "-dimensional array, not a " + dimensions + "-dimensional one!");
+			}
+			
+			if (dimensions == 2 && header.shape[1] > Integer.MAX_VALUE) {
+				throw new IOException(path + " has too many columns!");
+			}
+			
+			long bytes = Double.BYTES;
+			try {
+				for (final long size : header.shape) {
+					bytes = Math.multiplyExact(bytes, size);
+				}
+			} catch (final ArithmeticException e) {
+				throw new IOException(path + " has an array too large to be addressed!", e);
+			}
+			
+			if (channel.size() - dataOffset < bytes) {
+				throw new IOException(path + " is shorter than the array in its header!");
+			}
+			
+			return header;
+		}
+	}
+	
+	/**
+	 * Fills a buffer from a channel.
+	 * 
+	 * @param channel channel to read from
+	 * @param buffer buffer to fill
+	 * @param path file being read, for error messages
+	 * @throws IOException if the channel cannot be read or ends before the buffer is full
+	 */
+	private static void readFully(final FileChannel channel, final ByteBuffer buffer, final Path path) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new IOException(path + " ended unexpectedly!");
+			}
+		}
+	}
+	
+	/**
+	 * The parts of a <code>.npy</code> header that are needed to read the array.
+	 */
+	private static final class Header {
+		
+		/**
+		 * Size of each dimension
+		 */
+		final long[] shape;
+		
+		/**
+		 * Position in the file of the first element
+		 */
+		final long dataOffset;
+		
+		/**
+		 * Parses a header dictionary and checks that it describes little-endian doubles in C order.
+		 * 
+		 * @param dictionary header dictionary
+		 * @param _dataOffset position in the file of the first element
+		 * @param path file being read, for error messages
+		 * @throws IOException if the header cannot be parsed or describes an unsupported array
+		 */
+		Header(final String dictionary, final long _dataOffset, final Path path) throws IOException {
+			dataOffset = _dataOffset;
+			
+			final Matcher descr = DESCR.matcher(dictionary);
+			final Matcher fortranOrder = FORTRAN_ORDER.matcher(dictionary);
+			final Matcher shapeTuple = SHAPE.matcher(dictionary);
+			
+			if (!descr.find() || !fortranOrder.find() || !shapeTuple.find()) {
+				throw new IOException(path + " has a malformed header: " + dictionary.trim());
+			}
+			
+			if (!descr.group(1).equals("<f8")) {
+				throw new IOException(path + " holds '" + descr.group(1) + "' elements; only little-endian doubles ('<f8') are supported!");
+			}
+			
+			if (fortranOrder.group(1).equals("True")) {
+				throw new IOException(path + " is in Fortran order; only C order is supported!");
+			}
+			
+			final String[] sizes = shapeTuple.group(1).split(",");
+			int count = 0;
+			
+			for (final String size : sizes) {
+				if (!size.trim().isEmpty()) {
+					count++;
+				}
+			}
+			
+			shape = new long[count];
+			int index = 0;
+			
+			for (final String size : sizes) {
+				if (!size.trim().isEmpty()) {
+					try {
+						shape[index++] = Long.parseLong(size.trim());
+					} catch (final NumberFormatException e) {
+						throw new IOException(path + " has a malformed shape: (" + shapeTuple.group(1) + ")", e);
+					}
+				}
+			}
+			
+			for (final long size : shape) {
+				if (size < 0) {
+					throw new IOException(path + " has a negative dimension in its shape: (" + shapeTuple.group(1) + ")");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Writes doubles to a stream as little-endian bytes through a fixed buffer.
+	 */
+	private static final class ElementWriter {
+		
+		/**
+		 * Stream to write to
+		 */
+		private final OutputStream out;
+		
+		/**
+		 * Buffer of pending bytes
+		 */
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		
+		/**
+		 * Creates an ElementWriter.
+		 * 
+		 * @param _out stream to write to
+		 */
+		ElementWriter(final OutputStream _out) {
+			out = _out;
+		}
+		
+		/**
+		 * Writes one double.
+		 * 
+		 * @param value double to write
+		 * @throws IOException if the stream cannot be written
+		 */
+		void write(final double value) throws IOException {
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+			
+			buffer.putDouble(value);
+		}
+		
+		/**
+		 * Writes any pending bytes to the stream.
+		 * 
+		 * @throws IOException if the stream cannot be written
+		 */
+		void flush() throws IOException {
+			out.write(buffer.array(), 0, buffer.position());
+			buffer.clear();
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.dezzy.postfix.math.vector.utility;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * How a {@link com.dezzy.postfix.math.vector.Matrix Matrix} or {@link com.dezzy.postfix.math.vector.Vector Vector} operation
+ * is run. Parallel operations split their work into blocks of rows (or ranges of components) that are run on the common
+ * {@link ForkJoinPool}; any {@link DoubleApplier} or {@link DoubleOperator} passed to a parallel operation must be safe to call
+ * from several threads at once.
+ *
+ * @author Joe Desmond
+ */
+public enum Execution {
+
+	/**
+	 * Run on the calling thread
+	 */
+	SEQUENTIAL,
+
+	/**
+	 * Run in parallel on the common {@link ForkJoinPool}
+	 */
+	PARALLEL,
+
+	/**
+	 * Run in parallel if the operation is large enough and the common {@link ForkJoinPool} has more than one thread, otherwise
+	 * run on the calling thread
+	 */
+	AUTOMATIC;
+
+	/**
+	 * Returns true if an operation with the given amount of work should run in parallel.
+	 *
+	 * @param work amount of work in the operation, such as a number of elements
+	 * @param threshold smallest amount of work that {@link #AUTOMATIC} runs in parallel
+	 * @return true if the operation should run in parallel
+	 */
+	public boolean isParallel(final long work, final long threshold) {
+		switch (this) {
+			case PARALLEL:
+				return true;
+			case AUTOMATIC:
+				return work >= threshold && ForkJoinPool.getCommonPoolParallelism() > 1;
+			default:
+				return false;
+		}
+	}
+}
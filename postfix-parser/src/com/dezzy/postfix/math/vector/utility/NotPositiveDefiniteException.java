@@ -0,0 +1,23 @@
+package com.dezzy.postfix.math.vector.utility;
+
+/**
+ * Thrown when a matrix that should be symmetric positive definite is not, such as when computing a Cholesky decomposition.
+ *
+ * @author Joe Desmond
+ */
+public class NotPositiveDefiniteException extends ArithmeticException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -3083527941670935482L;
+	
+	/**
+	 * Constructs a NotPositiveDefiniteException with the given message.
+	 * 
+	 * @param message exception message
+	 */
+	public NotPositiveDefiniteException(final String message) {
+		super(message);
+	}
+}
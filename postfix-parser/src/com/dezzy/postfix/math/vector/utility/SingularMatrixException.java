@@ -0,0 +1,23 @@
+package com.dezzy.postfix.math.vector.utility;
+
+/**
+ * Thrown when an operation needs the inverse of a matrix that has none, such as solving a linear system whose matrix is singular.
+ *
+ * @author Joe Desmond
+ */
+public class SingularMatrixException extends ArithmeticException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 4413026810931871705L;
+	
+	/**
+	 * Constructs a SingularMatrixException with the given message.
+	 * 
+	 * @param message exception message
+	 */
+	public SingularMatrixException(final String message) {
+		super(message);
+	}
+}
@@ -1,15 +1,22 @@
 package com.dezzy.postfix.test;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import com.dezzy.postfix.math.Reserved;
 import com.dezzy.postfix.math.evaluation.EvaluationDomain;
 import com.dezzy.postfix.math.evaluation.VariableDomain;
+import com.dezzy.postfix.math.symbolic.InfixParser;
 import com.dezzy.postfix.math.symbolic.SymbolicParser;
 import com.dezzy.postfix.math.symbolic.constants.Constant;
 import com.dezzy.postfix.math.symbolic.structure.Expression;
 import com.dezzy.postfix.math.symbolic.structure.Value;
+import com.dezzy.postfix.math.vector.Matrix;
+import com.dezzy.postfix.math.vector.SingularValueDecomposition;
+import com.dezzy.postfix.math.vector.SymmetricEigenDecomposition;
+import com.dezzy.postfix.math.vector.Vector;
 
 /**
  * Various testing utilities.
@@ -110,4 +117,168 @@ public final class TestUtility {
 		
 		System.out.println("Volume of a sphere with radius 2: " + simplified.evaluate(radius));
 	}
+	
+	/**
+	 * Compares the throughput of {@link InfixParser} and {@link SymbolicParser} on the same expression, written in infix and in
+	 * postfix notation, and checks that both parsers produce the same structure.
+	 */
+	public static final void parserBenchmark() {
+		final StringBuilder infix = new StringBuilder("x");
+		final StringBuilder postfix = new StringBuilder("x");
+		
+		for (int i = 0; i < 200; i++) {
+			infix.append(" + 3 * y ^ 2 - sin(x / 2.5)");
+			postfix.append(" 3 y 2 ^ * + x 2.5 / sin -");
+		}
+		
+		final String infixExpression = infix.toString();
+		final String postfixExpression = postfix.toString();
+		final int iterations = 2000;
+		
+		System.out.println("Same structure:\t" + new InfixParser(infixExpression).createSymbolicStructure().equals(new SymbolicParser(postfixExpression).createSymbolicStructure()));
+		
+		//Warm up both parsers before timing them
+		for (int i = 0; i < iterations; i++) {
+			new InfixParser(infixExpression).createSymbolicStructure();
+			new SymbolicParser(postfixExpression).createSymbolicStructure();
+		}
+		
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			new InfixParser(infixExpression).createSymbolicStructure();
+		}
+		final long infixTime = System.nanoTime() - start;
+		
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			new SymbolicParser(postfixExpression).createSymbolicStructure();
+		}
+		final long postfixTime = System.nanoTime() - start;
+		
+		System.out.println("Infix parser:\t" + (infixTime / iterations / 1000) + " us per expression");
+		System.out.println("Postfix parser:\t" + (postfixTime / iterations / 1000) + " us per expression");
+	}
+	
+	/**
+	 * Times {@link Matrix#symmetricEigen()}, {@link Matrix#eigenvalues()}, and {@link Matrix#svd()} on random square matrices,
+	 * starting at 250x250 and doubling up to <code>maxSize</code>, and checks each result: the largest residual of
+	 * <code>A * v = lambda * v</code> over the symmetric eigenpairs, the difference between the trace and the sum of the general
+	 * eigenvalues, and the difference between the largest singular value and the length of <code>A * v</code> for the first right
+	 * singular vector. Finally, decomposes a small random matrix scaled by <code>1e-200</code> and by <code>1e200</code>, and
+	 * checks that each result is the scaled result of the unscaled matrix, so that underflow or overflow in any of the three
+	 * shows up.
+	 * 
+	 * @param maxSize largest number of rows and columns, such as 2000
+	 */
+	public static final void eigenBenchmark(final int maxSize) {
+		final Random random = new Random(1);
+		
+		for (int size = 250; size <= maxSize; size *= 2) {
+			final double[][] symmetric = new double[size][size];
+			final double[][] general = new double[size][size];
+			
+			for (int row = 0; row < size; row++) {
+				for (int col = 0; col < size; col++) {
+					general[row][col] = random.nextGaussian();
+				}
+				
+				for (int col = 0; col <= row; col++) {
+					symmetric[row][col] = random.nextGaussian();
+					symmetric[col][row] = symmetric[row][col];
+				}
+			}
+			
+			final Matrix a = new Matrix(symmetric);
+			final Matrix b = new Matrix(general);
+			
+			long start = System.nanoTime();
+			final SymmetricEigenDecomposition eigen = a.symmetricEigen();
+			final long eigenTime = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			final Vector real = b.eigenvalues().getRealParts();
+			final long generalTime = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			final SingularValueDecomposition svd = b.svd();
+			final long svdTime = System.nanoTime() - start;
+			
+			double eigenResidual = 0;
+			final Vector values = eigen.getEigenvalues();
+			
+			for (int i = 0; i < size; i++) {
+				final Vector vector = eigen.getEigenvector(i);
+				final Vector product = a.multiply(vector);
+				
+				for (int j = 0; j < size; j++) {
+					eigenResidual = Math.max(eigenResidual, Math.abs(product.get(j) - values.get(i) * vector.get(j)));
+				}
+			}
+			
+			double trace = 0;
+			
+			for (int i = 0; i < size; i++) {
+				trace += b.get(i, i) - real.get(i);
+			}
+			
+			final double svdResidual = Math.abs(b.multiply(svd.getRightSingularVector(0)).length() - svd.norm2());
+			
+			System.out.println(size + "x" + size + ":");
+			System.out.println("Symmetric eigen:\t" + (eigenTime / 1000000) + " ms\tresidual " + eigenResidual);
+			System.out.println("General eigenvalues:\t" + (generalTime / 1000000) + " ms\ttrace error " + Math.abs(trace));
+			System.out.println("Jacobi SVD:\t" + (svdTime / 1000000) + " ms\tnorm error " + svdResidual);
+		}
+		
+		final double[][] small = new double[6][6];
+		
+		for (int row = 0; row < small.length; row++) {
+			for (int col = 0; col <= row; col++) {
+				small[row][col] = random.nextGaussian();
+				small[col][row] = small[row][col];
+			}
+		}
+		
+		final Matrix unscaled = new Matrix(small);
+		
+		for (final double scale : new double[] {1e-200, 1e200}) {
+			final Matrix scaled = unscaled.transform(x -> x * scale);
+			
+			System.out.println("6x6 scaled by " + scale + ":");
+			System.out.println("Symmetric eigen:\trelative error " + scaledError(scaled.symmetricEigen().getEigenvalues(), unscaled.symmetricEigen().getEigenvalues(), scale));
+			System.out.println("General eigenvalues:\trelative error " + scaledError(scaled.eigenvalues().getRealParts(), unscaled.eigenvalues().getRealParts(), scale));
+			System.out.println("Jacobi SVD:\trelative error " + scaledError(scaled.svd().getSingularValues(), unscaled.svd().getSingularValues(), scale));
+		}
+	}
+	
+	/**
+	 * Compares the values computed for a scaled matrix with the values computed for the unscaled matrix.
+	 * 
+	 * @param scaled values for the scaled matrix
+	 * @param unscaled values for the unscaled matrix
+	 * @param scale factor the matrix was scaled by
+	 * @return the largest difference between the sorted values of <code>scaled</code> divided by <code>scale</code> and the
+	 * 			sorted values of <code>unscaled</code>, relative to the largest magnitude in <code>unscaled</code>
+	 */
+	private static final double scaledError(final Vector scaled, final Vector unscaled, final double scale) {
+		final double[] expected = new double[unscaled.dimension];
+		final double[] actual = new double[scaled.dimension];
+		double largest = 0;
+		
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = unscaled.get(i);
+			actual[i] = scaled.get(i) / scale;
+			largest = Math.max(largest, Math.abs(expected[i]));
+		}
+		
+		Arrays.sort(expected);
+		Arrays.sort(actual);
+		
+		double error = 0;
+		
+		for (int i = 0; i < expected.length; i++) {
+			error = Math.max(error, Math.abs(actual[i] - expected[i]));
+		}
+		
+		return error / largest;
+	}
 }